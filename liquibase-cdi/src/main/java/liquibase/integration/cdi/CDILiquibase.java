@@ -144,7 +144,7 @@ public class CDILiquibase implements Extension {
             throw ex;
         } finally {
             if ((liquibase != null) && (liquibase.getDatabase() != null)) {
-                liquibase.getDatabase().close();
+                liquibase.close();
             } else if (c != null) {
                 try {
                     c.rollback();
@@ -26,6 +26,7 @@ import liquibase.executor.Executor;
 import liquibase.executor.ExecutorService;
 import liquibase.executor.LoggingExecutor;
 import liquibase.lockservice.DatabaseChangeLogLock;
+import liquibase.lockservice.LeaseLockService;
 import liquibase.lockservice.LockService;
 import liquibase.lockservice.LockServiceFactory;
 import liquibase.logging.LogService;
@@ -38,6 +39,7 @@ import liquibase.resource.ResourceAccessor;
 import liquibase.serializer.ChangeLogSerializer;
 import liquibase.snapshot.DatabaseSnapshot;
 import liquibase.snapshot.InvalidExampleException;
+import liquibase.snapshot.SchemaMetadataCache;
 import liquibase.snapshot.SnapshotControl;
 import liquibase.snapshot.SnapshotGeneratorFactory;
 import liquibase.statement.core.RawSqlStatement;
@@ -59,7 +61,7 @@ import static java.util.ResourceBundle.getBundle;
  * Primary facade class for interacting with Liquibase.
  * The built in command line, Ant, Maven and other ways of running Liquibase are wrappers around methods in this class.
  */
-public class Liquibase {
+public class Liquibase implements AutoCloseable {
 
     private static final Logger LOG = Scope.getCurrentScope().getLog(Liquibase.class);
     protected static final int CHANGESET_ID_NUM_PARTS = 3;
@@ -162,6 +164,28 @@ public class Liquibase {
         return resourceAccessor;
     }
 
+    /**
+     * Closes the database and, if it is {@link Closeable}, the resource accessor. The archives a
+     * {@link liquibase.resource.FileSystemResourceAccessor} keeps open are opened again if the accessor is used
+     * afterwards, so an accessor shared with other Liquibase instances can still be used by them.
+     */
+    @Override
+    public void close() throws LiquibaseException {
+        try {
+            if (database != null) {
+                database.close();
+            }
+        } finally {
+            if (resourceAccessor instanceof Closeable) {
+                try {
+                    ((Closeable) resourceAccessor).close();
+                } catch (IOException e) {
+                    LOG.warning(LogType.LOG, "Cannot close resource accessor: " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
     /**
      * Convience method for {@link #update(Contexts)} that constructs the Context object from the passed string.
      */
@@ -197,6 +221,7 @@ public class Liquibase {
             ChangeLogHistoryServiceFactory.getInstance().getChangeLogService(database).generateDeploymentId();
 
             changeLog.validate(database, contexts, labelExpression);
+            renewLockLease(lockService);
 
             ChangeLogIterator changeLogIterator = getStandardChangelogIterator(contexts, labelExpression, changeLog);
 
@@ -302,6 +327,7 @@ public class Liquibase {
             ChangeLogHistoryServiceFactory.getInstance().getChangeLogService(database).generateDeploymentId();
 
             changeLog.validate(database, contexts, labelExpression);
+            renewLockLease(lockService);
 
             ChangeLogIterator logIterator = new ChangeLogIterator(changeLog,
                     new ShouldRunChangeSetFilter(database, ignoreClasspathPrefix),
@@ -347,6 +373,7 @@ public class Liquibase {
 
             checkLiquibaseTables(true, changeLog, contexts, labelExpression);
             changeLog.validate(database, contexts, labelExpression);
+            renewLockLease(lockService);
 
             List<RanChangeSet> ranChangeSetList = database.getRanChangeSetList();
             ChangeLogIterator logIterator = new ChangeLogIterator(changeLog,
@@ -539,6 +566,7 @@ public class Liquibase {
             checkLiquibaseTables(false, changeLog, contexts, labelExpression);
 
             changeLog.validate(database, contexts, labelExpression);
+            renewLockLease(lockService);
             changeLog.setIgnoreClasspathPrefix(ignoreClasspathPrefix);
 
             ChangeLogIterator logIterator = new ChangeLogIterator(database.getRanChangeSetList(), changeLog,
@@ -700,6 +728,7 @@ public class Liquibase {
             checkLiquibaseTables(false, changeLog, contexts, labelExpression);
 
             changeLog.validate(database, contexts, labelExpression);
+            renewLockLease(lockService);
             changeLog.setIgnoreClasspathPrefix(ignoreClasspathPrefix);
 
             List<RanChangeSet> ranChangeSetList = database.getRanChangeSetList();
@@ -790,6 +819,7 @@ public class Liquibase {
             DatabaseChangeLog changeLog = getDatabaseChangeLog();
             checkLiquibaseTables(false, changeLog, contexts, labelExpression);
             changeLog.validate(database, contexts, labelExpression);
+            renewLockLease(lockService);
             changeLog.setIgnoreClasspathPrefix(ignoreClasspathPrefix);
 
             List<RanChangeSet> ranChangeSetList = database.getRanChangeSetList();
@@ -875,6 +905,7 @@ public class Liquibase {
             ChangeLogHistoryServiceFactory.getInstance().getChangeLogService(database).generateDeploymentId();
 
             changeLog.validate(database, contexts, labelExpression);
+            renewLockLease(lockService);
 
             ChangeLogIterator logIterator = new ChangeLogIterator(changeLog,
                     new NotRanChangeSetFilter(database.getRanChangeSetList()),
@@ -883,9 +914,11 @@ public class Liquibase {
                     new IgnoreChangeSetFilter(),
                     new DbmsChangeSetFilter(database));
 
-            logIterator.run(new ChangeLogSyncVisitor(database, changeLogSyncListener),
-                new RuntimeEnvironment(database, contexts, labelExpression)
-            );
+            BulkChangeLogSyncVisitor syncVisitor = new BulkChangeLogSyncVisitor(database, changeLogSyncListener);
+            logIterator.run(syncVisitor, new RuntimeEnvironment(database, contexts, labelExpression));
+            syncVisitor.markRan();
+            ChangeLogHistoryServiceFactory.getInstance().getChangeLogService(database).flush();
+            database.commit();
         } finally {
             try {
                 lockService.releaseLock();
@@ -946,6 +979,7 @@ public class Liquibase {
 
             checkLiquibaseTables(false, changeLog, contexts, labelExpression);
             changeLog.validate(database, contexts, labelExpression);
+            renewLockLease(lockService);
 
             ChangeLogIterator logIterator = new ChangeLogIterator(changeLog,
                     new NotRanChangeSetFilter(database.getRanChangeSetList()),
@@ -958,6 +992,8 @@ public class Liquibase {
             logIterator.run(new ChangeLogSyncVisitor(database),
                 new RuntimeEnvironment(database, contexts, labelExpression)
             );
+            ChangeLogHistoryServiceFactory.getInstance().getChangeLogService(database).flush();
+            database.commit();
         } finally {
             try {
                 lockService.releaseLock();
@@ -1038,6 +1074,7 @@ public class Liquibase {
             ChangeLogHistoryServiceFactory.getInstance().getChangeLogService(database).generateDeploymentId();
 
             changeLog.validate(database, contexts, labelExpression);
+            renewLockLease(lockService);
 
             ChangeLogIterator logIterator;
             if ((count == null) && (tag == null)) {
@@ -1125,6 +1162,7 @@ public class Liquibase {
         LockServiceFactory.getInstance().resetAll();
         ChangeLogHistoryServiceFactory.getInstance().resetAll();
         ExecutorService.getInstance().reset();
+        SchemaMetadataCache.getInstance().clearAll();
     }
 
     /**
@@ -1167,6 +1205,7 @@ public class Liquibase {
 
             checkLiquibaseTables(false, null, new Contexts(),
                 new LabelExpression());
+            renewLockLease(lockService);
             getDatabase().tag(tagString);
         } finally {
             try {
@@ -1213,6 +1252,16 @@ public class Liquibase {
         update(tag, contexts, labelExpression);
     }
 
+    /**
+     * Renews the lease of a {@link LeaseLockService} between the phases of a command, like after the checksums were
+     * validated, so a long phase that does not visit changeSets does not let the lease expire.
+     */
+    private void renewLockLease(LockService lockService) throws LockException {
+        if (lockService instanceof LeaseLockService) {
+            ((LeaseLockService) lockService).renewLeaseIfDue();
+        }
+    }
+
     public void checkLiquibaseTables(boolean updateExistingNullChecksums, DatabaseChangeLog databaseChangeLog,
                                      Contexts contexts, LabelExpression labelExpression) throws LiquibaseException {
         ChangeLogHistoryService changeLogHistoryService =
@@ -1521,6 +1570,7 @@ public class Liquibase {
             checkLiquibaseTables(false, changeLog, new Contexts(), new LabelExpression());
 
             changeLog.validate(database, contexts, labelExpression);
+            renewLockLease(lockService);
 
             ChangeLogIterator logIterator = new ChangeLogIterator(changeLog,
                     new DbmsChangeSetFilter(database));
@@ -1592,7 +1642,7 @@ public class Liquibase {
             finalCompareTypes = new HashSet<>(Arrays.asList(snapshotTypes));
         }
 
-        SnapshotControl snapshotControl = new SnapshotControl(this.getDatabase(), snapshotTypes);
+        SnapshotControl snapshotControl = new SnapshotControl(this.getDatabase(), snapshotTypes).setUsePersistedSnapshots(true);
         CompareControl compareControl = new CompareControl(new CompareControl.SchemaComparison[] {
             new CompareControl.SchemaComparison(catalogAndSchema, catalogAndSchema)
         }, finalCompareTypes);
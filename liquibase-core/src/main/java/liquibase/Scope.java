@@ -19,6 +19,7 @@ import liquibase.util.SmartMap;
 import java.lang.reflect.Constructor;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This scope object is used to hold configuration and other parameters within a call without needing complex method signatures.
@@ -46,20 +47,35 @@ public class Scope {
         fileEncoding,
         databaseChangeLog,
         changeSet,
+        parsedChangeLogCache,
     }
 
-    private static ScopeManager scopeManager;
+    private static volatile ScopeManager scopeManager;
 
     private Scope parent;
     private SmartMap values = new SmartMap();
+    private final Map<String, Object> singletons = new ConcurrentHashMap<>();
 
     private LiquibaseListener listener;
 
     public static Scope getCurrentScope() {
+        ScopeManager scopeManager = Scope.scopeManager;
         if (scopeManager == null) {
-            scopeManager = new SingletonScopeManager();
+            scopeManager = initScopeManager();
+        }
+        return scopeManager.getCurrentScope();
+    }
+
+    /**
+     * Creates the default scope manager and root scope. The scope manager is a {@link SingletonScopeManager} unless
+     * the <code>liquibase.scopeManager</code> system property names a different {@link ScopeManager} class.
+     */
+    private static synchronized ScopeManager initScopeManager() {
+        if (scopeManager == null) {
+            ScopeManager newScopeManager = createScopeManager(System.getProperty("liquibase.scopeManager"));
             Scope rootScope = new Scope();
-            scopeManager.setCurrentScope(rootScope);
+            newScopeManager.setCurrentScope(rootScope);
+            scopeManager = newScopeManager;
 
             LogService overrideLogService = rootScope.getSingleton(LogServiceFactory.class).getDefaultLogService();
             if (overrideLogService == null) {
@@ -67,7 +83,29 @@ public class Scope {
             }
             rootScope.values.put(Attr.logService.name(), overrideLogService);
         }
-        return scopeManager.getCurrentScope();
+        return scopeManager;
+    }
+
+    private static ScopeManager createScopeManager(String className) {
+        if ((className == null) || className.trim().isEmpty()) {
+            return new SingletonScopeManager();
+        }
+        try {
+            return (ScopeManager) Class.forName(className.trim()).getConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new UnexpectedLiquibaseException("Cannot create scope manager " + className + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the scope manager in use, creating the default one if needed.
+     */
+    public static ScopeManager getScopeManager() {
+        ScopeManager scopeManager = Scope.scopeManager;
+        if (scopeManager == null) {
+            scopeManager = initScopeManager();
+        }
+        return scopeManager;
     }
 
     public static void setScopeManager(ScopeManager scopeManager)  {
@@ -155,10 +193,15 @@ public class Scope {
      * Creates a new scope that is a child of this scope.
      */
     public static void child(String newValueKey, Object newValue, ScopedRunner runner) throws Exception {
-        Map<String, Object> scopeValues = new HashMap<String, Object>();
-        scopeValues.put(newValueKey, newValue);
-
-        child(scopeValues, runner);
+        Scope originalScope = getCurrentScope();
+        Scope child = new Scope(originalScope, null);
+        child.values.put(newValueKey, newValue);
+        try {
+            scopeManager.setCurrentScope(child);
+            runner.run();
+        } finally {
+            scopeManager.setCurrentScope(originalScope);
+        }
     }
 
     public static void child(Enum newValueKey, Object newValue, ScopedRunner runner) throws Exception {
@@ -231,23 +274,30 @@ public class Scope {
         }
 
         String key = type.getName();
-        T singleton = get(key, type);
+        T singleton = type.cast(singletons.get(key));
         if (singleton == null) {
-            try {
-                try {
-                    Constructor<T> constructor = type.getDeclaredConstructor(Scope.class);
-                    constructor.setAccessible(true);
-                    singleton = constructor.newInstance(this);
-                } catch (NoSuchMethodException e) { //try without scope
-                    Constructor<T> constructor = type.getDeclaredConstructor();
-                    constructor.setAccessible(true);
-                    singleton = constructor.newInstance();
+            //created under a lock so concurrent threads get the same instance. Not computeIfAbsent, because
+            //singleton constructors look up other singletons
+            synchronized (singletons) {
+                singleton = type.cast(singletons.get(key));
+                if (singleton == null) {
+                    try {
+                        try {
+                            Constructor<T> constructor = type.getDeclaredConstructor(Scope.class);
+                            constructor.setAccessible(true);
+                            singleton = constructor.newInstance(this);
+                        } catch (NoSuchMethodException e) { //try without scope
+                            Constructor<T> constructor = type.getDeclaredConstructor();
+                            constructor.setAccessible(true);
+                            singleton = constructor.newInstance();
+                        }
+                    } catch (Exception e) {
+                        throw new UnexpectedLiquibaseException(e);
+                    }
+
+                    singletons.put(key, singleton);
                 }
-            } catch (Exception e) {
-                throw new UnexpectedLiquibaseException(e);
             }
-
-            values.put(key, singleton);
         }
         return singleton;
     }
@@ -1,11 +1,15 @@
 package liquibase;
 
+/**
+ * {@link ScopeManager} with one current scope for the whole JVM. Concurrent Liquibase runs share, and replace, each
+ * other's scope; use {@link ThreadLocalScopeManager} for those.
+ */
 public class SingletonScopeManager extends ScopeManager {
 
-    private Scope currentScope;
+    private volatile Scope currentScope;
 
     @Override
-    public synchronized Scope getCurrentScope() {
+    public Scope getCurrentScope() {
         return currentScope;
     }
 
@@ -15,7 +19,7 @@ public class SingletonScopeManager extends ScopeManager {
     }
 
     @Override
-    protected synchronized void setCurrentScope(Scope scope) {
+    protected void setCurrentScope(Scope scope) {
         this.currentScope = scope;
     }
 }
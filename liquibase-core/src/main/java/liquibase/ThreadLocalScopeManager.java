@@ -0,0 +1,44 @@
+package liquibase;
+
+/**
+ * {@link ScopeManager} that tracks the current scope per thread, so Liquibase instances working on different
+ * databases in the same JVM neither contend on nor overwrite each other's scope. Every thread starts in the root
+ * scope; scopes are not inherited, so a pooled thread created during a changeSet does not keep that changeSet's scope.
+ * <p>
+ * Select it with <code>-Dliquibase.scopeManager=liquibase.ThreadLocalScopeManager</code> or by calling
+ * {@link Scope#setScopeManager(ScopeManager)} before Liquibase is used.
+ */
+public class ThreadLocalScopeManager extends ScopeManager {
+
+    private final ThreadLocal<Scope> threadScope = new ThreadLocal<>();
+
+    private volatile Scope rootScope;
+
+    @Override
+    public Scope getCurrentScope() {
+        Scope scope = threadScope.get();
+        if (scope == null) {
+            return rootScope;
+        }
+        return scope;
+    }
+
+    @Override
+    protected Scope init(Scope scope) throws Exception {
+        this.rootScope = scope;
+        return scope;
+    }
+
+    @Override
+    protected void setCurrentScope(Scope scope) {
+        if (rootScope == null) {
+            rootScope = scope;
+        }
+        if (scope == rootScope) {
+            //don't keep the root scope in pooled threads
+            threadScope.remove();
+        } else {
+            threadScope.set(scope);
+        }
+    }
+}
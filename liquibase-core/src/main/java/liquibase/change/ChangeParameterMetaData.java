@@ -12,10 +12,8 @@ import liquibase.statement.DatabaseFunction;
 import liquibase.statement.SequenceNextValueFunction;
 import liquibase.statement.SqlStatement;
 import liquibase.util.StringUtil;
-import liquibase.util.beans.PropertyUtils;
+import liquibase.util.beans.PropertyAccessor;
 
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.math.BigInteger;
@@ -260,18 +258,11 @@ public class ChangeParameterMetaData {
      */
     public Object getCurrentValue(Change change) {
         try {
-            for (PropertyDescriptor descriptor : PropertyUtils.getInstance().getDescriptors(change.getClass())) {
-                if (descriptor.getDisplayName().equals(this.parameterName)) {
-                    Method readMethod = descriptor.getReadMethod();
-                    if (readMethod == null) {
-                        readMethod = change.getClass().getMethod(
-                            "is" + StringUtil.upperCaseFirst(descriptor.getName())
-                        );
-                    }
-                    return readMethod.invoke(change);
-                }
+            PropertyAccessor accessor = PropertyAccessor.getAccessor(change.getClass(), this.parameterName);
+            if ((accessor == null) || !accessor.isReadable()) {
+                throw new RuntimeException("Could not find readMethod for " + this.parameterName);
             }
-            throw new RuntimeException("Could not find readMethod for " + this.parameterName);
+            return accessor.getValue(change);
         } catch (Exception e) {
             throw new UnexpectedLiquibaseException(e);
         }
@@ -300,26 +291,24 @@ public class ChangeParameterMetaData {
         }
 
         try {
-            for (PropertyDescriptor descriptor : PropertyUtils.getInstance().getDescriptors(change.getClass())) {
-                if (descriptor.getDisplayName().equals(this.parameterName)) {
-                    Method writeMethod = descriptor.getWriteMethod();
-                    if (writeMethod == null) {
-                        throw new UnexpectedLiquibaseException("Could not find writeMethod for " + this.parameterName);
-                    }
-                    Class<?> expectedWriteType = writeMethod.getParameterTypes()[0];
-                    if ((value != null) && !expectedWriteType.isAssignableFrom(value.getClass())) {
-                        if (expectedWriteType.equals(String.class)) {
-                            value = value.toString();
-                        } else {
-                            throw new UnexpectedLiquibaseException(
-                                "Could not convert " + value.getClass().getName() +
-                                " to " +
-                                expectedWriteType.getName()
-                            );
-                        }
+            PropertyAccessor accessor = PropertyAccessor.getAccessor(change.getClass(), this.parameterName);
+            if (accessor != null) {
+                if (!accessor.isWritable()) {
+                    throw new UnexpectedLiquibaseException("Could not find writeMethod for " + this.parameterName);
+                }
+                Class<?> expectedWriteType = accessor.getWriteType();
+                if ((value != null) && !expectedWriteType.isAssignableFrom(value.getClass())) {
+                    if (expectedWriteType.equals(String.class)) {
+                        value = value.toString();
+                    } else {
+                        throw new UnexpectedLiquibaseException(
+                            "Could not convert " + value.getClass().getName() +
+                            " to " +
+                            expectedWriteType.getName()
+                        );
                     }
-                    writeMethod.invoke(change, value);
                 }
+                accessor.setValue(change, value);
             }
         } catch (Exception e) {
             throw new UnexpectedLiquibaseException("Error setting " + this.parameterName + " to " + value, e);
@@ -0,0 +1,237 @@
+package liquibase.change;
+
+import liquibase.Scope;
+import liquibase.configuration.GlobalConfiguration;
+import liquibase.configuration.LiquibaseConfiguration;
+import liquibase.logging.LogType;
+import liquibase.resource.InputStreamList;
+import liquibase.resource.ResourceAccessor;
+import liquibase.util.MD5Util;
+import liquibase.util.StringUtil;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the {@link CheckSum}s of file-backed changes such as loadData and sqlFile so unchanged files do not need
+ * to be read and hashed again on every validate, status or update.
+ * <p>
+ * Entries are keyed on the location of the file, its size and its last modified time plus a change-specific
+ * discriminator for any settings that influence the checksum. Only resources that resolve to a local file or an
+ * entry of a local jar/zip file can be cached; everything else is always computed.
+ * <p>
+ * The cache is always kept in memory. If {@link GlobalConfiguration#CHECKSUM_CACHE_FILE} is set, entries are also
+ * stored in that file so they survive between runs. New entries are appended to the file. It is rewritten from the
+ * entries in memory when it is loaded with superseded or evicted lines, or when it has grown to twice the maximum
+ * number of entries, so the file stays bounded.
+ * <p>
+ * At most {@link #DEFAULT_MAX_ENTRIES} entries are kept; the least recently used ones are dropped first. Entries of
+ * files that changed are never used again and are eventually dropped this way.
+ */
+public class CheckSumCache {
+
+    /**
+     * Files modified more recently than this are not cached, since a change within the timestamp resolution of the
+     * file system could otherwise go unnoticed.
+     */
+    private static final long RACY_MODIFICATION_MILLIS = 2000;
+
+    static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private static final CheckSumCache instance = new CheckSumCache(DEFAULT_MAX_ENTRIES);
+
+    private final int maxEntries;
+    /**
+     * Guarded by this. In access order, so the least recently used entry is dropped first.
+     */
+    private final Map<String, CheckSum> checkSums;
+    private File loadedCacheFile;
+    private int linesInCacheFile;
+
+    public static CheckSumCache getInstance() {
+        return instance;
+    }
+
+    CheckSumCache(final int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.checkSums = new LinkedHashMap<String, CheckSum>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CheckSum> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the checksum of the given resource, computing it with the passed generator only if it is not cached.
+     *
+     * @param discriminator settings of the calling change that influence the checksum, in addition to the file contents
+     * @return null if the resource does not exist
+     * @throws IOException if multiple resources match the path or the resource cannot be read
+     */
+    public CheckSum getCheckSum(ResourceAccessor resourceAccessor, String relativeTo, String path,
+                                String discriminator, Generator generator) throws IOException {
+        try (InputStreamList streams = resourceAccessor.openStreams(relativeTo, path)) {
+            if ((streams == null) || streams.isEmpty()) {
+                return null;
+            }
+            if (streams.size() > 1) {
+                throw new IOException("Found " + streams.size() + " files that match " + path);
+            }
+
+            String fingerprint = getFingerprint(streams.getURIs().get(0));
+            if (fingerprint == null) {
+                return generator.generate(streams.iterator().next());
+            }
+
+            String key = MD5Util.computeMD5(fingerprint + ":" + discriminator);
+            loadCacheFile();
+            CheckSum checkSum;
+            synchronized (this) {
+                checkSum = checkSums.get(key);
+            }
+            if (checkSum == null) {
+                checkSum = generator.generate(streams.iterator().next());
+                saveToCache(key, checkSum);
+            }
+            return checkSum;
+        }
+    }
+
+    /**
+     * Removes all cached checksums from memory. The cache file, if any, is left untouched.
+     */
+    public synchronized void clear() {
+        checkSums.clear();
+        loadedCacheFile = null;
+        linesInCacheFile = 0;
+    }
+
+    /**
+     * Returns a string that changes whenever the content of the given resource may have changed, or null if that
+     * cannot be determined cheaply.
+     */
+    protected String getFingerprint(URI uri) {
+        if (uri == null) {
+            return null;
+        }
+        String location = uri.toString().replaceFirst("^jar:", "");
+        String entry = null;
+        int entrySeparator = location.indexOf('!');
+        if (entrySeparator >= 0) {
+            entry = location.substring(entrySeparator + 1);
+            location = location.substring(0, entrySeparator);
+        }
+        if (!location.startsWith("file:")) {
+            return null;
+        }
+
+        File file;
+        try {
+            file = new File(URI.create(location));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!file.isFile()) {
+            return null;
+        }
+        long lastModified = file.lastModified();
+        if ((lastModified <= 0) || ((System.currentTimeMillis() - lastModified) < RACY_MODIFICATION_MILLIS)) {
+            return null;
+        }
+
+        return location + (entry == null ? "" : "!" + entry) + ":" + file.length() + ":" + lastModified;
+    }
+
+    private File getCacheFile() {
+        String cacheFile = LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getCheckSumCacheFile();
+        if (StringUtil.trimToNull(cacheFile) == null) {
+            return null;
+        }
+        return new File(cacheFile);
+    }
+
+    private synchronized void loadCacheFile() {
+        File cacheFile = getCacheFile();
+        if ((cacheFile == null) || cacheFile.equals(loadedCacheFile)) {
+            return;
+        }
+        loadedCacheFile = cacheFile;
+        if (!cacheFile.exists()) {
+            return;
+        }
+
+        int lines = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(cacheFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                String[] parts = line.split("\t");
+                if (parts.length == 2) {
+                    // Later lines are more recent, so they end up last in access order
+                    checkSums.remove(parts[0]);
+                    checkSums.put(parts[0], CheckSum.parse(parts[1]));
+                }
+            }
+        } catch (IOException e) {
+            Scope.getCurrentScope().getLog(getClass()).warning(LogType.LOG, "Cannot read checksum cache " + cacheFile.getAbsolutePath() + ": " + e.getMessage(), e);
+            return;
+        }
+        linesInCacheFile = lines;
+        if (linesInCacheFile > checkSums.size()) {
+            rewriteCacheFile(cacheFile);
+        }
+    }
+
+    private synchronized void saveToCache(String key, CheckSum checkSum) {
+        checkSums.put(key, checkSum);
+
+        File cacheFile = getCacheFile();
+        if (cacheFile == null) {
+            return;
+        }
+
+        if (linesInCacheFile >= (2 * maxEntries)) {
+            rewriteCacheFile(cacheFile);
+            return;
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(cacheFile, true), StandardCharsets.UTF_8)) {
+            writer.write(key + "\t" + checkSum.toString() + "\n");
+            linesInCacheFile++;
+        } catch (IOException e) {
+            Scope.getCurrentScope().getLog(getClass()).warning(LogType.LOG, "Cannot write checksum cache " + cacheFile.getAbsolutePath() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Replaces the cache file with the entries in memory, least recently used first. The new content is written to a
+     * temporary file first, so a concurrent reader never sees a partly written cache.
+     */
+    private synchronized void rewriteCacheFile(File cacheFile) {
+        File tempFile = new File(cacheFile.getAbsoluteFile().getParentFile(), cacheFile.getName() + ".new");
+        try {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8))) {
+                for (Map.Entry<String, CheckSum> entry : checkSums.entrySet()) {
+                    writer.write(entry.getKey() + "\t" + entry.getValue().toString() + "\n");
+                }
+            }
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            linesInCacheFile = checkSums.size();
+        } catch (IOException e) {
+            tempFile.delete();
+            Scope.getCurrentScope().getLog(getClass()).warning(LogType.LOG, "Cannot write checksum cache " + cacheFile.getAbsolutePath() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Computes the checksum of a resource that is not cached yet.
+     */
+    public interface Generator {
+        CheckSum generate(InputStream stream) throws IOException;
+    }
+}
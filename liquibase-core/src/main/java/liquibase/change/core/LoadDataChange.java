@@ -28,6 +28,7 @@ import liquibase.statement.BatchDmlExecutablePreparedStatement;
 import liquibase.statement.ExecutablePreparedStatementBase;
 import liquibase.statement.InsertExecutablePreparedStatement;
 import liquibase.statement.SqlStatement;
+import liquibase.statement.StreamingBatchDmlExecutablePreparedStatement;
 import liquibase.statement.core.InsertOrUpdateStatement;
 import liquibase.statement.core.InsertSetStatement;
 import liquibase.statement.core.InsertStatement;
@@ -91,6 +92,8 @@ public class LoadDataChange extends AbstractChange implements ChangeWithColumns<
     private List<LoadDataColumnConfig> columns = new ArrayList<>();
 
     private Boolean usePreparedStatements;
+    private Integer batchSize;
+    private Integer batchesPerCommit;
 
     /**
      * Transform a value read from a CSV file into a string to be written into the database if the column type
@@ -179,6 +182,31 @@ public class LoadDataChange extends AbstractChange implements ChangeWithColumns<
         this.usePreparedStatements = usePreparedStatements;
     }
 
+    @DatabaseChangeProperty(
+        description = "If set, the file is streamed into the table in JDBC batches of this many rows instead of " +
+            "being read into memory at once. Only used when the database supports batch updates.",
+        exampleValue = "1000"
+    )
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @DatabaseChangeProperty(
+        description = "When streaming with batchSize, commit after this many batches. By default the rows are " +
+            "committed together with the rest of the changeset."
+    )
+    public Integer getBatchesPerCommit() {
+        return batchesPerCommit;
+    }
+
+    public void setBatchesPerCommit(Integer batchesPerCommit) {
+        this.batchesPerCommit = batchesPerCommit;
+    }
+
     public String getCommentLineStartsWith() {
         return commentLineStartsWith;
     }
@@ -287,165 +315,52 @@ public class LoadDataChange extends AbstractChange implements ChangeWithColumns<
                 throw new UnexpectedLiquibaseException(e);
             }
 
+            boolean canUsePreparedStatements = databaseSupportsBatchUpdates
+                    && !(ExecutorService.getInstance().getExecutor(database) instanceof LoggingExecutor)
+                    && hasPreparedStatementsImplemented();
+
+            if ((batchSize != null) && (batchSize > 0)) {
+                if (canUsePreparedStatements) {
+                    // Streaming mode: the rows are read from the file only when the statement is executed. They
+                    // are still checked here so that malformed lines honour failOnError like the other modes.
+                    validateRows(reader, headers, database);
+                    return new SqlStatement[] {
+                            new StreamingBatchDmlExecutablePreparedStatement(
+                                    database, getCatalogName(), getSchemaName(),
+                                    getTableName(), columns,
+                                    getChangeSet(), getResourceAccessor(),
+                                    new CsvRowSource(database, headers), batchSize,
+                                    ObjectUtil.defaultIfNull(batchesPerCommit, 0))
+                    };
+                }
+                LOG.info(LogType.LOG, "Cannot stream " + getFile() + " in batches of " + batchSize +
+                        " because prepared statement batches are not available here. Loading all rows at once.");
+            }
+
             List<ExecutablePreparedStatementBase> batchedStatements = new ArrayList<>();
             boolean anyPreparedStatements = false;
             String[] line;
             // Start at '1' to take into account the header (already processed):
             int lineNumber = 1;
 
-            boolean isCommentingEnabled = StringUtil.isNotEmpty(commentLineStartsWith);
-
             List<SqlStatement> statements = new ArrayList<>();
             while ((line = reader.readNext()) != null) {
                 lineNumber++;
-                if
-                ((line.length == 0) || ((line.length == 1) && (StringUtil.trimToNull(line[0]) == null)) ||
-                    (isCommentingEnabled && isLineCommented(line))
-                ) {
+                if (isLineSkipped(line)) {
                     //nothing interesting on this line
                     continue;
                 }
 
-                // Ensure each line has the same number of columns defined as does the header.
-                // (Failure could indicate unquoted strings with commas, for example).
-                if (line.length != headers.length) {
-                    throw new UnexpectedLiquibaseException(
-                        "CSV file " + getFile() + " Line " + lineNumber + " has " + line.length +
-                            " values defined, Header has " + headers.length +
-                            ". Numbers MUST be equal (check for unquoted string with embedded commas)"
-                    );
-                }
+                checkLineLength(headers, line, lineNumber);
 
                 boolean needsPreparedStatement = false;
                 if (usePreparedStatements != null && usePreparedStatements) {
                     needsPreparedStatement = true;
                 }
 
-                List<ColumnConfig> columnsFromCsv = new ArrayList<>();
-                for (int i = 0; i < headers.length; i++) {
-                    Object value = line[i];
-                    String columnName = headers[i].trim();
-
-                    ColumnConfig valueConfig = new ColumnConfig();
-
-                    ColumnConfig columnConfig = getColumnConfig(i, headers[i].trim());
-                    if (columnConfig != null) {
-                        if ("skip".equalsIgnoreCase(columnConfig.getType())) {
-                            continue;
-                        }
-
-                        // don't overwrite header name unless there is actually a value to override it with
-                        if (columnConfig.getName() != null) {
-                            columnName = columnConfig.getName();
-                        }
-
-                        valueConfig.setName(columnName);
-
-                        if (columnConfig.getType() != null) {
-                            if (columnConfig.getType().equalsIgnoreCase(LOAD_DATA_TYPE.BOOLEAN.toString())) {
-                                if ("NULL".equalsIgnoreCase(value.toString())) {
-                                    valueConfig.setValue(null);
-                                } else {
-                                    valueConfig.setValueBoolean(
-                                        BooleanParser.parseBoolean(value.toString().toLowerCase())
-                                    );
-                                }
-                            } else if (columnConfig.getType().equalsIgnoreCase(LOAD_DATA_TYPE.NUMERIC.toString())) {
-                                if ("NULL".equalsIgnoreCase(value.toString())) {
-                                    valueConfig.setValue(null);
-                                } else {
-                                    valueConfig.setValueNumeric(value.toString());
-                                }
-                            } else if
-                            (
-                                columnConfig.getType().toLowerCase().contains("date")
-                                    || columnConfig.getType().toLowerCase().contains("time")
-                            ) {
-                                if ("NULL".equalsIgnoreCase(value.toString())) {
-                                    valueConfig.setValue(null);
-                                } else {
-                                    try {
-                                        // Need the column type for handling 'NOW' or 'TODAY' type column value
-                                        valueConfig.setType(columnConfig.getType());
-                                        valueConfig.setValueDate(value.toString());
-                                    } catch (DateParseException e) {
-                                        throw new UnexpectedLiquibaseException(e);
-                                    }
-                                }
-                            } else if (columnConfig.getType().equalsIgnoreCase(LOAD_DATA_TYPE.STRING.toString())) {
-                                if ("NULL".equalsIgnoreCase(value.toString())) {
-                                    valueConfig.setValue(null);
-                                } else {
-                                    valueConfig.setValue(value.toString());
-                                }
-                            } else if (columnConfig.getType().equalsIgnoreCase(LOAD_DATA_TYPE.COMPUTED.toString())) {
-                                if ("NULL".equalsIgnoreCase(value.toString())) {
-                                    valueConfig.setValue(null);
-                                } else {
-                                    liquibase.statement.DatabaseFunction function =
-                                        new liquibase.statement.DatabaseFunction(value.toString());
-                                    valueConfig.setValueComputed(function);
-                                }
-                            } else if (columnConfig.getType().equalsIgnoreCase(LOAD_DATA_TYPE.SEQUENCE.toString())) {
-                                String sequenceName;
-                                if ("NULL".equalsIgnoreCase(value.toString())) {
-                                    sequenceName = columnConfig.getDefaultValue();
-                                    if (sequenceName == null) {
-                                        throw new UnexpectedLiquibaseException(
-                                            "Must set a sequence name in the loadData column defaultValue attribute"
-                                        );
-                                    }
-                                } else {
-                                    sequenceName = value.toString();
-                                }
-                                liquibase.statement.SequenceNextValueFunction function =
-                                    new liquibase.statement.SequenceNextValueFunction(sequenceName);
-                                valueConfig.setValueComputed(function);
-
-                            } else if (columnConfig.getType().equalsIgnoreCase(LOAD_DATA_TYPE.BLOB.toString())) {
-                                if ("NULL".equalsIgnoreCase(value.toString())) {
-                                    valueConfig.setValue(null);
-                                } else {
-                                    valueConfig.setValueBlobFile(value.toString());
-                                    needsPreparedStatement = true;
-                                }
-                            } else if (columnConfig.getType().equalsIgnoreCase(LOAD_DATA_TYPE.CLOB.toString())) {
-                                if ("NULL".equalsIgnoreCase(value.toString())) {
-                                    valueConfig.setValue(null);
-                                } else {
-                                    valueConfig.setValueClobFile(value.toString());
-                                    needsPreparedStatement = true;
-                                }
-                            } else if (columnConfig.getType().equalsIgnoreCase(LOAD_DATA_TYPE.UUID.toString())) {
-                                valueConfig.setType(columnConfig.getType());
-                                if ("NULL".equalsIgnoreCase(value.toString())) {
-                                    valueConfig.setValue(null);
-                                } else {
-                                    valueConfig.setValue(value.toString());
-                                }                                
-                            } else {
-                                throw new UnexpectedLiquibaseException(
-                                    String.format(coreBundle.getString("loaddata.type.is.not.supported"),
-                                        columnConfig.getType()
-                                    )
-                                );
-                            }
-                        } else {
-                            // columnConfig did not specify a type
-                            valueConfig.setValue(getValueToWrite(value));
-                        }
-                    } else {
-                        // No columnConfig found. Assume header column name to be the table column name.
-                        if (columnName.contains("(") || (columnName.contains(")") && (database instanceof
-                            AbstractJdbcDatabase))) {
-                            columnName = ((AbstractJdbcDatabase) database).quoteObject(columnName, Column.class);
-                        }
-
-                        valueConfig.setName(columnName);
-
-                        valueConfig.setValue(getValueToWrite(value));
-                    }
-                    columnsFromCsv.add(valueConfig);
+                List<ColumnConfig> columnsFromCsv = getColumnsFromLine(headers, line, database);
+                if (!needsPreparedStatement) {
+                    needsPreparedStatement = needsPreparedStatement(columnsFromCsv);
                 }
                 // end of: iterate through all the columns of a CSV line
 
@@ -554,6 +469,159 @@ public class LoadDataChange extends AbstractChange implements ChangeWithColumns<
         }
     }
 
+    /**
+     * Reads the remaining lines of the CSV file and checks they can be converted, without keeping any of them.
+     * @throws UnexpectedLiquibaseException if a line is malformed
+     */
+    private void validateRows(CSVReader reader, String[] headers, Database database) throws IOException {
+        String[] line;
+        // Start at '1' to take into account the header (already processed):
+        int lineNumber = 1;
+        while ((line = reader.readNext()) != null) {
+            lineNumber++;
+            if (isLineSkipped(line)) {
+                continue;
+            }
+            checkLineLength(headers, line, lineNumber);
+            getColumnsFromLine(headers, line, database);
+        }
+    }
+
+    /**
+     * Converts one line of the CSV file into the column values to insert, applying the configured column types.
+     * @param headers the headers of the CSV file
+     * @param line the values of the line
+     * @param database the database the values will be written to
+     * @return a List of ColumnConfigs holding the values of the line, without the skipped columns
+     */
+    private List<ColumnConfig> getColumnsFromLine(String[] headers, String[] line, Database database) {
+        List<ColumnConfig> columnsFromCsv = new ArrayList<>();
+        for (int i = 0; i < headers.length; i++) {
+            Object value = line[i];
+            String columnName = headers[i].trim();
+
+            ColumnConfig valueConfig = new ColumnConfig();
+
+            ColumnConfig columnConfig = getColumnConfig(i, headers[i].trim());
+            if (columnConfig != null) {
+                if ("skip".equalsIgnoreCase(columnConfig.getType())) {
+                    continue;
+                }
+
+                // don't overwrite header name unless there is actually a value to override it with
+                if (columnConfig.getName() != null) {
+                    columnName = columnConfig.getName();
+                }
+
+                valueConfig.setName(columnName);
+
+                if (columnConfig.getType() != null) {
+                    if (columnConfig.getType().equalsIgnoreCase(LOAD_DATA_TYPE.BOOLEAN.toString())) {
+                        if ("NULL".equalsIgnoreCase(value.toString())) {
+                            valueConfig.setValue(null);
+                        } else {
+                            valueConfig.setValueBoolean(
+                                BooleanParser.parseBoolean(value.toString().toLowerCase())
+                            );
+                        }
+                    } else if (columnConfig.getType().equalsIgnoreCase(LOAD_DATA_TYPE.NUMERIC.toString())) {
+                        if ("NULL".equalsIgnoreCase(value.toString())) {
+                            valueConfig.setValue(null);
+                        } else {
+                            valueConfig.setValueNumeric(value.toString());
+                        }
+                    } else if
+                    (
+                        columnConfig.getType().toLowerCase().contains("date")
+                            || columnConfig.getType().toLowerCase().contains("time")
+                    ) {
+                        if ("NULL".equalsIgnoreCase(value.toString())) {
+                            valueConfig.setValue(null);
+                        } else {
+                            try {
+                                // Need the column type for handling 'NOW' or 'TODAY' type column value
+                                valueConfig.setType(columnConfig.getType());
+                                valueConfig.setValueDate(value.toString());
+                            } catch (DateParseException e) {
+                                throw new UnexpectedLiquibaseException(e);
+                            }
+                        }
+                    } else if (columnConfig.getType().equalsIgnoreCase(LOAD_DATA_TYPE.STRING.toString())) {
+                        if ("NULL".equalsIgnoreCase(value.toString())) {
+                            valueConfig.setValue(null);
+                        } else {
+                            valueConfig.setValue(value.toString());
+                        }
+                    } else if (columnConfig.getType().equalsIgnoreCase(LOAD_DATA_TYPE.COMPUTED.toString())) {
+                        if ("NULL".equalsIgnoreCase(value.toString())) {
+                            valueConfig.setValue(null);
+                        } else {
+                            liquibase.statement.DatabaseFunction function =
+                                new liquibase.statement.DatabaseFunction(value.toString());
+                            valueConfig.setValueComputed(function);
+                        }
+                    } else if (columnConfig.getType().equalsIgnoreCase(LOAD_DATA_TYPE.SEQUENCE.toString())) {
+                        String sequenceName;
+                        if ("NULL".equalsIgnoreCase(value.toString())) {
+                            sequenceName = columnConfig.getDefaultValue();
+                            if (sequenceName == null) {
+                                throw new UnexpectedLiquibaseException(
+                                    "Must set a sequence name in the loadData column defaultValue attribute"
+                                );
+                            }
+                        } else {
+                            sequenceName = value.toString();
+                        }
+                        liquibase.statement.SequenceNextValueFunction function =
+                            new liquibase.statement.SequenceNextValueFunction(sequenceName);
+                        valueConfig.setValueComputed(function);
+
+                    } else if (columnConfig.getType().equalsIgnoreCase(LOAD_DATA_TYPE.BLOB.toString())) {
+                        if ("NULL".equalsIgnoreCase(value.toString())) {
+                            valueConfig.setValue(null);
+                        } else {
+                            valueConfig.setValueBlobFile(value.toString());
+                        }
+                    } else if (columnConfig.getType().equalsIgnoreCase(LOAD_DATA_TYPE.CLOB.toString())) {
+                        if ("NULL".equalsIgnoreCase(value.toString())) {
+                            valueConfig.setValue(null);
+                        } else {
+                            valueConfig.setValueClobFile(value.toString());
+                        }
+                    } else if (columnConfig.getType().equalsIgnoreCase(LOAD_DATA_TYPE.UUID.toString())) {
+                        valueConfig.setType(columnConfig.getType());
+                        if ("NULL".equalsIgnoreCase(value.toString())) {
+                            valueConfig.setValue(null);
+                        } else {
+                            valueConfig.setValue(value.toString());
+                        }                                
+                    } else {
+                        throw new UnexpectedLiquibaseException(
+                            String.format(coreBundle.getString("loaddata.type.is.not.supported"),
+                                columnConfig.getType()
+                            )
+                        );
+                    }
+                } else {
+                    // columnConfig did not specify a type
+                    valueConfig.setValue(getValueToWrite(value));
+                }
+            } else {
+                // No columnConfig found. Assume header column name to be the table column name.
+                if (columnName.contains("(") || (columnName.contains(")") && (database instanceof
+                    AbstractJdbcDatabase))) {
+                    columnName = ((AbstractJdbcDatabase) database).quoteObject(columnName, Column.class);
+                }
+
+                valueConfig.setName(columnName);
+
+                valueConfig.setValue(getValueToWrite(value));
+            }
+            columnsFromCsv.add(valueConfig);
+        }
+        return columnsFromCsv;
+    }
+
     /**
      * Iterate through the List of LoadDataColumnConfig and ask the database for any column types that we have
      * no data type of.
@@ -699,6 +767,38 @@ public class LoadDataChange extends AbstractChange implements ChangeWithColumns<
         return StringUtil.startsWith(line[0], commentLineStartsWith);
     }
 
+    private boolean isLineSkipped(String[] line) {
+        boolean isCommentingEnabled = StringUtil.isNotEmpty(commentLineStartsWith);
+        return (line.length == 0) || ((line.length == 1) && (StringUtil.trimToNull(line[0]) == null)) ||
+            (isCommentingEnabled && isLineCommented(line));
+    }
+
+    /**
+     * Ensure each line has the same number of columns defined as does the header.
+     * (Failure could indicate unquoted strings with commas, for example).
+     */
+    private void checkLineLength(String[] headers, String[] line, int lineNumber) {
+        if (line.length != headers.length) {
+            throw new UnexpectedLiquibaseException(
+                "CSV file " + getFile() + " Line " + lineNumber + " has " + line.length +
+                    " values defined, Header has " + headers.length +
+                    ". Numbers MUST be equal (check for unquoted string with embedded commas)"
+            );
+        }
+    }
+
+    /**
+     * LOB values can only be loaded through a prepared statement.
+     */
+    private boolean needsPreparedStatement(List<ColumnConfig> columnsFromCsv) {
+        for (ColumnConfig column : columnsFromCsv) {
+            if ((column.getValueBlobFile() != null) || (column.getValueClobFile() != null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean generateStatementsVolatile(Database database) {
         return true;
@@ -782,24 +882,20 @@ public class LoadDataChange extends AbstractChange implements ChangeWithColumns<
 
     @Override
     public CheckSum generateCheckSum() {
-        InputStream stream = null;
         try {
-            stream = getResourceAccessor().openStream(getRelativeTo(), file);
-            if (stream == null) {
+            CheckSum fileCheckSum = CheckSumCache.getInstance().getCheckSum(getResourceAccessor(), getRelativeTo(), file,
+                    "loadData:" + commentLineStartsWith, new CheckSumCache.Generator() {
+                        @Override
+                        public CheckSum generate(InputStream stream) throws IOException {
+                            return CheckSum.compute(new EmptyLineAndCommentSkippingInputStream(stream, commentLineStartsWith), /*standardizeLineEndings*/ true);
+                        }
+                    });
+            if (fileCheckSum == null) {
                 throw new UnexpectedLiquibaseException(getFile() + " could not be found");
             }
-            stream = new EmptyLineAndCommentSkippingInputStream(stream, commentLineStartsWith);
-            return CheckSum.compute(getTableName() + ":" + CheckSum.compute(stream, /*standardizeLineEndings*/ true));
+            return CheckSum.compute(getTableName() + ":" + fileCheckSum);
         } catch (IOException e) {
             throw new UnexpectedLiquibaseException(e);
-        } finally {
-            if (stream != null) {
-                try {
-                    stream.close();
-                } catch (IOException ignore) {
-                    // Do nothing
-                }
-            }
         }
     }
 
@@ -813,6 +909,66 @@ public class LoadDataChange extends AbstractChange implements ChangeWithColumns<
         return STANDARD_CHANGELOG_NAMESPACE;
     }
 
+    /**
+     * Reads the rows of the CSV file lazily for a {@link StreamingBatchDmlExecutablePreparedStatement}.
+     */
+    private class CsvRowSource implements StreamingBatchDmlExecutablePreparedStatement.RowSource {
+        private final Database database;
+        private final String[] headers;
+
+        private CsvRowSource(Database database, String[] headers) {
+            this.database = database;
+            this.headers = headers;
+        }
+
+        @Override
+        public StreamingBatchDmlExecutablePreparedStatement.Rows open() throws DatabaseException {
+            final CSVReader reader;
+            try {
+                reader = getCSVReader();
+                if (reader == null) {
+                    throw new DatabaseException("Unable to read file " + getFile());
+                }
+                // The header was already processed by generateStatements
+                reader.readNext();
+            } catch (IOException | LiquibaseException e) {
+                throw new DatabaseException(e);
+            }
+
+            return new StreamingBatchDmlExecutablePreparedStatement.Rows() {
+                // Start at '1' to take into account the header (already processed):
+                private int lineNumber = 1;
+
+                @Override
+                public ExecutablePreparedStatementBase next() throws DatabaseException {
+                    try {
+                        String[] line;
+                        while ((line = reader.readNext()) != null) {
+                            lineNumber++;
+                            if (isLineSkipped(line)) {
+                                continue;
+                            }
+                            checkLineLength(headers, line, lineNumber);
+
+                            return createPreparedStatement(
+                                    database, getCatalogName(), getSchemaName(), getTableName(),
+                                    getColumnsFromLine(headers, line, database), getChangeSet(), getResourceAccessor()
+                            );
+                        }
+                        return null;
+                    } catch (IOException e) {
+                        throw new DatabaseException(e);
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    reader.close();
+                }
+            };
+        }
+    }
+
     @SuppressWarnings("HardCodedStringLiteral")
     public enum LOAD_DATA_TYPE {
         BOOLEAN, NUMERIC, DATE, STRING, COMPUTED, SEQUENCE, BLOB, CLOB, SKIP,UUID
@@ -3,6 +3,8 @@ package liquibase.change.core;
 import liquibase.Scope;
 import liquibase.change.AbstractSQLChange;
 import liquibase.change.ChangeMetaData;
+import liquibase.change.CheckSum;
+import liquibase.change.CheckSumCache;
 import liquibase.change.DatabaseChange;
 import liquibase.change.DatabaseChangeProperty;
 import liquibase.changelog.ChangeLogParameters;
@@ -118,11 +120,7 @@ public class SQLFileChange extends AbstractSQLChange {
 
         InputStream inputStream = null;
         try {
-            String relativeTo = null;
-            if (ObjectUtil.defaultIfNull(isRelativeToChangelogFile(), false)) {
-                relativeTo = getChangeSet().getFilePath();
-            }
-            inputStream = ObjectUtil.defaultIfNull(getResourceAccessor(), Scope.getCurrentScope().getResourceAccessor()).openStream(relativeTo, path);
+            inputStream = getResourceAccessorToUse().openStream(getRelativeTo(), path);
         } catch (IOException e) {
             throw new IOException("Unable to read file '" + path + "'", e);
         }
@@ -132,6 +130,47 @@ public class SQLFileChange extends AbstractSQLChange {
         return inputStream;
     }
 
+    private String getRelativeTo() {
+        String relativeTo = null;
+        if (ObjectUtil.defaultIfNull(isRelativeToChangelogFile(), false)) {
+            relativeTo = getChangeSet().getFilePath();
+        }
+        return relativeTo;
+    }
+
+    private ResourceAccessor getResourceAccessorToUse() {
+        return ObjectUtil.defaultIfNull(getResourceAccessor(), Scope.getCurrentScope().getResourceAccessor());
+    }
+
+    /**
+     * Calculates the checksum based on the SQL file. The checksum of an unchanged file is taken from the
+     * {@link CheckSumCache}.
+     */
+    @Override
+    public CheckSum generateCheckSum() {
+        if ((path == null) || (super.getSql() != null)) {
+            return super.generateCheckSum();
+        }
+
+        CheckSum checkSum;
+        try {
+            checkSum = CheckSumCache.getInstance().getCheckSum(getResourceAccessorToUse(), getRelativeTo(), path,
+                    "sqlFile:" + getEndDelimiter() + ":" + isSplitStatements() + ":" + isStripComments(),
+                    new CheckSumCache.Generator() {
+                        @Override
+                        public CheckSum generate(InputStream stream) throws IOException {
+                            return CheckSum.compute(new NormalizingStream(getEndDelimiter(), isSplitStatements(), isStripComments(), stream), false);
+                        }
+                    });
+        } catch (IOException e) {
+            throw new UnexpectedLiquibaseException(new IOException("Unable to read file '" + path + "'", e));
+        }
+        if (checkSum == null) {
+            throw new UnexpectedLiquibaseException(new IOException("File does not exist: '" + path + "'"));
+        }
+        return checkSum;
+    }
+
     @Override
     public ValidationErrors validate(Database database) {
         ValidationErrors validationErrors = new ValidationErrors();
@@ -9,13 +9,17 @@ import liquibase.database.Database;
 import liquibase.exception.DatabaseException;
 import liquibase.exception.DatabaseHistoryException;
 import liquibase.logging.LogType;
+import liquibase.util.StringUtil;
 
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 public abstract class AbstractChangeLogHistoryService implements ChangeLogHistoryService {
 
     private Database database;
     private String deploymentId;
+    private Map<String, RanChangeSet> ranChangeSetIndex;
 
     public Database getDatabase() {
         return database;
@@ -80,6 +84,17 @@ public abstract class AbstractChangeLogHistoryService implements ChangeLogHistor
 
     @Override
     public RanChangeSet getRanChangeSet(final ChangeSet changeSet) throws DatabaseException, DatabaseHistoryException {
+        if (isRanChangeSetIndexSupported()) {
+            if (ranChangeSetIndex == null) {
+                Map<String, RanChangeSet> index = new HashMap<>();
+                for (RanChangeSet ranChange : getRanChangeSets()) {
+                    index.putIfAbsent(getRanChangeSetKey(ranChange.getChangeLog(), ranChange.getId(), ranChange.getAuthor()), ranChange);
+                }
+                ranChangeSetIndex = index;
+            }
+            return ranChangeSetIndex.get(getRanChangeSetKey(changeSet.getFilePath(), changeSet.getId(), changeSet.getAuthor()));
+        }
+
         for (RanChangeSet ranChange : getRanChangeSets()) {
             if (ranChange.isSameAs(changeSet)) {
                 return ranChange;
@@ -88,6 +103,55 @@ public abstract class AbstractChangeLogHistoryService implements ChangeLogHistor
         return null;
     }
 
+    /**
+     * Return true if {@link #getRanChangeSet(ChangeSet)} can look up the ran changesets through a hashed index
+     * instead of scanning {@link #getRanChangeSets()}. Only implementations that cache their ran changesets should
+     * return true, and they must keep the index in sync through {@link #addToRanChangeSetIndex(RanChangeSet)},
+     * {@link #replaceInRanChangeSetIndex(RanChangeSet, RanChangeSet)} and {@link #resetRanChangeSetIndex()} whenever
+     * the cached list changes.
+     */
+    protected boolean isRanChangeSetIndexSupported() {
+        return false;
+    }
+
+    /**
+     * Adds a newly ran changeset to the index, if it is built. As with the list, an existing entry for the same
+     * changeset is kept.
+     */
+    protected void addToRanChangeSetIndex(RanChangeSet ranChangeSet) {
+        if (ranChangeSetIndex != null) {
+            ranChangeSetIndex.putIfAbsent(getRanChangeSetKey(ranChangeSet.getChangeLog(), ranChangeSet.getId(), ranChangeSet.getAuthor()), ranChangeSet);
+        }
+    }
+
+    /**
+     * Replaces an entry of the cached list in the index, if it is built and the entry is the one indexed for its
+     * changeset.
+     */
+    protected void replaceInRanChangeSetIndex(RanChangeSet oldRanChangeSet, RanChangeSet newRanChangeSet) {
+        if (ranChangeSetIndex != null) {
+            String key = getRanChangeSetKey(oldRanChangeSet.getChangeLog(), oldRanChangeSet.getId(), oldRanChangeSet.getAuthor());
+            if (ranChangeSetIndex.get(key) == oldRanChangeSet) {
+                ranChangeSetIndex.put(key, newRanChangeSet);
+            }
+        }
+    }
+
+    /**
+     * Discards the index so it is rebuilt from {@link #getRanChangeSets()} on the next lookup.
+     */
+    protected void resetRanChangeSetIndex() {
+        ranChangeSetIndex = null;
+    }
+
+    /**
+     * Builds the index key using the same normalization as {@link RanChangeSet#isSameAs(ChangeSet)}.
+     */
+    protected String getRanChangeSetKey(String filePath, String id, String author) {
+        String normalizedPath = (filePath == null) ? null : filePath.replace('\\', '/').replaceFirst("^classpath:", "");
+        return StringUtil.foldCase(normalizedPath) + "::" + StringUtil.foldCase(id) + "::" + StringUtil.foldCase(author);
+    }
+
     @Override
     public Date getRanDate(ChangeSet changeSet) throws DatabaseException, DatabaseHistoryException {
         RanChangeSet ranChange = getRanChangeSet(changeSet);
@@ -42,6 +42,22 @@ public interface ChangeLogHistoryService extends PrioritizedService {
 
     void setExecType(ChangeSet changeSet, ChangeSet.ExecType execType) throws DatabaseException;
 
+    /**
+     * Marks all the given changeSets with the given exec type. Implementations may write the rows in bulk.
+     */
+    default void setExecType(List<ChangeSet> changeSets, ChangeSet.ExecType execType) throws DatabaseException {
+        for (ChangeSet changeSet : changeSets) {
+            setExecType(changeSet, execType);
+        }
+    }
+
+    /**
+     * Writes any history rows that {@link #setExecType(ChangeSet, ChangeSet.ExecType)} deferred to a later batch.
+     * The caller is responsible for committing.
+     */
+    default void flush() throws DatabaseException {
+    }
+
     void removeFromHistory(ChangeSet changeSet) throws DatabaseException;
 
     int getNextSequenceValue() throws LiquibaseException;
@@ -17,6 +17,7 @@ import java.util.*;
 public class ChangeLogIterator {
     private DatabaseChangeLog databaseChangeLog;
     private List<ChangeSetFilter> changeSetFilters;
+    private ChangeSetFilter[] filterArray;
 
     private Set<String> seenChangeSets = new HashSet<>();
 
@@ -64,37 +65,36 @@ public class ChangeLogIterator {
                         Collections.reverse(changeSetList);
                     }
 
+                    ChangeSetFilter[] filters = getFilterArray();
+                    boolean reportsSkipped = visitor instanceof SkippedChangeSetVisitor;
                     for (ChangeSet changeSet : changeSetList) {
-                        boolean shouldVisit = true;
-                        Set<ChangeSetFilterResult> reasonsAccepted = new HashSet<>();
-                        Set<ChangeSetFilterResult> reasonsDenied = new HashSet<>();
-                        if (changeSetFilters != null) {
-                            for (ChangeSetFilter filter : changeSetFilters) {
-                                ChangeSetFilterResult acceptsResult = filter.accepts(changeSet);
-                                if (acceptsResult.isAccepted()) {
-                                    reasonsAccepted.add(acceptsResult);
-                                } else {
-                                    shouldVisit = false;
-                                    reasonsDenied.add(acceptsResult);
-                                    break;
+                        Set<ChangeSetFilterResult> reasonsAccepted = null;
+                        Set<ChangeSetFilterResult> reasonsDenied = null;
+                        for (ChangeSetFilter filter : filters) {
+                            ChangeSetFilterResult acceptsResult = filter.accepts(changeSet);
+                            if (acceptsResult.isAccepted()) {
+                                if (reasonsAccepted == null) {
+                                    reasonsAccepted = new HashSet<>();
                                 }
+                                reasonsAccepted.add(acceptsResult);
+                            } else {
+                                reasonsDenied = new HashSet<>();
+                                reasonsDenied.add(acceptsResult);
+                                break;
                             }
                         }
 
-                        boolean finalShouldVisit = shouldVisit;
-                        Scope.child(Scope.Attr.changeSet, changeSet, new Scope.ScopedRunner() {
-                            @Override
-                            public void run() throws Exception {
-                                if (finalShouldVisit && !alreadySaw(changeSet)) {
-                                    visitor.visit(changeSet, databaseChangeLog, env.getTargetDatabase(), reasonsAccepted);
-                                    markSeen(changeSet);
-                                } else {
-                                    if (visitor instanceof SkippedChangeSetVisitor) {
-                                        ((SkippedChangeSetVisitor) visitor).skipped(changeSet, databaseChangeLog, env.getTargetDatabase(), reasonsDenied);
-                                    }
-                                }
-                            }
-                        });
+                        if ((reasonsDenied == null) && !alreadySaw(changeSet)) {
+                            Set<ChangeSetFilterResult> finalReasonsAccepted = (reasonsAccepted == null) ? new HashSet<>() : reasonsAccepted;
+                            Scope.child(Scope.Attr.changeSet, changeSet, () -> {
+                                visitor.visit(changeSet, databaseChangeLog, env.getTargetDatabase(), finalReasonsAccepted);
+                                markSeen(changeSet);
+                            });
+                        } else if (reportsSkipped) {
+                            Set<ChangeSetFilterResult> finalReasonsDenied = (reasonsDenied == null) ? new HashSet<>() : reasonsDenied;
+                            Scope.child(Scope.Attr.changeSet, changeSet, () ->
+                                    ((SkippedChangeSetVisitor) visitor).skipped(changeSet, databaseChangeLog, env.getTargetDatabase(), finalReasonsDenied));
+                        }
                     }
                 }
             });
@@ -105,6 +105,16 @@ public class ChangeLogIterator {
         }
     }
 
+    /**
+     * Returns the filters as an array, built once so iterating them per changeSet does not create an iterator.
+     */
+    private ChangeSetFilter[] getFilterArray() {
+        if (filterArray == null) {
+            filterArray = (changeSetFilters == null) ? new ChangeSetFilter[0] : changeSetFilters.toArray(new ChangeSetFilter[0]);
+        }
+        return filterArray;
+    }
+
     protected void markSeen(ChangeSet changeSet) {
         if (changeSet.key == null) {
             changeSet.key = createKey(changeSet);
@@ -32,6 +32,7 @@ import liquibase.precondition.ErrorPrecondition;
 import liquibase.precondition.FailedPrecondition;
 import liquibase.precondition.core.PreconditionContainer;
 import liquibase.resource.ResourceAccessor;
+import liquibase.snapshot.SchemaMetadataCache;
 import liquibase.sql.visitor.SqlVisitor;
 import liquibase.sql.visitor.SqlVisitorFactory;
 import liquibase.statement.SqlStatement;
@@ -612,6 +613,7 @@ public class ChangeSet implements Conditional, ChangeLogChild {
 
 
                         database.executeStatements(change, databaseChangeLog, sqlVisitors);
+                        SchemaMetadataCache.getInstance().changeExecuted(change, database);
                         log.info(LogType.LOG, change.getConfirmationMessage());
                         if (listener != null) {
                             listener.ran(change, this, changeLog, database);
@@ -717,6 +719,8 @@ public class ChangeSet implements Conditional, ChangeLogChild {
                 }
             }
 
+            SchemaMetadataCache.getInstance().clear(database);
+
             if (runInTransaction) {
                 database.commit();
             }
@@ -40,6 +40,8 @@ public class DatabaseChangeLog implements Comparable<DatabaseChangeLog>, Conditi
     private ObjectQuotingStrategy objectQuotingStrategy;
 
     private List<ChangeSet> changeSets = new ArrayList<>();
+    private Map<String, List<ChangeSet>> changeSetIndex;
+    private int indexedChangeSetCount;
     private ChangeLogParameters changeLogParameters;
 
     private RuntimeEnvironment runtimeEnvironment;
@@ -171,7 +173,11 @@ public class DatabaseChangeLog implements Comparable<DatabaseChangeLog>, Conditi
 
 
     public ChangeSet getChangeSet(String path, String author, String id) {
-        for (ChangeSet changeSet : changeSets) {
+        List<ChangeSet> candidates = getChangeSetIndex().get(getChangeSetKey(path, author, id));
+        if (candidates == null) {
+            return null;
+        }
+        for (ChangeSet changeSet : candidates) {
             if (normalizePath(changeSet.getFilePath()).equalsIgnoreCase(normalizePath(path))
                     && changeSet.getAuthor().equalsIgnoreCase(author)
                     && changeSet.getId().equalsIgnoreCase(id)
@@ -183,11 +189,39 @@ public class DatabaseChangeLog implements Comparable<DatabaseChangeLog>, Conditi
         return null;
     }
 
+    /**
+     * Returns the changeSets grouped by {@link #getChangeSetKey(String, String, String)}, in changelog order.
+     * The index is rebuilt whenever changeSets were added since it was last built.
+     */
+    private Map<String, List<ChangeSet>> getChangeSetIndex() {
+        if ((changeSetIndex == null) || (indexedChangeSetCount != changeSets.size())) {
+            Map<String, List<ChangeSet>> index = new HashMap<>();
+            for (ChangeSet changeSet : changeSets) {
+                String key = getChangeSetKey(changeSet.getFilePath(), changeSet.getAuthor(), changeSet.getId());
+                List<ChangeSet> list = index.get(key);
+                if (list == null) {
+                    list = new ArrayList<>(1);
+                    index.put(key, list);
+                }
+                list.add(changeSet);
+            }
+            changeSetIndex = index;
+            indexedChangeSetCount = changeSets.size();
+        }
+        return changeSetIndex;
+    }
+
+    private String getChangeSetKey(String path, String author, String id) {
+        String normalizedPath = (path == null) ? null : normalizePath(path);
+        return StringUtil.foldCase(normalizedPath) + "::" + StringUtil.foldCase(author) + "::" + StringUtil.foldCase(id);
+    }
+
     public List<ChangeSet> getChangeSets() {
         return changeSets;
     }
 
     public void addChangeSet(ChangeSet changeSet) {
+        changeSetIndex = null;
         if (changeSet.getRunOrder() == null) {
             ListIterator<ChangeSet> it = this.changeSets.listIterator(this.changeSets.size());
             boolean added = false;
@@ -572,6 +606,7 @@ public class DatabaseChangeLog implements Comparable<DatabaseChangeLog>, Conditi
 
     public void setIgnoreClasspathPrefix(boolean ignoreClasspathPrefix) {
         this.ignoreClasspathPrefix = ignoreClasspathPrefix;
+        this.changeSetIndex = null;
     }
 
     public boolean ignoreClasspathPrefix() {
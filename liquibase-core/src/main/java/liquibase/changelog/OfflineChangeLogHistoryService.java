@@ -2,6 +2,7 @@ package liquibase.changelog;
 
 import liquibase.ContextExpression;
 import liquibase.Labels;
+import liquibase.Scope;
 import liquibase.change.CheckSum;
 import liquibase.changelog.ChangeSet.ExecType;
 import liquibase.configuration.GlobalConfiguration;
@@ -12,6 +13,7 @@ import liquibase.exception.DatabaseException;
 import liquibase.exception.LiquibaseException;
 import liquibase.exception.UnexpectedLiquibaseException;
 import liquibase.executor.ExecutorService;
+import liquibase.logging.LogType;
 import liquibase.servicelocator.LiquibaseService;
 import liquibase.statement.core.CreateDatabaseChangeLogTableStatement;
 import liquibase.statement.core.MarkChangeSetRanStatement;
@@ -24,11 +26,23 @@ import liquibase.util.csv.CSVReader;
 import liquibase.util.csv.CSVWriter;
 
 import java.io.*;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Date;
-import java.util.List;
-
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Keeps the history of an offline database in a CSV file. The file is read once; changes to the history are appended to
+ * a journal next to it and written back to the file in one pass when the service is {@link #reset()}. If a run ends
+ * without a reset, the journal is applied the next time the file is read.
+ * <p>
+ * The journal starts with the length and MD5 of the file it was written against and is only applied to that exact
+ * file. When the file is rewritten, the journal is retired before the new file is moved in place, so a run that stops
+ * part way through either finishes the move on the next read or leaves the old file and its journal untouched.
+ */
 @LiquibaseService(skip = true)
 public class OfflineChangeLogHistoryService extends AbstractChangeLogHistoryService {
 
@@ -40,6 +54,21 @@ public class OfflineChangeLogHistoryService extends AbstractChangeLogHistoryServ
     private boolean executeDdlAgainstDatabase = true;
 
     private Integer lastChangeSetSequenceValue;
+
+    private static final String JOURNAL_BASE = "BASE";
+    private static final String JOURNAL_APPEND = "APPEND";
+    private static final String JOURNAL_REPLACE = "REPLACE";
+    private static final String JOURNAL_REMOVE = "REMOVE";
+
+    private List<String[]> rows;
+    private Map<List<String>, List<Integer>> rowIndexesByKey;
+    private int baseRowCount;
+    private String baseFingerprint;
+    private List<RanChangeSet> ranChangeSetList;
+    /** The index in {@link #rows} of each entry of {@link #ranChangeSetList}, in ascending order. */
+    private List<Integer> ranChangeSetRows;
+    private CSVWriter journalWriter;
+
     private enum Columns {
         ID,
         AUTHOR,
@@ -93,9 +122,23 @@ public class OfflineChangeLogHistoryService extends AbstractChangeLogHistoryServ
     }
 
 
+    /**
+     * Writes the changes recorded in the journal to the history file, so the next run starts from a compacted file.
+     */
     @Override
     public void reset() {
-        // nothing to do.
+        try {
+            compact();
+        } catch (DatabaseException e) {
+            Scope.getCurrentScope().getLog(getClass()).warning(LogType.LOG, "Could not compact " + changeLogFile.getAbsolutePath()
+                    + ", its changes are kept in " + getJournalFile().getAbsolutePath() + ": " + e.getMessage(), e);
+        }
+        this.rows = null;
+        this.rowIndexesByKey = null;
+        this.ranChangeSetList = null;
+        this.ranChangeSetRows = null;
+        this.lastChangeSetSequenceValue = null;
+        resetRanChangeSetIndex();
     }
 
     @Override
@@ -124,15 +167,38 @@ public class OfflineChangeLogHistoryService extends AbstractChangeLogHistoryServ
                      LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding())
         ) {
             CSVWriter csvWriter = new CSVWriter(writer);
-            String[] columns = new String[Columns.values().length];
-            int i = 0;
-            for (Columns column : Columns.values()) {
-                columns[i++] = column.toString();
-            }
-            csvWriter.writeNext(columns);
+            csvWriter.writeNext(getHeader());
         }
     }
 
+    private String[] getHeader() {
+        String[] columns = new String[Columns.values().length];
+        int i = 0;
+        for (Columns column : Columns.values()) {
+            columns[i++] = column.toString();
+        }
+        return columns;
+    }
+
+    /**
+     * The file the changes to the history are appended to until they are written to the history file by {@link #reset()}.
+     */
+    protected File getJournalFile() {
+        return new File(changeLogFile.getParentFile(), changeLogFile.getName() + ".journal");
+    }
+
+    /**
+     * The journal is renamed to this file once its changes are written to the new history file, until that file has
+     * replaced the old one.
+     */
+    protected File getRetiredJournalFile() {
+        return new File(changeLogFile.getParentFile(), changeLogFile.getName() + ".journal.done");
+    }
+
+    private File getNewFile() {
+        return new File(changeLogFile.getParentFile(), changeLogFile.getName() + ".new");
+    }
+
     @Override
     protected void replaceChecksum(final ChangeSet changeSet) throws DatabaseException {
         if (isExecuteDmlAgainstDatabase()) {
@@ -149,128 +215,372 @@ public class OfflineChangeLogHistoryService extends AbstractChangeLogHistoryServ
 
     @Override
     public List<RanChangeSet> getRanChangeSets() throws DatabaseException {
-        try (
-                    Reader reader = new InputStreamReader(new FileInputStream(this.changeLogFile), LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding());
-        )
-        {
-            CSVReader csvReader = new CSVReader(reader);
-            String[] line = csvReader.readNext();
-
-            if (line == null) { //empty file
-                writeHeader(this.changeLogFile);
-                return new ArrayList<>();
-            }
-            if (!"ID".equals(line[Columns.ID.ordinal()])) {
-                throw new DatabaseException("Missing header in file "+this.changeLogFile.getAbsolutePath());
+        if (this.ranChangeSetList == null) {
+            List<String[]> lines = getRows();
+            List<RanChangeSet> ranChangeSets = new ArrayList<>();
+            List<Integer> ranChangeSetRows = new ArrayList<>();
+            for (int i = 0; i < lines.size(); i++) {
+                if (lines.get(i) != null) {
+                    ranChangeSets.add(toRanChangeSet(lines.get(i)));
+                    ranChangeSetRows.add(i);
+                }
             }
+            this.ranChangeSetList = ranChangeSets;
+            this.ranChangeSetRows = ranChangeSetRows;
+        }
+        return Collections.unmodifiableList(ranChangeSetList);
+    }
 
-            List<RanChangeSet> returnList = new ArrayList<>();
-            while ((line = csvReader.readNext()) != null) {
-                ContextExpression contexts = new ContextExpression();
-                if (line.length > Columns.CONTEXTS.ordinal()) {
-                    contexts = new ContextExpression(line[Columns.CONTEXTS.ordinal()]);
-                }
-                Labels labels = new Labels();
-                if (line.length > Columns.LABELS.ordinal()) {
-                    labels = new Labels(line[Columns.LABELS.ordinal()]);
-                }
+    @Override
+    protected boolean isRanChangeSetIndexSupported() {
+        return true;
+    }
 
-                String deploymentId = null;
-                if (line.length > Columns.DEPLOYMENT_ID.ordinal()) {
-                    deploymentId = line[Columns.DEPLOYMENT_ID.ordinal()];
-                }
+    private RanChangeSet toRanChangeSet(String[] line) throws DatabaseException {
+        ContextExpression contexts = new ContextExpression();
+        if (line.length > Columns.CONTEXTS.ordinal()) {
+            contexts = new ContextExpression(line[Columns.CONTEXTS.ordinal()]);
+        }
+        Labels labels = new Labels();
+        if (line.length > Columns.LABELS.ordinal()) {
+            labels = new Labels(line[Columns.LABELS.ordinal()]);
+        }
 
-                returnList.add(new RanChangeSet(
-                        line[Columns.FILENAME.ordinal()],
-                        line[Columns.ID.ordinal()],
-                        line[Columns.AUTHOR.ordinal()],
-                        CheckSum.parse(line[Columns.MD5SUM.ordinal()]),
-                        new ISODateFormat().parse(line[Columns.DATEEXECUTED.ordinal()]),
-                        line[Columns.TAG.ordinal()],
-                        ChangeSet.ExecType.valueOf(line[Columns.EXECTYPE.ordinal()]),
-                        line[Columns.DESCRIPTION.ordinal()],
-                        line[Columns.COMMENTS.ordinal()],
-                        contexts,
-                        labels,
-                        deploymentId));
-            }
+        String deploymentId = null;
+        if (line.length > Columns.DEPLOYMENT_ID.ordinal()) {
+            deploymentId = line[Columns.DEPLOYMENT_ID.ordinal()];
+        }
 
-            return returnList;
+        try {
+            return new RanChangeSet(
+                    line[Columns.FILENAME.ordinal()],
+                    line[Columns.ID.ordinal()],
+                    line[Columns.AUTHOR.ordinal()],
+                    CheckSum.parse(line[Columns.MD5SUM.ordinal()]),
+                    new ISODateFormat().parse(line[Columns.DATEEXECUTED.ordinal()]),
+                    line[Columns.TAG.ordinal()],
+                    ChangeSet.ExecType.valueOf(line[Columns.EXECTYPE.ordinal()]),
+                    line[Columns.DESCRIPTION.ordinal()],
+                    line[Columns.COMMENTS.ordinal()],
+                    contexts,
+                    labels,
+                    deploymentId);
         } catch (Exception e) {
             throw new DatabaseException(e);
         }
     }
 
-    protected void replaceChangeSet(ChangeSet changeSet, ReplaceChangeSetLogic replaceLogic) throws DatabaseException {
-        File oldFile = this.changeLogFile;
-        File newFile = new File(oldFile.getParentFile(), oldFile.getName()+".new");
+    /**
+     * Returns the rows of the history file with the changes from the journal applied. The file and journal are read
+     * once; removed rows are left as null so the journal can refer to rows by their position.
+     */
+    private List<String[]> getRows() throws DatabaseException {
+        if (this.rows == null) {
+            recoverCompaction();
+            List<String[]> lines = new ArrayList<>();
+            MessageDigest digest = createDigest();
+            try (
+                Reader reader = new InputStreamReader(new DigestInputStream(new FileInputStream(this.changeLogFile), digest), LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding());
+                CSVReader csvReader = new CSVReader(reader);
+            )
+            {
+                String[] line = csvReader.readNext();
+
+                if (line == null) { //empty file
+                    writeHeader(this.changeLogFile);
+                    digest.reset();
+                    try (InputStream stream = new DigestInputStream(new FileInputStream(this.changeLogFile), digest)) {
+                        byte[] buffer = new byte[1024];
+                        while (stream.read(buffer) != -1) {
+                            //digest is updating
+                        }
+                    }
+                } else {
+                    if (!"ID".equals(line[Columns.ID.ordinal()])) {
+                        throw new DatabaseException("Missing header in file "+this.changeLogFile.getAbsolutePath());
+                    }
+                    while ((line = csvReader.readNext()) != null) {
+                        lines.add(line);
+                    }
+                }
+            } catch (IOException e) {
+                throw new DatabaseException(e);
+            }
+            this.baseRowCount = lines.size();
+            this.baseFingerprint = this.changeLogFile.length() + ":" + String.format("%032x", new BigInteger(1, digest.digest()));
+            replayJournal(lines);
+
+            Map<List<String>, List<Integer>> indexes = new HashMap<>();
+            for (int i = 0; i < lines.size(); i++) {
+                if (lines.get(i) != null) {
+                    indexes.computeIfAbsent(getRowKey(lines.get(i)), key -> new ArrayList<>()).add(i);
+                }
+            }
+            this.rowIndexesByKey = indexes;
+            this.rows = lines;
+        }
+        return this.rows;
+    }
 
+    private void replayJournal(List<String[]> lines) throws DatabaseException {
+        File journalFile = getJournalFile();
+        if (!journalFile.exists()) {
+            return;
+        }
         try (
-            Reader reader = new InputStreamReader(new FileInputStream(oldFile), LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding());
-            Writer writer = new OutputStreamWriter(new FileOutputStream(newFile), LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding());
+            Reader reader = new InputStreamReader(new FileInputStream(journalFile), LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding());
             CSVReader csvReader = new CSVReader(reader);
-            CSVWriter csvWriter = new CSVWriter(writer);
         )
         {
-            String[] line;
-            while ((line = csvReader.readNext()) != null) {
-                if ((changeSet == null) || (line[Columns.ID.ordinal()].equals(changeSet.getId()) && line[Columns.AUTHOR.ordinal()].equals
-                    (changeSet.getAuthor()) && line[Columns.FILENAME.ordinal()].equals(changeSet.getFilePath()))) {
-                    line = replaceLogic.execute(line);
+            String[] record = csvReader.readNext();
+            if ((record == null) || (record.length < 3) || !JOURNAL_BASE.equals(record[0])
+                    || (Integer.parseInt(record[1]) != lines.size()) || !this.baseFingerprint.equals(record[2])) {
+                Scope.getCurrentScope().getLog(getClass()).warning(LogType.LOG, "Ignoring " + journalFile.getAbsolutePath()
+                        + " as it was not written for the current content of " + changeLogFile.getAbsolutePath());
+                journalFile.delete();
+                return;
+            }
+            int replayed = 0;
+            while ((record = csvReader.readNext()) != null) {
+                if (JOURNAL_APPEND.equals(record[0])) {
+                    lines.add(Arrays.copyOfRange(record, 1, record.length));
+                } else if (JOURNAL_REPLACE.equals(record[0])) {
+                    lines.set(Integer.parseInt(record[1]), Arrays.copyOfRange(record, 2, record.length));
+                } else if (JOURNAL_REMOVE.equals(record[0])) {
+                    lines.set(Integer.parseInt(record[1]), null);
+                } else {
+                    throw new DatabaseException("Unknown record " + record[0] + " in " + journalFile.getAbsolutePath());
                 }
-                if (line != null) {
-                    csvWriter.writeNext(line);
+                replayed++;
+            }
+            Scope.getCurrentScope().getLog(getClass()).info(LogType.LOG, "Applied " + replayed + " changes from " + journalFile.getAbsolutePath());
+        } catch (IOException | RuntimeException e) {
+            throw new DatabaseException("Cannot read " + journalFile.getAbsolutePath() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void journal(String type, Integer rowIndex, String[] line) throws DatabaseException {
+        try {
+            if (this.journalWriter == null) {
+                File journalFile = getJournalFile();
+                boolean newJournal = !journalFile.exists() || (journalFile.length() == 0);
+                this.journalWriter = new CSVWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journalFile, true),
+                        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding())));
+                if (newJournal) {
+                    this.journalWriter.writeNext(new String[]{JOURNAL_BASE, String.valueOf(this.baseRowCount), this.baseFingerprint});
                 }
             }
-        } catch (Exception e) {
+
+            List<String> record = new ArrayList<>();
+            record.add(type);
+            if (rowIndex != null) {
+                record.add(String.valueOf(rowIndex));
+            }
+            if (line != null) {
+                record.addAll(Arrays.asList(line));
+            }
+            this.journalWriter.writeNext(record.toArray(new String[record.size()]));
+            this.journalWriter.flush();
+        } catch (IOException e) {
             throw new DatabaseException(e);
         }
-        oldFile.delete();
-        newFile.renameTo(oldFile);
     }
 
-    protected void appendChangeSet(ChangeSet changeSet, ChangeSet.ExecType execType) throws DatabaseException {
-        File oldFile = this.changeLogFile;
-        File newFile = new File(oldFile.getParentFile(), oldFile.getName()+".new");
+    private void closeJournal() throws DatabaseException {
+        if (this.journalWriter != null) {
+            try {
+                this.journalWriter.close();
+            } catch (IOException e) {
+                throw new DatabaseException(e);
+            } finally {
+                this.journalWriter = null;
+            }
+        }
+    }
 
+    /**
+     * Rewrites the history file with the changes from the journal and deletes the journal. Does nothing if there is
+     * no journal. The journal is retired once the new file is complete and before it replaces the old file, so the
+     * journal is never applied to a file that already contains its changes.
+     */
+    protected void compact() throws DatabaseException {
+        closeJournal();
+        File journalFile = getJournalFile();
+        if (!journalFile.exists() || !this.changeLogFile.exists()) {
+            return;
+        }
+        List<String[]> lines = getRows();
+        if (!journalFile.exists()) { //journal did not match the history file and was dropped
+            return;
+        }
+
+        File newFile = getNewFile();
         try (
-            Reader reader = new InputStreamReader(new FileInputStream(oldFile), LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding());
             Writer writer = new OutputStreamWriter(new FileOutputStream(newFile), LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding());
-            CSVReader csvReader = new CSVReader(reader);
-            CSVWriter csvWriter = new CSVWriter(writer);
+            CSVWriter csvWriter = new CSVWriter(new BufferedWriter(writer));
         )
         {
-            String[] line;
-            while ((line = csvReader.readNext()) != null) {
-                csvWriter.writeNext(line);
+            csvWriter.writeNext(getHeader());
+            for (String[] line : lines) {
+                if (line != null) {
+                    csvWriter.writeNext(line);
+                }
             }
+        } catch (IOException e) {
+            throw new DatabaseException(e);
+        }
+        File retiredJournalFile = getRetiredJournalFile();
+        if (!journalFile.renameTo(retiredJournalFile)) {
+            newFile.delete();
+            throw new DatabaseException("Could not retire changelog history journal " + journalFile.getAbsolutePath());
+        }
+        replaceWithNewFile();
+    }
 
-            String[] newLine = new String[Columns.values().length];
-            newLine[Columns.ID.ordinal()] = changeSet.getId();
-            newLine[Columns.AUTHOR.ordinal()] = changeSet.getAuthor();
-            newLine[Columns.FILENAME.ordinal()] =  changeSet.getFilePath();
-            newLine[Columns.DATEEXECUTED.ordinal()] = new ISODateFormat().format(new java.sql.Timestamp(new Date().getTime()));
-            newLine[Columns.ORDEREXECUTED.ordinal()] = String.valueOf(getNextSequenceValue());
-            newLine[Columns.EXECTYPE.ordinal()] = execType.value;
-            newLine[Columns.MD5SUM.ordinal()] = changeSet.generateCheckSum().toString();
-            newLine[Columns.DESCRIPTION.ordinal()] = changeSet.getDescription();
-            newLine[Columns.COMMENTS.ordinal()] = changeSet.getComments();
-            newLine[Columns.TAG.ordinal()] = "";
-            newLine[Columns.LIQUIBASE.ordinal()] = LiquibaseUtil.getBuildVersion().replaceAll("SNAPSHOT", "SNP");
+    /**
+     * Finishes a compaction that stopped after the journal was retired, or drops the new file of one that stopped
+     * before.
+     */
+    private void recoverCompaction() throws DatabaseException {
+        File newFile = getNewFile();
+        if (getRetiredJournalFile().exists()) {
+            if (newFile.exists()) {
+                Scope.getCurrentScope().getLog(getClass()).info(LogType.LOG, "Finishing interrupted rewrite of " + changeLogFile.getAbsolutePath());
+                replaceWithNewFile();
+            } else {
+                getRetiredJournalFile().delete();
+            }
+        } else if (newFile.exists()) {
+            newFile.delete();
+        }
+    }
 
-            newLine[Columns.CONTEXTS.ordinal()] = (changeSet.getContexts() == null) ? null : changeSet.getContexts().toString();
-            newLine[Columns.LABELS.ordinal()] = (changeSet.getLabels() == null) ? null : changeSet.getLabels().toString();
+    private void replaceWithNewFile() throws DatabaseException {
+        try {
+            Files.move(getNewFile().toPath(), this.changeLogFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new DatabaseException("Could not replace " + changeLogFile.getAbsolutePath() + ": " + e.getMessage(), e);
+        }
+        getRetiredJournalFile().delete();
+    }
 
-            newLine[Columns.DEPLOYMENT_ID.ordinal()] = getDeploymentId();
+    private static MessageDigest createDigest() throws DatabaseException {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new DatabaseException(e);
+        }
+    }
 
-            csvWriter.writeNext(newLine);
+    private List<String> getRowKey(String[] line) {
+        return Arrays.asList(line[Columns.ID.ordinal()], line[Columns.AUTHOR.ordinal()], line[Columns.FILENAME.ordinal()]);
+    }
 
-        } catch (Exception e) {
+    /**
+     * Stores the line the way it reads back from the file, where null values become empty strings.
+     */
+    private String[] toStoredLine(String[] line) {
+        for (int i = 0; i < line.length; i++) {
+            if (line[i] == null) {
+                line[i] = "";
+            }
+        }
+        return line;
+    }
+
+    /**
+     * Applies the given logic to the rows of the given changeSet, or to all rows if it is null. The loaded
+     * {@link RanChangeSet}s of the changed rows are replaced in place, like {@link #appendChangeSet} adds them, so
+     * they are not read again from all rows.
+     */
+    protected void replaceChangeSet(ChangeSet changeSet, ReplaceChangeSetLogic replaceLogic) throws DatabaseException {
+        List<String[]> lines = getRows();
+        List<Integer> indexes;
+        if (changeSet == null) {
+            indexes = new ArrayList<>();
+            for (int i = 0; i < lines.size(); i++) {
+                indexes.add(i);
+            }
+        } else {
+            indexes = rowIndexesByKey.getOrDefault(Arrays.asList(changeSet.getId(), changeSet.getAuthor(), changeSet.getFilePath()), Collections.emptyList());
+        }
+
+        for (int index : indexes) {
+            String[] line = lines.get(index);
+            if (line == null) {
+                continue;
+            }
+            line = replaceLogic.execute(line);
+            if (line == null) {
+                lines.set(index, null);
+                journal(JOURNAL_REMOVE, index, null);
+            } else {
+                lines.set(index, toStoredLine(line));
+                journal(JOURNAL_REPLACE, index, line);
+            }
+            updateRanChangeSet(index, line);
+        }
+    }
+
+    /**
+     * Replaces the loaded {@link RanChangeSet} of the given row with one read from the new line, or removes it if
+     * the line is null.
+     */
+    private void updateRanChangeSet(int rowIndex, String[] line) throws DatabaseException {
+        if (this.ranChangeSetList == null) {
+            return;
+        }
+        int position = Collections.binarySearch(ranChangeSetRows, rowIndex);
+        if (position < 0) {
+            return;
+        }
+        if (line == null) {
+            //another row of the same changeSet may take its place in the index, so the index is built again
+            ranChangeSetList.remove(position);
+            ranChangeSetRows.remove(position);
+            resetRanChangeSetIndex();
+        } else {
+            RanChangeSet ranChangeSet = toRanChangeSet(line);
+            replaceInRanChangeSetIndex(ranChangeSetList.set(position, ranChangeSet), ranChangeSet);
+        }
+    }
+
+    protected void appendChangeSet(ChangeSet changeSet, ChangeSet.ExecType execType) throws DatabaseException {
+        List<String[]> lines = getRows();
+
+        String[] newLine = new String[Columns.values().length];
+        newLine[Columns.ID.ordinal()] = changeSet.getId();
+        newLine[Columns.AUTHOR.ordinal()] = changeSet.getAuthor();
+        newLine[Columns.FILENAME.ordinal()] =  changeSet.getFilePath();
+        newLine[Columns.DATEEXECUTED.ordinal()] = new ISODateFormat().format(new java.sql.Timestamp(new Date().getTime()));
+        try {
+            newLine[Columns.ORDEREXECUTED.ordinal()] = String.valueOf(getNextSequenceValue());
+        } catch (LiquibaseException e) {
             throw new DatabaseException(e);
         }
-        
-        oldFile.delete();
-        newFile.renameTo(oldFile);
+        newLine[Columns.EXECTYPE.ordinal()] = execType.value;
+        newLine[Columns.MD5SUM.ordinal()] = changeSet.generateCheckSum().toString();
+        newLine[Columns.DESCRIPTION.ordinal()] = changeSet.getDescription();
+        newLine[Columns.COMMENTS.ordinal()] = changeSet.getComments();
+        newLine[Columns.TAG.ordinal()] = "";
+        newLine[Columns.LIQUIBASE.ordinal()] = LiquibaseUtil.getBuildVersion().replaceAll("SNAPSHOT", "SNP");
+
+        newLine[Columns.CONTEXTS.ordinal()] = (changeSet.getContexts() == null) ? null : changeSet.getContexts().toString();
+        newLine[Columns.LABELS.ordinal()] = (changeSet.getLabels() == null) ? null : changeSet.getLabels().toString();
+
+        newLine[Columns.DEPLOYMENT_ID.ordinal()] = getDeploymentId();
+
+        toStoredLine(newLine);
+        journal(JOURNAL_APPEND, null, newLine);
+        lines.add(newLine);
+        rowIndexesByKey.computeIfAbsent(getRowKey(newLine), key -> new ArrayList<>()).add(lines.size() - 1);
+
+        if (this.ranChangeSetList != null) {
+            RanChangeSet ranChangeSet = toRanChangeSet(newLine);
+            this.ranChangeSetList.add(ranChangeSet);
+            this.ranChangeSetRows.add(lines.size() - 1);
+            addToRanChangeSetIndex(ranChangeSet);
+        }
     }
 
     @Override
@@ -317,20 +627,14 @@ public class OfflineChangeLogHistoryService extends AbstractChangeLogHistoryServ
         if (lastChangeSetSequenceValue == null) {
             lastChangeSetSequenceValue = 0;
 
-            try (
-                Reader reader = new InputStreamReader(new FileInputStream(this.changeLogFile), LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding());
-            )
-            {
-                
-                CSVReader csvReader = new CSVReader(reader);
-                String[] line = csvReader.readNext(); //skip header line
-
-                List<RanChangeSet> returnList = new ArrayList<>();
-                while ((line = csvReader.readNext()) != null) {
-                    try {
-                        lastChangeSetSequenceValue = Integer.valueOf(line[Columns.ORDEREXECUTED.ordinal()]);
-                    } catch (NumberFormatException ignore) {
-                        // ignore.
+            try {
+                for (String[] line : getRows()) {
+                    if (line != null) {
+                        try {
+                            lastChangeSetSequenceValue = Integer.valueOf(line[Columns.ORDEREXECUTED.ordinal()]);
+                        } catch (NumberFormatException ignore) {
+                            // ignore.
+                        }
                     }
                 }
             } catch (Exception ignore) {
@@ -392,6 +696,18 @@ public class OfflineChangeLogHistoryService extends AbstractChangeLogHistoryServ
 
     @Override
     public void destroy() throws DatabaseException {
+        closeJournal();
+        this.rows = null;
+        this.rowIndexesByKey = null;
+        this.ranChangeSetList = null;
+        this.ranChangeSetRows = null;
+        resetRanChangeSetIndex();
+        File journalFile = getJournalFile();
+        if (journalFile.exists() && !journalFile.delete()) {
+            throw new DatabaseException("Could not delete changelog history journal "+journalFile.getAbsolutePath());
+        }
+        getRetiredJournalFile().delete();
+        getNewFile().delete();
         if (changeLogFile.exists() && !changeLogFile.delete()) {
             throw new DatabaseException("Could not delete changelog history file "+changeLogFile.getAbsolutePath());
         }
@@ -3,22 +3,26 @@ package liquibase.changelog;
 import liquibase.*;
 import liquibase.change.CheckSum;
 import liquibase.change.ColumnConfig;
+import liquibase.configuration.GlobalConfiguration;
+import liquibase.configuration.LiquibaseConfiguration;
 import liquibase.database.Database;
-import liquibase.database.core.DB2Database;
-import liquibase.database.core.MSSQLDatabase;
-import liquibase.database.core.SQLiteDatabase;
+import liquibase.database.core.*;
 import liquibase.exception.DatabaseException;
 import liquibase.exception.DatabaseHistoryException;
 import liquibase.exception.LiquibaseException;
 import liquibase.exception.UnexpectedLiquibaseException;
 import liquibase.executor.Executor;
 import liquibase.executor.ExecutorService;
+import liquibase.executor.jvm.JdbcExecutor;
 import liquibase.logging.LogService;
 import liquibase.logging.LogType;
 import liquibase.snapshot.InvalidExampleException;
 import liquibase.snapshot.SnapshotControl;
 import liquibase.snapshot.SnapshotGeneratorFactory;
+import liquibase.sql.Sql;
+import liquibase.sqlgenerator.SqlGenerator;
 import liquibase.sqlgenerator.SqlGeneratorFactory;
+import liquibase.sqlgenerator.core.MarkChangeSetRanGenerator;
 import liquibase.statement.SqlStatement;
 import liquibase.statement.core.*;
 import liquibase.structure.core.Column;
@@ -37,6 +41,12 @@ public class StandardChangeLogHistoryService extends AbstractChangeLogHistorySer
     private Boolean hasDatabaseChangeLogTable;
     private boolean databaseChecksumsCompatible = true;
     private Integer lastChangeSetSequenceValue;
+    private List<MarkChangeSetRanStatement> pendingMarkStatements = new ArrayList<>();
+
+    /**
+     * Maximum number of rows in one multi-row INSERT. SQL Server does not accept more than 1000.
+     */
+    private static final int MULTI_ROW_INSERT_SIZE = 100;
 
     protected static final String LABELS_SIZE = "255";
     protected static final String CONTEXTS_SIZE = "255";
@@ -69,7 +79,17 @@ public class StandardChangeLogHistoryService extends AbstractChangeLogHistorySer
 
     @Override
     public void reset() {
+        if (!pendingMarkStatements.isEmpty()) {
+            try {
+                flush();
+                getDatabase().commit();
+            } catch (DatabaseException e) {
+                Scope.getCurrentScope().getLog(getClass()).warning(LogType.LOG, "Could not write " + pendingMarkStatements.size() + " pending " + getDatabaseChangeLogTableName() + " rows: " + e.getMessage(), e);
+                pendingMarkStatements.clear();
+            }
+        }
         this.ranChangeSetList = null;
+        resetRanChangeSetIndex();
         this.serviceInitialized = false;
         this.hasDatabaseChangeLogTable = null;
     }
@@ -287,6 +307,7 @@ public class StandardChangeLogHistoryService extends AbstractChangeLogHistorySer
     @Override
     public void upgradeChecksums(final DatabaseChangeLog databaseChangeLog, final Contexts contexts, LabelExpression
         labels) throws DatabaseException {
+        flush();
         super.upgradeChecksums(databaseChangeLog, contexts, labels);
         getDatabase().commit();
     }
@@ -296,6 +317,7 @@ public class StandardChangeLogHistoryService extends AbstractChangeLogHistorySer
      */
     public List<RanChangeSet> getRanChangeSets() throws DatabaseException {
         if (this.ranChangeSetList == null) {
+            flush();
             Database database = getDatabase();
             String databaseChangeLogTableName = getDatabase().escapeTableName(getLiquibaseCatalogName(),
                 getLiquibaseSchemaName(), getDatabaseChangeLogTableName());
@@ -346,6 +368,7 @@ public class StandardChangeLogHistoryService extends AbstractChangeLogHistorySer
             }
 
             this.ranChangeSetList = ranChangeSets;
+            resetRanChangeSetIndex();
         }
         return Collections.unmodifiableList(ranChangeSetList);
     }
@@ -365,6 +388,11 @@ public class StandardChangeLogHistoryService extends AbstractChangeLogHistorySer
         reset();
     }
 
+    @Override
+    protected boolean isRanChangeSetIndexSupported() {
+        return true;
+    }
+
     @Override
     public RanChangeSet getRanChangeSet(final ChangeSet changeSet) throws DatabaseException, DatabaseHistoryException {
         if (!hasDatabaseChangeLogTable()) {
@@ -378,22 +406,155 @@ public class StandardChangeLogHistoryService extends AbstractChangeLogHistorySer
     public void setExecType(ChangeSet changeSet, ChangeSet.ExecType execType) throws DatabaseException {
         Database database = getDatabase();
 
-        ExecutorService.getInstance().getExecutor(database).execute(new MarkChangeSetRanStatement(changeSet, execType));
-        getDatabase().commit();
+        Executor executor = ExecutorService.getInstance().getExecutor(database);
+        int batchSize = LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getHistoryBatchSize();
+        if ((batchSize > 1) && (executor instanceof JdbcExecutor)) {
+            pendingMarkStatements.add(new MarkChangeSetRanStatement(changeSet, execType));
+            if (pendingMarkStatements.size() >= batchSize) {
+                flush();
+                getDatabase().commit();
+            }
+        } else {
+            executor.execute(new MarkChangeSetRanStatement(changeSet, execType));
+            getDatabase().commit();
+        }
+        if (this.ranChangeSetList != null) {
+            RanChangeSet ranChangeSet = new RanChangeSet(changeSet, execType, null, null);
+            this.ranChangeSetList.add(ranChangeSet);
+            addToRanChangeSetIndex(ranChangeSet);
+        }
+
+    }
+
+    /**
+     * Marks all given changeSets at once. New rows are written as multi-row INSERT statements on databases that
+     * support them and all statements are sent to the database in a single JDBC batch, followed by one commit.
+     */
+    @Override
+    public void setExecType(List<ChangeSet> changeSets, ChangeSet.ExecType execType) throws DatabaseException {
+        Database database = getDatabase();
+        Executor executor = ExecutorService.getInstance().getExecutor(database);
+        if (!(executor instanceof JdbcExecutor) || execType.ranBefore) {
+            for (ChangeSet changeSet : changeSets) {
+                setExecType(changeSet, execType);
+            }
+            return;
+        }
+
+        flush();
+        List<MarkChangeSetRanStatement> markStatements = new ArrayList<>();
+        for (ChangeSet changeSet : changeSets) {
+            markStatements.add(new MarkChangeSetRanStatement(changeSet, execType));
+        }
+        ((JdbcExecutor) executor).executeBatch(createBulkStatements(markStatements));
+        database.commit();
+
         if (this.ranChangeSetList != null) {
-            this.ranChangeSetList.add(new RanChangeSet(changeSet, execType, null, null));
+            for (ChangeSet changeSet : changeSets) {
+                RanChangeSet ranChangeSet = new RanChangeSet(changeSet, execType, null, null);
+                this.ranChangeSetList.add(ranChangeSet);
+                addToRanChangeSetIndex(ranChangeSet);
+            }
+        }
+    }
+
+    /**
+     * Combines the INSERTs generated for the given statements into multi-row INSERTs if
+     * {@link #supportsMultiRowInsert()}. Consecutive rows are combined as long as they set the same columns.
+     * The multi-row INSERTs are returned as {@link RawSqlStatement}s without the statement terminator that
+     * {@link liquibase.sqlgenerator.core.InsertSetGenerator} appends, as they are sent to the JDBC driver as they are.
+     */
+    protected List<SqlStatement> createBulkStatements(List<MarkChangeSetRanStatement> markStatements) {
+        List<SqlStatement> returnList = new ArrayList<>();
+        if (markStatements.isEmpty()) {
+            return returnList;
+        }
+        Database database = getDatabase();
+        SortedSet<SqlGenerator> generators = SqlGeneratorFactory.getInstance().getGenerators(markStatements.get(0), database);
+        if (!supportsMultiRowInsert() || generators.isEmpty() || !(generators.first() instanceof MarkChangeSetRanGenerator)) {
+            returnList.addAll(markStatements);
+            return returnList;
+        }
+
+        MarkChangeSetRanGenerator generator = (MarkChangeSetRanGenerator) generators.first();
+        InsertSetStatement insertSet = null;
+        for (MarkChangeSetRanStatement markStatement : markStatements) {
+            SqlStatement runStatement = generator.createRunStatement(markStatement, database);
+            if (runStatement == null) {
+                continue;
+            }
+            if (!(runStatement instanceof InsertStatement)) {
+                insertSet = null;
+                returnList.add(runStatement);
+                continue;
+            }
+            InsertStatement insert = (InsertStatement) runStatement;
+            if ((insertSet == null) || !insertSet.peek().getColumnValues().keySet().equals(insert.getColumnValues().keySet())) {
+                insertSet = new InsertSetStatement(insert.getCatalogName(), insert.getSchemaName(), insert.getTableName(), MULTI_ROW_INSERT_SIZE);
+                returnList.add(insertSet);
+            }
+            insertSet.addInsertStatement(insert);
+        }
+
+        List<SqlStatement> bulkStatements = new ArrayList<>();
+        for (SqlStatement statement : returnList) {
+            if (!(statement instanceof InsertSetStatement)) {
+                bulkStatements.add(statement);
+                continue;
+            }
+            for (Sql sql : SqlGeneratorFactory.getInstance().generateSql(statement, database)) {
+                String insertSql = sql.toSql().trim();
+                if (insertSql.endsWith(";")) {
+                    insertSql = insertSql.substring(0, insertSql.length() - 1).trim();
+                }
+                bulkStatements.add(new RawSqlStatement(insertSql));
+            }
         }
+        return bulkStatements;
+    }
+
+    /**
+     * Returns true if the database accepts INSERT statements with multiple VALUES rows. Other databases, and
+     * databases whose drivers were not checked with the generated SQL, get one INSERT per row.
+     */
+    protected boolean supportsMultiRowInsert() {
+        Database database = getDatabase();
+        return (database instanceof MySQLDatabase) || (database instanceof PostgresDatabase)
+                || (database instanceof H2Database) || (database instanceof HsqlDatabase)
+                || (database instanceof MSSQLDatabase);
+    }
 
+    /**
+     * Writes the rows deferred by {@link #setExecType(ChangeSet, ChangeSet.ExecType)} in one JDBC batch.
+     * Rows are only deferred if {@link GlobalConfiguration#getHistoryBatchSize()} is greater than 1.
+     */
+    @Override
+    public void flush() throws DatabaseException {
+        if (pendingMarkStatements.isEmpty()) {
+            return;
+        }
+        List<MarkChangeSetRanStatement> statements = pendingMarkStatements;
+        pendingMarkStatements = new ArrayList<>();
+        Executor executor = ExecutorService.getInstance().getExecutor(getDatabase());
+        if (executor instanceof JdbcExecutor) {
+            ((JdbcExecutor) executor).executeBatch(statements);
+        } else {
+            for (MarkChangeSetRanStatement statement : statements) {
+                executor.execute(statement);
+            }
+        }
     }
 
     @Override
     public void removeFromHistory(final ChangeSet changeSet) throws DatabaseException {
         Database database = getDatabase();
+        flush();
         ExecutorService.getInstance().getExecutor(database).execute(new RemoveChangeSetRanStatusStatement(changeSet));
         getDatabase().commit();
 
         if (this.ranChangeSetList != null) {
             this.ranChangeSetList.remove(new RanChangeSet(changeSet));
+            resetRanChangeSetIndex();
         }
     }
 
@@ -417,6 +578,7 @@ public class StandardChangeLogHistoryService extends AbstractChangeLogHistorySer
     @Override
     public void tag(final String tagString) throws DatabaseException {
         Database database = getDatabase();
+        flush();
         Executor executor = ExecutorService.getInstance().getExecutor(database);
         int totalRows = ExecutorService.getInstance().getExecutor(database).queryForInt(new
             SelectFromDatabaseChangeLogStatement(new ColumnConfig().setName("COUNT(*)", true)));
@@ -425,6 +587,7 @@ public class StandardChangeLogHistoryService extends AbstractChangeLogHistorySer
                 false,false, "liquibase-internal", null, null,
                 getDatabase().getObjectQuotingStrategy(), null);
             this.setExecType(emptyChangeSet, ChangeSet.ExecType.EXECUTED);
+            flush();
         }
 
         executor.execute(new TagDatabaseStatement(tagString));
@@ -437,6 +600,7 @@ public class StandardChangeLogHistoryService extends AbstractChangeLogHistorySer
 
     @Override
     public boolean tagExists(final String tag) throws DatabaseException {
+        flush();
         int count = ExecutorService.getInstance().getExecutor(getDatabase()).queryForInt(new
             SelectFromDatabaseChangeLogStatement(new SelectFromDatabaseChangeLogStatement.ByTag(tag), new
             ColumnConfig().setName("COUNT(*)", true)));
@@ -446,6 +610,7 @@ public class StandardChangeLogHistoryService extends AbstractChangeLogHistorySer
     @Override
     public void clearAllCheckSums() throws LiquibaseException {
         Database database = getDatabase();
+        flush();
         UpdateStatement updateStatement = new UpdateStatement(database.getLiquibaseCatalogName(), database
             .getLiquibaseSchemaName(), database.getDatabaseChangeLogTableName());
         updateStatement.addNewColumnValue("MD5SUM", null);
@@ -456,6 +621,7 @@ public class StandardChangeLogHistoryService extends AbstractChangeLogHistorySer
     @Override
     public void destroy() throws DatabaseException {
         Database database = getDatabase();
+        pendingMarkStatements.clear();
         try {
             if (SnapshotGeneratorFactory.getInstance().has(new Table().setName(database.getDatabaseChangeLogTableName
                 ()).setSchema(database.getLiquibaseCatalogName(), database.getLiquibaseSchemaName()), database)) {
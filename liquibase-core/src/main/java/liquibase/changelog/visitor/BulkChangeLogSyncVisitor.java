@@ -0,0 +1,85 @@
+package liquibase.changelog.visitor;
+
+import liquibase.Scope;
+import liquibase.changelog.ChangeLogHistoryServiceFactory;
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.DatabaseChangeLog;
+import liquibase.changelog.filter.ChangeSetFilterResult;
+import liquibase.database.Database;
+import liquibase.exception.LiquibaseException;
+import liquibase.lockservice.LeaseLockService;
+import liquibase.lockservice.LockService;
+import liquibase.lockservice.LockServiceFactory;
+import liquibase.logging.LogType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Variant of {@link ChangeLogSyncVisitor} that does not mark each changeSet as it is visited. Instead, the visited
+ * changeSets are collected and {@link #markRan()} writes them to the history table in chunks through
+ * {@link liquibase.changelog.ChangeLogHistoryService#setExecType(List, ChangeSet.ExecType)}, which saves a round-trip
+ * per changeSet. The {@link ChangeLogSyncListener} is notified once the chunk containing a changeSet is written, and the
+ * lease of a {@link LeaseLockService} is renewed after every chunk.
+ */
+public class BulkChangeLogSyncVisitor implements ChangeSetVisitor {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private final Database database;
+    private final ChangeLogSyncListener listener;
+    private final int chunkSize;
+
+    private final List<ChangeSet> changeSets = new ArrayList<>();
+    private final List<DatabaseChangeLog> changeLogs = new ArrayList<>();
+
+    public BulkChangeLogSyncVisitor(Database database, ChangeLogSyncListener listener) {
+        this(database, listener, DEFAULT_CHUNK_SIZE);
+    }
+
+    public BulkChangeLogSyncVisitor(Database database, ChangeLogSyncListener listener, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be greater than 0");
+        }
+        this.database = database;
+        this.listener = listener;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public Direction getDirection() {
+        return ChangeSetVisitor.Direction.FORWARD;
+    }
+
+    @Override
+    public void visit(ChangeSet changeSet, DatabaseChangeLog databaseChangeLog, Database database, Set<ChangeSetFilterResult> filterResults) throws LiquibaseException {
+        changeSets.add(changeSet);
+        changeLogs.add(databaseChangeLog);
+    }
+
+    /**
+     * Marks all visited changeSets as ran. Every chunk is committed separately.
+     */
+    public void markRan() throws LiquibaseException {
+        int total = changeSets.size();
+        for (int start = 0; start < total; start += chunkSize) {
+            int end = Math.min(start + chunkSize, total);
+            ChangeLogHistoryServiceFactory.getInstance().getChangeLogService(database)
+                    .setExecType(changeSets.subList(start, end), ChangeSet.ExecType.EXECUTED);
+            if (listener != null) {
+                for (int i = start; i < end; i++) {
+                    listener.markedRan(changeSets.get(i), changeLogs.get(i), database);
+                }
+            }
+            Scope.getCurrentScope().getLog(getClass()).info(LogType.LOG, "Marked " + end + " of " + total + " changeSets as ran");
+
+            LockService lockService = LockServiceFactory.getInstance().getLockService(database);
+            if (lockService instanceof LeaseLockService) {
+                ((LeaseLockService) lockService).renewLeaseIfDue();
+            }
+        }
+        changeSets.clear();
+        changeLogs.clear();
+    }
+}
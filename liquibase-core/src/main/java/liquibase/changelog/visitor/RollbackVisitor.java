@@ -6,6 +6,9 @@ import liquibase.changelog.DatabaseChangeLog;
 import liquibase.changelog.filter.ChangeSetFilterResult;
 import liquibase.database.Database;
 import liquibase.exception.LiquibaseException;
+import liquibase.lockservice.LeaseLockService;
+import liquibase.lockservice.LockService;
+import liquibase.lockservice.LockServiceFactory;
 import liquibase.logging.LogService;
 import liquibase.logging.LogType;
 
@@ -43,6 +46,10 @@ public class RollbackVisitor implements ChangeSetVisitor {
         sendRollbackEvent(changeSet, databaseChangeLog, database);
         this.database.commit();
 
+        LockService lockService = LockServiceFactory.getInstance().getLockService(this.database);
+        if (lockService instanceof LeaseLockService) {
+            ((LeaseLockService) lockService).renewLeaseIfDue();
+        }
     }
 
     private void sendRollbackEvent(ChangeSet changeSet, DatabaseChangeLog databaseChangeLog, Database database2) {
@@ -1,6 +1,7 @@
 package liquibase.changelog.visitor;
 
 import liquibase.Scope;
+import liquibase.changelog.ChangeLogHistoryServiceFactory;
 import liquibase.changelog.ChangeSet;
 import liquibase.changelog.ChangeSet.ExecType;
 import liquibase.changelog.ChangeSet.RunStatus;
@@ -10,6 +11,9 @@ import liquibase.database.Database;
 import liquibase.database.ObjectQuotingStrategy;
 import liquibase.exception.LiquibaseException;
 import liquibase.exception.MigrationFailedException;
+import liquibase.lockservice.LeaseLockService;
+import liquibase.lockservice.LockService;
+import liquibase.lockservice.LockServiceFactory;
 import liquibase.logging.LogType;
 
 import java.util.Set;
@@ -59,8 +63,14 @@ public class UpdateVisitor implements ChangeSetVisitor {
         // reset object quoting strategy after running changeset
         this.database.setObjectQuotingStrategy(previousStr);
         this.database.markChangeSetExecStatus(changeSet, execType);
+        ChangeLogHistoryServiceFactory.getInstance().getChangeLogService(this.database).flush();
 
         this.database.commit();
+
+        LockService lockService = LockServiceFactory.getInstance().getLockService(this.database);
+        if (lockService instanceof LeaseLockService) {
+            ((LeaseLockService) lockService).renewLeaseIfDue();
+        }
     }
 
     protected void fireRunFailed(ChangeSet changeSet, DatabaseChangeLog databaseChangeLog, Database database, MigrationFailedException e) {
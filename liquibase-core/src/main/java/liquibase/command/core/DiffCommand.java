@@ -173,7 +173,7 @@ public class DiffCommand extends AbstractCommand<CommandResult> {
         }
         SnapshotControl snapshotControl = getTargetSnapshotControl();
         if (snapshotControl == null) {
-            snapshotControl = new SnapshotControl(targetDatabase, snapshotTypes);
+            snapshotControl = new SnapshotControl(targetDatabase, snapshotTypes).setUsePersistedSnapshots(true);
         }
         if (getSnapshotListener() != null) {
             snapshotControl.setSnapshotListener(getSnapshotListener());
@@ -209,7 +209,7 @@ public class DiffCommand extends AbstractCommand<CommandResult> {
 
         SnapshotControl snapshotControl = getReferenceSnapshotControl();
         if (snapshotControl == null) {
-            snapshotControl = new SnapshotControl(referenceDatabase, objectChangeFilter, snapshotTypes);
+            snapshotControl = new SnapshotControl(referenceDatabase, objectChangeFilter, snapshotTypes).setUsePersistedSnapshots(true);
         }
         if (getSnapshotListener() != null) {
             snapshotControl.setSnapshotListener(getSnapshotListener());
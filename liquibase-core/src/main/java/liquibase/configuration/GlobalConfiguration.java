@@ -15,12 +15,25 @@ public class GlobalConfiguration extends AbstractConfigurationContainer {
     public static final String OUTPUT_ENCODING = "outputFileEncoding";
     public static final String CHANGELOGLOCK_WAIT_TIME = "changeLogLockWaitTimeInMinutes";
     public static final String CHANGELOGLOCK_POLL_RATE = "changeLogLockPollRate";
+    public static final String CHANGELOGLOCK_LEASE_DURATION = "changeLogLockLeaseDuration";
     public static final String CONVERT_DATA_TYPES = "convertDataTypes";
     public static final String GENERATE_CHANGESET_CREATED_VALUES = "generateChangeSetCreatedValues";
     public static final String AUTO_REORG = "autoReorg";
     public static final String DIFF_COLUMN_ORDER = "diffColumnOrder";
     public static final String ALWAYS_OVERRIDE_STORED_LOGIC_SCHEMA = "alwaysOverrideStoredLogicSchema";
     public static final String GENERATED_CHANGESET_IDS_INCLUDE_DESCRIPTION = "generatedChangeSetIdsContainsDescription";
+    public static final String CHECKSUM_CACHE_FILE = "checkSumCacheFile";
+    public static final String HISTORY_BATCH_SIZE = "historyBatchSize";
+    public static final String PREPARED_STATEMENT_CACHE_SIZE = "preparedStatementCacheSize";
+    public static final String CACHE_PRECONDITION_METADATA = "cachePreconditionMetadata";
+    public static final String FAST_DROP_ALL = "fastDropAll";
+    public static final String DIFF_THREADS = "diffThreads";
+    public static final String SNAPSHOT_CACHE_DIRECTORY = "snapshotCacheDirectory";
+    public static final String PARSED_CHANGELOG_CACHE_DIRECTORY = "parsedChangeLogCacheDirectory";
+    public static final String DIFF_DATA_ROWS = "diffDataRows";
+    public static final String DATA_EXPORT_FETCH_SIZE = "dataExportFetchSize";
+    public static final String DATA_EXPORT_SPLIT_ROWS = "dataExportSplitRows";
+    public static final String DATA_EXPORT_GZIP = "dataExportGzip";
 
     public GlobalConfiguration() {
         super("liquibase");
@@ -46,6 +59,10 @@ public class GlobalConfiguration extends AbstractConfigurationContainer {
                 .setDescription("Number of seconds wait between checks to the changelog lock when it is locked")
                 .setDefaultValue(10);
 
+        getContainer().addProperty(CHANGELOGLOCK_LEASE_DURATION, Long.class)
+                .setDescription("Number of seconds the changelog lock stays valid without being renewed. If set, the lock is renewed between changeSets and an expired lock of a crashed process can be taken over. Must be longer than the longest changeSet plus the clock difference between hosts. 0 disables leases")
+                .setDefaultValue(0);
+
         getContainer().addProperty(LIQUIBASE_TABLESPACE_NAME, String.class)
             .setDescription("Tablespace to use for Liquibase objects");
 
@@ -90,6 +107,51 @@ public class GlobalConfiguration extends AbstractConfigurationContainer {
         getContainer().addProperty(GENERATED_CHANGESET_IDS_INCLUDE_DESCRIPTION, Boolean.class)
             .setDescription("Should Liquibase include the change description in the id when generating changeSets?")
                 .setDefaultValue(false);
+
+        getContainer().addProperty(CHECKSUM_CACHE_FILE, String.class)
+            .setDescription("File to store the checksums of loadData and sqlFile resources in, so unchanged files are not re-hashed on the next run. Not used if not set");
+
+        getContainer().addProperty(PARSED_CHANGELOG_CACHE_DIRECTORY, String.class)
+            .setDescription("Directory to store parsed XML, YAML and JSON changelog files in, so files whose content did not change are not parsed again on the next run. Not used if not set");
+
+        getContainer().addProperty(HISTORY_BATCH_SIZE, Integer.class)
+            .setDescription("Number of DATABASECHANGELOG rows to write in one JDBC batch. Values greater than 1 group the rows written by changelogSync into batches; update still writes each row when its changeSet commits")
+                .setDefaultValue(1);
+
+        getContainer().addProperty(PREPARED_STATEMENT_CACHE_SIZE, Integer.class)
+            .setDescription("Number of prepared statements to keep open per connection for reuse, keyed by their SQL. Used for queries and parameterized statements such as loadData inserts. 0 disables the cache")
+                .setDefaultValue(0);
+
+        getContainer().addProperty(FAST_DROP_ALL, Boolean.class)
+            .setDescription("Should dropAll read object names from the catalog and drop them with bulk statements on databases that support it, instead of snapshotting the schema? Falls back to the snapshot if the bulk drop fails")
+                .setDefaultValue(false);
+
+        getContainer().addProperty(DIFF_THREADS, Integer.class)
+            .setDescription("Number of threads diff uses to compare object types in parallel. 1 compares one type after the other")
+                .setDefaultValue(1);
+
+        getContainer().addProperty(SNAPSHOT_CACHE_DIRECTORY, String.class)
+            .setDescription("Directory to store schema snapshots in. A stored snapshot is reused instead of snapshotting the schema again as long as the schema's DDL has not changed, on databases that can tell. Not used if not set");
+
+        getContainer().addProperty(CACHE_PRECONDITION_METADATA, Boolean.class)
+            .setDescription("Should tableExists, columnExists, indexExists and foreignKeyConstraintExists preconditions be checked against one metadata snapshot per schema instead of querying the database for every precondition?")
+                .setDefaultValue(false);
+
+        getContainer().addProperty(DIFF_DATA_ROWS, Boolean.class)
+            .setDescription("When data is included in a diff, should the rows of tables that exist in both databases be compared? Rows are matched on the primary key and generate insert, update and delete changes. Tables without a primary key are not compared")
+                .setDefaultValue(false);
+
+        getContainer().addProperty(DATA_EXPORT_FETCH_SIZE, Integer.class)
+            .setDescription("Number of rows the JDBC driver fetches at a time when generateChangeLog exports data to CSV files")
+                .setDefaultValue(100);
+
+        getContainer().addProperty(DATA_EXPORT_SPLIT_ROWS, Integer.class)
+            .setDescription("When generateChangeLog exports data to CSV files, tables with more rows than this and a single numeric primary key column are split by key range into files of about this many rows, which are exported in parallel if a data export DataSource is set. 0 disables splitting")
+                .setDefaultValue(0);
+
+        getContainer().addProperty(DATA_EXPORT_GZIP, Boolean.class)
+            .setDescription("Should the CSV files generateChangeLog exports data to be gzip compressed?")
+                .setDefaultValue(false);
     }
 
     /**
@@ -152,6 +214,18 @@ public class GlobalConfiguration extends AbstractConfigurationContainer {
         return this;
     }
 
+    /**
+     * Time (in seconds) the changelog lock stays valid without being renewed. 0 disables leases.
+     */
+    public Long getDatabaseChangeLogLockLeaseDuration() {
+        return getContainer().getValue(CHANGELOGLOCK_LEASE_DURATION, Long.class);
+    }
+
+    public GlobalConfiguration setDatabaseChangeLogLockLeaseDuration(Long seconds) {
+        getContainer().setValue(CHANGELOGLOCK_LEASE_DURATION, seconds);
+        return this;
+    }
+
     /**
      * Name of the tablespace to use for liquibase database objects
      */
@@ -240,4 +314,148 @@ public class GlobalConfiguration extends AbstractConfigurationContainer {
         getContainer().setValue(GENERATED_CHANGESET_IDS_INCLUDE_DESCRIPTION, containDescription);
         return this;
     }
+
+    /**
+     * File to persist the checksums of file-backed changes in between runs. Null if not set.
+     */
+    public String getCheckSumCacheFile() {
+        return getContainer().getValue(CHECKSUM_CACHE_FILE, String.class);
+    }
+
+    public GlobalConfiguration setCheckSumCacheFile(String checkSumCacheFile) {
+        getContainer().setValue(CHECKSUM_CACHE_FILE, checkSumCacheFile);
+        return this;
+    }
+
+    /**
+     * Number of DATABASECHANGELOG rows to write in one JDBC batch. 1 writes every row on its own.
+     */
+    public Integer getHistoryBatchSize() {
+        return getContainer().getValue(HISTORY_BATCH_SIZE, Integer.class);
+    }
+
+    public GlobalConfiguration setHistoryBatchSize(int historyBatchSize) {
+        getContainer().setValue(HISTORY_BATCH_SIZE, historyBatchSize);
+        return this;
+    }
+
+    /**
+     * Number of prepared statements cached per connection. 0 disables the cache.
+     */
+    public Integer getPreparedStatementCacheSize() {
+        return getContainer().getValue(PREPARED_STATEMENT_CACHE_SIZE, Integer.class);
+    }
+
+    public GlobalConfiguration setPreparedStatementCacheSize(int preparedStatementCacheSize) {
+        getContainer().setValue(PREPARED_STATEMENT_CACHE_SIZE, preparedStatementCacheSize);
+        return this;
+    }
+
+    /**
+     * Should existence preconditions be checked against a cached snapshot of the schema?
+     */
+    public Boolean getCachePreconditionMetadata() {
+        return getContainer().getValue(CACHE_PRECONDITION_METADATA, Boolean.class);
+    }
+
+    public GlobalConfiguration setCachePreconditionMetadata(boolean cachePreconditionMetadata) {
+        getContainer().setValue(CACHE_PRECONDITION_METADATA, cachePreconditionMetadata);
+        return this;
+    }
+
+    /**
+     * Should dropAll use bulk statements built from the catalog instead of a snapshot?
+     */
+    public Boolean getFastDropAll() {
+        return getContainer().getValue(FAST_DROP_ALL, Boolean.class);
+    }
+
+    public GlobalConfiguration setFastDropAll(boolean fastDropAll) {
+        getContainer().setValue(FAST_DROP_ALL, fastDropAll);
+        return this;
+    }
+
+    /**
+     * Number of object types diff compares in parallel. 1 compares them one after the other.
+     */
+    public Integer getDiffThreads() {
+        return getContainer().getValue(DIFF_THREADS, Integer.class);
+    }
+
+    public GlobalConfiguration setDiffThreads(int diffThreads) {
+        getContainer().setValue(DIFF_THREADS, diffThreads);
+        return this;
+    }
+
+    /**
+     * Directory to store schema snapshots in for reuse. Not used if null.
+     */
+    public String getSnapshotCacheDirectory() {
+        return getContainer().getValue(SNAPSHOT_CACHE_DIRECTORY, String.class);
+    }
+
+    public GlobalConfiguration setSnapshotCacheDirectory(String snapshotCacheDirectory) {
+        getContainer().setValue(SNAPSHOT_CACHE_DIRECTORY, snapshotCacheDirectory);
+        return this;
+    }
+
+    /**
+     * Directory to store parsed changelog files in for reuse. Not used if null.
+     */
+    public String getParsedChangeLogCacheDirectory() {
+        return getContainer().getValue(PARSED_CHANGELOG_CACHE_DIRECTORY, String.class);
+    }
+
+    public GlobalConfiguration setParsedChangeLogCacheDirectory(String parsedChangeLogCacheDirectory) {
+        getContainer().setValue(PARSED_CHANGELOG_CACHE_DIRECTORY, parsedChangeLogCacheDirectory);
+        return this;
+    }
+
+    /**
+     * Should diff compare the rows of tables that exist in both databases?
+     */
+    public Boolean getDiffDataRows() {
+        return getContainer().getValue(DIFF_DATA_ROWS, Boolean.class);
+    }
+
+    public GlobalConfiguration setDiffDataRows(boolean diffDataRows) {
+        getContainer().setValue(DIFF_DATA_ROWS, diffDataRows);
+        return this;
+    }
+
+    /**
+     * Number of rows fetched at a time when exporting data to CSV files.
+     */
+    public Integer getDataExportFetchSize() {
+        return getContainer().getValue(DATA_EXPORT_FETCH_SIZE, Integer.class);
+    }
+
+    public GlobalConfiguration setDataExportFetchSize(int dataExportFetchSize) {
+        getContainer().setValue(DATA_EXPORT_FETCH_SIZE, dataExportFetchSize);
+        return this;
+    }
+
+    /**
+     * Number of rows above which an exported table is split into multiple CSV files. 0 does not split tables.
+     */
+    public Integer getDataExportSplitRows() {
+        return getContainer().getValue(DATA_EXPORT_SPLIT_ROWS, Integer.class);
+    }
+
+    public GlobalConfiguration setDataExportSplitRows(int dataExportSplitRows) {
+        getContainer().setValue(DATA_EXPORT_SPLIT_ROWS, dataExportSplitRows);
+        return this;
+    }
+
+    /**
+     * Should exported CSV files be gzip compressed?
+     */
+    public Boolean getDataExportGzip() {
+        return getContainer().getValue(DATA_EXPORT_GZIP, Boolean.class);
+    }
+
+    public GlobalConfiguration setDataExportGzip(boolean dataExportGzip) {
+        getContainer().setValue(DATA_EXPORT_GZIP, dataExportGzip);
+        return this;
+    }
 }
@@ -30,6 +30,7 @@ import liquibase.exception.DateParseException;
 import liquibase.exception.LiquibaseException;
 import liquibase.exception.UnexpectedLiquibaseException;
 import liquibase.exception.ValidationErrors;
+import liquibase.executor.Executor;
 import liquibase.executor.ExecutorService;
 import liquibase.lockservice.LockServiceFactory;
 import liquibase.logging.LogType;
@@ -46,6 +47,7 @@ import liquibase.statement.SequenceNextValueFunction;
 import liquibase.statement.SqlStatement;
 import liquibase.statement.core.GetViewDefinitionStatement;
 import liquibase.statement.core.RawCallStatement;
+import liquibase.statement.core.RawSqlStatement;
 import liquibase.structure.DatabaseObject;
 import liquibase.structure.core.Catalog;
 import liquibase.structure.core.Column;
@@ -113,6 +115,8 @@ public abstract class AbstractJdbcDatabase implements Database {
     // whether object names should be quoted
     protected ObjectQuotingStrategy quotingStrategy = ObjectQuotingStrategy.LEGACY;
     protected Boolean caseSensitive;
+    // incremented whenever a setting that changes how object names are escaped may have changed
+    private volatile int escapeSettingsVersion;
     private String databaseChangeLogTableName;
     private String databaseChangeLogLockTableName;
     private String liquibaseTablespaceName;
@@ -157,6 +161,7 @@ public abstract class AbstractJdbcDatabase implements Database {
     public void setConnection(final DatabaseConnection conn) {
         Scope.getCurrentScope().getLog(getClass()).fine(LogType.LOG, "Connected to " + conn.getConnectionUserName() + "@" + conn.getURL());
         this.connection = conn;
+        escapeSettingsChanged();
         try {
             boolean autoCommit = conn.getAutoCommit();
             if (autoCommit == getAutoCommitMode()) {
@@ -186,6 +191,24 @@ public abstract class AbstractJdbcDatabase implements Database {
     @Override
     public final void addReservedWords(Collection<String> words) {
         reservedWords.addAll(words);
+        escapeSettingsChanged();
+    }
+
+    /**
+     * Returns a number that changes whenever the reserved words, the connection or the quoting settings of this
+     * database change, so callers can tell whether names they escaped earlier would still be escaped the same way.
+     */
+    public int getEscapeSettingsVersion() {
+        return escapeSettingsVersion;
+    }
+
+    /**
+     * Subclasses that change how object names are escaped outside of {@link #addReservedWords(Collection)},
+     * {@link #setConnection(DatabaseConnection)}, {@link #setCaseSensitive(Boolean)} or
+     * {@link #setObjectQuotingStrategy(ObjectQuotingStrategy)} should call this afterwards.
+     */
+    protected void escapeSettingsChanged() {
+        escapeSettingsVersion++;
     }
 
     /**
@@ -715,6 +738,7 @@ public abstract class AbstractJdbcDatabase implements Database {
 
     public void setCaseSensitive(Boolean caseSensitive) {
         this.caseSensitive = caseSensitive;
+        escapeSettingsChanged();
     }
 
     @Override
@@ -734,6 +758,11 @@ public abstract class AbstractJdbcDatabase implements Database {
         ObjectQuotingStrategy currentStrategy = this.getObjectQuotingStrategy();
         this.setObjectQuotingStrategy(ObjectQuotingStrategy.QUOTE_ALL_OBJECTS);
         try {
+            if (LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getFastDropAll()
+                    && tryDropDatabaseObjectsFast(schemaToDrop)) {
+                return;
+            }
+
             DatabaseSnapshot snapshot;
             try {
                 final SnapshotControl snapshotControl = new SnapshotControl(this);
@@ -808,6 +837,86 @@ public abstract class AbstractJdbcDatabase implements Database {
         }
     }
 
+    private boolean tryDropDatabaseObjectsFast(final CatalogAndSchema schemaToDrop) throws LiquibaseException {
+        final long started = System.currentTimeMillis();
+        boolean previousAutoCommit = this.getAutoCommitMode();
+        this.commit(); //clear out currently executed statements
+        this.setAutoCommit(false);
+        try {
+            if (!dropDatabaseObjectsFast(schemaToDrop.customize(this))) {
+                return false;
+            }
+            this.commit();
+        } catch (DatabaseException e) {
+            Scope.getCurrentScope().getLog(getClass()).warning(LogType.LOG, "Fast drop of schema " + schemaToDrop + " failed, dropping objects from a snapshot instead: " + e.getMessage(), e);
+            this.rollback();
+            return false;
+        } finally {
+            this.setAutoCommit(previousAutoCommit);
+        }
+
+        ChangeLogHistoryServiceFactory.getInstance().getChangeLogService(this).destroy();
+        LockServiceFactory.getInstance().getLockService(this).destroy();
+        Scope.getCurrentScope().getLog(getClass()).info(LogType.LOG, String.format("Successfully deleted all tables, views and sequences in schema %s in %d ms.", schemaToDrop.toString(), System.currentTimeMillis() - started));
+        return true;
+    }
+
+    /**
+     * Drops the tables, views and sequences of the given schema with as few statements as possible, reading their
+     * names from the catalog instead of creating a snapshot. Called by {@link #dropDatabaseObjects(CatalogAndSchema)}
+     * if {@link GlobalConfiguration#getFastDropAll()} is set, in a transaction that is rolled back if this method
+     * throws. The default implementation returns false, which means there is no fast path for this database.
+     *
+     * @param schemaToDrop the schema, with the catalog and schema names corrected for this database
+     * @return false if the objects were not dropped and the snapshot-based drop should be used
+     */
+    protected boolean dropDatabaseObjectsFast(final CatalogAndSchema schemaToDrop) throws DatabaseException {
+        return false;
+    }
+
+    /**
+     * Returns a value that changes whenever the definition of an object in the given schema changes, such as the
+     * latest DDL time or a checksum of the catalog rows describing the schema. Used to tell if a persisted snapshot
+     * of the schema is still current. The default implementation returns null, which means it cannot be told and the
+     * schema is always snapshotted again.
+     *
+     * @param schema the schema, with the catalog and schema names corrected for this database
+     */
+    public String getSchemaFingerprint(final CatalogAndSchema schema) throws DatabaseException {
+        return null;
+    }
+
+    /**
+     * Returns the first column of the given catalog query as a list of object names.
+     */
+    protected List<String> queryForObjectNames(final String sql) throws DatabaseException {
+        return ExecutorService.getInstance().getExecutor(this).queryForList(new RawSqlStatement(sql), String.class);
+    }
+
+    /**
+     * Drops the given objects with one <code>DROP objectType name1, name2, ... suffix</code> statement per
+     * <code>namesPerStatement</code> objects.
+     *
+     * @param objectType the keyword(s) after DROP, like "TABLE IF EXISTS"
+     * @param suffix appended to every statement, like " CASCADE". May be empty
+     */
+    protected void dropObjectsInBulk(final String objectType, final String suffix, final CatalogAndSchema schema,
+                                     final List<String> names, final Class<? extends DatabaseObject> type,
+                                     final int namesPerStatement) throws DatabaseException {
+        Executor executor = ExecutorService.getInstance().getExecutor(this);
+        for (int start = 0; start < names.size(); start += namesPerStatement) {
+            StringBuilder sql = new StringBuilder("DROP ").append(objectType).append(" ");
+            List<String> chunk = names.subList(start, Math.min(start + namesPerStatement, names.size()));
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(escapeObjectName(schema.getCatalogName(), schema.getSchemaName(), chunk.get(i), type));
+            }
+            executor.execute(new RawSqlStatement(sql.append(suffix).toString()));
+        }
+    }
+
     @Override
     public boolean supportsDropTableCascadeConstraints() {
         return ((this instanceof SQLiteDatabase) || (this instanceof SybaseDatabase) || (this instanceof
@@ -1409,6 +1518,7 @@ public abstract class AbstractJdbcDatabase implements Database {
     @Override
     public void setObjectQuotingStrategy(final ObjectQuotingStrategy quotingStrategy) {
         this.quotingStrategy = quotingStrategy;
+        escapeSettingsChanged();
     }
 
     @Override
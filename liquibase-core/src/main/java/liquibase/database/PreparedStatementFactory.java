@@ -1,7 +1,9 @@
 package liquibase.database;
 
 import liquibase.database.jvm.JdbcConnection;
+import liquibase.database.jvm.PreparedStatementCache;
 import liquibase.exception.DatabaseException;
+import liquibase.util.JdbcUtils;
 
 import java.sql.PreparedStatement;
 
@@ -25,7 +27,27 @@ public final class PreparedStatementFactory {
      * @throws DatabaseException
      */
     public PreparedStatement create(String sql) throws DatabaseException {
-        return con.prepareStatement(sql);
+        PreparedStatementCache cache = con.getPreparedStatementCache();
+        if (cache == null) {
+            return con.prepareStatement(sql);
+        }
+        return cache.checkOut(sql);
+    }
+
+    /**
+     * Releases a statement obtained from {@link #create(String)} for the given sql. The statement is returned to the
+     * connection's {@link PreparedStatementCache} if there is one, otherwise it is closed.
+     */
+    public void release(String sql, PreparedStatement statement) {
+        if (statement == null) {
+            return;
+        }
+        PreparedStatementCache cache = con.getPreparedStatementCache();
+        if (cache == null) {
+            JdbcUtils.closeStatement(statement);
+        } else {
+            cache.checkIn(sql, statement);
+        }
     }
 
     @Override
@@ -9,12 +9,19 @@ import liquibase.database.jvm.JdbcConnection;
 import liquibase.exception.DatabaseException;
 import liquibase.exception.DateParseException;
 import liquibase.exception.UnexpectedLiquibaseException;
+import liquibase.executor.Executor;
+import liquibase.executor.ExecutorService;
 import liquibase.logging.LogFactory;
 import liquibase.logging.LogService;
 import liquibase.logging.LogType;
 import liquibase.statement.DatabaseFunction;
+import liquibase.statement.core.RawSqlStatement;
+import liquibase.structure.core.Sequence;
+import liquibase.structure.core.Table;
+import liquibase.structure.core.View;
 import liquibase.util.ISODateFormat;
 import liquibase.util.JdbcUtils;
+import liquibase.util.MD5Util;
 
 import java.lang.reflect.Method;
 import java.sql.Connection;
@@ -330,4 +337,59 @@ public class H2Database extends AbstractJdbcDatabase {
         // http://www.h2database.com/html/datatypes.html seems to imply 9 digits
         return 9;
     }
+
+    /**
+     * H2 drops several tables in one statement, but views and sequences only one at a time. Views on the dropped
+     * tables are dropped with them.
+     */
+    @Override
+    protected boolean dropDatabaseObjectsFast(CatalogAndSchema schemaToDrop) throws DatabaseException {
+        if (schemaToDrop.getSchemaName() == null) {
+            return false;
+        }
+        String schemaName = escapeStringForDatabase(schemaToDrop.getSchemaName());
+        String tables = "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = '" + schemaName + "' AND TABLE_TYPE ";
+        List<String> baseTables = queryForObjectNames(tables + "IN ('TABLE', 'BASE TABLE')");
+        List<String> sequences = queryForObjectNames("SELECT SEQUENCE_NAME FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_SCHEMA = '" + schemaName + "'");
+
+        dropObjectsInBulk("TABLE IF EXISTS", " CASCADE", schemaToDrop, baseTables, Table.class, 500);
+        List<String> views = queryForObjectNames(tables + "= 'VIEW'");
+        dropObjectsInBulk("VIEW IF EXISTS", " CASCADE", schemaToDrop, views, View.class, 1);
+        dropObjectsInBulk("SEQUENCE IF EXISTS", "", schemaToDrop, sequences, Sequence.class, 1);
+        return true;
+    }
+
+    /**
+     * H2 does not record when DDL was last run, so the fingerprint is a checksum of the information schema rows
+     * describing the schema. Row counts, sequence values and other data-dependent columns are left out.
+     */
+    @Override
+    public String getSchemaFingerprint(CatalogAndSchema schema) throws DatabaseException {
+        if (schema.getSchemaName() == null) {
+            return null;
+        }
+        String schemaName = escapeStringForDatabase(schema.getSchemaName());
+        String[] catalogQueries = new String[] {
+                "SELECT TABLE_NAME, TABLE_TYPE, REMARKS FROM INFORMATION_SCHEMA.TABLES " +
+                        "WHERE TABLE_SCHEMA = '" + schemaName + "' ORDER BY TABLE_NAME",
+                "SELECT TABLE_NAME, COLUMN_NAME, ORDINAL_POSITION, COLUMN_DEFAULT, IS_NULLABLE, TYPE_NAME, " +
+                        "CHARACTER_MAXIMUM_LENGTH, NUMERIC_PRECISION, NUMERIC_SCALE, REMARKS FROM INFORMATION_SCHEMA.COLUMNS " +
+                        "WHERE TABLE_SCHEMA = '" + schemaName + "' ORDER BY TABLE_NAME, ORDINAL_POSITION",
+                "SELECT TABLE_NAME, INDEX_NAME, ORDINAL_POSITION, COLUMN_NAME, NON_UNIQUE, ASC_OR_DESC FROM INFORMATION_SCHEMA.INDEXES " +
+                        "WHERE TABLE_SCHEMA = '" + schemaName + "' ORDER BY TABLE_NAME, INDEX_NAME, ORDINAL_POSITION",
+                "SELECT CONSTRAINT_NAME, SQL FROM INFORMATION_SCHEMA.CONSTRAINTS " +
+                        "WHERE TABLE_SCHEMA = '" + schemaName + "' ORDER BY CONSTRAINT_NAME",
+                "SELECT TABLE_NAME, VIEW_DEFINITION FROM INFORMATION_SCHEMA.VIEWS " +
+                        "WHERE TABLE_SCHEMA = '" + schemaName + "' ORDER BY TABLE_NAME",
+                "SELECT SEQUENCE_NAME, INCREMENT, MIN_VALUE, MAX_VALUE, IS_CYCLE FROM INFORMATION_SCHEMA.SEQUENCES " +
+                        "WHERE SEQUENCE_SCHEMA = '" + schemaName + "' ORDER BY SEQUENCE_NAME"
+        };
+
+        Executor executor = ExecutorService.getInstance().getExecutor(this);
+        StringBuilder catalogRows = new StringBuilder();
+        for (String catalogQuery : catalogQueries) {
+            catalogRows.append(executor.queryForList(new RawSqlStatement(catalogQuery))).append("\n");
+        }
+        return MD5Util.computeMD5(catalogRows.toString());
+    }
 }
@@ -15,14 +15,19 @@ import liquibase.statement.core.RawSqlStatement;
 import liquibase.structure.DatabaseObject;
 import liquibase.structure.core.Index;
 import liquibase.structure.core.PrimaryKey;
+import liquibase.structure.core.Sequence;
+import liquibase.structure.core.Table;
+import liquibase.structure.core.View;
 import liquibase.util.StringUtil;
 
 import java.math.BigInteger;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 
@@ -199,6 +204,30 @@ public class MySQLDatabase extends AbstractJdbcDatabase {
         ExecutorService.getInstance().getExecutor(this).execute(new RawSqlStatement("SET FOREIGN_KEY_CHECKS=1"));
     }
 
+    @Override
+    protected boolean dropDatabaseObjectsFast(CatalogAndSchema schemaToDrop) throws DatabaseException {
+        String schemaName = (schemaToDrop.getCatalogName() == null) ? schemaToDrop.getSchemaName() : schemaToDrop.getCatalogName();
+        if (schemaName == null) {
+            return false;
+        }
+        String tables = "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = '" + escapeStringForDatabase(schemaName) + "' AND TABLE_TYPE ";
+        List<String> views = queryForObjectNames(tables + "= 'VIEW'");
+        List<String> sequences = supportsSequences() ? queryForObjectNames(tables + "= 'SEQUENCE'") : new ArrayList<String>();
+        List<String> baseTables = queryForObjectNames(tables + "NOT IN ('VIEW', 'SEQUENCE', 'SYSTEM VIEW')");
+
+        dropObjectsInBulk("VIEW IF EXISTS", "", schemaToDrop, views, View.class, 500);
+        boolean reEnableFK = disableForeignKeyChecks();
+        try {
+            dropObjectsInBulk("TABLE IF EXISTS", "", schemaToDrop, baseTables, Table.class, 500);
+        } finally {
+            if (reEnableFK) {
+                enableForeignKeyChecks();
+            }
+        }
+        dropObjectsInBulk("SEQUENCE IF EXISTS", "", schemaToDrop, sequences, Sequence.class, 500);
+        return true;
+    }
+
     @Override
     public CatalogAndSchema getSchemaFromJdbcInfo(String rawCatalogName, String rawSchemaName) {
         return new CatalogAndSchema(rawCatalogName, null).customize(this);
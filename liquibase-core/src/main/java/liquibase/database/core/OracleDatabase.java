@@ -652,4 +652,17 @@ public class OracleDatabase extends AbstractJdbcDatabase {
 
     }
 
+    /**
+     * Oracle records the time of the last DDL statement of every object in LAST_DDL_TIME. The object count is part of
+     * the fingerprint, as dropping an object does not change the time of the others.
+     */
+    @Override
+    public String getSchemaFingerprint(CatalogAndSchema schema) throws DatabaseException {
+        if (schema.getCatalogName() == null) {
+            return null;
+        }
+        String sql = "SELECT TO_CHAR(MAX(LAST_DDL_TIME), 'YYYYMMDDHH24MISS') || ':' || COUNT(*) FROM ALL_OBJECTS " +
+                "WHERE OWNER = '" + escapeStringForDatabase(schema.getCatalogName()) + "'";
+        return ExecutorService.getInstance().getExecutor(this).queryForObject(new RawSqlStatement(sql), String.class);
+    }
 }
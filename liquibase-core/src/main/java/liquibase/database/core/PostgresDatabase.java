@@ -7,6 +7,7 @@ import liquibase.database.AbstractJdbcDatabase;
 import liquibase.database.DatabaseConnection;
 import liquibase.database.ObjectQuotingStrategy;
 import liquibase.database.jvm.JdbcConnection;
+import liquibase.executor.ExecutorService;
 import liquibase.logging.Logger;
 import liquibase.structure.DatabaseObject;
 import liquibase.exception.DatabaseException;
@@ -14,7 +15,10 @@ import liquibase.logging.LogService;
 import liquibase.logging.LogType;
 import liquibase.statement.SqlStatement;
 import liquibase.statement.core.RawCallStatement;
+import liquibase.statement.core.RawSqlStatement;
+import liquibase.structure.core.Sequence;
 import liquibase.structure.core.Table;
+import liquibase.structure.core.View;
 import liquibase.util.JdbcUtils;
 import liquibase.util.StringUtil;
 
@@ -335,4 +339,48 @@ public class PostgresDatabase extends AbstractJdbcDatabase {
     public CatalogAndSchema.CatalogAndSchemaCase getSchemaAndCatalogCase() {
         return CatalogAndSchema.CatalogAndSchemaCase.LOWER_CASE;
     }
+
+    @Override
+    protected boolean dropDatabaseObjectsFast(CatalogAndSchema schemaToDrop) throws DatabaseException {
+        if (schemaToDrop.getSchemaName() == null) {
+            return false;
+        }
+        String relations = "SELECT c.relname FROM pg_catalog.pg_class c JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace " +
+                "WHERE n.nspname = '" + escapeStringForDatabase(schemaToDrop.getSchemaName()) + "' " +
+                "AND NOT EXISTS (SELECT 1 FROM pg_catalog.pg_depend d WHERE d.objid = c.oid AND d.deptype = 'e') " +
+                "AND c.relkind ";
+        List<String> views = queryForObjectNames(relations + "= 'v'");
+        List<String> materializedViews = queryForObjectNames(relations + "= 'm'");
+        List<String> tables = queryForObjectNames(relations + "IN ('r', 'p')");
+        List<String> sequences = queryForObjectNames(relations + "= 'S'");
+
+        dropObjectsInBulk("VIEW IF EXISTS", " CASCADE", schemaToDrop, views, View.class, 500);
+        dropObjectsInBulk("MATERIALIZED VIEW IF EXISTS", " CASCADE", schemaToDrop, materializedViews, View.class, 500);
+        dropObjectsInBulk("TABLE IF EXISTS", " CASCADE", schemaToDrop, tables, Table.class, 500);
+        dropObjectsInBulk("SEQUENCE IF EXISTS", " CASCADE", schemaToDrop, sequences, Sequence.class, 500);
+        return true;
+    }
+
+    /**
+     * Every DDL statement rewrites the catalog rows of the objects it changes, which gives those rows a new xmin.
+     * The fingerprint is a hash of the row ids and xmins of the relations, columns, defaults, constraints, indexes
+     * and view rules of the schema.
+     */
+    @Override
+    public String getSchemaFingerprint(CatalogAndSchema schema) throws DatabaseException {
+        if (schema.getSchemaName() == null) {
+            return null;
+        }
+        String namespace = "(SELECT oid FROM pg_catalog.pg_namespace WHERE nspname = '" + escapeStringForDatabase(schema.getSchemaName()) + "')";
+        String relations = "JOIN pg_catalog.pg_class c ON c.oid = ";
+        String sql = "SELECT md5(string_agg(catalog_row, ',' ORDER BY catalog_row)) FROM (" +
+                "SELECT 'c' || c.oid || ':' || c.xmin AS catalog_row FROM pg_catalog.pg_class c WHERE c.relnamespace = " + namespace +
+                " UNION ALL SELECT 'a' || a.attrelid || '.' || a.attnum || ':' || a.xmin FROM pg_catalog.pg_attribute a " + relations + "a.attrelid WHERE c.relnamespace = " + namespace +
+                " UNION ALL SELECT 'd' || d.oid || ':' || d.xmin FROM pg_catalog.pg_attrdef d " + relations + "d.adrelid WHERE c.relnamespace = " + namespace +
+                " UNION ALL SELECT 'k' || k.oid || ':' || k.xmin FROM pg_catalog.pg_constraint k WHERE k.connamespace = " + namespace +
+                " UNION ALL SELECT 'i' || i.indexrelid || ':' || i.xmin FROM pg_catalog.pg_index i " + relations + "i.indrelid WHERE c.relnamespace = " + namespace +
+                " UNION ALL SELECT 'r' || r.oid || ':' || r.xmin FROM pg_catalog.pg_rewrite r " + relations + "r.ev_class WHERE c.relnamespace = " + namespace +
+                ") catalog_rows";
+        return ExecutorService.getInstance().getExecutor(this).queryForObject(new RawSqlStatement(sql), String.class);
+    }
 }
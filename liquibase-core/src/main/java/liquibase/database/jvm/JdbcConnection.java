@@ -1,6 +1,8 @@
 package liquibase.database.jvm;
 
 import liquibase.Scope;
+import liquibase.configuration.GlobalConfiguration;
+import liquibase.configuration.LiquibaseConfiguration;
 import liquibase.database.Database;
 import liquibase.database.DatabaseConnection;
 import liquibase.exception.DatabaseException;
@@ -18,6 +20,7 @@ import java.util.Map;
  */
 public class JdbcConnection implements DatabaseConnection {
     private java.sql.Connection con;
+    private PreparedStatementCache preparedStatementCache;
 
     public JdbcConnection(java.sql.Connection connection) {
         this.con = connection;
@@ -106,8 +109,27 @@ public class JdbcConnection implements DatabaseConnection {
         }
     }
 
+    /**
+     * Returns the cache of prepared statements for this connection, or null if
+     * {@link GlobalConfiguration#PREPARED_STATEMENT_CACHE_SIZE} is not set. The size is read when the cache is first
+     * used.
+     */
+    public synchronized PreparedStatementCache getPreparedStatementCache() {
+        if (preparedStatementCache == null) {
+            Integer size = LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getPreparedStatementCacheSize();
+            if ((size == null) || (size < 1)) {
+                return null;
+            }
+            preparedStatementCache = new PreparedStatementCache(this, size);
+        }
+        return preparedStatementCache;
+    }
+
     @Override
     public void close() throws DatabaseException {
+        if (preparedStatementCache != null) {
+            preparedStatementCache.clear();
+        }
         rollback();
         try {
             con.close();
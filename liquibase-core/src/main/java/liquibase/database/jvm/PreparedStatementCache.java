@@ -0,0 +1,127 @@
+package liquibase.database.jvm;
+
+import liquibase.exception.DatabaseException;
+import liquibase.util.JdbcUtils;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of {@link PreparedStatement}s for one {@link JdbcConnection}, keyed by SQL text. Reusing
+ * statements saves the parse/prepare round-trip for SQL text that repeats exactly, like the queries on the lock and
+ * history tables or the parameterized INSERT of a loadData change. Statements that embed their values in the SQL,
+ * such as the updates of the lock and history tables, do not benefit and are not run through the cache.
+ * <p>
+ * A statement is taken out of the cache by {@link #checkOut(String)} and must be handed back with
+ * {@link #checkIn(String, PreparedStatement)} instead of being closed. Statements in use are not in the cache, so the
+ * same SQL can be checked out more than once at a time. When the cache is full, the least recently used statement is
+ * closed.
+ */
+public class PreparedStatementCache {
+
+    private final JdbcConnection connection;
+    private final int maxSize;
+    private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hits;
+    private long misses;
+
+    public PreparedStatementCache(JdbcConnection connection, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be greater than 0");
+        }
+        this.connection = connection;
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of statements currently cached. Statements that are checked out are not counted.
+     */
+    public synchronized int size() {
+        return statements.size();
+    }
+
+    /**
+     * Returns how often {@link #checkOut(String)} could reuse a cached statement.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns how often {@link #checkOut(String)} had to prepare a new statement.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns a cached statement for the given SQL with its parameters and batch cleared, or prepares a new one.
+     */
+    public PreparedStatement checkOut(String sql) throws DatabaseException {
+        PreparedStatement statement;
+        synchronized (this) {
+            statement = statements.remove(sql);
+            if (statement != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        if (statement != null) {
+            try {
+                if (!statement.isClosed()) {
+                    statement.clearParameters();
+                    statement.clearBatch();
+                    return statement;
+                }
+            } catch (SQLException e) {
+                JdbcUtils.closeStatement(statement);
+            }
+        }
+        return connection.prepareStatement(sql);
+    }
+
+    /**
+     * Returns a statement obtained from {@link #checkOut(String)} to the cache. If a statement for the same SQL was
+     * returned in the meantime, or the cache is full, a statement is closed.
+     */
+    public void checkIn(String sql, PreparedStatement statement) {
+        PreparedStatement toClose;
+        synchronized (this) {
+            toClose = statements.put(sql, statement);
+            if ((toClose == null) && (statements.size() > maxSize)) {
+                Iterator<Map.Entry<String, PreparedStatement>> iterator = statements.entrySet().iterator();
+                toClose = iterator.next().getValue();
+                iterator.remove();
+            }
+        }
+        JdbcUtils.closeStatement(toClose);
+    }
+
+    /**
+     * Closes all cached statements.
+     */
+    public void clear() {
+        PreparedStatement[] toClose;
+        synchronized (this) {
+            toClose = statements.values().toArray(new PreparedStatement[0]);
+            statements.clear();
+        }
+        for (PreparedStatement statement : toClose) {
+            JdbcUtils.closeStatement(statement);
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PreparedStatementCache[size=" + statements.size() + ", maxSize=" + maxSize + ", hits=" + hits + ", misses=" + misses + "]";
+    }
+}
@@ -66,7 +66,8 @@ public class DiffGeneratorFactory {
     }
 
     public DiffResult compare(Database referenceDatabase, Database comparisonDatabase, CompareControl compareControl) throws LiquibaseException {
-        return compare(referenceDatabase, comparisonDatabase, new SnapshotControl(referenceDatabase), new SnapshotControl(comparisonDatabase), compareControl);
+        return compare(referenceDatabase, comparisonDatabase, new SnapshotControl(referenceDatabase).setUsePersistedSnapshots(true),
+                new SnapshotControl(comparisonDatabase).setUsePersistedSnapshots(true), compareControl);
     }
 
     public DiffResult compare(Database referenceDatabase, Database comparisonDatabase, SnapshotControl referenceSnapshotControl, SnapshotControl comparisonSnapshotControl, CompareControl compareControl) throws LiquibaseException {
@@ -10,6 +10,7 @@ import liquibase.structure.core.Schema;
 import liquibase.util.StringUtil;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DatabaseObjectComparatorFactory {
 
@@ -17,8 +18,9 @@ public class DatabaseObjectComparatorFactory {
 
     private List<DatabaseObjectComparator> comparators = new ArrayList<>();
 
-    private Map<String, List<DatabaseObjectComparator>> validComparatorsByClassAndDatabase = new HashMap<>();
-    private Map<String, DatabaseObjectComparatorChain> comparatorChainsByClassAndDatabase = new HashMap<>();
+    //filled lazily by parallel snapshots and diffs, so they must be safe for concurrent access
+    private Map<String, List<DatabaseObjectComparator>> validComparatorsByClassAndDatabase = new ConcurrentHashMap<>();
+    private Map<String, DatabaseObjectComparatorChain> comparatorChainsByClassAndDatabase = new ConcurrentHashMap<>();
 
     private DatabaseObjectComparatorFactory() {
         try {
@@ -71,8 +73,9 @@ public class DatabaseObjectComparatorFactory {
 
     protected List<DatabaseObjectComparator> getComparators(Class<? extends DatabaseObject> comparatorClass, Database database) {
         String key = comparatorClass.getName()+":"+database.getShortName();
-        if (validComparatorsByClassAndDatabase.containsKey(key)) {
-            return validComparatorsByClassAndDatabase.get(key);
+        List<DatabaseObjectComparator> cachedComparators = validComparatorsByClassAndDatabase.get(key);
+        if (cachedComparators != null) {
+            return cachedComparators;
         }
 
         List<DatabaseObjectComparator> validComparators = new ArrayList<>();
@@ -85,9 +88,8 @@ public class DatabaseObjectComparatorFactory {
 
         Collections.sort(validComparators, new DatabaseObjectComparatorComparator(comparatorClass, database));
 
-        validComparatorsByClassAndDatabase.put(key, validComparators);
-
-        return validComparators;
+        cachedComparators = validComparatorsByClassAndDatabase.putIfAbsent(key, validComparators);
+        return (cachedComparators == null) ? validComparators : cachedComparators;
     }
 
     public boolean isSameObject(DatabaseObject object1, DatabaseObject object2, CompareControl.SchemaComparison[] schemaComparisons, Database accordingTo) {
@@ -170,8 +172,9 @@ public class DatabaseObjectComparatorFactory {
     private DatabaseObjectComparatorChain createComparatorChain(Class<? extends DatabaseObject> databaseObjectType, CompareControl.SchemaComparison[] schemaComparisons, Database database) {
         String key = databaseObjectType.getName()+":"+database.getShortName();
 
-        if (comparatorChainsByClassAndDatabase.containsKey(key)) {
-            DatabaseObjectComparatorChain copy = comparatorChainsByClassAndDatabase.get(key).copy();
+        DatabaseObjectComparatorChain cachedChain = comparatorChainsByClassAndDatabase.get(key);
+        if (cachedChain != null) {
+            DatabaseObjectComparatorChain copy = cachedChain.copy();
             copy.setSchemaComparisons(schemaComparisons);
             return copy;
         }
@@ -182,7 +185,7 @@ public class DatabaseObjectComparatorFactory {
         }
 
         DatabaseObjectComparatorChain chain = new DatabaseObjectComparatorChain(comparators, null);
-        comparatorChainsByClassAndDatabase.put(key, chain);
+        comparatorChainsByClassAndDatabase.putIfAbsent(key, chain);
         //noinspection unchecked
         chain = chain.copy();
         chain.setSchemaComparisons(schemaComparisons);
@@ -0,0 +1,77 @@
+package liquibase.diff.core;
+
+import liquibase.database.Database;
+import liquibase.diff.compare.CompareControl;
+import liquibase.diff.compare.DatabaseObjectComparatorFactory;
+import liquibase.snapshot.DatabaseSnapshot;
+import liquibase.structure.DatabaseObject;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the objects of one type in a {@link DatabaseSnapshot}, keyed by the identity hashes of
+ * {@link DatabaseObjectComparatorFactory#hash(DatabaseObject, CompareControl.SchemaComparison[], Database)}.
+ * Finds the same objects as {@link DatabaseSnapshot#get(DatabaseObject)}, but is built once per diff so lookups
+ * only hash the example and check the objects in its smallest matching bucket first.
+ */
+class DatabaseObjectIndex<T extends DatabaseObject> {
+
+    private static final Comparator<List<?>> BY_SIZE = Comparator.comparingInt(List::size);
+
+    private final Database database;
+    private final CompareControl.SchemaComparison[] schemaComparisons;
+    private final Map<String, List<T>> objectsByHash = new HashMap<>();
+
+    DatabaseObjectIndex(Class<T> type, DatabaseSnapshot snapshot) {
+        this.database = snapshot.getDatabase();
+        this.schemaComparisons = snapshot.getSchemaComparisons();
+
+        DatabaseObjectComparatorFactory comparatorFactory = DatabaseObjectComparatorFactory.getInstance();
+        for (T object : snapshot.get(type)) {
+            for (String hash : comparatorFactory.hash(object, null, database)) {
+                objectsByHash.computeIfAbsent(hash, key -> new ArrayList<>()).add(object);
+            }
+        }
+    }
+
+    /**
+     * Returns the indexed object that is the same as the passed example, or null if there is none.
+     */
+    T get(DatabaseObject example) {
+        DatabaseObjectComparatorFactory comparatorFactory = DatabaseObjectComparatorFactory.getInstance();
+        String[] hashes = comparatorFactory.hash(example, null, database);
+
+        List<List<T>> buckets = new ArrayList<>(hashes.length);
+        for (String hash : hashes) {
+            List<T> bucket = objectsByHash.get(hash);
+            if ((bucket != null) && !containsSame(buckets, bucket)) {
+                buckets.add(bucket);
+            }
+        }
+        if (buckets.size() > 1) {
+            buckets.sort(BY_SIZE);
+        }
+
+        for (List<T> bucket : buckets) {
+            for (T object : bucket) {
+                if (comparatorFactory.isSameObject(object, example, schemaComparisons, database)) {
+                    return object;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean containsSame(List<? extends List<?>> buckets, List<?> bucket) {
+        for (List<?> existing : buckets) {
+            if (existing == bucket) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,8 @@
 package liquibase.diff.core;
 
+import liquibase.CatalogAndSchema;
+import liquibase.configuration.GlobalConfiguration;
+import liquibase.configuration.LiquibaseConfiguration;
 import liquibase.database.Database;
 import liquibase.diff.DiffGenerator;
 import liquibase.diff.DiffResult;
@@ -16,7 +19,16 @@ import liquibase.structure.DatabaseObject;
 import liquibase.structure.core.Schema;
 import liquibase.util.StringUtil;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class StandardDiffGenerator implements DiffGenerator {
 
@@ -48,8 +60,13 @@ public class StandardDiffGenerator implements DiffGenerator {
         typesToCompare.retainAll(referenceSnapshot.getSnapshotControl().getTypesToInclude());
         typesToCompare.retainAll(comparisonSnapshot.getSnapshotControl().getTypesToInclude());
 
-        for (Class<? extends DatabaseObject> typeToCompare : typesToCompare) {
-            compareObjectType(typeToCompare, referenceSnapshot, comparisonSnapshot, diffResult);
+        int threads = LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getDiffThreads();
+        if ((threads > 1) && (typesToCompare.size() > 1)) {
+            compareInParallel(typesToCompare, referenceSnapshot, comparisonSnapshot, diffResult, threads);
+        } else {
+            for (Class<? extends DatabaseObject> typeToCompare : typesToCompare) {
+                compareObjectType(typeToCompare, referenceSnapshot, comparisonSnapshot, diffResult);
+            }
         }
 
         return diffResult;
@@ -64,6 +81,55 @@ public class StandardDiffGenerator implements DiffGenerator {
 
     }
 
+    /**
+     * Compares each type into its own {@link DiffResult} on a fork-join pool and merges the results in the order of
+     * the types, as {@link DiffResult} is not thread safe.
+     */
+    protected void compareInParallel(Set<Class<? extends DatabaseObject>> typesToCompare, final DatabaseSnapshot referenceSnapshot, final DatabaseSnapshot comparisonSnapshot, final DiffResult diffResult, int threads) throws DatabaseException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ForkJoinTask<DiffResult>> tasks = new ArrayList<>();
+            for (final Class<? extends DatabaseObject> typeToCompare : typesToCompare) {
+                tasks.add(pool.submit(() -> {
+                    DiffResult typeResult = new DiffResult(referenceSnapshot, comparisonSnapshot, diffResult.getCompareControl());
+                    compareObjectType(typeToCompare, referenceSnapshot, comparisonSnapshot, typeResult);
+                    return typeResult;
+                }));
+            }
+
+            for (ForkJoinTask<DiffResult> task : tasks) {
+                DiffResult typeResult;
+                try {
+                    typeResult = task.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new DatabaseException(e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new UnexpectedLiquibaseException(e.getCause());
+                }
+                for (DatabaseObject missingObject : typeResult.getMissingObjects()) {
+                    diffResult.addMissingObject(missingObject);
+                }
+                for (DatabaseObject unexpectedObject : typeResult.getUnexpectedObjects()) {
+                    diffResult.addUnexpectedObject(unexpectedObject);
+                }
+                for (Map.Entry<DatabaseObject, ObjectDifferences> changedObject : typeResult.getChangedObjects().entrySet()) {
+                    diffResult.addChangedObject(changedObject.getKey(), changedObject.getValue());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Indexes the objects of the given type in both snapshots once and matches every object against the index of the
+     * other snapshot. Each object is matched at most once, even if it falls in more than one schema comparison, and
+     * standardized schema names are computed once per schema.
+     */
     protected <T extends DatabaseObject> void compareObjectType(Class<T> type, DatabaseSnapshot referenceSnapshot, DatabaseSnapshot comparisonSnapshot, DiffResult diffResult) {
 
         Database comparisonDatabase = comparisonSnapshot.getDatabase();
@@ -71,19 +137,29 @@ public class StandardDiffGenerator implements DiffGenerator {
 
         CompareControl.SchemaComparison[] schemaComparisons = diffResult.getCompareControl().getSchemaComparisons();
         if (schemaComparisons != null) {
+            Set<T> referenceObjects = referenceSnapshot.get(type);
+            Set<T> comparisonObjects = comparisonSnapshot.get(type);
+            DatabaseObjectIndex<T> comparisonIndex = new DatabaseObjectIndex<>(type, comparisonSnapshot);
+            DatabaseObjectIndex<T> referenceIndex = new DatabaseObjectIndex<>(type, referenceSnapshot);
+
+            Map<String, String> referenceSchemaNames = new HashMap<>();
+            Map<String, String> comparisonSchemaNames = new HashMap<>();
+            Set<T> comparedReferenceObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+            Set<T> comparedComparisonObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+
             for (CompareControl.SchemaComparison schemaComparison : schemaComparisons) {
-                for (T referenceObject : referenceSnapshot.get(type)) {
+                String referenceSchemaName = StringUtil.trimToEmpty(schemaComparison.getReferenceSchema().standardize(referenceDatabase).getSchemaName());
+                for (T referenceObject : referenceObjects) {
                     Schema referenceObjectSchema = referenceObject.getSchema();
                     if ((referenceObjectSchema != null) && (referenceObjectSchema.getName() != null)) { //don't filter out null-named schemas. May actually be catalog-level objects that should be included
-                        if (!StringUtil.trimToEmpty(
-                            referenceObjectSchema.toCatalogAndSchema().standardize(referenceDatabase).getSchemaName())
-                            .equalsIgnoreCase(
-                                StringUtil.trimToEmpty(schemaComparison.getReferenceSchema()
-                                .standardize(referenceDatabase).getSchemaName()))) {
+                        if (!standardizedSchemaName(referenceObjectSchema, referenceDatabase, referenceSchemaNames).equalsIgnoreCase(referenceSchemaName)) {
                             continue;
                         }
                     }
-                    T comparisonObject = comparisonSnapshot.get(referenceObject);
+                    if (!comparedReferenceObjects.add(referenceObject)) {
+                        continue;
+                    }
+                    T comparisonObject = comparisonIndex.get(referenceObject);
                     if (comparisonObject == null) {
                         diffResult.addMissingObject(referenceObject);
                     } else {
@@ -94,12 +170,12 @@ public class StandardDiffGenerator implements DiffGenerator {
                     }
                 }
                 //
-                for (T comparisonObject : comparisonSnapshot.get(type)) {
+                String schemaComparisonName1 = StringUtil.trimToEmpty(schemaComparison.getComparisonSchema().standardize(comparisonDatabase).getSchemaName());
+                String schemaComparisonName2 = StringUtil.trimToEmpty(schemaComparison.getReferenceSchema().standardize(comparisonDatabase).getSchemaName());
+                for (T comparisonObject : comparisonObjects) {
                     Schema comparisonObjectSchema = comparisonObject.getSchema();
                     if (comparisonObjectSchema != null) {
-                        String comparisonObjectSchemaName = StringUtil.trimToEmpty(comparisonObjectSchema.toCatalogAndSchema().standardize(comparisonDatabase).getSchemaName());
-                        String schemaComparisonName1 = StringUtil.trimToEmpty(schemaComparison.getComparisonSchema().standardize(comparisonDatabase).getSchemaName());
-                        String schemaComparisonName2 = StringUtil.trimToEmpty(schemaComparison.getReferenceSchema().standardize(comparisonDatabase).getSchemaName());
+                        String comparisonObjectSchemaName = standardizedSchemaName(comparisonObjectSchema, comparisonDatabase, comparisonSchemaNames);
 
                         if ("".equals(comparisonObjectSchemaName) && !"".equals(schemaComparisonName1) && !"".equals
                             (schemaComparisonName2)) {
@@ -110,10 +186,9 @@ public class StandardDiffGenerator implements DiffGenerator {
                         }
                     }
 
-                    if (referenceSnapshot.get(comparisonObject) == null) {
+                    if (comparedComparisonObjects.add(comparisonObject) && (referenceIndex.get(comparisonObject) == null)) {
                         diffResult.addUnexpectedObject(comparisonObject);
                     }
-                    //            }
                 }
             }
 
@@ -121,4 +196,18 @@ public class StandardDiffGenerator implements DiffGenerator {
         }
 
     }
+
+    /**
+     * Returns the trimmed, standardized name of the schema, computed once per catalog and schema name.
+     */
+    private String standardizedSchemaName(Schema schema, Database database, Map<String, String> standardizedNames) {
+        CatalogAndSchema catalogAndSchema = schema.toCatalogAndSchema();
+        String key = catalogAndSchema.getCatalogName() + "." + catalogAndSchema.getSchemaName();
+        String standardizedName = standardizedNames.get(key);
+        if (standardizedName == null) {
+            standardizedName = StringUtil.trimToEmpty(catalogAndSchema.standardize(database).getSchemaName());
+            standardizedNames.put(key, standardizedName);
+        }
+        return standardizedName;
+    }
 }
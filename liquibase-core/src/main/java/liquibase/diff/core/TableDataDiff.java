@@ -0,0 +1,353 @@
+package liquibase.diff.core;
+
+import liquibase.CatalogAndSchema;
+import liquibase.Scope;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.DatabaseException;
+import liquibase.logging.LogType;
+import liquibase.structure.core.Column;
+import liquibase.structure.core.Table;
+import liquibase.util.JdbcUtils;
+import liquibase.util.MD5Util;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * Compares the rows of a table that exists in two databases. Both tables are read once, ordered by their primary key,
+ * and merge-joined, so only the current row of each side is held in memory whatever the size of the tables. Rows that
+ * differ are passed to a {@link RowListener} as soon as they are found.
+ * <p>
+ * The order of the rows is checked while they are read. If a database sorts the key differently than Java does, for
+ * example because of a case-insensitive collation, the comparison fails instead of reporting wrong differences.
+ */
+public class TableDataDiff {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final Table table;
+    private final List<String> keyColumns;
+    private final Database referenceDatabase;
+    private final Database comparisonDatabase;
+    private final CatalogAndSchema comparisonSchema;
+
+    private long referenceRowCount;
+    private long comparisonRowCount;
+    private long missingRowCount;
+    private long unexpectedRowCount;
+    private long changedRowCount;
+
+    /**
+     * @param table            the table as snapshotted from the reference database
+     * @param keyColumns       the primary key columns of the table
+     * @param comparisonSchema the schema of the table in the comparison database
+     */
+    public TableDataDiff(Table table, List<String> keyColumns, Database referenceDatabase, CatalogAndSchema comparisonSchema, Database comparisonDatabase) {
+        this.table = table;
+        this.keyColumns = keyColumns;
+        this.referenceDatabase = referenceDatabase;
+        this.comparisonSchema = comparisonSchema;
+        this.comparisonDatabase = comparisonDatabase;
+    }
+
+    /**
+     * Reads both tables and passes the rows that differ to the listener.
+     */
+    public void compare(RowListener listener) throws DatabaseException {
+        long started = System.currentTimeMillis();
+        try (RowReader reference = new RowReader(referenceDatabase, table.getSchema().getCatalogName(), table.getSchema().getName(), "reference");
+             RowReader comparison = new RowReader(comparisonDatabase, comparisonSchema.getCatalogName(), comparisonSchema.getSchemaName(), "comparison")) {
+            boolean hasReferenceRow = reference.next();
+            boolean hasComparisonRow = comparison.next();
+            while (hasReferenceRow || hasComparisonRow) {
+                int order;
+                if (!hasReferenceRow) {
+                    order = 1;
+                } else if (!hasComparisonRow) {
+                    order = -1;
+                } else {
+                    order = compareKeys(reference.key, comparison.key);
+                }
+
+                if (order < 0) {
+                    missingRowCount++;
+                    listener.missingRow(reference.getRow());
+                    hasReferenceRow = reference.next();
+                } else if (order > 0) {
+                    unexpectedRowCount++;
+                    listener.unexpectedRow(comparison.getKey());
+                    hasComparisonRow = comparison.next();
+                } else {
+                    Map<String, Object> changedValues = new LinkedHashMap<>();
+                    for (int i = 0; i < reference.columnNames.length; i++) {
+                        Object value = reference.values[i];
+                        if (!Objects.equals(normalize(value), normalize(comparison.getValue(reference.columnNames[i])))) {
+                            changedValues.put(reference.columnNames[i], value);
+                        }
+                    }
+                    if (!changedValues.isEmpty()) {
+                        changedRowCount++;
+                        listener.changedRow(reference.getKey(), changedValues);
+                    }
+                    hasReferenceRow = reference.next();
+                    hasComparisonRow = comparison.next();
+                }
+            }
+            referenceRowCount = reference.rowCount;
+            comparisonRowCount = comparison.rowCount;
+        } catch (SQLException e) {
+            throw new DatabaseException("Cannot compare the data of " + table.getName() + ": " + e.getMessage(), e);
+        }
+
+        long millis = Math.max(System.currentTimeMillis() - started, 1);
+        Scope.getCurrentScope().getLog(getClass()).info(LogType.LOG, "Compared the data of " + table.getName() + ": "
+                + referenceRowCount + " reference and " + comparisonRowCount + " comparison rows in " + millis + "ms ("
+                + (((referenceRowCount + comparisonRowCount) * 1000) / millis) + " rows/sec), "
+                + missingRowCount + " missing, " + unexpectedRowCount + " unexpected, " + changedRowCount + " changed");
+    }
+
+    public long getReferenceRowCount() {
+        return referenceRowCount;
+    }
+
+    public long getComparisonRowCount() {
+        return comparisonRowCount;
+    }
+
+    public long getMissingRowCount() {
+        return missingRowCount;
+    }
+
+    public long getUnexpectedRowCount() {
+        return unexpectedRowCount;
+    }
+
+    public long getChangedRowCount() {
+        return changedRowCount;
+    }
+
+    /**
+     * Returns the value in a form that is equal for values that are equal in the database, whatever type the JDBC
+     * driver returned them as: numbers without trailing zeros, dates as milliseconds and binary data as its MD5 hash.
+     */
+    public static String normalize(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number) {
+            try {
+                return new BigDecimal(value.toString()).stripTrailingZeros().toPlainString();
+            } catch (NumberFormatException e) {
+                return value.toString();
+            }
+        }
+        if (value instanceof Date) {
+            String millis = String.valueOf(((Date) value).getTime());
+            if ((value instanceof Timestamp) && ((((Timestamp) value).getNanos() % 1000000) != 0)) {
+                return millis + "." + (((Timestamp) value).getNanos() % 1000000);
+            }
+            return millis;
+        }
+        if (value instanceof byte[]) {
+            return "0x" + MD5Util.computeMD5(new ByteArrayInputStream((byte[]) value));
+        }
+        return value.toString();
+    }
+
+    /**
+     * Hashes a row so that the hashes of all rows of a table can be added up to a hash of the table that does not
+     * depend on the order of the rows or columns. Column names are not case sensitive.
+     */
+    public static long hashRow(String[] columnNames, Object[] values) {
+        long hash = 0;
+        for (int i = 0; i < columnNames.length; i++) {
+            String value = normalize(values[i]);
+            hash += mix(fnv(fnv(0xcbf29ce484222325L, columnNames[i].toUpperCase()), (value == null) ? "\u0000" : ("\u0001" + value)));
+        }
+        return mix(hash);
+    }
+
+    private static long fnv(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private int compareKeys(Object[] key1, Object[] key2) {
+        for (int i = 0; i < key1.length; i++) {
+            int result = compareValues(key1[i], key2[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private int compareValues(Object value1, Object value2) {
+        if ((value1 == null) || (value2 == null)) {
+            return (value1 == null) ? ((value2 == null) ? 0 : -1) : 1;
+        }
+        if ((value1 instanceof Number) && (value2 instanceof Number)) {
+            try {
+                return new BigDecimal(value1.toString()).compareTo(new BigDecimal(value2.toString()));
+            } catch (NumberFormatException ignored) {
+                //compared as strings below
+            }
+        }
+        if ((value1 instanceof Date) && (value2 instanceof Date)) {
+            int result = Long.compare(((Date) value1).getTime(), ((Date) value2).getTime());
+            if ((result == 0) && (value1 instanceof Timestamp) && (value2 instanceof Timestamp)) {
+                return Integer.compare(((Timestamp) value1).getNanos(), ((Timestamp) value2).getNanos());
+            }
+            return result;
+        }
+        if ((value1 instanceof Comparable) && value1.getClass().equals(value2.getClass())) {
+            return ((Comparable) value1).compareTo(value2);
+        }
+        return normalize(value1).compareTo(normalize(value2));
+    }
+
+    /**
+     * Receives the rows that differ between the reference and the comparison database.
+     */
+    public interface RowListener {
+
+        /**
+         * Called for a row that is only in the reference database, with all its values keyed by column name.
+         */
+        void missingRow(Map<String, Object> row) throws DatabaseException;
+
+        /**
+         * Called for a row that is only in the comparison database, with its primary key values keyed by column name.
+         */
+        void unexpectedRow(Map<String, Object> key) throws DatabaseException;
+
+        /**
+         * Called for a row whose values differ, with its primary key values and the reference values of the columns
+         * that differ, both keyed by column name.
+         */
+        void changedRow(Map<String, Object> key, Map<String, Object> changedValues) throws DatabaseException;
+    }
+
+    /**
+     * Reads the rows of the table from one database ordered by the primary key. Only the current row is kept.
+     */
+    private class RowReader implements AutoCloseable {
+        private final String side;
+        private final Statement statement;
+        private final ResultSet resultSet;
+        private final String[] columnNames;
+        private final Map<String, Integer> columnIndexes = new HashMap<>();
+        private final int[] keyIndexes;
+        private final Object[] values;
+        private Object[] key;
+        private long rowCount;
+
+        private RowReader(Database database, String catalogName, String schemaName, String side) throws SQLException, DatabaseException {
+            this.side = side;
+
+            StringBuilder sql = new StringBuilder("SELECT * FROM ")
+                    .append(database.escapeTableName(catalogName, schemaName, table.getName()))
+                    .append(" ORDER BY ");
+            for (int i = 0; i < keyColumns.size(); i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(database.escapeObjectName(keyColumns.get(i), Column.class));
+            }
+
+            statement = ((JdbcConnection) database.getConnection()).createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            try {
+                statement.setFetchSize(FETCH_SIZE);
+                resultSet = statement.executeQuery(sql.toString());
+
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                columnNames = new String[metaData.getColumnCount()];
+                for (int i = 0; i < columnNames.length; i++) {
+                    columnNames[i] = metaData.getColumnName(i + 1);
+                    columnIndexes.put(columnNames[i].toUpperCase(), i);
+                }
+                values = new Object[columnNames.length];
+
+                keyIndexes = new int[keyColumns.size()];
+                for (int i = 0; i < keyIndexes.length; i++) {
+                    Integer index = columnIndexes.get(keyColumns.get(i).toUpperCase());
+                    if (index == null) {
+                        throw new DatabaseException("Primary key column " + keyColumns.get(i) + " of " + table.getName() + " is not in the " + side + " database");
+                    }
+                    keyIndexes[i] = index;
+                }
+            } catch (SQLException | DatabaseException e) {
+                JdbcUtils.closeStatement(statement);
+                throw e;
+            }
+        }
+
+        private boolean next() throws SQLException, DatabaseException {
+            if (!resultSet.next()) {
+                return false;
+            }
+            rowCount++;
+            for (int i = 0; i < values.length; i++) {
+                values[i] = JdbcUtils.getResultSetValue(resultSet, i + 1);
+            }
+
+            Object[] previousKey = key;
+            key = new Object[keyIndexes.length];
+            for (int i = 0; i < keyIndexes.length; i++) {
+                key[i] = values[keyIndexes[i]];
+            }
+            if ((previousKey != null) && (compareKeys(previousKey, key) >= 0)) {
+                throw new DatabaseException("The " + side + " database returned the rows of " + table.getName()
+                        + " in a different order than their primary key sorts in (" + Arrays.toString(previousKey)
+                        + " before " + Arrays.toString(key) + "), probably because of the collation of the key columns."
+                        + " The data of the table cannot be compared");
+            }
+            return true;
+        }
+
+        private Object getValue(String columnName) {
+            Integer index = columnIndexes.get(columnName.toUpperCase());
+            return (index == null) ? null : values[index];
+        }
+
+        private Map<String, Object> getRow() {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < columnNames.length; i++) {
+                row.put(columnNames[i], values[i]);
+            }
+            return row;
+        }
+
+        private Map<String, Object> getKey() {
+            Map<String, Object> keyValues = new LinkedHashMap<>();
+            for (int keyIndex : keyIndexes) {
+                keyValues.put(columnNames[keyIndex], values[keyIndex]);
+            }
+            return keyValues;
+        }
+
+        @Override
+        public void close() {
+            JdbcUtils.close(resultSet, statement);
+        }
+    }
+}
@@ -14,6 +14,7 @@ import liquibase.structure.DatabaseObject;
 import liquibase.structure.DatabaseObjectCollection;
 import liquibase.structure.core.Schema;
 
+import javax.sql.DataSource;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -37,6 +38,9 @@ public class DiffOutputControl {
 
     private ObjectChangeFilter objectChangeFilter;
 
+    private DataSource dataExportDataSource;
+    private int dataExportThreads;
+
     public DiffOutputControl() {
         includeSchema = true;
         includeCatalog = true;
@@ -89,6 +93,35 @@ public class DiffOutputControl {
         return this;
     }
 
+    /**
+     * Returns the DataSource used to export the data of multiple tables in parallel, or null if tables are exported
+     * one after another on the connection of the reference database.
+     */
+    public DataSource getDataExportDataSource() {
+        return dataExportDataSource;
+    }
+
+    /**
+     * Returns the maximum number of tables, or parts of tables, that are exported at the same time.
+     */
+    public int getDataExportThreads() {
+        return dataExportThreads;
+    }
+
+    /**
+     * Export the data of missing tables to the data directory in parallel. Each table, or part of a table, is exported
+     * on its own connection from the given DataSource, using at most <code>threads</code> connections at a time.
+     * Only used if a data directory is set.
+     *
+     * @param dataSource the DataSource to get connections to the reference database from, or null to export one table at a time
+     * @param threads the maximum number of tables to export at the same time
+     */
+    public DiffOutputControl setDataExportDataSource(DataSource dataSource, int threads) {
+        this.dataExportDataSource = dataSource;
+        this.dataExportThreads = threads;
+        return this;
+    }
+
     public void setAlreadyHandledMissing(DatabaseObject missingObject) {
         this.alreadyHandledMissing.add(missingObject);
     }
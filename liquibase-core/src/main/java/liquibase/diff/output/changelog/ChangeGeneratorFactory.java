@@ -95,6 +95,27 @@ public class ChangeGeneratorFactory {
         return chain.fixMissing(missingObject, control, referenceDatabase, comparisionDatabase);
     }
 
+    /**
+     * Passes the missing objects to the generators that will fix them if those implement
+     * {@link PreparingMissingObjectChangeGenerator}, so they can start working on them before
+     * {@link #fixMissing(DatabaseObject, DiffOutputControl, Database, Database)} is called for each object.
+     */
+    public void prepareMissing(List<DatabaseObject> missingObjects, DiffOutputControl control, Database referenceDatabase, Database comparisionDatabase) {
+        Map<Class<? extends DatabaseObject>, List<DatabaseObject>> objectsByType = new LinkedHashMap<>();
+        for (DatabaseObject missingObject : missingObjects) {
+            if (control.shouldOutput(missingObject, comparisionDatabase)) {
+                objectsByType.computeIfAbsent(missingObject.getClass(), type -> new ArrayList<>()).add(missingObject);
+            }
+        }
+
+        for (Map.Entry<Class<? extends DatabaseObject>, List<DatabaseObject>> entry : objectsByType.entrySet()) {
+            SortedSet<ChangeGenerator> generators = getGenerators(MissingObjectChangeGenerator.class, entry.getKey(), referenceDatabase);
+            if (!generators.isEmpty() && (generators.first() instanceof PreparingMissingObjectChangeGenerator)) {
+                ((PreparingMissingObjectChangeGenerator) generators.first()).prepareMissing(entry.getValue(), control, referenceDatabase, comparisionDatabase);
+            }
+        }
+    }
+
     public Change[] fixUnexpected(DatabaseObject unexpectedObject, DiffOutputControl control, Database referenceDatabase, Database comparisionDatabase) {
         if (!control.shouldOutput(unexpectedObject, comparisionDatabase)) {
             return null;
@@ -20,6 +20,7 @@ import liquibase.executor.ExecutorService;
 import liquibase.logging.LogType;
 import liquibase.serializer.ChangeLogSerializer;
 import liquibase.serializer.ChangeLogSerializerFactory;
+import liquibase.serializer.StreamingChangeLogSerializer;
 import liquibase.statement.core.RawSqlStatement;
 import liquibase.structure.DatabaseObject;
 import liquibase.structure.DatabaseObjectComparator;
@@ -141,10 +142,17 @@ public class DiffToChangeLog {
      */
     public void printNew(ChangeLogSerializer changeLogSerializer, File file) throws ParserConfigurationException, IOException, DatabaseException {
 
-        List<ChangeSet> changeSets = generateChangeSets();
+        List<ChangeSet> changeSetList = null;
+        Iterator<ChangeSet> changeSets;
+        if (changeLogSerializer instanceof StreamingChangeLogSerializer) {
+            changeSets = generateChangeSetIterator();
+        } else {
+            changeSetList = generateChangeSets();
+            Scope.getCurrentScope().getLog(getClass()).info(LogType.LOG, "changeSets count: " + changeSetList.size());
+            changeSets = changeSetList.iterator();
+        }
 
-        Scope.getCurrentScope().getLog(getClass()).info(LogType.LOG, "changeSets count: " + changeSets.size());
-        if (changeSets.isEmpty()) {
+        if (!changeSets.hasNext()) {
             Scope.getCurrentScope().getLog(getClass()).info(LogType.LOG, "Skipping creation of empty file.");
             return;
         }
@@ -153,7 +161,11 @@ public class DiffToChangeLog {
 
         try (FileOutputStream stream = new FileOutputStream(file);
              PrintStream out = new PrintStream(stream, true, LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding())) {
-            changeLogSerializer.write(changeSets, out);
+            if (changeSetList == null) {
+                ((StreamingChangeLogSerializer) changeLogSerializer).write(changeSets, out);
+            } else {
+                changeLogSerializer.write(changeSetList, out);
+            }
         }
     }
 
@@ -163,14 +175,32 @@ public class DiffToChangeLog {
      */
     public void print(PrintStream out, ChangeLogSerializer changeLogSerializer) throws ParserConfigurationException, IOException, DatabaseException {
 
-        List<ChangeSet> changeSets = generateChangeSets();
+        if (changeLogSerializer instanceof StreamingChangeLogSerializer) {
+            ((StreamingChangeLogSerializer) changeLogSerializer).write(generateChangeSetIterator(), out);
+        } else {
+            List<ChangeSet> changeSets = generateChangeSets();
 
-        changeLogSerializer.write(changeSets, out);
+            changeLogSerializer.write(changeSets, out);
+        }
 
         out.flush();
     }
 
     public List<ChangeSet> generateChangeSets() {
+        List<ChangeSet> changeSets = new ArrayList<ChangeSet>();
+        Iterator<ChangeSet> iterator = generateChangeSetIterator();
+        while (iterator.hasNext()) {
+            changeSets.add(iterator.next());
+        }
+        return changeSets;
+    }
+
+    /**
+     * Returns the same changeSets as {@link #generateChangeSets()}, in the same order and with the same ids.
+     * The changeSets for missing and unexpected objects are only generated when the iterator reaches them, so a caller
+     * that writes each changeSet out before asking for the next one never holds more than one of them in memory.
+     */
+    public Iterator<ChangeSet> generateChangeSetIterator() {
         final ChangeGeneratorFactory changeGeneratorFactory = ChangeGeneratorFactory.getInstance();
         DatabaseObjectComparator comparator = new DatabaseObjectComparator();
 
@@ -218,33 +248,21 @@ public class DiffToChangeLog {
             }
         }
 
-        List<ChangeSet> createChangeSets = new ArrayList<ChangeSet>();
-
-        for (DatabaseObject object : sortMissingObjects(missingObjects, diffResult.getReferenceSnapshot().getDatabase())) {
-            ObjectQuotingStrategy quotingStrategy = diffOutputControl.getObjectQuotingStrategy();
-
-            Change[] changes = changeGeneratorFactory.fixMissing(object, diffOutputControl, diffResult.getReferenceSnapshot().getDatabase(), diffResult.getComparisonSnapshot().getDatabase());
-            addToChangeSets(changes, createChangeSets, quotingStrategy, created);
-        }
-
-        List<ChangeSet> deleteChangeSets = new ArrayList<ChangeSet>();
+        List<DatabaseObject> unexpectedObjects = new ArrayList<DatabaseObject>();
 
         types = getOrderedOutputTypes(UnexpectedObjectChangeGenerator.class);
         for (Class<? extends DatabaseObject> type : types) {
-            ObjectQuotingStrategy quotingStrategy = diffOutputControl.getObjectQuotingStrategy();
             for (DatabaseObject object : sortUnexpectedObjects(diffResult.getUnexpectedObjects(type, comparator), diffResult.getReferenceSnapshot().getDatabase())) {
                 if (!diffResult.getComparisonSnapshot().getDatabase().isLiquibaseObject(object) && !diffResult.getComparisonSnapshot().getDatabase().isSystemObject(object)) {
-                    Change[] changes = changeGeneratorFactory.fixUnexpected(object, diffOutputControl, diffResult.getReferenceSnapshot().getDatabase(), diffResult.getComparisonSnapshot().getDatabase());
-                    addToChangeSets(changes, deleteChangeSets, quotingStrategy, created);
+                    unexpectedObjects.add(object);
                 }
             }
         }
 
-        List<ChangeSet> changeSets = new ArrayList<ChangeSet>();
-        changeSets.addAll(createChangeSets);
-        changeSets.addAll(deleteChangeSets);
-        changeSets.addAll(updateChangeSets);
-        return changeSets;
+        missingObjects = sortMissingObjects(missingObjects, diffResult.getReferenceSnapshot().getDatabase());
+        changeGeneratorFactory.prepareMissing(missingObjects, diffOutputControl, diffResult.getReferenceSnapshot().getDatabase(), diffResult.getComparisonSnapshot().getDatabase());
+
+        return new ChangeSetIterator(missingObjects, unexpectedObjects, updateChangeSets, created);
     }
 
     private List<DatabaseObject> sortUnexpectedObjects(Collection<? extends DatabaseObject> unexpectedObjects, Database database) {
@@ -574,26 +592,34 @@ public class DiffToChangeLog {
     }
 
     private void addToChangeSets(Change[] changes, List<ChangeSet> changeSets, ObjectQuotingStrategy quotingStrategy, String created) {
-        if (changes != null) {
-            String csContext = this.changeSetContext;
-
-            if (diffOutputControl.getContext() != null) {
-                csContext = diffOutputControl.getContext().toString().replaceFirst("^\\(", "")
-                .replaceFirst("\\)$", "");
-            }
-            ChangeSet changeSet = new ChangeSet(generateId(changes), getChangeSetAuthor(), false, false, this.changeSetPath, csContext,
-                    null, false, quotingStrategy, null);
-            changeSet.setCreated(created);
-            if (diffOutputControl.getLabels() != null) {
-                changeSet.setLabels(diffOutputControl.getLabels());
-            }
-            for (Change change : changes) {
-                changeSet.addChange(change);
-            }
+        ChangeSet changeSet = createChangeSet(changes, quotingStrategy, created);
+        if (changeSet != null) {
             changeSets.add(changeSet);
         }
     }
 
+    private ChangeSet createChangeSet(Change[] changes, ObjectQuotingStrategy quotingStrategy, String created) {
+        if (changes == null) {
+            return null;
+        }
+        String csContext = this.changeSetContext;
+
+        if (diffOutputControl.getContext() != null) {
+            csContext = diffOutputControl.getContext().toString().replaceFirst("^\\(", "")
+            .replaceFirst("\\)$", "");
+        }
+        ChangeSet changeSet = new ChangeSet(generateId(changes), getChangeSetAuthor(), false, false, this.changeSetPath, csContext,
+                null, false, quotingStrategy, null);
+        changeSet.setCreated(created);
+        if (diffOutputControl.getLabels() != null) {
+            changeSet.setLabels(diffOutputControl.getLabels());
+        }
+        for (Change change : changes) {
+            changeSet.addChange(change);
+        }
+        return changeSet;
+    }
+
     protected String getChangeSetAuthor() {
         if (changeSetAuthor != null) {
             return changeSetAuthor;
@@ -650,6 +676,56 @@ public class DiffToChangeLog {
         return idRoot + "-" + changeNumber++ + desc;
     }
 
+    /**
+     * Generates the changeSets for the missing objects, then the unexpected objects, one object at a time, and then
+     * returns the changeSets for the changed objects, which were generated up front so they get the lowest ids.
+     */
+    private class ChangeSetIterator implements Iterator<ChangeSet> {
+        private final Iterator<DatabaseObject> missingObjects;
+        private final Iterator<DatabaseObject> unexpectedObjects;
+        private final Iterator<ChangeSet> updateChangeSets;
+        private final String created;
+        private ChangeSet next;
+
+        private ChangeSetIterator(List<DatabaseObject> missingObjects, List<DatabaseObject> unexpectedObjects, List<ChangeSet> updateChangeSets, String created) {
+            this.missingObjects = missingObjects.iterator();
+            this.unexpectedObjects = unexpectedObjects.iterator();
+            this.updateChangeSets = updateChangeSets.iterator();
+            this.created = created;
+        }
+
+        @Override
+        public boolean hasNext() {
+            ChangeGeneratorFactory changeGeneratorFactory = ChangeGeneratorFactory.getInstance();
+            Database referenceDatabase = diffResult.getReferenceSnapshot().getDatabase();
+            Database comparisonDatabase = diffResult.getComparisonSnapshot().getDatabase();
+            while (next == null) {
+                if (missingObjects.hasNext()) {
+                    Change[] changes = changeGeneratorFactory.fixMissing(missingObjects.next(), diffOutputControl, referenceDatabase, comparisonDatabase);
+                    next = createChangeSet(changes, diffOutputControl.getObjectQuotingStrategy(), created);
+                } else if (unexpectedObjects.hasNext()) {
+                    Change[] changes = changeGeneratorFactory.fixUnexpected(unexpectedObjects.next(), diffOutputControl, referenceDatabase, comparisonDatabase);
+                    next = createChangeSet(changes, diffOutputControl.getObjectQuotingStrategy(), created);
+                } else if (updateChangeSets.hasNext()) {
+                    next = updateChangeSets.next();
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public ChangeSet next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ChangeSet changeSet = next;
+            next = null;
+            return changeSet;
+        }
+    }
+
     private static class DependencyGraph {
 
         private Map<Class<? extends DatabaseObject>, Node> allNodes = new HashMap<>();
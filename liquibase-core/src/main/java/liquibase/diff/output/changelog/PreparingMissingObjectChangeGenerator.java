@@ -0,0 +1,19 @@
+package liquibase.diff.output.changelog;
+
+import liquibase.database.Database;
+import liquibase.diff.output.DiffOutputControl;
+import liquibase.structure.DatabaseObject;
+
+import java.util.List;
+
+/**
+ * A {@link MissingObjectChangeGenerator} that is told about all missing objects of its type before they are fixed one
+ * at a time, so it can start expensive work for all of them up front, for example in parallel.
+ */
+public interface PreparingMissingObjectChangeGenerator extends MissingObjectChangeGenerator {
+
+    /**
+     * Called once with the missing objects this generator will be asked to fix, in the order they will be fixed.
+     */
+    void prepareMissing(List<DatabaseObject> missingObjects, DiffOutputControl control, Database referenceDatabase, Database comparisionDatabase);
+}
@@ -0,0 +1,186 @@
+package liquibase.diff.output.changelog.core;
+
+import liquibase.CatalogAndSchema;
+import liquibase.Scope;
+import liquibase.change.Change;
+import liquibase.change.ColumnConfig;
+import liquibase.change.core.AbstractModifyDataChange;
+import liquibase.change.core.DeleteDataChange;
+import liquibase.change.core.InsertDataChange;
+import liquibase.change.core.UpdateDataChange;
+import liquibase.configuration.GlobalConfiguration;
+import liquibase.configuration.LiquibaseConfiguration;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.datatype.DataTypeFactory;
+import liquibase.diff.ObjectDifferences;
+import liquibase.diff.compare.CompareControl;
+import liquibase.diff.core.TableDataDiff;
+import liquibase.diff.output.DiffOutputControl;
+import liquibase.diff.output.changelog.AbstractChangeGenerator;
+import liquibase.diff.output.changelog.ChangeGeneratorChain;
+import liquibase.diff.output.changelog.ChangedObjectChangeGenerator;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.UnexpectedLiquibaseException;
+import liquibase.logging.LogType;
+import liquibase.structure.DatabaseObject;
+import liquibase.structure.core.*;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the insert, update and delete changes that make the rows of a table in the comparison database match the
+ * reference database. Only used if {@link GlobalConfiguration#DIFF_DATA_ROWS} is set, in which case the data of a
+ * table is reported as changed when its content hash differs. Rows are matched on the primary key by
+ * {@link TableDataDiff}; tables without a primary key are not compared.
+ */
+public class ChangedDataChangeGenerator extends AbstractChangeGenerator implements ChangedObjectChangeGenerator {
+
+    @Override
+    public int getPriority(Class<? extends DatabaseObject> objectType, Database database) {
+        if (Data.class.isAssignableFrom(objectType)) {
+            return PRIORITY_DEFAULT;
+        }
+        return PRIORITY_NONE;
+    }
+
+    @Override
+    public Class<? extends DatabaseObject>[] runAfterTypes() {
+        return new Class[]{
+                Table.class, Column.class
+        };
+    }
+
+    @Override
+    public Class<? extends DatabaseObject>[] runBeforeTypes() {
+        return new Class[]{
+                PrimaryKey.class, ForeignKey.class, Index.class
+        };
+    }
+
+    @Override
+    public Change[] fixChanged(DatabaseObject changedObject, ObjectDifferences differences, DiffOutputControl control, Database referenceDatabase, Database comparisonDatabase, ChangeGeneratorChain chain) {
+        if (!LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getDiffDataRows()) {
+            return null;
+        }
+        Table table = ((Data) changedObject).getTable();
+        if (referenceDatabase.isLiquibaseObject(table)
+                || !(referenceDatabase.getConnection() instanceof JdbcConnection)
+                || !(comparisonDatabase.getConnection() instanceof JdbcConnection)) {
+            return null;
+        }
+
+        PrimaryKey primaryKey = table.getPrimaryKey();
+        if ((primaryKey == null) || primaryKey.getColumns().isEmpty()) {
+            Scope.getCurrentScope().getLog(getClass()).info(LogType.LOG, "Not comparing the rows of " + table.getName() + " as it has no primary key");
+            return null;
+        }
+        List<String> keyColumns = new ArrayList<>();
+        for (Column column : primaryKey.getColumns()) {
+            keyColumns.add(column.getName());
+        }
+
+        List<Change> changes = new ArrayList<>();
+        TableDataDiff dataDiff = new TableDataDiff(table, keyColumns, referenceDatabase, getComparisonSchema(table, control, referenceDatabase), comparisonDatabase);
+        try {
+            dataDiff.compare(new TableDataDiff.RowListener() {
+                @Override
+                public void missingRow(Map<String, Object> row) throws DatabaseException {
+                    InsertDataChange change = new InsertDataChange();
+                    setTable(change, table, control);
+                    for (Map.Entry<String, Object> value : row.entrySet()) {
+                        change.addColumn(createColumnConfig(value.getKey(), value.getValue()));
+                    }
+                    changes.add(change);
+                }
+
+                @Override
+                public void unexpectedRow(Map<String, Object> key) {
+                    DeleteDataChange change = new DeleteDataChange();
+                    setTable(change, table, control);
+                    change.setWhere(createWhere(key, comparisonDatabase));
+                    changes.add(change);
+                }
+
+                @Override
+                public void changedRow(Map<String, Object> key, Map<String, Object> changedValues) throws DatabaseException {
+                    UpdateDataChange change = new UpdateDataChange();
+                    setTable(change, table, control);
+                    for (Map.Entry<String, Object> value : changedValues.entrySet()) {
+                        change.addColumn(createColumnConfig(value.getKey(), value.getValue()));
+                    }
+                    change.setWhere(createWhere(key, comparisonDatabase));
+                    changes.add(change);
+                }
+
+                private ColumnConfig createColumnConfig(String columnName, Object value) throws DatabaseException {
+                    try {
+                        return MissingDataChangeGenerator.createColumnConfig(columnName, value, referenceDatabase);
+                    } catch (UnsupportedEncodingException e) {
+                        throw new DatabaseException(e);
+                    }
+                }
+            });
+        } catch (DatabaseException e) {
+            throw new UnexpectedLiquibaseException(e);
+        }
+
+        return changes.toArray(new Change[changes.size()]);
+    }
+
+    /**
+     * Returns the schema the table is in in the comparison database: the one it is mapped to by the schema comparisons,
+     * the default schema if the table is in the default schema of the reference database, or else a schema of the same name.
+     */
+    protected CatalogAndSchema getComparisonSchema(Table table, DiffOutputControl control, Database referenceDatabase) {
+        CatalogAndSchema referenceSchema = table.getSchema().toCatalogAndSchema().standardize(referenceDatabase);
+        if (control.getSchemaComparisons() != null) {
+            for (CompareControl.SchemaComparison comparison : control.getSchemaComparisons()) {
+                if (comparison.getReferenceSchema().equals(referenceSchema, referenceDatabase)) {
+                    return comparison.getComparisonSchema();
+                }
+            }
+        }
+        if ((referenceSchema.getCatalogName() == null) && (referenceSchema.getSchemaName() == null)) {
+            return CatalogAndSchema.DEFAULT;
+        }
+        return referenceSchema;
+    }
+
+    private void setTable(AbstractModifyDataChange change, Table table, DiffOutputControl control) {
+        if (control.getIncludeCatalog()) {
+            change.setCatalogName(table.getSchema().getCatalogName());
+        }
+        if (control.getIncludeSchema()) {
+            change.setSchemaName(table.getSchema().getName());
+        }
+        change.setTableName(table.getName());
+    }
+
+    private void setTable(InsertDataChange change, Table table, DiffOutputControl control) {
+        if (control.getIncludeCatalog()) {
+            change.setCatalogName(table.getSchema().getCatalogName());
+        }
+        if (control.getIncludeSchema()) {
+            change.setSchemaName(table.getSchema().getName());
+        }
+        change.setTableName(table.getName());
+    }
+
+    private String createWhere(Map<String, Object> key, Database database) {
+        StringBuilder where = new StringBuilder();
+        for (Map.Entry<String, Object> keyValue : key.entrySet()) {
+            if (where.length() > 0) {
+                where.append(" AND ");
+            }
+            Object value = keyValue.getValue();
+            where.append(database.escapeObjectName(keyValue.getKey(), Column.class))
+                    .append(" = ")
+                    .append(DataTypeFactory.getInstance().fromObject(value, database).objectToSql(value, database));
+        }
+        return where.toString();
+    }
+}
@@ -18,6 +18,7 @@ import liquibase.structure.DatabaseObject;
 import liquibase.structure.core.*;
 import liquibase.util.JdbcUtils;
 
+import java.io.UnsupportedEncodingException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -85,29 +86,7 @@ public class MissingDataChangeGenerator extends AbstractChangeGenerator implemen
 
                 // loop over all columns for this row
                 for (int i = 0; i < columnNames.size(); i++) {
-                    ColumnConfig column = new ColumnConfig();
-                    column.setName(columnNames.get(i));
-
-                    Object value = JdbcUtils.getResultSetValue(rs, i + 1);
-                    if (value == null) {
-                        column.setValue(null);
-                    } else if (value instanceof Number) {
-                        column.setValueNumeric((Number) value);
-                    } else if (value instanceof Boolean) {
-                        column.setValueBoolean((Boolean) value);
-                    } else if (value instanceof Date) {
-                        column.setValueDate((Date) value);
-                    } else if (value instanceof byte[]) {
-                        if (referenceDatabase instanceof InformixDatabase) {
-                            column.setValue(new String((byte[]) value, LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding()));
-                        }
-                        column.setValueComputed(new DatabaseFunction("UNSUPPORTED FOR DIFF: BINARY DATA"));
-                    } else { // fall back to simple string
-                        column.setValue(value.toString().replace("\\", "\\\\"));
-                    }
-
-                    change.addColumn(column);
-
+                    change.addColumn(createColumnConfig(columnNames.get(i), JdbcUtils.getResultSetValue(rs, i + 1), referenceDatabase));
                 }
 
                 // for each row, add a new change
@@ -133,4 +112,30 @@ public class MissingDataChangeGenerator extends AbstractChangeGenerator implemen
             }
         }
     }
+
+    /**
+     * Creates the column of a generated data change that sets the given value read from the reference database.
+     */
+    static ColumnConfig createColumnConfig(String columnName, Object value, Database referenceDatabase) throws UnsupportedEncodingException {
+        ColumnConfig column = new ColumnConfig();
+        column.setName(columnName);
+
+        if (value == null) {
+            column.setValue(null);
+        } else if (value instanceof Number) {
+            column.setValueNumeric((Number) value);
+        } else if (value instanceof Boolean) {
+            column.setValueBoolean((Boolean) value);
+        } else if (value instanceof Date) {
+            column.setValueDate((Date) value);
+        } else if (value instanceof byte[]) {
+            if (referenceDatabase instanceof InformixDatabase) {
+                column.setValue(new String((byte[]) value, LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding()));
+            }
+            column.setValueComputed(new DatabaseFunction("UNSUPPORTED FOR DIFF: BINARY DATA"));
+        } else { // fall back to simple string
+            column.setValue(value.toString().replace("\\", "\\\\"));
+        }
+        return column;
+    }
 }
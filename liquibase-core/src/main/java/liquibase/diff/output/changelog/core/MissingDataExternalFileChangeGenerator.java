@@ -1,5 +1,6 @@
 package liquibase.diff.output.changelog.core;
 
+import liquibase.Scope;
 import liquibase.change.Change;
 import liquibase.change.core.LoadDataChange;
 import liquibase.change.core.LoadDataColumnConfig;
@@ -9,28 +10,46 @@ import liquibase.database.Database;
 import liquibase.database.jvm.JdbcConnection;
 import liquibase.diff.output.DiffOutputControl;
 import liquibase.diff.output.changelog.ChangeGeneratorChain;
+import liquibase.diff.output.changelog.PreparingMissingObjectChangeGenerator;
 import liquibase.exception.UnexpectedLiquibaseException;
+import liquibase.logging.LogType;
 import liquibase.servicelocator.LiquibaseService;
 import liquibase.structure.DatabaseObject;
+import liquibase.structure.core.Column;
 import liquibase.structure.core.Data;
+import liquibase.structure.core.PrimaryKey;
 import liquibase.structure.core.Table;
 import liquibase.util.ISODateFormat;
 import liquibase.util.JdbcUtils;
 import liquibase.util.csv.CSVWriter;
 
+import javax.sql.DataSource;
 import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * Exports the data of missing tables to CSV files in the data directory and generates loadData changes for them.
+ * <p>
+ * If {@link DiffOutputControl#getDataExportDataSource()} is set, all missing tables are exported in parallel as soon
+ * as they are known, each on its own connection, and {@link #fixMissing} only waits for the files of its table.
+ * Tables with more rows than {@link GlobalConfiguration#DATA_EXPORT_SPLIT_ROWS} and a single numeric primary key
+ * column are split by key range into one file, and one loadData change, per part.
+ */
 @LiquibaseService(skip = true)
-public class MissingDataExternalFileChangeGenerator extends MissingDataChangeGenerator {
+public class MissingDataExternalFileChangeGenerator extends MissingDataChangeGenerator implements PreparingMissingObjectChangeGenerator {
 
     private String dataDir;
 
+    private final Map<Data, Future<List<Future<ExportedFile>>>> preparedExports = new IdentityHashMap<>();
+
     public MissingDataExternalFileChangeGenerator(String dataDir) {
         this.dataDir = dataDir;
     }
@@ -43,15 +62,60 @@ public class MissingDataExternalFileChangeGenerator extends MissingDataChangeGen
         return PRIORITY_NONE;
     }
 
+    /**
+     * Starts exporting the given tables on connections from {@link DiffOutputControl#getDataExportDataSource()}.
+     * Does nothing if no DataSource is set.
+     */
+    @Override
+    public void prepareMissing(List<DatabaseObject> missingObjects, DiffOutputControl control, Database referenceDatabase, Database comparisionDatabase) {
+        final DataSource dataSource = control.getDataExportDataSource();
+        if ((dataSource == null) || (control.getDataExportThreads() < 1)) {
+            return;
+        }
+
+        //threads are daemons and time out when idle, so nothing is left running if the changeSets are not all generated
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(control.getDataExportThreads(), control.getDataExportThreads(), 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "liquibase-data-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+
+        int tables = 0;
+        for (DatabaseObject missingObject : missingObjects) {
+            final Table table = ((Data) missingObject).getTable();
+            if (referenceDatabase.isLiquibaseObject(table)) {
+                continue;
+            }
+            tables++;
+            //the parts of a table are exported by tasks of their own, so the parts of one large table are exported in parallel too
+            preparedExports.put((Data) missingObject, pool.submit(() -> {
+                List<String> partitions = Collections.singletonList(null);
+                if (canSplit(table)) {
+                    try (Connection connection = dataSource.getConnection()) {
+                        partitions = getPartitions(connection, table, referenceDatabase);
+                    }
+                }
+
+                List<Future<ExportedFile>> parts = new ArrayList<>();
+                for (int i = 0; i < partitions.size(); i++) {
+                    final String where = partitions.get(i);
+                    final int part = (partitions.size() > 1) ? (i + 1) : 0;
+                    parts.add(pool.submit(() -> {
+                        try (Connection connection = dataSource.getConnection()) {
+                            return export(connection, table, where, part, referenceDatabase);
+                        }
+                    }));
+                }
+                return parts;
+            }));
+        }
+        Scope.getCurrentScope().getLog(getClass()).info(LogType.LOG, "Exporting the data of " + tables + " tables using " + control.getDataExportThreads() + " connections");
+    }
+
     @Override
     public Change[] fixMissing(DatabaseObject missingObject, DiffOutputControl outputControl, Database referenceDatabase, Database comparisionDatabase, ChangeGeneratorChain chain) {
-    
-        ResultSet rs = null;
-        try (
-            Statement stmt = ((JdbcConnection) referenceDatabase.getConnection()).createStatement(
-                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
-        )
-        {
+        try {
             Data data = (Data) missingObject;
 
             Table table = data.getTable();
@@ -59,117 +123,221 @@ public class MissingDataExternalFileChangeGenerator extends MissingDataChangeGen
                 return null;
             }
 
-            String sql = "SELECT * FROM " + referenceDatabase.escapeTableName(table.getSchema().getCatalogName(), table.getSchema().getName(), table.getName());
+            List<ExportedFile> files = new ArrayList<>();
+            Future<List<Future<ExportedFile>>> preparedExport = preparedExports.remove(data);
+            if (preparedExport == null) {
+                Connection connection = ((JdbcConnection) referenceDatabase.getConnection()).getUnderlyingConnection();
+                List<String> partitions = getPartitions(connection, table, referenceDatabase);
+                for (int i = 0; i < partitions.size(); i++) {
+                    files.add(export(connection, table, partitions.get(i), (partitions.size() > 1) ? (i + 1) : 0, referenceDatabase));
+                }
+            } else {
+                for (Future<ExportedFile> part : preparedExport.get()) {
+                    files.add(part.get());
+                }
+            }
+
+            List<Change> changes = new ArrayList<>();
+            for (ExportedFile file : files) {
+                LoadDataChange change = new LoadDataChange();
+                change.setFile(file.fileName);
+                change.setEncoding(LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding());
+                if (outputControl.getIncludeCatalog()) {
+                    change.setCatalogName(table.getSchema().getCatalogName());
+                }
+                if (outputControl.getIncludeSchema()) {
+                    change.setSchemaName(table.getSchema().getName());
+                }
+                change.setTableName(table.getName());
+
+                for (int i = 0; i < file.columnNames.size(); i++) {
+                    String colName = file.columnNames.get(i);
+                    LoadDataColumnConfig columnConfig = new LoadDataColumnConfig();
+                    columnConfig.setHeader(colName);
+                    columnConfig.setName(colName);
+                    columnConfig.setType(file.dataTypes[i]);
+
+                    change.addColumn(columnConfig);
+                }
+                changes.add(change);
+            }
+
+            return changes.toArray(new Change[changes.size()]);
+        } catch (ExecutionException e) {
+            throw new UnexpectedLiquibaseException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnexpectedLiquibaseException(e);
+        } catch (Exception e) {
+            throw new UnexpectedLiquibaseException(e);
+        }
+    } // method fixMissing
 
-            
-            stmt.setFetchSize(100);
-            rs = stmt.executeQuery(sql);
+    /**
+     * Returns the where clauses that split the table into parts of about {@link GlobalConfiguration#getDataExportSplitRows()}
+     * rows each, or a single null where clause if the table is not split. Only tables with a single primary key column
+     * holding whole numbers are split, into ranges of equal width between its lowest and highest value.
+     */
+    protected List<String> getPartitions(Connection connection, Table table, Database referenceDatabase) throws SQLException {
+        if (!canSplit(table)) {
+            return Collections.singletonList(null);
+        }
 
-            List<String> columnNames = new ArrayList<>();
-            for (int i=0; i< rs.getMetaData().getColumnCount(); i++) {
-                columnNames.add(rs.getMetaData().getColumnName(i+1));
+        int splitRows = LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getDataExportSplitRows();
+        String keyColumn = referenceDatabase.escapeObjectName(table.getPrimaryKey().getColumns().get(0).getName(), Column.class);
+        String sql = "SELECT COUNT(*), MIN(" + keyColumn + "), MAX(" + keyColumn + ") FROM "
+                + referenceDatabase.escapeTableName(table.getSchema().getCatalogName(), table.getSchema().getName(), table.getName());
+        BigInteger min;
+        BigInteger max;
+        long rowCount;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            rowCount = rs.getLong(1);
+            Object minValue = rs.getObject(2);
+            Object maxValue = rs.getObject(3);
+            if ((rowCount <= splitRows) || !(minValue instanceof Number) || !(maxValue instanceof Number)) {
+                return Collections.singletonList(null);
+            }
+            try {
+                min = new BigDecimal(minValue.toString()).toBigIntegerExact();
+                max = new BigDecimal(maxValue.toString()).toBigIntegerExact();
+            } catch (ArithmeticException | NumberFormatException e) {
+                return Collections.singletonList(null);
             }
+        }
+
+        BigInteger width = max.subtract(min).add(BigInteger.ONE);
+        BigInteger parts = BigInteger.valueOf((rowCount + splitRows - 1) / splitRows).min(width);
+        List<String> partitions = new ArrayList<>();
+        BigInteger lowerBound = null;
+        for (BigInteger part = BigInteger.ONE; part.compareTo(parts) < 0; part = part.add(BigInteger.ONE)) {
+            BigInteger upperBound = min.add(width.multiply(part).divide(parts));
+            partitions.add(((lowerBound == null) ? "" : (keyColumn + " >= " + lowerBound + " AND ")) + keyColumn + " < " + upperBound);
+            lowerBound = upperBound;
+        }
+        partitions.add(keyColumn + " >= " + lowerBound);
+        return partitions;
+    }
+
+    private boolean canSplit(Table table) {
+        PrimaryKey primaryKey = table.getPrimaryKey();
+        return (LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getDataExportSplitRows() > 0)
+                && (primaryKey != null) && (primaryKey.getColumns().size() == 1);
+    }
+
+    /**
+     * Writes the rows of the table matching the where clause to a CSV file.
+     *
+     * @param where the rows to export, or null for all rows
+     * @param part  the number of the part the rows are, or 0 if the table is not split
+     */
+    protected ExportedFile export(Connection connection, Table table, String where, int part, Database referenceDatabase) throws SQLException, IOException {
+        long started = System.currentTimeMillis();
+        GlobalConfiguration configuration = LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class);
+
+        String sql = "SELECT * FROM " + referenceDatabase.escapeTableName(table.getSchema().getCatalogName(), table.getSchema().getName(), table.getName());
+        if (where != null) {
+            sql += " WHERE " + where;
+        }
+
+        String fileName = table.getName().toLowerCase() + ((part > 0) ? ("." + part) : "") + ".csv";
+        if (configuration.getDataExportGzip()) {
+            fileName += ".gz";
+        }
+        if (dataDir != null) {
+            fileName = dataDir + "/" + fileName;
 
-            String fileName = table.getName().toLowerCase() + ".csv";
-            if (dataDir != null) {
-                fileName = dataDir + "/" + fileName;
+            File parentDir = new File(dataDir);
+            if (!parentDir.exists()) {
+                parentDir.mkdirs();
+            }
+            if (!parentDir.isDirectory()) {
+                throw new IOException(parentDir.getAbsolutePath() +  " is not a valid directory");
+            }
+        }
 
-                File parentDir = new File(dataDir);
-                if (!parentDir.exists()) {
-                    parentDir.mkdirs();
+        List<String> columnNames = new ArrayList<>();
+        String[] dataTypes;
+        int rowNum = 0;
+        try (
+                Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)
+        ) {
+            stmt.setFetchSize(configuration.getDataExportFetchSize());
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                for (int i=0; i< rs.getMetaData().getColumnCount(); i++) {
+                    columnNames.add(rs.getMetaData().getColumnName(i+1));
                 }
-                if (!parentDir.isDirectory()) {
-                    throw new IOException(parentDir.getAbsolutePath() +  " is not a valid directory");
+
+                OutputStream fileOutputStream = new FileOutputStream(fileName);
+                if (configuration.getDataExportGzip()) {
+                    fileOutputStream = new GZIPOutputStream(fileOutputStream, 65536);
                 }
-            }
-    
-            String[] dataTypes = new String[0];
-            try (
-                        FileOutputStream fileOutputStream = new FileOutputStream(fileName);
+                try (
                         OutputStreamWriter outputStreamWriter = new OutputStreamWriter(
-                             fileOutputStream,
-                             LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class)
-                             .getOutputEncoding()
+                                fileOutputStream,
+                                configuration.getOutputEncoding()
                         );
                         CSVWriter outputFile = new CSVWriter(new BufferedWriter(outputStreamWriter));
-            ) {
-                
-                dataTypes = new String[columnNames.size()];
-                String[] line = new String[columnNames.size()];
-                for (int i = 0; i < columnNames.size(); i++) {
-                    line[i] = columnNames.get(i);
-                }
-                outputFile.writeNext(line);
-        
-                int rowNum = 0;
-                while (rs.next()) {
-                    line = new String[columnNames.size()];
-    
+                ) {
+
+                    dataTypes = new String[columnNames.size()];
+                    String[] line = new String[columnNames.size()];
                     for (int i = 0; i < columnNames.size(); i++) {
-                        Object value = JdbcUtils.getResultSetValue(rs, i + 1);
-                        if ((dataTypes[i] == null) && (value != null)) {
-                            if (value instanceof Number) {
-                                dataTypes[i] = "NUMERIC";
-                            } else if (value instanceof Boolean) {
-                                dataTypes[i] = "BOOLEAN";
-                            } else if (value instanceof Date) {
-                                dataTypes[i] = "DATE";
-                            } else {
-                                dataTypes[i] = "STRING";
+                        line[i] = columnNames.get(i);
+                    }
+                    outputFile.writeNext(line);
+
+                    while (rs.next()) {
+                        line = new String[columnNames.size()];
+
+                        for (int i = 0; i < columnNames.size(); i++) {
+                            Object value = JdbcUtils.getResultSetValue(rs, i + 1);
+                            if ((dataTypes[i] == null) && (value != null)) {
+                                if (value instanceof Number) {
+                                    dataTypes[i] = "NUMERIC";
+                                } else if (value instanceof Boolean) {
+                                    dataTypes[i] = "BOOLEAN";
+                                } else if (value instanceof Date) {
+                                    dataTypes[i] = "DATE";
+                                } else {
+                                    dataTypes[i] = "STRING";
+                                }
                             }
-                        }
-                        if (value == null) {
-                            line[i] = "NULL";
-                        } else {
-                            if (value instanceof Date) {
-                                line[i] = new ISODateFormat().format(((Date) value));
+                            if (value == null) {
+                                line[i] = "NULL";
                             } else {
-                                line[i] = value.toString();
+                                if (value instanceof Date) {
+                                    line[i] = new ISODateFormat().format(((Date) value));
+                                } else {
+                                    line[i] = value.toString();
+                                }
                             }
                         }
-                    }
-                    outputFile.writeNext(line);
-                    rowNum++;
-                    if ((rowNum % 5000) == 0) {
-                        outputFile.flush();
+                        outputFile.writeNext(line);
+                        rowNum++;
+                        if ((rowNum % 5000) == 0) {
+                            outputFile.flush();
+                        }
                     }
                 }
             }
-    
-            LoadDataChange change = new LoadDataChange();
-            change.setFile(fileName);
-            change.setEncoding(LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding());
-            if (outputControl.getIncludeCatalog()) {
-                change.setCatalogName(table.getSchema().getCatalogName());
-            }
-            if (outputControl.getIncludeSchema()) {
-                change.setSchemaName(table.getSchema().getName());
-            }
-            change.setTableName(table.getName());
+        }
 
-            for (int i = 0; i < columnNames.size(); i++) {
-                String colName = columnNames.get(i);
-                LoadDataColumnConfig columnConfig = new LoadDataColumnConfig();
-                columnConfig.setHeader(colName);
-                columnConfig.setName(colName);
-                columnConfig.setType(dataTypes[i]);
+        Scope.getCurrentScope().getLog(getClass()).info(LogType.LOG, "Exported " + rowNum + " rows of " + table.getName()
+                + " to " + fileName + " in " + (System.currentTimeMillis() - started) + "ms");
+        return new ExportedFile(fileName, columnNames, dataTypes);
+    }
 
-                change.addColumn(columnConfig);
-            }
+    protected static class ExportedFile {
+        private final String fileName;
+        private final List<String> columnNames;
+        private final String[] dataTypes;
 
-            return new Change[]{
-                    change
-            };
-        } catch (Exception e) {
-            throw new UnexpectedLiquibaseException(e);
-        } finally {
-            if (rs != null) {
-                try {
-                    rs.close();
-                } catch (SQLException ignore) {
-                    // nothing can be done
-                } // try...
-            } // rs == null?
-        } // try... finally
-    } // method fixMissing
+        protected ExportedFile(String fileName, List<String> columnNames, String[] dataTypes) {
+            this.fileName = fileName;
+            this.columnNames = columnNames;
+            this.dataTypes = dataTypes;
+        }
+    }
 } // class MissingDataExternalFileChangeGenerator
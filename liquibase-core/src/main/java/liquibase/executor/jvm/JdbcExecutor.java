@@ -7,6 +7,7 @@ import liquibase.database.PreparedStatementFactory;
 import liquibase.database.core.Db2zDatabase;
 import liquibase.database.core.OracleDatabase;
 import liquibase.database.jvm.JdbcConnection;
+import liquibase.database.jvm.PreparedStatementCache;
 import liquibase.exception.DatabaseException;
 import liquibase.executor.AbstractExecutor;
 import liquibase.logging.LogType;
@@ -23,6 +24,7 @@ import liquibase.util.JdbcUtils;
 import liquibase.util.StringUtil;
 
 import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -59,13 +61,7 @@ public class JdbcExecutor extends AbstractExecutor {
             // in the case when the exception translator hasn't been initialized yet.
             JdbcUtils.closeStatement(stmt);
             stmt = null;
-            String url;
-            if (con.isClosed()) {
-                url = "CLOSED CONNECTION";
-            } else {
-                url = con.getURL();
-            }
-            throw new DatabaseException("Error executing SQL " + StringUtil.join(applyVisitors(action.getStatement(), sqlVisitors), "; on "+ url)+": "+ex.getMessage(), ex);
+            throw executionError(applyVisitors(action.getStatement(), sqlVisitors), ex);
         }
         finally {
             JdbcUtils.closeStatement(stmt);
@@ -124,6 +120,24 @@ public class JdbcExecutor extends AbstractExecutor {
     }
 
 
+    /**
+     * Executes the given statements in one JDBC batch, which saves a round-trip to the database per statement.
+     * If the database does not support batch updates, the statements are executed one after another.
+     * Statements that need special handling, such as {@link ExecutablePreparedStatement}s, cannot be batched.
+     */
+    public void executeBatch(final List<? extends SqlStatement> statements) throws DatabaseException {
+        if (statements.isEmpty()) {
+            return;
+        }
+        if ((statements.size() == 1) || !database.supportsBatchUpdates()) {
+            for (SqlStatement statement : statements) {
+                execute(statement);
+            }
+            return;
+        }
+        execute(new BatchStatementCallback(statements), new ArrayList<SqlVisitor>());
+    }
+
     public Object query(final SqlStatement sql, final ResultSetExtractor rse) throws DatabaseException {
         return query(sql, rse, new ArrayList<SqlVisitor>());
     }
@@ -133,6 +147,16 @@ public class JdbcExecutor extends AbstractExecutor {
             return execute(new QueryCallableStatementCallback(sql, rse), sqlVisitors);
         }
 
+        // Only queries go through the cache. Queries such as the lock check and the history read repeat verbatim,
+        // while the SQL of updates to the lock and history tables embeds its values and would never be reused.
+        PreparedStatementCache cache = getPreparedStatementCache();
+        if (cache != null) {
+            String[] sqlToExecute = applyVisitors(sql, sqlVisitors);
+            if ((sqlToExecute.length == 1) && isCacheable(sqlToExecute[0])) {
+                return queryCached(cache, sqlToExecute[0], rse);
+            }
+        }
+
         return execute(new QueryStatementCallback(sql, rse, sqlVisitors), sqlVisitors);
     }
 
@@ -244,6 +268,62 @@ public class JdbcExecutor extends AbstractExecutor {
         return (Integer) execute(new UpdateStatementCallback(), sqlVisitors);
     }
 
+    private DatabaseException executionError(String[] sql, SQLException ex) throws DatabaseException {
+        DatabaseConnection con = database.getConnection();
+        String url;
+        if (con.isClosed()) {
+            url = "CLOSED CONNECTION";
+        } else {
+            url = con.getURL();
+        }
+        return new DatabaseException("Error executing SQL " + StringUtil.join(sql, "; on "+ url)+": "+ex.getMessage(), ex);
+    }
+
+    /**
+     * Returns the prepared statement cache of the connection, or null if statements are not cached.
+     */
+    private PreparedStatementCache getPreparedStatementCache() {
+        DatabaseConnection con = database.getConnection();
+        if (!(con instanceof JdbcConnection)) {
+            return null;
+        }
+        return ((JdbcConnection) con).getPreparedStatementCache();
+    }
+
+    /**
+     * SQL containing a '?' is not run as a prepared statement because the '?' would be taken as a parameter marker.
+     */
+    private boolean isCacheable(String sql) {
+        return !sql.contains("?");
+    }
+
+    private Object queryCached(PreparedStatementCache cache, String sql, ResultSetExtractor rse) throws DatabaseException {
+        Scope.getCurrentScope().getLog(getClass()).info(LogType.READ_SQL, sql);
+        PreparedStatement stmt;
+        try {
+            stmt = cache.checkOut(sql);
+        } catch (DatabaseException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw executionError(new String[] {sql}, (SQLException) e.getCause());
+            }
+            throw e;
+        }
+        ResultSet rs = null;
+        try {
+            rs = stmt.executeQuery();
+            return rse.extractData(rs);
+        } catch (SQLException ex) {
+            JdbcUtils.closeStatement(stmt);
+            stmt = null;
+            throw executionError(new String[] {sql}, ex);
+        } finally {
+            JdbcUtils.closeResultSet(rs);
+            if (stmt != null) {
+                cache.checkIn(sql, stmt);
+            }
+        }
+    }
+
     /**
      * Create a new RowMapper for reading columns as key-value pairs.
      *
@@ -384,6 +464,44 @@ public class JdbcExecutor extends AbstractExecutor {
         }
     }
 
+    private class BatchStatementCallback implements StatementCallback {
+
+        private final List<? extends SqlStatement> statements;
+
+        private BatchStatementCallback(List<? extends SqlStatement> statements) {
+            this.statements = statements;
+        }
+
+        @Override
+        public Object doInStatement(Statement stmt) throws SQLException, DatabaseException {
+            Logger log = Scope.getCurrentScope().getLog(getClass());
+
+            List<String> batch = new ArrayList<>();
+            for (SqlStatement sql : statements) {
+                if (sql instanceof ExecutablePreparedStatement) {
+                    throw new DatabaseException("Cannot batch " + sql.getClass().getName());
+                }
+                for (String statement : applyVisitors(sql, new ArrayList<SqlVisitor>())) {
+                    log.info(LogType.WRITE_SQL, String.format("%s", statement));
+                    stmt.addBatch(statement);
+                    batch.add(statement);
+                }
+            }
+            try {
+                int[] updateCounts = stmt.executeBatch();
+                log.fine(updateCounts.length + " statement(s) executed in batch");
+            } catch (Throwable e) {
+                throw new DatabaseException(e.getMessage() + " [Failed SQL batch: " + getErrorCode(e) + StringUtil.join(batch, "; ") + "]", e);
+            }
+            return null;
+        }
+
+        @Override
+        public SqlStatement getStatement() {
+            return statements.get(0);
+        }
+    }
+
     private class QueryStatementCallback implements StatementCallback {
 
         private final SqlStatement sql;
@@ -33,7 +33,7 @@ public abstract class AbstractDatabaseDiffTask extends BaseLiquibaseTask {
         DatabaseSnapshot referenceSnapshot;
         try {
             referenceSnapshot = snapshotGeneratorFactory.createSnapshot(referenceDatabase.getDefaultSchema(),
-                    referenceDatabase, new SnapshotControl(referenceDatabase, diffTypes));
+                    referenceDatabase, new SnapshotControl(referenceDatabase, diffTypes).setUsePersistedSnapshots(true));
         } catch (LiquibaseException e) {
             throw new BuildException("Unable to create a DatabaseSnapshot: " + e.getMessage(), e);
         }
@@ -69,8 +69,9 @@ public abstract class BaseLiquibaseTask extends Task {
         classLoader.setThreadContextLoader();
         validateParameters();
         Database database = null;
+        ResourceAccessor resourceAccessor = null;
         try {
-            ResourceAccessor resourceAccessor = createResourceAccessor(classLoader);
+            resourceAccessor = createResourceAccessor(classLoader);
             database = createDatabaseFromType(databaseType);
             liquibase = new Liquibase(getChangeLogFile(), resourceAccessor, database);
             if(changeLogParameters != null) {
@@ -88,6 +89,7 @@ public abstract class BaseLiquibaseTask extends Task {
             throw new BuildException("Unable to initialize Liquibase: " + e.getMessage(), e);
         } finally {
             closeDatabase(database);
+            closeResourceAccessor(resourceAccessor);
             classLoader.resetThreadContextLoader();
             classLoader.cleanup();
             classLoader = null;
@@ -196,6 +198,21 @@ public abstract class BaseLiquibaseTask extends Task {
         }
     }
 
+    /**
+     * Convenience method to safely close the resource accessor, which may hold open zip and jar files.
+     *
+     * @param resourceAccessor The resource accessor to close.
+     */
+    private void closeResourceAccessor(ResourceAccessor resourceAccessor) {
+        if (resourceAccessor instanceof Closeable) {
+            try {
+                ((Closeable) resourceAccessor).close();
+            } catch (IOException e) {
+                log("Error closing the resource accessor.", e, Project.MSG_WARN);
+            }
+        }
+    }
+
     public Path createClasspath() {
         if (this.classpath == null) {
             this.classpath = new Path(getProject());
@@ -1317,6 +1317,12 @@ public class Main {
                 Scope.getCurrentScope().getLog(getClass()).warning(
                         LogType.LOG, coreBundle.getString("problem.closing.connection"), e);
             }
+            try {
+                fileOpener.close();
+            } catch (IOException e) {
+                Scope.getCurrentScope().getLog(getClass()).warning(
+                        LogType.LOG, "Error closing the resource accessor", e);
+            }
         }
     }
 
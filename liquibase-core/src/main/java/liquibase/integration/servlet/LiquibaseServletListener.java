@@ -28,6 +28,7 @@ import javax.servlet.ServletContext;
 import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
 import javax.sql.DataSource;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Enumeration;
@@ -213,6 +214,7 @@ public class LiquibaseServletListener implements ServletContextListener {
 
         Connection connection = null;
         Database database = null;
+        CompositeResourceAccessor resourceAccessor = null;
         try {
             DataSource dataSource = (DataSource) ic.lookup(this.dataSourceName);
 
@@ -228,7 +230,8 @@ public class LiquibaseServletListener implements ServletContextListener {
 
             database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
             database.setDefaultSchemaName(getDefaultSchema());
-            Liquibase liquibase = new Liquibase(getChangeLogFile(), new CompositeResourceAccessor(clFO, fsFO, threadClFO), database);
+            resourceAccessor = new CompositeResourceAccessor(clFO, fsFO, threadClFO);
+            Liquibase liquibase = new Liquibase(getChangeLogFile(), resourceAccessor, database);
 
             @SuppressWarnings("unchecked")
             Enumeration<String> initParameters = servletContext.getInitParameterNames();
@@ -247,6 +250,13 @@ public class LiquibaseServletListener implements ServletContextListener {
             } else if (connection != null) {
                 connection.close();
             }
+            if (resourceAccessor != null) {
+                try {
+                    resourceAccessor.close();
+                } catch (IOException e) {
+                    servletContext.log("Error closing the resource accessor", e);
+                }
+            }
         }
     }
 
@@ -4,9 +4,11 @@
 package liquibase.integration.spring;
 
 import liquibase.Scope;
+import liquibase.ThreadLocalScopeManager;
 import liquibase.exception.LiquibaseException;
 import liquibase.logging.LogType;
 import liquibase.logging.Logger;
+import liquibase.parser.ParsedChangeLogCache;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.core.io.ResourceLoader;
@@ -15,8 +17,14 @@ import javax.naming.*;
 import javax.sql.DataSource;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A wrapper of Liquibase suitable in multi-tenant environments where multiple
@@ -29,6 +37,15 @@ import java.util.Map;
  * The wrapper scans the subtree for all data sources and creates
  * {@link SpringLiquibase} instances.<br/>
  * <br/>
+ * The changelog files are parsed once and the parsed form is shared by all tenants. Each tenant loads its own
+ * changeSets from it, with its own changelog parameters.<br/>
+ * <br/>
+ * Tenants are updated one after another unless {@link #setParallelThreads(int)} is set. In that case the tenants
+ * are updated in parallel, which requires the {@link ThreadLocalScopeManager} to be used, for example by starting the
+ * JVM with <code>-Dliquibase.scopeManager=liquibase.ThreadLocalScopeManager</code>. With
+ * {@link #setFailFast(boolean)} set to false, a failing tenant does not stop the others. The
+ * outcome and duration of each tenant is available from {@link #getTenantResults()}.<br/>
+ * <br/>
  * Example:<br/>
  * <br/><pre>
  * &lt;bean id="liquibase" class="liquibase.integration.spring.MultiTenantSpringLiquibase"&gt;
@@ -77,6 +94,14 @@ public class MultiTenantSpringLiquibase implements InitializingBean, ResourceLoa
     private boolean shouldRun = true;
 
     private File rollbackFile;
+
+	/** Number of tenants to update at the same time. 1 updates one tenant after another. */
+	private int parallelThreads = 1;
+
+	/** Stop starting new tenants once one tenant failed. If false, all tenants are run and the failures are reported at the end. */
+	private boolean failFast = true;
+
+	private List<TenantResult> tenantResults = new ArrayList<>();
 	
 
 	@Override
@@ -132,33 +157,157 @@ public class MultiTenantSpringLiquibase implements InitializingBean, ResourceLoa
 	}
 
 	private void runOnAllDataSources() throws LiquibaseException {
-		Logger log = Scope.getCurrentScope().getLog(getClass());
-
+		List<Tenant> tenants = new ArrayList<>();
 		for(DataSource aDataSource : dataSources) {
-            log.info(LogType.LOG, "Initializing Liquibase for data source " + aDataSource);
-            SpringLiquibase liquibase = getSpringLiquibase(aDataSource);
-			liquibase.afterPropertiesSet();
-            log.info(LogType.LOG, "Liquibase ran for data source " + aDataSource);
-        }
+			tenants.add(new Tenant("data source " + aDataSource, aDataSource, defaultSchema));
+		}
+		runOnAllTenants(tenants);
 	}
 	
 	private void runOnAllSchemas() throws LiquibaseException {
-		Logger log = Scope.getCurrentScope().getLog(getClass());
-
+		List<Tenant> tenants = new ArrayList<>();
 		for(String schema : schemas) {
 			if("default".equals(schema)) {
 				schema = null;
 			}
-            log.info(LogType.LOG, "Initializing Liquibase for schema " + schema);
-            SpringLiquibase liquibase = getSpringLiquibase(dataSource);
-			liquibase.setDefaultSchema(schema);
-			liquibase.afterPropertiesSet();
-            log.info(LogType.LOG, "Liquibase ran for schema " + schema);
-        }
+			tenants.add(new Tenant("schema " + schema, dataSource, schema));
+		}
+		runOnAllTenants(tenants);
+	}
+
+	/**
+	 * Runs Liquibase for all tenants, one after another or, if {@link #parallelThreads} is greater than 1, in
+	 * parallel.
+	 */
+	private void runOnAllTenants(List<Tenant> tenants) throws LiquibaseException {
+		Logger log = Scope.getCurrentScope().getLog(getClass());
+		long startTime = System.currentTimeMillis();
+		tenantResults = Collections.synchronizedList(new ArrayList<TenantResult>());
+
+		ParsedChangeLogCache parsedChangeLogCache = ParsedChangeLogCache.getCurrent();
+		if (!parsedChangeLogCache.isEnabled()) {
+			parsedChangeLogCache = new ParsedChangeLogCache();
+		}
+
+		if ((parallelThreads <= 1) || (tenants.size() <= 1)) {
+			for (Tenant tenant : tenants) {
+				TenantResult result = runOnTenant(tenant, getSpringLiquibase(tenant.dataSource), parsedChangeLogCache);
+				if (!result.isSuccessful() && failFast) {
+					break;
+				}
+			}
+		} else {
+			runInParallel(tenants, parsedChangeLogCache);
+		}
+
+		List<TenantResult> failed = new ArrayList<>();
+		for (TenantResult result : tenantResults) {
+			if (!result.isSuccessful()) {
+				failed.add(result);
+			}
+		}
+		log.info(LogType.LOG, "Liquibase ran on " + tenantResults.size() + " of " + tenants.size() + " tenants in "
+				+ (System.currentTimeMillis() - startTime) + "ms, " + failed.size() + " failed");
+
+		if (failed.size() == 1) {
+			Exception exception = failed.get(0).getException();
+			if (exception instanceof LiquibaseException) {
+				throw (LiquibaseException) exception;
+			} else if (exception instanceof RuntimeException) {
+				throw (RuntimeException) exception;
+			}
+			throw new LiquibaseException("Liquibase failed for " + failed.get(0).getTenant(), exception);
+		} else if (failed.size() > 1) {
+			StringBuilder message = new StringBuilder("Liquibase failed for " + failed.size() + " tenants:");
+			for (TenantResult result : failed) {
+				message.append(" ").append(result.getTenant()).append(" (").append(result.getException().getMessage()).append(");");
+			}
+			throw new LiquibaseException(message.toString(), failed.get(0).getException());
+		}
+	}
+
+	/**
+	 * Runs Liquibase on the given tenants with {@link #parallelThreads} threads. The tenants only keep their scopes
+	 * apart if the {@link ThreadLocalScopeManager} is used, so other scope managers are rejected.
+	 */
+	private void runInParallel(List<Tenant> tenants, final ParsedChangeLogCache parsedChangeLogCache) throws LiquibaseException {
+		if (!(Scope.getScopeManager() instanceof ThreadLocalScopeManager)) {
+			throw new LiquibaseException("Running tenants in parallel requires the " + ThreadLocalScopeManager.class.getName()
+					+ ", set the liquibase.scopeManager system property to it or set parallelThreads to 1");
+		}
+
+		final AtomicBoolean failed = new AtomicBoolean(false);
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelThreads, tenants.size()));
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (final Tenant tenant : tenants) {
+				futures.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						if (failFast && failed.get()) {
+							return;
+						}
+						if (!runOnTenant(tenant, getSpringLiquibase(tenant.dataSource), parsedChangeLogCache).isSuccessful()) {
+							failed.set(true);
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LiquibaseException("Interrupted while running Liquibase on all tenants", e);
+		} catch (ExecutionException e) {
+			throw new LiquibaseException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Runs the given {@link SpringLiquibase} on one tenant and records the result. The changelog is parsed through
+	 * the given cache, which is shared by all tenants.
+	 */
+	private TenantResult runOnTenant(Tenant tenant, final SpringLiquibase liquibase, ParsedChangeLogCache parsedChangeLogCache) {
+		Logger log = Scope.getCurrentScope().getLog(getClass());
+		log.info(LogType.LOG, "Initializing Liquibase for " + tenant.name);
+		long startTime = System.currentTimeMillis();
+
+		liquibase.setDefaultSchema(tenant.schema);
+		Exception exception = null;
+		try {
+			Scope.child(Scope.Attr.parsedChangeLogCache, parsedChangeLogCache, new Scope.ScopedRunner() {
+				@Override
+				public void run() throws Exception {
+					liquibase.afterPropertiesSet();
+				}
+			});
+		} catch (Exception e) {
+			exception = e;
+		}
+
+		TenantResult result = new TenantResult(tenant.name, System.currentTimeMillis() - startTime, exception);
+		tenantResults.add(result);
+		if (result.isSuccessful()) {
+			log.info(LogType.LOG, "Liquibase ran for " + tenant.name + " in " + result.getDurationMillis() + "ms");
+		} else {
+			log.severe(LogType.LOG, "Liquibase failed for " + tenant.name + " after " + result.getDurationMillis() + "ms", exception);
+		}
+		return result;
+	}
+
+	/**
+	 * Creates the {@link SpringLiquibase} instance used for one tenant. Subclasses may override this method to
+	 * customize it, the properties of this bean are set on the returned instance afterwards.
+	 */
+	protected SpringLiquibase createSpringLiquibase() {
+		return new SpringLiquibase();
 	}
 
 	private SpringLiquibase getSpringLiquibase(DataSource dataSource) {
-		SpringLiquibase liquibase = new SpringLiquibase();
+		SpringLiquibase liquibase = createSpringLiquibase();
 		liquibase.setChangeLog(changeLog);
 		liquibase.setChangeLogParameters(parameters);
 		liquibase.setContexts(contexts);
@@ -310,5 +459,86 @@ public class MultiTenantSpringLiquibase implements InitializingBean, ResourceLoa
 		this.dataSource = dataSource;
 	}
 
+	public int getParallelThreads() {
+		return parallelThreads;
+	}
+
+	/**
+	 * Sets the number of tenants to update at the same time. With more than one thread, the tenants run with a
+	 * {@link ThreadLocalScopeManager}, which is installed for the duration of the run if another scope manager is used.
+	 */
+	public void setParallelThreads(int parallelThreads) {
+		this.parallelThreads = parallelThreads;
+	}
+
+	public boolean isFailFast() {
+		return failFast;
+	}
+
+	public void setFailFast(boolean failFast) {
+		this.failFast = failFast;
+	}
+
+	/**
+	 * Returns the result of every tenant Liquibase was started on by the last run.
+	 */
+	public List<TenantResult> getTenantResults() {
+		return Collections.unmodifiableList(new ArrayList<>(tenantResults));
+	}
+
+	private static class Tenant {
+		private final String name;
+		private final DataSource dataSource;
+		private final String schema;
+
+		private Tenant(String name, DataSource dataSource, String schema) {
+			this.name = name;
+			this.dataSource = dataSource;
+			this.schema = schema;
+		}
+	}
+
+	/**
+	 * The outcome of running Liquibase on one tenant.
+	 */
+	public static class TenantResult {
+		private final String tenant;
+		private final long durationMillis;
+		private final Exception exception;
+
+		public TenantResult(String tenant, long durationMillis, Exception exception) {
+			this.tenant = tenant;
+			this.durationMillis = durationMillis;
+			this.exception = exception;
+		}
+
+		/**
+		 * Describes the tenant, like "schema tenant1".
+		 */
+		public String getTenant() {
+			return tenant;
+		}
+
+		public long getDurationMillis() {
+			return durationMillis;
+		}
+
+		/**
+		 * Returns the exception Liquibase failed with, or null if it succeeded.
+		 */
+		public Exception getException() {
+			return exception;
+		}
+
+		public boolean isSuccessful() {
+			return exception == null;
+		}
+
+		@Override
+		public String toString() {
+			return tenant + ": " + (isSuccessful() ? "success" : "failed") + " in " + durationMillis + "ms";
+		}
+	}
+
 	
 }
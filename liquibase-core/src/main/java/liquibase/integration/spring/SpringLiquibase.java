@@ -316,13 +316,9 @@ public class SpringLiquibase implements InitializingBean, BeanNameAware, Resourc
 		} catch (SQLException e) {
 			throw new DatabaseException(e);
 		} finally {
-			Database database = null;
 			if (liquibase != null) {
-				database = liquibase.getDatabase();
+				liquibase.close();
 			}
-			if (database != null) {
-                database.close();
-            }
         }
 
 	}
@@ -380,7 +376,12 @@ public class SpringLiquibase implements InitializingBean, BeanNameAware, Resourc
 		}
 
 		if (isDropFirst()) {
-			liquibase.dropAll();
+			try {
+				liquibase.dropAll();
+			} catch (LiquibaseException | RuntimeException e) {
+				liquibase.close();
+				throw e;
+			}
 		}
 
 		return liquibase;
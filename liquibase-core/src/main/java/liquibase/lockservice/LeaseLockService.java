@@ -0,0 +1,403 @@
+package liquibase.lockservice;
+
+import liquibase.Scope;
+import liquibase.change.ColumnConfig;
+import liquibase.configuration.GlobalConfiguration;
+import liquibase.configuration.LiquibaseConfiguration;
+import liquibase.database.Database;
+import liquibase.database.ObjectQuotingStrategy;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.LockException;
+import liquibase.exception.UnexpectedLiquibaseException;
+import liquibase.executor.Executor;
+import liquibase.executor.ExecutorService;
+import liquibase.executor.LoggingExecutor;
+import liquibase.logging.LogType;
+import liquibase.statement.core.SelectFromDatabaseChangeLogLockStatement;
+import liquibase.statement.core.UpdateStatement;
+import liquibase.util.NetUtil;
+
+import java.sql.Timestamp;
+import java.text.DateFormat;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link LockService} that treats the DATABASECHANGELOGLOCK row as a lease. LOCKGRANTED is the time the lease was
+ * last renewed: the holder renews it between changeSets (see {@link #renewLeaseIfDue()}), and a lock whose lease is
+ * older than {@link GlobalConfiguration#getDatabaseChangeLogLockLeaseDuration()} is considered abandoned by a crashed
+ * process and can be taken over. Taking over is a single conditional UPDATE, so only one waiter wins. LOCKGRANTED is
+ * written and compared using the current timestamp of the database, so the clocks of the competing processes do not
+ * need to agree.
+ * <p>
+ * Waiters back off exponentially with jitter, up to {@link #getChangeLogLockRecheckTime()}, instead of polling at a
+ * fixed rate. The time spent waiting for and holding the lock is available through {@link #getLastWaitTime()} and
+ * {@link #getLastHoldTime()}.
+ * <p>
+ * The lease is renewed on the thread running the update, which owns the connection, so it is not renewed while a
+ * single changeSet runs. The lease duration must therefore be longer than the longest changeSet; if a changeSet runs
+ * longer, the update fails after it, as another process may have taken the lock over in the meantime.
+ * <p>
+ * When the SQL is written out instead of run, like for updateSQL, the lock is taken and released with the statements
+ * of {@link StandardLockService} and there is no lease to renew. The lock table is the same as for
+ * {@link StandardLockService}. This service is used if the lease duration is greater than 0.
+ */
+public class LeaseLockService extends StandardLockService {
+
+    private static final long INITIAL_BACKOFF_MILLIS = 100;
+
+    private final String lockedBy;
+
+    private boolean leased;
+    private long lockAcquiredAt;
+    private long leaseRenewedAtNanos;
+
+    private long lastWaitTime;
+    private long lastHoldTime;
+    private long acquireAttempts;
+    private long takeOvers;
+
+    public LeaseLockService() {
+        String hostDescription = (System.getProperty("liquibase.hostDescription") == null) ? "" :
+                ("#" + System.getProperty("liquibase.hostDescription"));
+        try {
+            lockedBy = NetUtil.getLocalHostName() + hostDescription + " (" + NetUtil.getLocalHostAddress() + ") lease "
+                    + UUID.randomUUID().toString().substring(0, 8);
+        } catch (Exception e) {
+            throw new UnexpectedLiquibaseException(e);
+        }
+    }
+
+    @Override
+    public int getPriority() {
+        return PRIORITY_DEFAULT + 1;
+    }
+
+    @Override
+    public boolean supports(Database database) {
+        return getLeaseDuration() > 0;
+    }
+
+    /**
+     * Lease duration in milliseconds.
+     */
+    public long getLeaseDuration() {
+        Long seconds = LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class)
+                .getDatabaseChangeLogLockLeaseDuration();
+        return (seconds == null) ? 0 : (seconds * 1000);
+    }
+
+    /**
+     * The value written to LOCKEDBY. Unique per instance, so a renewal cannot succeed after another process on the
+     * same host took the lock over.
+     */
+    public String getLockedBy() {
+        return lockedBy;
+    }
+
+    /**
+     * Milliseconds the last {@link #waitForLock()} waited until the lock was acquired.
+     */
+    public long getLastWaitTime() {
+        return lastWaitTime;
+    }
+
+    /**
+     * Milliseconds the lock was held until the last {@link #releaseLock()}.
+     */
+    public long getLastHoldTime() {
+        return lastHoldTime;
+    }
+
+    /**
+     * Number of attempts to acquire the lock made by this service.
+     */
+    public long getAcquireAttempts() {
+        return acquireAttempts;
+    }
+
+    /**
+     * Number of times this service took over a lock whose lease had expired.
+     */
+    public long getTakeOvers() {
+        return takeOvers;
+    }
+
+    @Override
+    public void waitForLock() throws LockException {
+        long start = System.currentTimeMillis();
+        long timeToGiveUp = start + (getChangeLogLockWaitTime() * 1000 * 60);
+        long maxBackoff = Math.max(INITIAL_BACKOFF_MILLIS, getChangeLogLockRecheckTime() * 1000);
+        long backoff = INITIAL_BACKOFF_MILLIS;
+
+        boolean locked = acquireLock();
+        while (!locked && (System.currentTimeMillis() < timeToGiveUp)) {
+            long sleep = Math.min((backoff / 2) + ThreadLocalRandom.current().nextLong((backoff / 2) + 1),
+                    Math.max(0, timeToGiveUp - System.currentTimeMillis()));
+            Scope.getCurrentScope().getLog(getClass()).info(LogType.LOG, "Waiting for changelog lock....");
+            try {
+                Thread.sleep(sleep);
+            } catch (InterruptedException e) {
+                // Restore thread interrupt status
+                Thread.currentThread().interrupt();
+                break;
+            }
+            backoff = Math.min(backoff * 2, maxBackoff);
+            locked = acquireLock();
+        }
+
+        if (!locked) {
+            DatabaseChangeLogLock[] locks = listLocks();
+            String lockedBy;
+            if (locks.length > 0) {
+                DatabaseChangeLogLock lock = locks[0];
+                lockedBy = lock.getLockedBy() + " since " +
+                        DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT)
+                                .format(lock.getLockGranted());
+            } else {
+                lockedBy = "UNKNOWN";
+            }
+            throw new LockException("Could not acquire change log lock.  Currently locked by " + lockedBy);
+        }
+
+        lastWaitTime = System.currentTimeMillis() - start;
+        Scope.getCurrentScope().getLog(getClass()).fine(LogType.LOG, "Waited " + lastWaitTime + "ms for the changelog lock");
+    }
+
+    @Override
+    public boolean acquireLock() throws LockException {
+        if (hasChangeLogLock) {
+            return true;
+        }
+        if (isWritingSql()) {
+            leased = false;
+            return super.acquireLock();
+        }
+
+        quotingStrategy = database.getObjectQuotingStrategy();
+
+        try {
+            database.rollback();
+            this.init();
+            acquireAttempts++;
+
+            DatabaseChangeLogLock[] currentLocks = listLocks();
+
+            Timestamp now = getDatabaseTime();
+            Timestamp expiredBefore = new Timestamp(now.getTime() - getLeaseDuration());
+            UpdateStatement claim = createLockUpdate(now)
+                    .setWhereClause(column("ID") + " = 1 AND (" + column("LOCKED") + " = ? OR " + column("LOCKGRANTED") + " < ?)")
+                    .addWhereParameters(false, expiredBefore);
+            if (!updateLockRow(claim)) {
+                return false;
+            }
+            database.commit();
+
+            if ((currentLocks.length > 0) && (currentLocks[0].getLockGranted() != null)
+                    && currentLocks[0].getLockGranted().before(expiredBefore)) {
+                takeOvers++;
+                Scope.getCurrentScope().getLog(getClass()).warning(LogType.LOG, "Took over the changelog lock held by " +
+                        currentLocks[0].getLockedBy() + " since " + currentLocks[0].getLockGranted() +
+                        " because its lease expired");
+            }
+            Scope.getCurrentScope().getLog(getClass()).info(LogType.LOG, "Successfully acquired change log lock lease");
+
+            hasChangeLogLock = true;
+            leased = true;
+            lockAcquiredAt = System.currentTimeMillis();
+            leaseRenewedAtNanos = System.nanoTime();
+
+            database.setCanCacheLiquibaseTableInfo(true);
+            return true;
+        } catch (LockException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new LockException(e);
+        } finally {
+            try {
+                database.rollback();
+            } catch (DatabaseException e) {
+            }
+        }
+    }
+
+    /**
+     * Renews the lease if a third of the lease duration passed since it was last renewed. Must be called on the thread
+     * that owns the connection, between transactions. Whether a renewal is due is decided locally, so the database is
+     * only queried when one is.
+     *
+     * @throws LockException if the lease was lost to another process, or expired since it was last renewed
+     */
+    public void renewLeaseIfDue() throws LockException {
+        if (!hasChangeLogLock || !leased) {
+            return;
+        }
+        long sinceRenewal = (System.nanoTime() - leaseRenewedAtNanos) / 1000000;
+        if (sinceRenewal >= (getLeaseDuration() / 3)) {
+            renewLease();
+        }
+    }
+
+    /**
+     * Moves LOCKGRANTED to the current time of the database if this service still holds the lock and its lease did
+     * not expire.
+     *
+     * @throws LockException if the lease was lost to another process, or expired since it was last renewed
+     */
+    public void renewLease() throws LockException {
+        if (!hasChangeLogLock) {
+            throw new LockException("Cannot renew the changelog lock lease, the lock is not held");
+        }
+        ObjectQuotingStrategy incomingQuotingStrategy = database.getObjectQuotingStrategy();
+        database.setObjectQuotingStrategy(this.quotingStrategy);
+        try {
+            Timestamp now = getDatabaseTime();
+            UpdateStatement renewal = createLockUpdate(now)
+                    .setWhereClause(column("ID") + " = 1 AND " + column("LOCKED") + " = ? AND " + column("LOCKEDBY") + " = ? AND " + column("LOCKGRANTED") + " >= ?")
+                    .addWhereParameters(true, lockedBy, new Timestamp(now.getTime() - getLeaseDuration()));
+            if (!updateLockRow(renewal)) {
+                DatabaseChangeLogLock[] locks = listLocks();
+                if ((locks.length > 0) && lockedBy.equals(locks[0].getLockedBy())) {
+                    throw new LockException("The changelog lock lease of " + getLeaseDuration() + "ms expired at "
+                            + new Timestamp(locks[0].getLockGranted().getTime() + getLeaseDuration()) + ", database time "
+                            + now + ", so another process may have taken the lock over. Set the lease duration to "
+                            + "longer than the longest changeSet");
+                }
+                hasChangeLogLock = false;
+                database.setCanCacheLiquibaseTableInfo(false);
+                throw new LockException("Lost the changelog lock lease, it was taken over by " + describeCurrentHolder());
+            }
+            database.commit();
+            leaseRenewedAtNanos = System.nanoTime();
+            Scope.getCurrentScope().getLog(getClass()).fine(LogType.LOG, "Renewed changelog lock lease");
+        } catch (LockException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new LockException(e);
+        } finally {
+            database.setObjectQuotingStrategy(incomingQuotingStrategy);
+        }
+    }
+
+    /**
+     * Unlocks the row only if it is still held by this service, so a process that lost its lease does not release the
+     * lock of the process that took it over.
+     */
+    @Override
+    public void releaseLock() throws LockException {
+        if (isWritingSql()) {
+            super.releaseLock();
+            return;
+        }
+
+        ObjectQuotingStrategy incomingQuotingStrategy = null;
+        if (this.quotingStrategy != null) {
+            incomingQuotingStrategy = database.getObjectQuotingStrategy();
+            database.setObjectQuotingStrategy(this.quotingStrategy);
+        }
+
+        boolean hadLock = hasChangeLogLock;
+        try {
+            if (this.hasDatabaseChangeLogLockTable()) {
+                ExecutorService.getInstance().getExecutor(database).comment("Release Database Lock");
+                database.rollback();
+                UpdateStatement release = new UpdateStatement(database.getLiquibaseCatalogName(), database.getLiquibaseSchemaName(), database.getDatabaseChangeLogLockTableName())
+                        .addNewColumnValue("LOCKED", false)
+                        .addNewColumnValue("LOCKGRANTED", null)
+                        .addNewColumnValue("LOCKEDBY", null)
+                        .setWhereClause(column("ID") + " = 1 AND " + column("LOCKEDBY") + " = ?")
+                        .addWhereParameter(lockedBy);
+                if (!updateLockRow(release) && hadLock) {
+                    Scope.getCurrentScope().getLog(getClass()).warning(LogType.LOG, "Changelog lock was not released because it is held by " + describeCurrentHolder());
+                }
+                database.commit();
+            }
+        } catch (Exception e) {
+            throw new LockException(e);
+        } finally {
+            try {
+                hasChangeLogLock = false;
+                if (hadLock) {
+                    lastHoldTime = System.currentTimeMillis() - lockAcquiredAt;
+                    Scope.getCurrentScope().getLog(getClass()).info(LogType.LOG, "Successfully released change log lock after holding it for " + lastHoldTime + "ms");
+                }
+
+                database.setCanCacheLiquibaseTableInfo(false);
+                database.rollback();
+            } catch (DatabaseException e) {
+            }
+            if (incomingQuotingStrategy != null) {
+                database.setObjectQuotingStrategy(incomingQuotingStrategy);
+            }
+        }
+    }
+
+    /**
+     * Releases the lock no matter who holds it.
+     */
+    @Override
+    public void forceReleaseLock() throws LockException, DatabaseException {
+        this.init();
+        super.releaseLock();
+    }
+
+    /**
+     * Returns true if the statements are written out, like for updateSQL, instead of run against the database.
+     */
+    private boolean isWritingSql() {
+        return ExecutorService.getInstance().getExecutor(database) instanceof LoggingExecutor;
+    }
+
+    /**
+     * Reads the current timestamp of the database, using the lock table so no database specific dummy table is needed.
+     */
+    private Timestamp getDatabaseTime() throws DatabaseException, LockException {
+        ColumnConfig currentTime = new ColumnConfig().setName(database.getCurrentDateTimeFunction()).setComputed(true);
+        Timestamp now = ExecutorService.getInstance().getExecutor(database)
+                .queryForObject(new SelectFromDatabaseChangeLogLockStatement(currentTime), Timestamp.class);
+        if (now == null) {
+            throw new LockException("Could not read the current time of the database");
+        }
+        return now;
+    }
+
+    private UpdateStatement createLockUpdate(Timestamp now) {
+        return new UpdateStatement(database.getLiquibaseCatalogName(), database.getLiquibaseSchemaName(), database.getDatabaseChangeLogLockTableName())
+                .addNewColumnValue("LOCKED", true)
+                .addNewColumnValue("LOCKGRANTED", now)
+                .addNewColumnValue("LOCKEDBY", lockedBy);
+    }
+
+    private String column(String name) {
+        return database.escapeColumnName(database.getLiquibaseCatalogName(), database.getLiquibaseSchemaName(), database.getDatabaseChangeLogLockTableName(), name);
+    }
+
+    /**
+     * Runs an UPDATE on the lock row and returns whether it matched. Drivers that do not report the update count
+     * (like SQL Server with NOCOUNT) are checked by reading LOCKEDBY back.
+     */
+    private boolean updateLockRow(UpdateStatement statement) throws DatabaseException, LockException {
+        Executor executor = ExecutorService.getInstance().getExecutor(database);
+        int rowsUpdated = executor.update(statement);
+        if (rowsUpdated == -1) {
+            String currentHolder = executor.queryForObject(new SelectFromDatabaseChangeLogLockStatement("LOCKEDBY"), String.class);
+            return statement.getNewColumnValues().get("LOCKEDBY") == null ? (currentHolder == null) : lockedBy.equals(currentHolder);
+        }
+        if (rowsUpdated > 1) {
+            throw new LockException("Did not update change log lock correctly");
+        }
+        return rowsUpdated == 1;
+    }
+
+    private String describeCurrentHolder() {
+        try {
+            DatabaseChangeLogLock[] locks = listLocks();
+            if (locks.length > 0) {
+                return locks[0].getLockedBy() + " since " + locks[0].getLockGranted();
+            }
+        } catch (LockException ignore) {
+            //fall through
+        }
+        return "UNKNOWN";
+    }
+}
@@ -40,7 +40,7 @@ public class StandardLockService implements LockService {
 
     private Boolean hasDatabaseChangeLogLockTable;
     private boolean isDatabaseChangeLogLockTableInitialized;
-    private ObjectQuotingStrategy quotingStrategy;
+    protected ObjectQuotingStrategy quotingStrategy;
 
 
     public StandardLockService() {
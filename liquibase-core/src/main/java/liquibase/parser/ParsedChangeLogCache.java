@@ -0,0 +1,407 @@
+package liquibase.parser;
+
+import liquibase.Scope;
+import liquibase.configuration.GlobalConfiguration;
+import liquibase.configuration.LiquibaseConfiguration;
+import liquibase.logging.LogType;
+import liquibase.parser.core.ParsedNode;
+import liquibase.parser.core.ParsedNodeException;
+import liquibase.util.MD5Util;
+import liquibase.util.StringUtil;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores the parsed form of changelog files, so a changelog whose content did not change is not parsed again. What is
+ * stored is the tree the parser builds before it is loaded into a {@link liquibase.changelog.DatabaseChangeLog}: the
+ * root {@link ParsedNode} of an XML changelog, or the document of a YAML or JSON changelog. Parameters are expanded
+ * and includes are resolved when that tree is loaded, so the stored form does not depend on them and every included
+ * file is cached on its own.
+ * <p>
+ * Entries are kept in a compact binary form, keyed on the parser and the path of the file, and are only used if the
+ * size and content hash of the file match. Every lookup returns a new copy, as loading a changelog modifies the tree.
+ * The shared instance is only used if {@link GlobalConfiguration#PARSED_CHANGELOG_CACHE_DIRECTORY} is set. Its entries
+ * are kept in memory and in that directory, so they survive between runs. Instances created with the public constructor
+ * only keep their entries in memory. They are used by putting them in the {@link Scope} under
+ * {@link Scope.Attr#parsedChangeLogCache}, for example to parse a changelog once for several databases.
+ */
+public class ParsedChangeLogCache {
+
+    private static final int MAGIC = 0x4C42504E;
+    private static final int FORMAT_VERSION = 2;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte INTEGER = 3;
+    private static final byte LONG = 4;
+    private static final byte BIG_INTEGER = 5;
+    private static final byte BIG_DECIMAL = 6;
+    private static final byte DOUBLE = 7;
+    private static final byte DATE = 8;
+    private static final byte BYTES = 9;
+    private static final byte LIST = 10;
+    private static final byte MAP = 11;
+    private static final byte NODE = 12;
+    private static final byte SET = 13;
+
+    private static final ParsedChangeLogCache instance = new ParsedChangeLogCache(true);
+
+    private final boolean persistent;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Object> parseLocks = new ConcurrentHashMap<>();
+
+    public static ParsedChangeLogCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the cache set in the current {@link Scope}, or the shared instance if there is none.
+     */
+    public static ParsedChangeLogCache getCurrent() {
+        return Scope.getCurrentScope().get(Scope.Attr.parsedChangeLogCache, instance);
+    }
+
+    /**
+     * Creates a cache that keeps its entries in memory only.
+     */
+    public ParsedChangeLogCache() {
+        this(false);
+    }
+
+    private ParsedChangeLogCache(boolean persistent) {
+        this.persistent = persistent;
+    }
+
+    /**
+     * Returns true if this is an in-memory cache, or a cache directory is configured.
+     */
+    public boolean isEnabled() {
+        return !persistent || (getDirectory() != null);
+    }
+
+    /**
+     * Returns a copy of the tree stored for the given file, or null if the file changed or was not stored.
+     *
+     * @param parser  the parser that built the tree
+     * @param path    the path of the changelog file
+     * @param content the current content of the changelog file
+     */
+    public Object get(Class<?> parser, String path, byte[] content) {
+        String key = getKey(parser, path);
+        String contentHash = MD5Util.computeMD5(new ByteArrayInputStream(content));
+
+        Entry entry = entries.get(key);
+        if ((entry == null) || !entry.matches(contentHash, content.length)) {
+            entry = readEntry(key);
+            if (entry == null) {
+                return null;
+            }
+            entries.put(key, entry);
+        }
+        if (!entry.matches(contentHash, content.length)) {
+            return null;
+        }
+
+        try {
+            return readValue(new DataInputStream(new ByteArrayInputStream(entry.tree)));
+        } catch (IOException | ParsedNodeException e) {
+            Scope.getCurrentScope().getLog(getClass()).warning(LogType.LOG, "Cannot read the cached form of " + path + ", parsing it again: " + e.getMessage());
+            entries.remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the tree built for the given file. Must be called before the tree is loaded, as loading modifies it.
+     * Trees containing values that cannot be stored are left out of the cache.
+     */
+    public void put(Class<?> parser, String path, byte[] content, Object tree) {
+        String key = getKey(parser, path);
+        byte[] serializedTree;
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeValue(new DataOutputStream(out), tree);
+            serializedTree = out.toByteArray();
+        } catch (IOException e) {
+            Scope.getCurrentScope().getLog(getClass()).fine(LogType.LOG, "Not caching the parsed form of " + path + ": " + e.getMessage());
+            return;
+        }
+
+        Entry entry = new Entry(MD5Util.computeMD5(new ByteArrayInputStream(content)), content.length, serializedTree);
+        entries.put(key, entry);
+        writeEntry(key, entry);
+    }
+
+    /**
+     * Returns a copy of the tree stored for the given file, or parses the file and stores the result. Callers asking
+     * for the same file wait until the first one has parsed it, so a file read by several threads at once is only
+     * parsed once.
+     *
+     * @param parser     the parser that builds the tree
+     * @param path       the path of the changelog file
+     * @param content    the current content of the changelog file
+     * @param treeParser builds the tree from the content if it is not stored
+     */
+    public <E extends Exception> Object get(Class<?> parser, String path, byte[] content, TreeParser<E> treeParser) throws E {
+        synchronized (parseLocks.computeIfAbsent(getKey(parser, path), key -> new Object())) {
+            Object tree = get(parser, path, content);
+            if (tree != null) {
+                return tree;
+            }
+            tree = treeParser.parse(new ByteArrayInputStream(content));
+            if (tree != null) {
+                put(parser, path, content, tree);
+            }
+            return tree;
+        }
+    }
+
+    /**
+     * Removes all entries from memory. The cache directory is left untouched.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    private String getKey(Class<?> parser, String path) {
+        return MD5Util.computeMD5(parser.getName() + ":" + path);
+    }
+
+    private File getDirectory() {
+        if (!persistent) {
+            return null;
+        }
+        String directory = LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getParsedChangeLogCacheDirectory();
+        if (StringUtil.trimToNull(directory) == null) {
+            return null;
+        }
+        return new File(directory);
+    }
+
+    private Entry readEntry(String key) {
+        File directory = getDirectory();
+        if (directory == null) {
+            return null;
+        }
+        File file = new File(directory, key + ".bin");
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if ((in.readInt() != MAGIC) || (in.readInt() != FORMAT_VERSION)) {
+                return null;
+            }
+            String contentHash = in.readUTF();
+            long contentLength = in.readLong();
+            byte[] tree = new byte[in.readInt()];
+            in.readFully(tree);
+            return new Entry(contentHash, contentLength, tree);
+        } catch (IOException e) {
+            Scope.getCurrentScope().getLog(getClass()).warning(LogType.LOG, "Cannot read parsed changelog cache " + file.getAbsolutePath() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the entry to a temporary file first and moves it in place, so a concurrent reader never sees a partly
+     * written entry.
+     */
+    private void writeEntry(String key, Entry entry) {
+        File directory = getDirectory();
+        if (directory == null) {
+            return;
+        }
+        File file = new File(directory, key + ".bin");
+        File tempFile = null;
+        try {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Cannot create directory " + directory.getAbsolutePath());
+            }
+            tempFile = File.createTempFile(key, ".tmp", directory);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(entry.contentHash);
+                out.writeLong(entry.contentLength);
+                out.writeInt(entry.tree.length);
+                out.write(entry.tree);
+            }
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Scope.getCurrentScope().getLog(getClass()).warning(LogType.LOG, "Cannot write parsed changelog cache " + file.getAbsolutePath() + ": " + e.getMessage());
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof BigInteger) {
+            out.writeByte(BIG_INTEGER);
+            writeString(out, value.toString());
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(BIG_DECIMAL);
+            writeString(out, value.toString());
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value.getClass().equals(Date.class)) {
+            out.writeByte(DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTES);
+            out.writeInt(((byte[]) value).length);
+            out.write((byte[]) value);
+        } else if ((value instanceof List) || (value instanceof Set)) {
+            out.writeByte((value instanceof Set) ? SET : LIST);
+            out.writeInt(((Collection) value).size());
+            for (Object element : (Collection) value) {
+                writeValue(out, element);
+            }
+        } else if (value instanceof Map) {
+            out.writeByte(MAP);
+            out.writeInt(((Map) value).size());
+            for (Map.Entry mapEntry : ((Map<?, ?>) value).entrySet()) {
+                writeValue(out, mapEntry.getKey());
+                writeValue(out, mapEntry.getValue());
+            }
+        } else if (value instanceof ParsedNode) {
+            ParsedNode node = (ParsedNode) value;
+            out.writeByte(NODE);
+            writeValue(out, node.getNamespace());
+            writeValue(out, node.getName());
+            writeValue(out, node.getValue());
+            out.writeInt(node.getChildren().size());
+            for (ParsedNode child : node.getChildren()) {
+                writeValue(out, child);
+            }
+        } else {
+            throw new IOException("Cannot store values of type " + value.getClass().getName());
+        }
+    }
+
+    private Object readValue(DataInputStream in) throws IOException, ParsedNodeException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case BOOLEAN:
+                return in.readBoolean();
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case BIG_INTEGER:
+                return new BigInteger(readString(in));
+            case BIG_DECIMAL:
+                return new BigDecimal(readString(in));
+            case DOUBLE:
+                return in.readDouble();
+            case DATE:
+                return new Date(in.readLong());
+            case BYTES:
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return bytes;
+            case LIST:
+                int size = in.readInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            case SET:
+                int setSize = in.readInt();
+                Set<Object> set = new LinkedHashSet<>();
+                for (int i = 0; i < setSize; i++) {
+                    set.add(readValue(in));
+                }
+                return set;
+            case MAP:
+                int entryCount = in.readInt();
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < entryCount; i++) {
+                    Object key = readValue(in);
+                    map.put(key, readValue(in));
+                }
+                return map;
+            case NODE:
+                ParsedNode node = new ParsedNode((String) readValue(in), (String) readValue(in));
+                node.setValue(readValue(in));
+                int childCount = in.readInt();
+                for (int i = 0; i < childCount; i++) {
+                    node.addChild((ParsedNode) readValue(in));
+                }
+                return node;
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+
+    /**
+     * Strings are written with an int length, as {@link DataOutputStream#writeUTF(String)} is limited to 64k bytes.
+     */
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Builds the tree of a changelog file from its content.
+     */
+    public interface TreeParser<E extends Exception> {
+        Object parse(InputStream content) throws E;
+    }
+
+    private static class Entry {
+        private final String contentHash;
+        private final long contentLength;
+        private final byte[] tree;
+
+        private Entry(String contentHash, long contentLength, byte[] tree) {
+            this.contentHash = contentHash;
+            this.contentLength = contentLength;
+            this.tree = tree;
+        }
+
+        private boolean matches(String contentHash, long contentLength) {
+            return (this.contentLength == contentLength) && this.contentHash.equals(contentHash);
+        }
+    }
+}
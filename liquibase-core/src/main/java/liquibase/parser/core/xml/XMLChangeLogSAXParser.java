@@ -4,13 +4,16 @@ import liquibase.Scope;
 import liquibase.changelog.ChangeLogParameters;
 import liquibase.exception.ChangeLogParseException;
 import liquibase.logging.LogType;
+import liquibase.parser.ParsedChangeLogCache;
 import liquibase.parser.core.ParsedNode;
 import liquibase.resource.ResourceAccessor;
 import liquibase.util.BomAwareInputStream;
+import liquibase.util.StreamUtil;
 import liquibase.util.file.FilenameUtils;
 import org.xml.sax.*;
 
 import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.stream.StreamSource;
@@ -68,32 +71,6 @@ public class XMLChangeLogSAXParser extends AbstractChangeLogParser {
     protected ParsedNode parseToNode(String physicalChangeLogLocation, ChangeLogParameters changeLogParameters, ResourceAccessor resourceAccessor) throws ChangeLogParseException {
         try (
                 InputStream inputStream = resourceAccessor.openStream(null, physicalChangeLogLocation)) {
-            SAXParser parser = saxParserFactory.newSAXParser();
-            trySetSchemaLanguageProperty(parser);
-
-            XMLReader xmlReader = parser.getXMLReader();
-            LiquibaseEntityResolver resolver = new LiquibaseEntityResolver();
-            xmlReader.setEntityResolver(resolver);
-            xmlReader.setErrorHandler(new ErrorHandler() {
-                @Override
-                public void warning(SAXParseException exception) throws SAXException {
-                    Scope.getCurrentScope().getLog(getClass()).warning(LogType.LOG, exception.getMessage());
-                    throw exception;
-                }
-
-                @Override
-                public void error(SAXParseException exception) throws SAXException {
-                    Scope.getCurrentScope().getLog(getClass()).severe(LogType.LOG, exception.getMessage());
-                    throw exception;
-                }
-
-                @Override
-                public void fatalError(SAXParseException exception) throws SAXException {
-                    Scope.getCurrentScope().getLog(getClass()).severe(LogType.LOG, exception.getMessage());
-                    throw exception;
-                }
-            });
-
             if (inputStream == null) {
                 if (physicalChangeLogLocation.startsWith("WEB-INF/classes/")) {
                     // Correct physicalChangeLogLocation and try again.
@@ -105,11 +82,14 @@ public class XMLChangeLogSAXParser extends AbstractChangeLogParser {
                 }
             }
 
-            XMLChangeLogSAXHandler contentHandler = new XMLChangeLogSAXHandler(physicalChangeLogLocation, resourceAccessor, changeLogParameters);
-            xmlReader.setContentHandler(contentHandler);
-            xmlReader.parse(new InputSource(new BomAwareInputStream(inputStream)));
+            ParsedChangeLogCache cache = ParsedChangeLogCache.getCurrent();
+            if (!cache.isEnabled()) {
+                return parseToNode(inputStream, physicalChangeLogLocation, changeLogParameters, resourceAccessor);
+            }
 
-            return contentHandler.getDatabaseChangeLogTree();
+            byte[] content = StreamUtil.readStream(inputStream);
+            return (ParsedNode) cache.get(getClass(), physicalChangeLogLocation, content,
+                    stream -> parseToNode(stream, physicalChangeLogLocation, changeLogParameters, resourceAccessor));
         } catch (ChangeLogParseException e) {
             throw e;
         } catch (IOException e) {
@@ -143,6 +123,43 @@ public class XMLChangeLogSAXParser extends AbstractChangeLogParser {
         }
     }
 
+    /**
+     * Parses the changelog XML read from the stream into a tree of {@link ParsedNode}s.
+     */
+    private ParsedNode parseToNode(InputStream inputStream, String physicalChangeLogLocation, ChangeLogParameters changeLogParameters, ResourceAccessor resourceAccessor) throws ParserConfigurationException, SAXException, IOException {
+        SAXParser parser = saxParserFactory.newSAXParser();
+        trySetSchemaLanguageProperty(parser);
+
+        XMLReader xmlReader = parser.getXMLReader();
+        LiquibaseEntityResolver resolver = new LiquibaseEntityResolver();
+        xmlReader.setEntityResolver(resolver);
+        xmlReader.setErrorHandler(new ErrorHandler() {
+            @Override
+            public void warning(SAXParseException exception) throws SAXException {
+                Scope.getCurrentScope().getLog(getClass()).warning(LogType.LOG, exception.getMessage());
+                throw exception;
+            }
+
+            @Override
+            public void error(SAXParseException exception) throws SAXException {
+                Scope.getCurrentScope().getLog(getClass()).severe(LogType.LOG, exception.getMessage());
+                throw exception;
+            }
+
+            @Override
+            public void fatalError(SAXParseException exception) throws SAXException {
+                Scope.getCurrentScope().getLog(getClass()).severe(LogType.LOG, exception.getMessage());
+                throw exception;
+            }
+        });
+
+        XMLChangeLogSAXHandler contentHandler = new XMLChangeLogSAXHandler(physicalChangeLogLocation, resourceAccessor, changeLogParameters);
+        xmlReader.setContentHandler(contentHandler);
+        xmlReader.parse(new InputSource(new BomAwareInputStream(inputStream)));
+
+        return contentHandler.getDatabaseChangeLogTree();
+    }
+
     /**
      * Try to set the parser property "schemaLanguage", but do not mind if the parser does not understand it.
      *
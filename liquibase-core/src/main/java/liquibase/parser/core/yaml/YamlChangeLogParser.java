@@ -8,8 +8,10 @@ import liquibase.exception.ChangeLogParseException;
 import liquibase.exception.LiquibaseException;
 import liquibase.logging.LogType;
 import liquibase.parser.ChangeLogParser;
+import liquibase.parser.ParsedChangeLogCache;
 import liquibase.parser.core.ParsedNode;
 import liquibase.resource.ResourceAccessor;
+import liquibase.util.StreamUtil;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.constructor.SafeConstructor;
 
@@ -28,7 +30,15 @@ public class YamlChangeLogParser extends YamlParser implements ChangeLogParser {
                 throw new ChangeLogParseException(physicalChangeLogLocation + " does not exist");
             }
     
-            Map parsedYaml = parseYamlStream(physicalChangeLogLocation, yaml, changeLogStream);
+            Map parsedYaml;
+            ParsedChangeLogCache cache = ParsedChangeLogCache.getCurrent();
+            if (cache.isEnabled()) {
+                byte[] content = StreamUtil.readStream(changeLogStream);
+                parsedYaml = (Map) cache.get(getClass(), physicalChangeLogLocation, content,
+                        stream -> parseYamlStream(physicalChangeLogLocation, yaml, stream));
+            } else {
+                parsedYaml = parseYamlStream(physicalChangeLogLocation, yaml, changeLogStream);
+            }
 
             if ((parsedYaml == null) || parsedYaml.isEmpty()) {
                 throw new ChangeLogParseException("Empty file " + physicalChangeLogLocation);
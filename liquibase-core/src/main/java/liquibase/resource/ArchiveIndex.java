@@ -0,0 +1,203 @@
+package liquibase.resource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Index of the entries in the zip and jar roots of a {@link FileSystemResourceAccessor}.
+ * Every archive is opened once, when it is added, and kept open so its entries can be read without opening it again.
+ * Finding the archives that contain a path is a hash lookup rather than a scan of the central directory of every archive.
+ * <p>
+ * Archives are expected not to change while the index is in use, which is the case for jars on the classpath.
+ * All access goes through the monitor of the index, so lookups never see an archive that is only partly added.
+ * {@link #close()} closes the archives.
+ */
+class ArchiveIndex implements Closeable {
+
+    private final Map<Path, Archive> archives = new HashMap<>();
+    private final Map<String, List<Archive>> archivesByFile = new HashMap<>();
+
+    /**
+     * Opens the given archive and adds its entries to the index. Does nothing if the archive was already added.
+     */
+    synchronized void add(Path path) throws IOException {
+        if (archives.containsKey(path)) {
+            return;
+        }
+
+        Archive archive = new Archive(path, new ZipFile(path.toFile()));
+        Enumeration<? extends ZipEntry> entries = archive.zipFile.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            String name = entry.getName().replaceFirst("^/", "");
+            if (entry.isDirectory()) {
+                archive.addDirectory(name.replaceFirst("/$", ""));
+            } else if (archive.files.put(name, entry) == null) {
+                archive.entries.put(name, Boolean.FALSE);
+                archive.addDirectory(getParent(name));
+                archivesByFile.computeIfAbsent(name, key -> new ArrayList<>(1)).add(archive);
+            }
+        }
+        archives.put(path, archive);
+    }
+
+    /**
+     * Finds the file the given path points to in each archive.
+     * If relativeTo is a file in an archive, streamPath is relative to the directory of that file, otherwise it is relative to relativeTo itself.
+     *
+     * @return the matching entry of each archive that contains the file, keyed by archive path
+     */
+    synchronized Map<Path, ZipEntry> findFiles(String relativeTo, String streamPath) {
+        Map<Path, ZipEntry> found = new HashMap<>();
+        if (relativeTo == null) {
+            String path = normalize(streamPath);
+            for (Archive archive : archivesByFile.getOrDefault(path, Collections.emptyList())) {
+                found.put(archive.path, archive.files.get(path));
+            }
+            return found;
+        }
+
+        String pathRelativeToDirectory = normalize(relativeTo + "/" + streamPath);
+        for (Archive archive : archivesByFile.getOrDefault(pathRelativeToDirectory, Collections.emptyList())) {
+            if (!archive.files.containsKey(relativeTo)) {
+                found.put(archive.path, archive.files.get(pathRelativeToDirectory));
+            }
+        }
+
+        String pathRelativeToFile = normalize(getParent(relativeTo) + "/" + streamPath);
+        for (Archive archive : archivesByFile.getOrDefault(pathRelativeToFile, Collections.emptyList())) {
+            if (archive.files.containsKey(relativeTo)) {
+                found.put(archive.path, archive.files.get(pathRelativeToFile));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Opens the given entry of the given archive. Closing the returned stream does not close the archive.
+     */
+    synchronized InputStream open(Path archivePath, ZipEntry entry) throws IOException {
+        Archive archive = archives.get(archivePath);
+        if (archive == null) {
+            throw new IOException("Archive " + archivePath + " is not open");
+        }
+        return archive.zipFile.getInputStream(entry);
+    }
+
+    /**
+     * Adds the paths of the entries contained in the given path of the given archive to returnList.
+     * Follows the same rules as {@link FileSystemResourceAccessor#list(String, String, boolean, boolean, boolean)} does for directories.
+     *
+     * @return false if relativeTo does not exist in the archive
+     */
+    synchronized boolean list(Path archivePath, String relativeTo, String path, boolean recursive, boolean includeFiles, boolean includeDirectories, SortedSet<String> returnList) {
+        Archive archive = archives.get(archivePath);
+        if (archive == null) {
+            return false;
+        }
+
+        String basePath = "";
+        if (relativeTo != null) {
+            basePath = normalize(relativeTo);
+            Boolean isDirectory = archive.entries.get(basePath);
+            if (isDirectory == null) {
+                return false;
+            } else if (!isDirectory) {
+                basePath = getParent(basePath);
+            }
+        }
+        if (path != null) {
+            basePath = normalize(basePath + "/" + path);
+        }
+
+        Boolean isDirectory = basePath.isEmpty() ? Boolean.TRUE : archive.entries.get(basePath);
+        if (isDirectory == null) {
+            return true;
+        }
+        if (!isDirectory) {
+            if (includeFiles) {
+                returnList.add(basePath);
+            }
+            return true;
+        }
+
+        if (includeDirectories && !basePath.isEmpty()) {
+            returnList.add(basePath);
+        }
+        String prefix = basePath.isEmpty() ? "" : (basePath + "/");
+        Map<String, Boolean> contents = prefix.isEmpty() ? archive.entries : archive.entries.subMap(prefix, true, basePath + "0", false);
+        for (Map.Entry<String, Boolean> entry : contents.entrySet()) {
+            String name = entry.getKey();
+            if (name.isEmpty() || (!recursive && (name.indexOf('/', prefix.length()) >= 0))) {
+                continue;
+            }
+            if (entry.getValue() ? includeDirectories : includeFiles) {
+                returnList.add(name);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Closes all archives and empties the index. Streams opened from the archives can no longer be read afterwards.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        IOException exception = null;
+        for (Archive archive : archives.values()) {
+            try {
+                archive.zipFile.close();
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        archives.clear();
+        archivesByFile.clear();
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Resolves any ..'s and duplicated /'s and converts back to standard '/' separator format.
+     */
+    private static String normalize(String path) {
+        return Paths.get(path.replaceFirst("^/+", "")).normalize().toString().replace("\\", "/");
+    }
+
+    private static String getParent(String path) {
+        int index = path.lastIndexOf('/');
+        return (index < 0) ? "" : path.substring(0, index);
+    }
+
+    private static class Archive {
+        private final Path path;
+        private final ZipFile zipFile;
+        private final Map<String, ZipEntry> files = new HashMap<>();
+
+        /**
+         * All files and directories, sorted so the contents of a directory are a contiguous range. True marks a directory.
+         */
+        private final NavigableMap<String, Boolean> entries = new TreeMap<>();
+
+        private Archive(Path path, ZipFile zipFile) {
+            this.path = path;
+            this.zipFile = zipFile;
+        }
+
+        /**
+         * Adds the directory and its parents, which are not always stored as entries of their own.
+         */
+        private void addDirectory(String directory) {
+            while (!directory.isEmpty() && (entries.put(directory, Boolean.TRUE) == null)) {
+                directory = getParent(directory);
+            }
+        }
+    }
+}
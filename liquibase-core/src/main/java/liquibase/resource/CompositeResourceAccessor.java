@@ -2,13 +2,15 @@ package liquibase.resource;
 
 import liquibase.util.CollectionUtil;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.*;
 
 /**
  * A {@link liquibase.resource.ResourceAccessor} that contains multiple sub-accessors and combines the results of all of them.
+ * Closing it closes the sub-accessors that are {@link Closeable}.
  */
-public class CompositeResourceAccessor extends AbstractResourceAccessor {
+public class CompositeResourceAccessor extends AbstractResourceAccessor implements Closeable {
 
     private List<ResourceAccessor> resourceAccessors;
 
@@ -39,4 +41,20 @@ public class CompositeResourceAccessor extends AbstractResourceAccessor {
         return returnSet;
     }
 
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+        for (ResourceAccessor accessor : resourceAccessors) {
+            if (accessor instanceof Closeable) {
+                try {
+                    ((Closeable) accessor).close();
+                } catch (IOException e) {
+                    exception = e;
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
 }
@@ -8,22 +8,23 @@ import java.io.*;
 import java.net.URI;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.Collections;
-import java.util.LinkedHashSet;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.*;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 /**
  * A @{link ResourceAccessor} implementation for files on the file system.
  * Will look for files in zip and jar files if they are added as root paths.
+ * Zip and jar files are indexed on first use and kept open, so looking up a file does not read every archive again.
+ * {@link #close()} closes them; they are opened again if the accessor is used afterwards.
  */
-public class FileSystemResourceAccessor extends AbstractResourceAccessor {
+public class FileSystemResourceAccessor extends AbstractResourceAccessor implements Closeable {
 
     //Set to avoid duplicates but LinkedHashSet to preserve order. Kept private to control access through get/set since we are an ExtensibleObject
-    private LinkedHashSet<Path> rootPaths = new LinkedHashSet<>();
+    //Replaced instead of modified when a root path is added, so threads reading resources can iterate it without locking
+    private volatile LinkedHashSet<Path> rootPaths = new LinkedHashSet<>();
+
+    private ArchiveIndex archiveIndex;
 
     /**
      * Creates a FileSystemResourceAccessor with the given directories/files as the roots.
@@ -43,7 +44,19 @@ public class FileSystemResourceAccessor extends AbstractResourceAccessor {
     }
 
     protected void addRootPath(Path path) {
-        rootPaths.add(path);
+        synchronized (this) {
+            LinkedHashSet<Path> newRootPaths = new LinkedHashSet<>(rootPaths);
+            newRootPaths.add(path);
+            if ((archiveIndex != null) && isCompressedFile(path)) {
+                try {
+                    archiveIndex.add(path);
+                } catch (IOException e) {
+                    //index is built again on next use, which reports the error
+                    archiveIndex = null;
+                }
+            }
+            rootPaths = newRootPaths;
+        }
     }
 
     protected LinkedHashSet<Path> getRootPaths() {
@@ -75,6 +88,7 @@ public class FileSystemResourceAccessor extends AbstractResourceAccessor {
             relativeTo = relativeTo.replaceFirst("^/", ""); //Path is always relative to the file roots
         }
 
+        Map<Path, ZipEntry> archiveFiles = null;
         for (Path rootPath : rootPaths) {
             URI streamURI = null;
             if (rootPath == null) {
@@ -82,38 +96,13 @@ public class FileSystemResourceAccessor extends AbstractResourceAccessor {
             }
             InputStream stream = null;
             if (isCompressedFile(rootPath)) {
-                String finalPath = streamPath;
-
-                // Can't close zipFile here, as we are (possibly) returning its child stream
-                ZipFile zipFile = new ZipFile(rootPath.toFile());
-                if (relativeTo != null) {
-                    ZipEntry relativeEntry = zipFile.getEntry(relativeTo);
-                    if (relativeEntry == null || relativeEntry.isDirectory()) {
-                        //not a file, maybe a directory
-                        finalPath = relativeTo + "/" + streamPath;
-                    } else {
-                        //is a file, find path relative to parent
-                        String actualRelativeTo = relativeTo;
-                        if (actualRelativeTo.contains("/")) {
-                            actualRelativeTo = relativeTo.replaceFirst("/[^/]+?$", "");
-                        } else {
-                            actualRelativeTo = "";
-                        }
-                        finalPath = actualRelativeTo + "/" + streamPath;
-                    }
-
+                if (archiveFiles == null) {
+                    archiveFiles = getArchiveIndex().findFiles(relativeTo, streamPath);
                 }
-
-                //resolve any ..'s and duplicated /'s and convert back to standard '/' separator format
-                finalPath = Paths.get(finalPath.replaceFirst("^/", "")).normalize().toString().replace("\\", "/");
-
-                ZipEntry entry = zipFile.getEntry(finalPath);
+                ZipEntry entry = archiveFiles.get(rootPath);
                 if (entry != null) {
-                    // closing this stream will close zipFile
-                    stream = new CloseChildWillCloseParentStream(zipFile.getInputStream(entry), zipFile);
+                    stream = getArchiveIndex().open(rootPath, entry);
                     streamURI = URI.create(rootPath.normalize().toUri() + "!" + entry.toString());
-                } else {
-                    zipFile.close();
                 }
             } else {
                 Path finalRootPath = rootPath;
@@ -192,13 +181,7 @@ public class FileSystemResourceAccessor extends AbstractResourceAccessor {
                 }
 
                 protected void addToReturnList(Path file) {
-                    String pathToAdd;
-                    if (isCompressedFile(rootPath)) {
-                        pathToAdd = file.normalize().toString().substring(1);  //pull off leading /
-                    } else {
-                        pathToAdd = rootPath.relativize(file).normalize().toString().replace("\\", "/");
-                    }
-
+                    String pathToAdd = rootPath.relativize(file).normalize().toString().replace("\\", "/");
                     pathToAdd = pathToAdd.replaceFirst("/$", "");
                     returnList.add(pathToAdd);
                 }
@@ -207,26 +190,8 @@ public class FileSystemResourceAccessor extends AbstractResourceAccessor {
 
 
             if (isCompressedFile(rootPath)) {
-                try (FileSystem fs = FileSystems.newFileSystem(rootPath, null)) {
-                    Path basePath = fs.getRootDirectories().iterator().next();
-
-                    if (relativeTo != null) {
-                        basePath = basePath.resolve(relativeTo);
-                        if (!Files.exists(basePath)) {
-                            Scope.getCurrentScope().getLog(getClass()).info("Relative path "+relativeTo+" in "+rootPath+" does not exist");
-                            continue;
-                        } else if (Files.isRegularFile(basePath)) {
-                            basePath = basePath.getParent();
-                        }
-                    }
-
-                    if (path != null) {
-                        basePath = basePath.resolve(path);
-                    }
-
-                    Files.walkFileTree(basePath, Collections.singleton(FileVisitOption.FOLLOW_LINKS), maxDepth, fileVisitor);
-                } catch (NoSuchFileException e) {
-                    //nothing to do, return null
+                if (!getArchiveIndex().list(rootPath, relativeTo, path, recursive, includeFiles, includeDirectories, returnList)) {
+                    Scope.getCurrentScope().getLog(getClass()).info("Relative path "+relativeTo+" in "+rootPath+" does not exist");
                 }
             } else {
                 Path basePath = rootPath;
@@ -261,6 +226,34 @@ public class FileSystemResourceAccessor extends AbstractResourceAccessor {
         return returnList;
     }
 
+    /**
+     * Closes the zip and jar root paths opened by this accessor.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (archiveIndex != null) {
+            ArchiveIndex index = archiveIndex;
+            archiveIndex = null;
+            index.close();
+        }
+    }
+
+    /**
+     * Returns the index of the zip and jar root paths, opening and indexing them on first use.
+     */
+    private synchronized ArchiveIndex getArchiveIndex() throws IOException {
+        if (archiveIndex == null) {
+            ArchiveIndex index = new ArchiveIndex();
+            for (Path rootPath : getRootPaths()) {
+                if (isCompressedFile(rootPath)) {
+                    index.add(rootPath);
+                }
+            }
+            archiveIndex = index;
+        }
+        return archiveIndex;
+    }
+
     /**
      * Returns true if the given path is a compressed file.
      */
@@ -272,20 +265,4 @@ public class FileSystemResourceAccessor extends AbstractResourceAccessor {
     public String toString() {
         return getClass().getName() + " (" + StringUtil.join(getRootPaths(), ", ", new StringUtil.ToStringFormatter()) + ")";
     }
-
-    private static class CloseChildWillCloseParentStream extends FilterInputStream {
-
-        private final Closeable parent;
-
-        protected CloseChildWillCloseParentStream(InputStream in, Closeable parent) {
-            super(in);
-            this.parent = parent;
-        }
-
-        @Override
-        public void close() throws IOException {
-            super.close();
-            parent.close();
-        }
-    }
 }
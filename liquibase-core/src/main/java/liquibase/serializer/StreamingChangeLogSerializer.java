@@ -0,0 +1,17 @@
+package liquibase.serializer;
+
+import liquibase.changelog.ChangeLogChild;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * A {@link ChangeLogSerializer} that can write a changelog while its children are still being produced.
+ * Each child is written as soon as the iterator returns it and is not referenced afterwards, so the memory needed
+ * does not grow with the size of the changelog.
+ */
+public interface StreamingChangeLogSerializer extends ChangeLogSerializer {
+
+    <T extends ChangeLogChild> void write(Iterator<T> children, OutputStream out) throws IOException;
+}
@@ -10,18 +10,17 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.util.List;
+import java.util.Iterator;
 
 public class JsonChangeLogSerializer extends YamlChangeLogSerializer {
 
     @Override
-    public <T extends ChangeLogChild> void write(List<T> children, OutputStream out) throws IOException {
+    public <T extends ChangeLogChild> void write(Iterator<T> children, OutputStream out) throws IOException {
         BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding()));
         writer.write("{ \"databaseChangeLog\": [\n");
-        int i = 0;
-        for (T child : children) {
-            String serialized = serialize(child, true);
-            if (++i < children.size()) {
+        while (children.hasNext()) {
+            String serialized = serialize(children.next(), true);
+            if (children.hasNext()) {
                 serialized = serialized.replaceFirst("}\\s*$", "},\n");
             }
             writer.write(StringUtil.indent(serialized, 2));
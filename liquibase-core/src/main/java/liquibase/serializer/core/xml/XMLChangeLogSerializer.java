@@ -11,13 +11,12 @@ import liquibase.exception.UnexpectedLiquibaseException;
 import liquibase.parser.NamespaceDetails;
 import liquibase.parser.NamespaceDetailsFactory;
 import liquibase.parser.core.xml.LiquibaseEntityResolver;
-import liquibase.serializer.ChangeLogSerializer;
 import liquibase.serializer.LiquibaseSerializable;
+import liquibase.serializer.StreamingChangeLogSerializer;
 import liquibase.util.ISODateFormat;
 import liquibase.util.StreamUtil;
 import liquibase.util.StringUtil;
 import liquibase.util.XMLUtil;
-import liquibase.util.xml.DefaultXmlWriter;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
@@ -27,22 +26,27 @@ import org.w3c.dom.NodeList;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
-public class XMLChangeLogSerializer implements ChangeLogSerializer {
+public class XMLChangeLogSerializer implements StreamingChangeLogSerializer {
 
     public static final String INVALID_STRING_ENCODING_MESSAGE = "Invalid string encoding";
     private Document currentChangeLogFileDOM;
@@ -89,6 +93,15 @@ public class XMLChangeLogSerializer implements ChangeLogSerializer {
 
     @Override
     public <T extends ChangeLogChild> void write(List<T> children, OutputStream out) throws IOException {
+        write(children.iterator(), out);
+    }
+
+    /**
+     * Writes the changelog one child at a time. Each child is turned into its own DOM element, written and then
+     * dropped, so only one child is held in memory no matter how large the changelog is.
+     */
+    @Override
+    public <T extends ChangeLogChild> void write(Iterator<T> children, OutputStream out) throws IOException {
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         factory.setNamespaceAware(true);
         DocumentBuilder documentBuilder;
@@ -145,11 +158,125 @@ public class XMLChangeLogSerializer implements ChangeLogSerializer {
         doc.appendChild(changeLogElement);
         setCurrentChangeLogFileDOM(doc);
 
-        for (T child : children) {
-            doc.getDocumentElement().appendChild(createNode(child));
+        GlobalConfiguration globalConfiguration = LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class);
+        String lineSeparator = globalConfiguration.getOutputLineSeparator();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, globalConfiguration.getOutputEncoding()));
+        writer.write("<?xml version=\"" + XML_VERSION + "\" encoding=\"" + globalConfiguration.getOutputEncoding() + "\" standalone=\"no\"?>");
+        writer.write(lineSeparator);
+        writeStartTag(changeLogElement, null, writer);
+        writer.write(">");
+        while (children.hasNext()) {
+            writeElement(createNode(children.next()), LiquibaseSerializable.STANDARD_CHANGELOG_NAMESPACE, 1, lineSeparator, writer);
+        }
+        writer.write(lineSeparator);
+        writer.write("</databaseChangeLog>");
+        writer.write(lineSeparator);
+        writer.flush();
+    }
+
+    /**
+     * Writes the element and its children, indenting each nested element by four spaces.
+     * Elements that only contain text are written on one line, so the text is written unchanged.
+     */
+    private void writeElement(Element element, String defaultNamespace, int depth, String lineSeparator, Writer writer) throws IOException {
+        writer.write(lineSeparator);
+        writer.write(StringUtil.repeat(" ", depth * 4));
+        defaultNamespace = writeStartTag(element, defaultNamespace, writer);
+
+        String text = XMLUtil.getTextContent(element);
+        List<Element> childElements = new ArrayList<>();
+        NodeList childNodes = element.getChildNodes();
+        for (int i = 0; i < childNodes.getLength(); i++) {
+            if (childNodes.item(i) instanceof Element) {
+                childElements.add((Element) childNodes.item(i));
+            }
+        }
+        if (text.isEmpty() && childElements.isEmpty()) {
+            writer.write("/>");
+            return;
+        }
+
+        writer.write(">");
+        writer.write(escape(text, false));
+        for (Element childElement : childElements) {
+            writeElement(childElement, defaultNamespace, depth + 1, lineSeparator, writer);
         }
+        if (!childElements.isEmpty()) {
+            writer.write(lineSeparator);
+            writer.write(StringUtil.repeat(" ", depth * 4));
+        }
+        writer.write("</");
+        writer.write(element.getTagName());
+        writer.write(">");
+    }
 
-        new DefaultXmlWriter().write(doc, out);
+    /**
+     * Writes the start tag of the element without its closing '>', declaring the namespace of the element if it is not
+     * the default namespace already in scope.
+     *
+     * @return the default namespace in scope for the children of the element
+     */
+    private String writeStartTag(Element element, String defaultNamespace, Writer writer) throws IOException {
+        writer.write("<");
+        writer.write(element.getTagName());
+        NamedNodeMap attributes = element.getAttributes();
+        String declaredNamespace = (element.getAttributeNode("xmlns") == null) ? null : element.getAttribute("xmlns");
+        if ((declaredNamespace == null) && (element.getPrefix() == null) && (defaultNamespace != null)
+                && !defaultNamespace.equals(StringUtil.trimToEmpty(element.getNamespaceURI()))) {
+            declaredNamespace = StringUtil.trimToEmpty(element.getNamespaceURI());
+            writer.write(" xmlns=\"" + escape(declaredNamespace, true) + "\"");
+        }
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Node attribute = attributes.item(i);
+            writer.write(" ");
+            writer.write(attribute.getNodeName());
+            writer.write("=\"");
+            writer.write(escape(attribute.getNodeValue(), true));
+            writer.write("\"");
+        }
+        return (declaredNamespace == null) ? defaultNamespace : declaredNamespace;
+    }
+
+    private String escape(String value, boolean attribute) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            switch (c) {
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                case '"':
+                    replacement = attribute ? "&quot;" : null;
+                    break;
+                case '\r':
+                    replacement = "&#13;";
+                    break;
+                case '\n':
+                    replacement = attribute ? "&#10;" : null;
+                    break;
+                case '\t':
+                    replacement = attribute ? "&#9;" : null;
+                    break;
+                default:
+                    replacement = null;
+            }
+            if (replacement != null) {
+                if (escaped == null) {
+                    escaped = new StringBuilder(value.length() + 16).append(value, 0, i);
+                }
+                escaped.append(replacement);
+            } else if (escaped != null) {
+                escaped.append(c);
+            }
+        }
+        return (escaped == null) ? value : escaped.toString();
     }
 
     @Override
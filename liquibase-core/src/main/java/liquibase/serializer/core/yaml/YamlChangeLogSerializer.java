@@ -4,13 +4,15 @@ import liquibase.changelog.ChangeLogChild;
 import liquibase.changelog.ChangeSet;
 import liquibase.configuration.GlobalConfiguration;
 import liquibase.configuration.LiquibaseConfiguration;
-import liquibase.serializer.ChangeLogSerializer;
 import liquibase.serializer.LiquibaseSerializable;
+import liquibase.serializer.StreamingChangeLogSerializer;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.nodes.Tag;
 
 import java.io.*;
 import java.util.*;
 
-public class YamlChangeLogSerializer extends YamlSerializer implements ChangeLogSerializer {
+public class YamlChangeLogSerializer extends YamlSerializer implements StreamingChangeLogSerializer {
 
     protected Comparator<String> getComparator(LiquibaseSerializable object) {
         if (object instanceof ChangeSet) {
@@ -22,15 +24,23 @@ public class YamlChangeLogSerializer extends YamlSerializer implements ChangeLog
 
     @Override
     public <T extends ChangeLogChild> void write(List<T> children, OutputStream out) throws IOException {
-        List<Object> maps = new ArrayList<>();
-        for (T changeSet : children) {
-            maps.add(toMap(changeSet));
-        }
-        Map<String, Object> containerMap = new HashMap<>();
-        containerMap.put("databaseChangeLog", maps);
+        write(children.iterator(), out);
+    }
 
+    /**
+     * Writes the changelog one child at a time, dumping each child as its own item of the databaseChangeLog list.
+     */
+    @Override
+    public <T extends ChangeLogChild> void write(Iterator<T> children, OutputStream out) throws IOException {
         BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding()));
-        writer.write(yaml.dumpAsMap(containerMap));
+        if (!children.hasNext()) {
+            writer.write(yaml.dumpAsMap(Collections.singletonMap("databaseChangeLog", Collections.emptyList())));
+        } else {
+            writer.write("databaseChangeLog:\n");
+            while (children.hasNext()) {
+                writer.write(yaml.dumpAs(Collections.singletonList(toMap(children.next())), Tag.SEQ, DumperOptions.FlowStyle.BLOCK));
+            }
+        }
         writer.write("\n");
         writer.flush();
     }
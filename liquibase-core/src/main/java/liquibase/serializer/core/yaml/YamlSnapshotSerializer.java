@@ -33,6 +33,7 @@ public class YamlSnapshotSerializer extends YamlSerializer implements SnapshotSe
     public void write(DatabaseSnapshot snapshot, OutputStream out) throws IOException {
         BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getOutputEncoding()));
         writer.write(serialize(snapshot, true));
+        writer.flush();
     }
 
 //    @Override
@@ -1,35 +1,68 @@
 package liquibase.snapshot;
 
+import java.util.HashMap;
 import java.util.Map;
 
 public class CachedRow {
     private Map row;
 
+    /**
+     * Set when the row is stored in a {@link ColumnarRowStore}. In that case {@link #row} only holds the columns that
+     * were {@link #set(String, Object)} on this row but are not part of the store.
+     */
+    private final ColumnarRowStore store;
+    private final int rowIndex;
+
     public CachedRow(Map row) {
         this.row = row;
+        this.store = null;
+        this.rowIndex = -1;
+    }
+
+    CachedRow(ColumnarRowStore store, int rowIndex) {
+        this.store = store;
+        this.rowIndex = rowIndex;
     }
 
 
 
     public Object get(String columnName) {
-        return row.get(columnName);
+        if (store == null) {
+            return row.get(columnName);
+        }
+        if ((row != null) && row.containsKey(columnName)) {
+            return row.get(columnName);
+        }
+        return store.get(rowIndex, columnName);
     }
 
     public void set(String columnName, Object value) {
-        row.put(columnName, value);
+        if (store == null) {
+            row.put(columnName, value);
+        } else if (store.containsColumn(columnName)) {
+            store.set(rowIndex, columnName, value);
+        } else {
+            if (row == null) {
+                row = new HashMap();
+            }
+            row.put(columnName, value);
+        }
     }
 
 
     public boolean containsColumn(String columnName) {
-        return row.containsKey(columnName);
+        if (store == null) {
+            return row.containsKey(columnName);
+        }
+        return store.containsColumn(columnName) || ((row != null) && row.containsKey(columnName));
     }
 
     public String getString(String columnName) {
-        return (String) row.get(columnName);
+        return (String) get(columnName);
     }
 
     public Integer getInt(String columnName) {
-        Object o = row.get(columnName);
+        Object o = get(columnName);
         if (o instanceof Number) {
             return ((Number) o).intValue();
         } else if (o instanceof String) {
@@ -39,7 +72,7 @@ public class CachedRow {
     }
 
     public Short getShort(String columnName) {
-        Object o = row.get(columnName);
+        Object o = get(columnName);
         if (o instanceof Number) {
             return ((Number) o).shortValue();
         } else if (o instanceof String) {
@@ -49,7 +82,7 @@ public class CachedRow {
     }
 
     public Boolean getBoolean(String columnName) {
-        Object o = row.get(columnName);
+        Object o = get(columnName);
         if (o instanceof Number) {
             if (((Number) o).longValue() == 0) {
                 return false;
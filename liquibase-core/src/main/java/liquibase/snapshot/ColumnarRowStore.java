@@ -0,0 +1,233 @@
+package liquibase.snapshot;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Compact storage for the rows of a metadata query, used behind {@link CachedRow}. Instead of one map per row, the
+ * column names are stored once and every column keeps its values in a single array. Columns that only contain
+ * Integer, Short, Boolean or integral BigDecimal values are kept in an int array, and equal Strings are only stored
+ * once, which considerably reduces the memory used by bulk fetches of large schemas.
+ * <p>
+ * Values are returned with the same type they were added with.
+ */
+final class ColumnarRowStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<String, Integer> columnIndexes;
+    private final Column[] columns;
+    private final Map<String, String> strings = new HashMap<>();
+    private int size;
+
+    /**
+     * @param columnNames the names of the columns. If a name is used more than once, the last column with that
+     *                    name is returned by {@link #get(int, String)}.
+     */
+    ColumnarRowStore(String[] columnNames) {
+        this.columnIndexes = new HashMap<>(columnNames.length * 2);
+        this.columns = new Column[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++) {
+            columnIndexes.put(columnNames[i], i);
+            columns[i] = new Column();
+        }
+    }
+
+    /**
+     * Adds a row with the given values, in the order of the column names, and returns its index.
+     */
+    int addRow(Object[] values) {
+        int row = size++;
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].set(row, canonicalize(values[i]));
+        }
+        return row;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns a {@link CachedRow} for every row added so far.
+     */
+    List<CachedRow> getRows() {
+        List<CachedRow> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(new CachedRow(this, i));
+        }
+        return rows;
+    }
+
+    boolean containsColumn(String columnName) {
+        return columnIndexes.containsKey(columnName);
+    }
+
+    Object get(int row, String columnName) {
+        Integer index = columnIndexes.get(columnName);
+        if (index == null) {
+            return null;
+        }
+        return columns[index].get(row);
+    }
+
+    /**
+     * Replaces the value of an existing column.
+     */
+    void set(int row, String columnName, Object value) {
+        Integer index = columnIndexes.get(columnName);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown column " + columnName);
+        }
+        columns[index].set(row, canonicalize(value));
+    }
+
+    /**
+     * Releases the unused capacity of the column arrays once all rows are added.
+     */
+    void trimToSize() {
+        for (Column column : columns) {
+            column.trimToSize(size);
+        }
+        strings.clear();
+    }
+
+    private Object canonicalize(Object value) {
+        if (!(value instanceof String)) {
+            return value;
+        }
+        String existing = strings.get(value);
+        if (existing == null) {
+            strings.put((String) value, (String) value);
+            return value;
+        }
+        return existing;
+    }
+
+    private enum Kind {
+        EMPTY, INT, SHORT, BOOLEAN, DECIMAL_INT, OBJECT;
+
+        static Kind of(Object value) {
+            if (value instanceof Integer) {
+                return INT;
+            } else if (value instanceof Short) {
+                return SHORT;
+            } else if (value instanceof Boolean) {
+                return BOOLEAN;
+            } else if ((value instanceof BigDecimal) && (((BigDecimal) value).scale() == 0)
+                    && (((BigDecimal) value).unscaledValue().bitLength() < 32)) {
+                return DECIMAL_INT;
+            }
+            return OBJECT;
+        }
+    }
+
+    /**
+     * The values of one column. Starts out as an int array if the first value allows it and switches to an object
+     * array as soon as a value of another type is set.
+     */
+    private static final class Column {
+        private Kind kind = Kind.EMPTY;
+        private int[] ints;
+        private BitSet notNull;
+        private Object[] objects;
+
+        void set(int row, Object value) {
+            if (value == null) {
+                if (kind == Kind.OBJECT) {
+                    ensureObjectCapacity(row);
+                    objects[row] = null;
+                } else if (notNull != null) {
+                    notNull.clear(row);
+                }
+                return;
+            }
+
+            Kind valueKind = Kind.of(value);
+            if (kind == Kind.EMPTY) {
+                kind = valueKind;
+                if (kind != Kind.OBJECT) {
+                    ints = new int[Math.max(INITIAL_CAPACITY, row + 1)];
+                    notNull = new BitSet();
+                }
+            } else if ((kind != valueKind) && (kind != Kind.OBJECT)) {
+                convertToObjects(row);
+            }
+
+            if (kind == Kind.OBJECT) {
+                ensureObjectCapacity(row);
+                objects[row] = value;
+            } else {
+                if (row >= ints.length) {
+                    ints = Arrays.copyOf(ints, Math.max(ints.length * 2, row + 1));
+                }
+                ints[row] = toInt(value);
+                notNull.set(row);
+            }
+        }
+
+        Object get(int row) {
+            switch (kind) {
+                case EMPTY:
+                    return null;
+                case OBJECT:
+                    return (row < objects.length) ? objects[row] : null;
+                default:
+                    if (!notNull.get(row)) {
+                        return null;
+                    }
+                    return fromInt(ints[row]);
+            }
+        }
+
+        void trimToSize(int size) {
+            if ((ints != null) && (ints.length > size)) {
+                ints = Arrays.copyOf(ints, size);
+            }
+            if ((objects != null) && (objects.length > size)) {
+                objects = Arrays.copyOf(objects, size);
+            }
+        }
+
+        private void convertToObjects(int row) {
+            Object[] converted = new Object[Math.max(INITIAL_CAPACITY, Math.max(ints.length, row + 1))];
+            for (int i = notNull.nextSetBit(0); i >= 0; i = notNull.nextSetBit(i + 1)) {
+                converted[i] = fromInt(ints[i]);
+            }
+            objects = converted;
+            ints = null;
+            notNull = null;
+            kind = Kind.OBJECT;
+        }
+
+        private void ensureObjectCapacity(int row) {
+            if (objects == null) {
+                objects = new Object[Math.max(INITIAL_CAPACITY, row + 1)];
+            } else if (row >= objects.length) {
+                objects = Arrays.copyOf(objects, Math.max(objects.length * 2, row + 1));
+            }
+        }
+
+        private static int toInt(Object value) {
+            if (value instanceof Boolean) {
+                return ((Boolean) value) ? 1 : 0;
+            }
+            return ((Number) value).intValue();
+        }
+
+        private Object fromInt(int value) {
+            switch (kind) {
+                case INT:
+                    return value;
+                case SHORT:
+                    return (short) value;
+                case BOOLEAN:
+                    return value != 0;
+                case DECIMAL_INT:
+                    return BigDecimal.valueOf(value);
+                default:
+                    throw new IllegalStateException("Column of kind " + kind + " is not stored as ints");
+            }
+        }
+    }
+}
@@ -497,6 +497,41 @@ public abstract class DatabaseSnapshot implements LiquibaseSerializable {
         return !catalogNames.contains(fieldCatalog.toLowerCase());
     }
 
+    /**
+     * Adds the objects of another snapshot to this snapshot. Objects already included in this snapshot, such as
+     * catalogs shared by multiple schemas, are not added again. If the other snapshot includes more types, this
+     * snapshot gets its own copy of its SnapshotControl, so the SnapshotControl passed in by the caller is not changed.
+     */
+    void merge(DatabaseSnapshot other) {
+        for (Map.Entry<Class<? extends DatabaseObject>, Set<? extends DatabaseObject>> entry : other.allFound.toMap().entrySet()) {
+            for (DatabaseObject object : entry.getValue()) {
+                if (allFound.get(object, schemaComparisons) == null) {
+                    allFound.add(object);
+                }
+            }
+        }
+        for (Map.Entry<Class<? extends DatabaseObject>, Set<? extends DatabaseObject>> entry : other.referencedObjects.toMap().entrySet()) {
+            for (DatabaseObject object : entry.getValue()) {
+                if ((allFound.get(object, schemaComparisons) == null) && (referencedObjects.get(object, schemaComparisons) == null)) {
+                    referencedObjects.add(object);
+                }
+            }
+        }
+        for (Map.Entry<Class<? extends DatabaseObject>, Set<DatabaseObject>> entry : other.knownNull.entrySet()) {
+            Set<DatabaseObject> collection = knownNull.get(entry.getKey());
+            if (collection == null) {
+                collection = new HashSet<>();
+                knownNull.put(entry.getKey(), collection);
+            }
+            collection.addAll(entry.getValue());
+        }
+        if (!snapshotControl.getTypesToInclude().containsAll(other.snapshotControl.getTypesToInclude())) {
+            snapshotControl = new SnapshotControl(snapshotControl);
+            snapshotControl.getTypesToInclude().addAll(other.snapshotControl.getTypesToInclude());
+        }
+        metadata.putAll(other.metadata);
+    }
+
     /**
      * Returns the object described by the passed example if it is already included in this snapshot.
      */
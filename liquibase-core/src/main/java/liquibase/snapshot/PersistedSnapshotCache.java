@@ -0,0 +1,220 @@
+package liquibase.snapshot;
+
+import liquibase.CatalogAndSchema;
+import liquibase.Scope;
+import liquibase.database.AbstractJdbcDatabase;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.LiquibaseException;
+import liquibase.logging.LogType;
+import liquibase.parser.SnapshotParserFactory;
+import liquibase.resource.FileSystemResourceAccessor;
+import liquibase.resource.ResourceAccessor;
+import liquibase.serializer.SnapshotSerializerFactory;
+import liquibase.structure.DatabaseObject;
+import liquibase.structure.core.Schema;
+import liquibase.util.MD5Util;
+import liquibase.util.StringUtil;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Stores the snapshot of every schema in a directory, one file per schema and set of snapshot types, and reuses it as
+ * long as {@link AbstractJdbcDatabase#getSchemaFingerprint(CatalogAndSchema)} returns the fingerprint it was stored
+ * with. A schema whose fingerprint changed is snapshotted again and its file is replaced. Schemas on databases that
+ * cannot compute a fingerprint are always snapshotted and never stored.
+ * <p>
+ * Used by {@link SnapshotGeneratorFactory} if {@link liquibase.configuration.GlobalConfiguration#getSnapshotCacheDirectory()}
+ * is set and {@link SnapshotControl#shouldUsePersistedSnapshots()} is true.
+ */
+public class PersistedSnapshotCache {
+
+    public static final String FINGERPRINT_METADATA = "schemaFingerprint";
+    public static final String TYPES_METADATA = "snapshotTypes";
+
+    private static final String FILE_EXTENSION = ".json";
+
+    private final File directory;
+
+    public PersistedSnapshotCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns a snapshot of the given schemas, reading each schema from its stored snapshot if it is still current.
+     * The other schemas are snapshotted in parallel if the SnapshotControl allows it, and one after another otherwise.
+     */
+    public DatabaseSnapshot createSnapshot(Schema[] schemas, Database database, SnapshotControl snapshotControl)
+            throws DatabaseException, InvalidExampleException {
+        DatabaseSnapshot snapshot = new RestoredDatabaseSnapshot(database, new SnapshotControl(snapshotControl));
+        String types = describeTypes(snapshotControl);
+
+        List<Schema> changedSchemas = new ArrayList<>();
+        List<String> fingerprints = new ArrayList<>();
+        for (Schema schema : schemas) {
+            CatalogAndSchema catalogAndSchema = toCatalogAndSchema(schema, database);
+            String fingerprint = getFingerprint(catalogAndSchema, database);
+            DatabaseSnapshot storedSnapshot = null;
+            if (fingerprint != null) {
+                storedSnapshot = readCurrent(schema, getFile(catalogAndSchema, database, types), fingerprint, types);
+            }
+            if (storedSnapshot == null) {
+                changedSchemas.add(schema);
+                fingerprints.add(fingerprint);
+            } else {
+                snapshot.merge(storedSnapshot);
+            }
+        }
+
+        List<DatabaseSnapshot> schemaSnapshots = snapshotSchemas(changedSchemas.toArray(new Schema[changedSchemas.size()]), database, snapshotControl);
+        for (int i = 0; i < changedSchemas.size(); i++) {
+            DatabaseSnapshot schemaSnapshot = schemaSnapshots.get(i);
+            String fingerprint = fingerprints.get(i);
+            if (fingerprint != null) {
+                schemaSnapshot.getMetadata().put(FINGERPRINT_METADATA, fingerprint);
+                schemaSnapshot.getMetadata().put(TYPES_METADATA, types);
+                write(schemaSnapshot, getFile(toCatalogAndSchema(changedSchemas.get(i), database), database, types));
+            }
+            snapshot.merge(schemaSnapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the snapshot stored in the given file if it was taken with the given fingerprint and types, or null.
+     */
+    private DatabaseSnapshot readCurrent(Schema schema, File file, String fingerprint, String types) {
+        DatabaseSnapshot storedSnapshot = read(file);
+        if ((storedSnapshot != null)
+                && fingerprint.equals(String.valueOf(storedSnapshot.getMetadata().get(FINGERPRINT_METADATA)))
+                && types.equals(String.valueOf(storedSnapshot.getMetadata().get(TYPES_METADATA)))) {
+            Scope.getCurrentScope().getLog(getClass()).info(LogType.LOG, "Schema " + schema + " is unchanged, using the snapshot stored in " + file.getAbsolutePath());
+            return storedSnapshot;
+        }
+        return null;
+    }
+
+    /**
+     * Snapshots the given schemas and returns their snapshots in the same order.
+     */
+    protected List<DatabaseSnapshot> snapshotSchemas(Schema[] schemas, Database database, SnapshotControl snapshotControl)
+            throws DatabaseException, InvalidExampleException {
+        SnapshotGeneratorFactory factory = SnapshotGeneratorFactory.getInstance();
+        if (factory.canSnapshotInParallel(schemas, database, snapshotControl)) {
+            return factory.snapshotSchemasInParallel(schemas, database, snapshotControl);
+        }
+        List<DatabaseSnapshot> snapshots = new ArrayList<>();
+        for (Schema schema : schemas) {
+            snapshots.add(snapshotSchema(schema, database, snapshotControl));
+        }
+        return snapshots;
+    }
+
+    protected DatabaseSnapshot snapshotSchema(Schema schema, Database database, SnapshotControl snapshotControl)
+            throws DatabaseException, InvalidExampleException {
+        return SnapshotGeneratorFactory.getInstance().createSnapshot(new DatabaseObject[]{schema}, database,
+                new SnapshotControl(snapshotControl));
+    }
+
+    /**
+     * Returns the fingerprint of the schema, or null if the database cannot compute one.
+     */
+    protected String getFingerprint(CatalogAndSchema catalogAndSchema, Database database) {
+        if (!(database instanceof AbstractJdbcDatabase) || !(database.getConnection() instanceof JdbcConnection)) {
+            return null;
+        }
+        try {
+            return ((AbstractJdbcDatabase) database).getSchemaFingerprint(catalogAndSchema);
+        } catch (DatabaseException e) {
+            Scope.getCurrentScope().getLog(getClass()).warning(LogType.LOG, "Cannot read the fingerprint of schema " + catalogAndSchema + ", snapshotting it again: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the file the snapshot of the given schema and types is stored in. The name is derived from the
+     * connection URL, user, schema and types, so one directory can hold the snapshots of several databases, and
+     * snapshots taken with different types do not replace each other.
+     */
+    protected File getFile(CatalogAndSchema catalogAndSchema, Database database, String types) {
+        String key = database.getConnection().getURL() + "|" + database.getConnection().getConnectionUserName()
+                + "|" + catalogAndSchema.getCatalogName() + "|" + catalogAndSchema.getSchemaName() + "|" + types;
+        String schemaName = StringUtil.trimToEmpty((catalogAndSchema.getSchemaName() == null) ? catalogAndSchema.getCatalogName() : catalogAndSchema.getSchemaName());
+        return new File(directory, database.getShortName() + "-" + schemaName.replaceAll("[^A-Za-z0-9_.-]", "_")
+                + "-" + MD5Util.computeMD5(key).substring(0, 12) + FILE_EXTENSION);
+    }
+
+    /**
+     * Returns the stored snapshot, or null if there is none or it cannot be read.
+     */
+    protected DatabaseSnapshot read(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            ResourceAccessor resourceAccessor = new FileSystemResourceAccessor(directory);
+            return SnapshotParserFactory.getInstance().getParser(file.getName(), resourceAccessor).parse(file.getName(), resourceAccessor);
+        } catch (LiquibaseException | RuntimeException e) {
+            Scope.getCurrentScope().getLog(getClass()).warning(LogType.LOG, "Cannot read stored snapshot " + file.getAbsolutePath() + ", snapshotting the schema again: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the snapshot to a temporary file first and moves it in place, so a concurrent reader never sees a partly
+     * written snapshot. Failures are logged, as the snapshot itself is still usable.
+     */
+    protected void write(DatabaseSnapshot snapshot, File file) {
+        File tempFile = null;
+        try {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Cannot create directory " + directory.getAbsolutePath());
+            }
+            tempFile = File.createTempFile(file.getName(), ".tmp", directory);
+            try (OutputStream out = new FileOutputStream(tempFile)) {
+                SnapshotSerializerFactory.getInstance().getSerializer(FILE_EXTENSION.substring(1)).write(snapshot, out);
+            }
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            Scope.getCurrentScope().getLog(getClass()).warning(LogType.LOG, "Cannot store snapshot in " + file.getAbsolutePath() + ": " + e.getMessage());
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    private CatalogAndSchema toCatalogAndSchema(Schema schema, Database database) {
+        String catalogName = schema.getCatalogName();
+        if (catalogName == null) {
+            catalogName = database.getDefaultCatalogName();
+        }
+        String schemaName = schema.getName();
+        if ((schemaName == null) && database.supportsSchemas()) {
+            schemaName = database.getDefaultSchemaName();
+        }
+        return new CatalogAndSchema(catalogName, schemaName);
+    }
+
+    private String describeTypes(SnapshotControl snapshotControl) {
+        SortedSet<String> types = new TreeSet<>();
+        for (Class<? extends DatabaseObject> type : snapshotControl.getTypesToInclude()) {
+            types.add(type.getName());
+        }
+        return StringUtil.join(types, ",");
+    }
+}
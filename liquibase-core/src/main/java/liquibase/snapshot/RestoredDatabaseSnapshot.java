@@ -9,4 +9,8 @@ public class RestoredDatabaseSnapshot extends DatabaseSnapshot {
     public RestoredDatabaseSnapshot(Database database) throws DatabaseException, InvalidExampleException {
         super(new DatabaseObject[0], database);
     }
+
+    RestoredDatabaseSnapshot(Database database, SnapshotControl snapshotControl) throws DatabaseException, InvalidExampleException {
+        super(new DatabaseObject[0], database, snapshotControl);
+    }
 }
@@ -5,12 +5,11 @@ import liquibase.database.core.InformixDatabase;
 import liquibase.database.jvm.JdbcConnection;
 import liquibase.exception.DatabaseException;
 import liquibase.exception.UnexpectedLiquibaseException;
-import liquibase.executor.jvm.ColumnMapRowMapper;
-import liquibase.executor.jvm.RowMapperResultSetExtractor;
 import liquibase.util.JdbcUtils;
 import liquibase.util.StringUtil;
 
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
@@ -291,44 +290,52 @@ class ResultSetCache {
         protected List<CachedRow> extract(ResultSet resultSet, final boolean informixIndexTrimHint)
                 throws SQLException {
             resultSet.setFetchSize(database.getFetchSize());
-            List<Map> result;
-            List<CachedRow> returnList = new ArrayList<>();
             try {
-                result = (List<Map>) new RowMapperResultSetExtractor(new ColumnMapRowMapper() {
-                    @Override
-                    protected Object getColumnValue(ResultSet rs, int index) throws SQLException {
-                        Object value = super.getColumnValue(rs, index);
-                        if ((value != null) && (value instanceof String)) {
-
-                            // Don't trim for informix database,
-                            // We need to discern the space in front of an index name,
-                            // to know if it was auto-generated or not
-
-                            if (informixIndexTrimHint == false) {
-                                value = ((String) value).trim(); // Trim the value normally
-                            } else {
-                                boolean startsWithSpace = false;
-                                if ((database instanceof InformixDatabase) && ((String) value).matches("^ .*$")) {
-                                    startsWithSpace = true; // Set the flag if the value started with a space
-                                }
-                                value = ((String) value).trim(); // Trim the value normally
-                                if (startsWithSpace == true) {
-                                    value = " " + value; // Put the space back at the beginning if the flag was set
-                                }
-                            }
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                int columnCount = metaData.getColumnCount();
+                String[] columnNames = new String[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    columnNames[i] = metaData.getColumnLabel(i + 1).toUpperCase(Locale.US);
+                }
 
-                        }
-                        return value;
+                ColumnarRowStore store = new ColumnarRowStore(columnNames);
+                Object[] values = new Object[columnCount];
+                while (resultSet.next()) {
+                    for (int i = 0; i < columnCount; i++) {
+                        values[i] = getColumnValue(resultSet, i + 1, informixIndexTrimHint);
                     }
-                }).extractData(resultSet);
-
-                for (Map row : result) {
-                    returnList.add(new CachedRow(row));
+                    store.addRow(values);
                 }
+                store.trimToSize();
+                return store.getRows();
             } finally {
                 JdbcUtils.closeResultSet(resultSet);
             }
-            return returnList;
+        }
+
+        private Object getColumnValue(ResultSet resultSet, int index, boolean informixIndexTrimHint) throws SQLException {
+            Object value = JdbcUtils.getResultSetValue(resultSet, index);
+            if ((value != null) && (value instanceof String)) {
+
+                // Don't trim for informix database,
+                // We need to discern the space in front of an index name,
+                // to know if it was auto-generated or not
+
+                if (informixIndexTrimHint == false) {
+                    value = ((String) value).trim(); // Trim the value normally
+                } else {
+                    boolean startsWithSpace = false;
+                    if ((database instanceof InformixDatabase) && ((String) value).matches("^ .*$")) {
+                        startsWithSpace = true; // Set the flag if the value started with a space
+                    }
+                    value = ((String) value).trim(); // Trim the value normally
+                    if (startsWithSpace == true) {
+                        value = " " + value; // Put the space back at the beginning if the flag was set
+                    }
+                }
+
+            }
+            return value;
         }
     }
 
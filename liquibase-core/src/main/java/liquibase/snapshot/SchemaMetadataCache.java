@@ -0,0 +1,210 @@
+package liquibase.snapshot;
+
+import liquibase.CatalogAndSchema;
+import liquibase.Scope;
+import liquibase.change.Change;
+import liquibase.configuration.GlobalConfiguration;
+import liquibase.configuration.LiquibaseConfiguration;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.diff.compare.DatabaseObjectComparatorFactory;
+import liquibase.exception.DatabaseException;
+import liquibase.logging.LogType;
+import liquibase.structure.DatabaseObject;
+import liquibase.structure.core.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers the existence checks of the tableExists, columnExists, indexExists and foreignKeyConstraintExists
+ * preconditions from one snapshot per schema instead of querying the database metadata for every precondition.
+ * <p>
+ * The snapshot of a schema is read the first time a precondition asks about it. When a change is executed, the tables
+ * it affects are marked as changed, and checks on those tables go back to {@link SnapshotGeneratorFactory#has} for
+ * the rest of the run. Changes whose affected tables are not known, like raw SQL, drop the cached snapshots of the
+ * database.
+ * <p>
+ * The cache is only used if {@link GlobalConfiguration#getCachePreconditionMetadata()} is set.
+ */
+public class SchemaMetadataCache {
+
+    private static final SchemaMetadataCache instance = new SchemaMetadataCache();
+
+    private static final Class[] CACHED_TYPES = new Class[] {Table.class, Column.class, Index.class, ForeignKey.class};
+
+    private final Map<Database, Map<String, SchemaMetadata>> schemas = new ConcurrentHashMap<>();
+
+    private SchemaMetadataCache() {
+    }
+
+    public static SchemaMetadataCache getInstance() {
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getCachePreconditionMetadata();
+    }
+
+    /**
+     * Same as {@link SnapshotGeneratorFactory#has(DatabaseObject, Database)}, but answered from the cached schema
+     * snapshot when the cache is enabled and the example is a table, column, index or foreign key on a table that was
+     * not changed since the snapshot was read.
+     */
+    public boolean has(DatabaseObject example, Database database) throws DatabaseException, InvalidExampleException {
+        if (!isEnabled() || !isCacheable(example, database)) {
+            return SnapshotGeneratorFactory.getInstance().has(example, database);
+        }
+
+        SchemaMetadata metadata = getSchemaMetadata(getCatalogAndSchema(example, database), database);
+        String tableName = getTableName(example);
+        if ((tableName == null) ? metadata.hasChangedTables() : metadata.isChanged(tableName)) {
+            return SnapshotGeneratorFactory.getInstance().has(example, database);
+        }
+
+        for (DatabaseObject object : metadata.snapshot.get(example.getClass())) {
+            if (DatabaseObjectComparatorFactory.getInstance().isSameObject(example, object, null, database)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Marks the tables the given change affects as changed. Called after the change was executed or rolled back.
+     */
+    public void changeExecuted(Change change, Database database) {
+        Map<String, SchemaMetadata> databaseSchemas = schemas.get(database);
+        if ((databaseSchemas == null) || databaseSchemas.isEmpty()) {
+            return;
+        }
+
+        Set<DatabaseObject> affectedObjects;
+        try {
+            affectedObjects = change.getAffectedDatabaseObjects(database);
+        } catch (RuntimeException e) {
+            affectedObjects = null;
+        }
+
+        List<DatabaseObject> affectedTables = new ArrayList<>();
+        if (affectedObjects != null) {
+            for (DatabaseObject object : affectedObjects) {
+                if ((object instanceof Catalog) || (object instanceof Schema) || (object instanceof Sequence)) {
+                    continue;
+                }
+                if (getTableName(object) == null) {
+                    affectedTables = null;
+                    break;
+                }
+                affectedTables.add(object);
+            }
+        }
+        if ((affectedTables == null) || affectedTables.isEmpty()) {
+            clear(database);
+            return;
+        }
+
+        for (DatabaseObject object : affectedTables) {
+            SchemaMetadata metadata = databaseSchemas.get(getSchemaKey(getCatalogAndSchema(object, database)));
+            if (metadata != null) {
+                metadata.markChanged(getTableName(object));
+            }
+        }
+    }
+
+    /**
+     * Drops the cached snapshots of the given database.
+     */
+    public void clear(Database database) {
+        schemas.remove(database);
+    }
+
+    public void clearAll() {
+        schemas.clear();
+    }
+
+    private SchemaMetadata getSchemaMetadata(CatalogAndSchema catalogAndSchema, Database database) throws DatabaseException, InvalidExampleException {
+        Map<String, SchemaMetadata> databaseSchemas = schemas.computeIfAbsent(database, db -> new ConcurrentHashMap<>());
+
+        String schemaKey = getSchemaKey(catalogAndSchema);
+        SchemaMetadata metadata = databaseSchemas.get(schemaKey);
+        if (metadata == null) {
+            Scope.getCurrentScope().getLog(getClass()).fine(LogType.LOG, "Reading metadata of " + catalogAndSchema + " for preconditions");
+            SnapshotControl snapshotControl = new SnapshotControl(database, false, CACHED_TYPES);
+            snapshotControl.setWarnIfObjectNotFound(false);
+            metadata = new SchemaMetadata(SnapshotGeneratorFactory.getInstance().createSnapshot(catalogAndSchema, database, snapshotControl));
+            databaseSchemas.put(schemaKey, metadata);
+        }
+        return metadata;
+    }
+
+    private boolean isCacheable(DatabaseObject example, Database database) {
+        if (!(database.getConnection() instanceof JdbcConnection)) {
+            return false;
+        }
+        if (!((example instanceof Table) || (example instanceof Column) || (example instanceof Index) || (example instanceof ForeignKey))) {
+            return false;
+        }
+        if ((example instanceof Column) && (((Column) example).getRelation() == null)) {
+            return false;
+        }
+        String tableName = getTableName(example);
+        return (tableName == null)
+                || !(tableName.equalsIgnoreCase(database.getDatabaseChangeLogTableName())
+                || tableName.equalsIgnoreCase(database.getDatabaseChangeLogLockTableName()));
+    }
+
+    private CatalogAndSchema getCatalogAndSchema(DatabaseObject object, Database database) {
+        Schema schema = object.getSchema();
+        if (schema == null) {
+            return database.getDefaultSchema().customize(database);
+        }
+        return schema.toCatalogAndSchema().customize(database);
+    }
+
+    private static String getSchemaKey(CatalogAndSchema catalogAndSchema) {
+        return catalogAndSchema.getCatalogName() + "." + catalogAndSchema.getSchemaName();
+    }
+
+    private static String getTableName(DatabaseObject object) {
+        DatabaseObject table = null;
+        if (object instanceof Relation) {
+            table = object;
+        } else if (object instanceof Column) {
+            table = ((Column) object).getRelation();
+        } else if (object instanceof Index) {
+            table = ((Index) object).getRelation();
+        } else if (object instanceof ForeignKey) {
+            table = ((ForeignKey) object).getForeignKeyTable();
+        } else if (object instanceof PrimaryKey) {
+            table = ((PrimaryKey) object).getTable();
+        } else if (object instanceof UniqueConstraint) {
+            table = ((UniqueConstraint) object).getRelation();
+        }
+        if ((table == null) || (table.getName() == null)) {
+            return null;
+        }
+        return table.getName().toLowerCase(Locale.US);
+    }
+
+    private static class SchemaMetadata {
+        private final DatabaseSnapshot snapshot;
+        private final Set<String> changedTables = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+        SchemaMetadata(DatabaseSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        void markChanged(String tableName) {
+            changedTables.add(tableName);
+        }
+
+        boolean isChanged(String tableName) {
+            return changedTables.contains(tableName);
+        }
+
+        boolean hasChangedTables() {
+            return !changedTables.isEmpty();
+        }
+    }
+}
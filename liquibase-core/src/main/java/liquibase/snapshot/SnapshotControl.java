@@ -10,6 +10,7 @@ import liquibase.serializer.LiquibaseSerializable;
 import liquibase.structure.DatabaseObject;
 import liquibase.structure.core.DatabaseObjectFactory;
 
+import javax.sql.DataSource;
 import java.util.*;
 
 /**
@@ -22,6 +23,9 @@ public class SnapshotControl implements LiquibaseSerializable {
     private ObjectChangeFilter objectChangeFilter;
     private SnapshotListener snapshotListener;
     private boolean warnIfObjectNotFound = true;
+    private DataSource parallelDataSource;
+    private int parallelThreads;
+    private boolean usePersistedSnapshots;
     
     
     /**
@@ -69,6 +73,17 @@ public class SnapshotControl implements LiquibaseSerializable {
         this.objectChangeFilter = objectChangeFilter;
     }
 
+    /**
+     * Creates a copy of the given SnapshotControl with its own set of types, so the copy can be used by another
+     * snapshot without affecting the original.
+     */
+    SnapshotControl(SnapshotControl source) {
+        this.types = new HashSet<>(source.types);
+        this.objectChangeFilter = source.objectChangeFilter;
+        this.snapshotListener = source.snapshotListener;
+        this.warnIfObjectNotFound = source.warnIfObjectNotFound;
+    }
+
     public SnapshotListener getSnapshotListener() {
         return snapshotListener;
     }
@@ -192,4 +207,53 @@ public class SnapshotControl implements LiquibaseSerializable {
         }
         return shouldInclude(example.getClass());
     }
+
+    /**
+     * Returns the DataSource used to snapshot multiple schemas in parallel, or null if schemas are snapshot one after
+     * another on the connection of the database.
+     */
+    public DataSource getParallelDataSource() {
+        return parallelDataSource;
+    }
+
+    /**
+     * Returns the maximum number of schemas that are snapshot at the same time, each on its own connection.
+     */
+    public int getParallelThreads() {
+        return parallelThreads;
+    }
+
+    /**
+     * Snapshot multiple schemas in parallel. Each schema is snapshot independently on its own connection from the
+     * given DataSource, using at most <code>threads</code> connections at a time, and the results are merged into one
+     * snapshot. References between objects of different schemas are kept as referenced objects, just like when
+     * each schema is snapshot on its own.
+     * Any {@link SnapshotListener} must be thread safe when this is used.
+     *
+     * @param dataSource the DataSource to get connections from, or null to disable parallel snapshots
+     * @param threads the maximum number of schemas to snapshot at the same time
+     */
+    public SnapshotControl setParallelDataSource(DataSource dataSource, int threads) {
+        this.parallelDataSource = dataSource;
+        this.parallelThreads = threads;
+        return this;
+    }
+
+    /**
+     * Returns true if stored schema snapshots may be used, see {@link #setUsePersistedSnapshots(boolean)}.
+     */
+    public boolean shouldUsePersistedSnapshots() {
+        return usePersistedSnapshots;
+    }
+
+    /**
+     * Read the snapshot of each schema from, and store it in,
+     * {@link liquibase.configuration.GlobalConfiguration#getSnapshotCacheDirectory()} if that is set. Meant for
+     * snapshots of whole schemas such as the ones taken by diff and generateChangeLog; other snapshots are always
+     * taken from the database.
+     */
+    public SnapshotControl setUsePersistedSnapshots(boolean usePersistedSnapshots) {
+        this.usePersistedSnapshots = usePersistedSnapshots;
+        return this;
+    }
 }
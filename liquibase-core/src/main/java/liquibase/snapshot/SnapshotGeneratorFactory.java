@@ -2,24 +2,41 @@ package liquibase.snapshot;
 
 import liquibase.CatalogAndSchema;
 import liquibase.Scope;
+import liquibase.configuration.GlobalConfiguration;
+import liquibase.configuration.LiquibaseConfiguration;
 import liquibase.database.Database;
 import liquibase.database.DatabaseConnection;
+import liquibase.database.DatabaseFactory;
 import liquibase.database.OfflineConnection;
 import liquibase.database.core.PostgresDatabase;
+import liquibase.database.jvm.JdbcConnection;
 import liquibase.diff.compare.DatabaseObjectComparatorFactory;
 import liquibase.exception.DatabaseException;
 import liquibase.exception.UnexpectedLiquibaseException;
 import liquibase.executor.ExecutorService;
+import liquibase.logging.LogType;
+import liquibase.logging.Logger;
 import liquibase.servicelocator.ServiceLocator;
 import liquibase.statement.core.RawSqlStatement;
 import liquibase.structure.DatabaseObject;
+import liquibase.structure.core.Data;
 import liquibase.structure.core.Schema;
 import liquibase.structure.core.Table;
 
+import javax.sql.DataSource;
+import java.io.File;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class SnapshotGeneratorFactory {
 
+    private static final Logger LOG = Scope.getCurrentScope().getLog(SnapshotGeneratorFactory.class);
+
     private static SnapshotGeneratorFactory instance;
 
     private List<SnapshotGenerator> generators = new ArrayList<>();
@@ -185,9 +202,126 @@ public class SnapshotGeneratorFactory {
 
         }
 
+        GlobalConfiguration globalConfiguration = LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class);
+        String snapshotCacheDirectory = globalConfiguration.getSnapshotCacheDirectory();
+        boolean hashesData = globalConfiguration.getDiffDataRows() && (snapshotControl != null) && snapshotControl.shouldInclude(Data.class);
+        //a stored snapshot stays valid while the DDL does not change, which says nothing about the data it hashed
+        if ((snapshotCacheDirectory != null) && (snapshotControl != null) && snapshotControl.shouldUsePersistedSnapshots()
+                && (database.getConnection() instanceof JdbcConnection) && !hashesData) {
+            return new PersistedSnapshotCache(new File(snapshotCacheDirectory)).createSnapshot(schemas, database, snapshotControl);
+        }
+
+        if (canSnapshotInParallel(schemas, database, snapshotControl)) {
+            return createParallelSnapshot(schemas, database, snapshotControl);
+        }
+
         return createSnapshot(schemas, database, snapshotControl);
     }
 
+    /**
+     * Returns true if the given schemas are snapshot on connections from {@link SnapshotControl#getParallelDataSource()}.
+     */
+    boolean canSnapshotInParallel(Schema[] schemas, Database database, SnapshotControl snapshotControl) {
+        return (snapshotControl != null) && (snapshotControl.getParallelDataSource() != null)
+                && (snapshotControl.getParallelThreads() > 1) && (schemas.length > 1)
+                && (database.getConnection() instanceof JdbcConnection);
+    }
+
+    /**
+     * Snapshots each schema on its own connection from {@link SnapshotControl#getParallelDataSource()} and merges
+     * the per-schema snapshots into one.
+     */
+    protected DatabaseSnapshot createParallelSnapshot(Schema[] schemas, final Database database,
+                                                      SnapshotControl snapshotControl)
+            throws DatabaseException, InvalidExampleException {
+        DatabaseSnapshot snapshot = new RestoredDatabaseSnapshot(database, snapshotControl);
+        for (DatabaseSnapshot schemaSnapshot : snapshotSchemasInParallel(schemas, database, snapshotControl)) {
+            snapshot.merge(schemaSnapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Snapshots each schema on its own connection from {@link SnapshotControl#getParallelDataSource()} and returns
+     * the snapshots in the order of the schemas.
+     */
+    List<DatabaseSnapshot> snapshotSchemasInParallel(Schema[] schemas, final Database database,
+                                                     SnapshotControl snapshotControl)
+            throws DatabaseException, InvalidExampleException {
+        final DataSource dataSource = snapshotControl.getParallelDataSource();
+        int threads = Math.min(snapshotControl.getParallelThreads(), schemas.length);
+        LOG.info(LogType.LOG, "Snapshotting " + schemas.length + " schemas using " + threads + " connections");
+
+        java.util.concurrent.ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<DatabaseSnapshot>> futures = new ArrayList<>();
+        try {
+            for (final Schema schema : schemas) {
+                final SnapshotControl schemaSnapshotControl = new SnapshotControl(snapshotControl);
+                futures.add(pool.submit(new Callable<DatabaseSnapshot>() {
+                    @Override
+                    public DatabaseSnapshot call() throws Exception {
+                        Database schemaDatabase = openParallelDatabase(dataSource, database);
+                        try {
+                            //the connection of schemaDatabase is closed below, so the result refers to the passed database
+                            DatabaseSnapshot schemaSnapshot = new RestoredDatabaseSnapshot(database, schemaSnapshotControl);
+                            schemaSnapshot.merge(new JdbcDatabaseSnapshot(new DatabaseObject[]{schema}, schemaDatabase, schemaSnapshotControl));
+                            return schemaSnapshot;
+                        } finally {
+                            ExecutorService.getInstance().clearExecutor(schemaDatabase);
+                            schemaDatabase.close();
+                        }
+                    }
+                }));
+            }
+
+            List<DatabaseSnapshot> snapshots = new ArrayList<>();
+            for (Future<DatabaseSnapshot> future : futures) {
+                snapshots.add(future.get());
+            }
+            return snapshots;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DatabaseException) {
+                throw (DatabaseException) cause;
+            }
+            if (cause instanceof InvalidExampleException) {
+                throw (InvalidExampleException) cause;
+            }
+            throw new UnexpectedLiquibaseException(cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Opens a Database for a new connection from the given DataSource with the same settings as the passed database.
+     */
+    protected Database openParallelDatabase(DataSource dataSource, Database database) throws DatabaseException {
+        Connection connection;
+        try {
+            connection = dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+        try {
+            Database parallelDatabase = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            parallelDatabase.setDefaultCatalogName(database.getDefaultCatalogName());
+            parallelDatabase.setDefaultSchemaName(database.getDefaultSchemaName());
+            parallelDatabase.setObjectQuotingStrategy(database.getObjectQuotingStrategy());
+            return parallelDatabase;
+        } catch (DatabaseException | RuntimeException e) {
+            try {
+                connection.close();
+            } catch (SQLException ignore) {
+                // the original exception is more relevant
+            }
+            throw e;
+        }
+    }
+
     /**
      * Creates a database snapshot for a given array of DatabaseObjects
      *
@@ -1,11 +1,20 @@
 package liquibase.snapshot.jvm;
 
+import liquibase.configuration.GlobalConfiguration;
+import liquibase.configuration.LiquibaseConfiguration;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.diff.core.TableDataDiff;
 import liquibase.exception.DatabaseException;
 import liquibase.snapshot.DatabaseSnapshot;
 import liquibase.snapshot.InvalidExampleException;
 import liquibase.structure.DatabaseObject;
 import liquibase.structure.core.Data;
 import liquibase.structure.core.Table;
+import liquibase.util.JdbcUtils;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
 
 public class DataSnapshotGenerator extends JdbcSnapshotGenerator {
 
@@ -28,10 +37,52 @@ public class DataSnapshotGenerator extends JdbcSnapshotGenerator {
             try {
 
                 Data exampleData = new Data().setTable(table);
+                if (LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).getDiffDataRows()) {
+                    addContentHash(exampleData, snapshot.getDatabase());
+                }
                 table.setAttribute("data", exampleData);
             } catch (Exception e) {
                 throw new DatabaseException(e);
             }
         }
     }
+
+    /**
+     * Reads the whole table to store its row count and content hash, so tables with the same data compare as equal
+     * and only tables whose data differs have their rows compared.
+     */
+    protected void addContentHash(Data data, Database database) throws Exception {
+        Table table = data.getTable();
+        if (!(database.getConnection() instanceof JdbcConnection) || database.isLiquibaseObject(table)) {
+            return;
+        }
+
+        Statement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = ((JdbcConnection) database.getConnection()).createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(1000);
+            rs = stmt.executeQuery("SELECT * FROM " + database.escapeTableName(table.getSchema().getCatalogName(), table.getSchema().getName(), table.getName()));
+
+            String[] columnNames = new String[rs.getMetaData().getColumnCount()];
+            for (int i = 0; i < columnNames.length; i++) {
+                columnNames[i] = rs.getMetaData().getColumnName(i + 1);
+            }
+            Object[] values = new Object[columnNames.length];
+
+            long rowCount = 0;
+            long hash = 0;
+            while (rs.next()) {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = JdbcUtils.getResultSetValue(rs, i + 1);
+                }
+                hash += TableDataDiff.hashRow(columnNames, values);
+                rowCount++;
+            }
+            data.setRowCount(rowCount);
+            data.setContentHash(Long.toHexString(hash));
+        } finally {
+            JdbcUtils.close(rs, stmt);
+        }
+    }
 }
@@ -15,6 +15,8 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * SqlGeneratorFactory is a singleton registry of SqlGenerators.
@@ -25,10 +27,14 @@ public class SqlGeneratorFactory {
 
     private static SqlGeneratorFactory instance;
     //caches for expensive reflection based calls that slow down Liquibase initialization: CORE-1207
-    private final Map<Class<?>, Type[]> genericInterfacesCache = new HashMap<>();
-    private final Map<Class<?>, Type> genericSuperClassCache = new HashMap<>();
-    private List<SqlGenerator> generators = new ArrayList<>();
-    private Map<String, SortedSet<SqlGenerator>> generatorsByKey = new HashMap<>();
+    private final Map<Class<?>, Type[]> genericInterfacesCache = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Type> genericSuperClassCache = new ConcurrentHashMap<>();
+    private final List<SqlGenerator> generators = new GeneratorList();
+    /**
+     * Immutable generator chains by statement class, database and version. Replaced by a new, empty map whenever
+     * the registered generators change so a chain computed from an outdated generator list is never published.
+     */
+    private volatile Map<GeneratorKey, SortedSet<SqlGenerator>> generatorsByKey = new ConcurrentHashMap<>();
 
     private SqlGeneratorFactory() {
         try {
@@ -74,10 +80,18 @@ public class SqlGeneratorFactory {
     }
 
 
+    /**
+     * Returns the registered generators. Changes made to the returned list are picked up by
+     * {@link #getGenerators(SqlStatement, Database)}.
+     */
     protected Collection<SqlGenerator> getGenerators() {
         return generators;
     }
 
+    /**
+     * Returns the generators that support the given statement, highest priority first. The returned set is cached
+     * per statement class, database and database major version and cannot be modified.
+     */
     public SortedSet<SqlGenerator> getGenerators(SqlStatement statement, Database database) {
         String databaseName = null;
         if (database == null) {
@@ -97,18 +111,17 @@ public class SqlGeneratorFactory {
             }
         }
 
-        String key = statement.getClass().getName()+":"+ databaseName+":"+ version;
+        GeneratorKey key = new GeneratorKey(statement.getClass(), databaseName, version);
 
-        if (generatorsByKey.containsKey(key) && !generatorsByKey.get(key).isEmpty()) {
-            SortedSet<SqlGenerator> result = new TreeSet<>(new SqlGeneratorComparator());
-            result.addAll(generatorsByKey.get(key));
-            result.retainAll(getGenerators());
-            return result;
+        Map<GeneratorKey, SortedSet<SqlGenerator>> cache = generatorsByKey;
+        SortedSet<SqlGenerator> cached = cache.get(key);
+        if (cached != null) {
+            return cached;
         }
 
         SortedSet<SqlGenerator> validGenerators = new TreeSet<>(new SqlGeneratorComparator());
 
-        for (SqlGenerator generator : getGenerators()) {
+        for (SqlGenerator generator : ((GeneratorList) generators).snapshot()) {
             Class clazz = generator.getClass();
             Type classType = null;
             while (clazz != null) {
@@ -130,25 +143,34 @@ public class SqlGeneratorFactory {
                 clazz = clazz.getSuperclass();
             }
         }
-        generatorsByKey.put(key, validGenerators);
-        return validGenerators;
+        SortedSet<SqlGenerator> result = Collections.unmodifiableSortedSet(validGenerators);
+        if (!result.isEmpty()) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    private void clearGeneratorCache() {
+        generatorsByKey = new ConcurrentHashMap<>();
     }
 
     private Type[] getGenericInterfaces(Class<?> clazz) {
-        if(genericInterfacesCache.containsKey(clazz)) {
-            return genericInterfacesCache.get(clazz);
+        Type[] genericInterfaces = genericInterfacesCache.get(clazz);
+        if (genericInterfaces == null) {
+            genericInterfaces = clazz.getGenericInterfaces();
+            genericInterfacesCache.put(clazz, genericInterfaces);
         }
-        Type[] genericInterfaces = clazz.getGenericInterfaces();
-        genericInterfacesCache.put(clazz, genericInterfaces);
         return genericInterfaces;
     }
 
     private Type getGenericSuperclass(Class<?> clazz) {
-        if(genericSuperClassCache.containsKey(clazz)) {
-            return genericSuperClassCache.get(clazz);
+        Type genericSuperclass = genericSuperClassCache.get(clazz);
+        if (genericSuperclass == null) {
+            genericSuperclass = clazz.getGenericSuperclass();
+            if (genericSuperclass != null) { //null for Object and interfaces, which ConcurrentHashMap cannot hold
+                genericSuperClassCache.put(clazz, genericSuperclass);
+            }
         }
-        Type genericSuperclass = clazz.getGenericSuperclass();
-        genericSuperClassCache.put(clazz, genericSuperclass);
         return genericSuperclass;
     }
 
@@ -271,4 +293,81 @@ public class SqlGeneratorFactory {
         }
         return affectedObjects;
     }
+
+    /**
+     * Key of {@link #generatorsByKey}.
+     */
+    private static final class GeneratorKey {
+        private final Class<? extends SqlStatement> statementClass;
+        private final String databaseName;
+        private final int version;
+
+        private GeneratorKey(Class<? extends SqlStatement> statementClass, String databaseName, int version) {
+            this.statementClass = statementClass;
+            this.databaseName = databaseName;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof GeneratorKey)) {
+                return false;
+            }
+            GeneratorKey that = (GeneratorKey) o;
+            return (version == that.version)
+                    && statementClass.equals(that.statementClass)
+                    && Objects.equals(databaseName, that.databaseName);
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * ((31 * statementClass.hashCode()) + Objects.hashCode(databaseName))) + version;
+        }
+    }
+
+    /**
+     * List of the registered generators that clears the generator cache whenever it is modified, including through
+     * {@link #getGenerators()}. Reads go to a copy-on-write list so chains can be computed while other threads
+     * register generators.
+     */
+    private final class GeneratorList extends AbstractList<SqlGenerator> {
+        private final List<SqlGenerator> delegate = new CopyOnWriteArrayList<>();
+
+        @Override
+        public SqlGenerator get(int index) {
+            return delegate.get(index);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public SqlGenerator set(int index, SqlGenerator element) {
+            SqlGenerator previous = delegate.set(index, element);
+            clearGeneratorCache();
+            return previous;
+        }
+
+        @Override
+        public void add(int index, SqlGenerator element) {
+            delegate.add(index, element);
+            clearGeneratorCache();
+        }
+
+        @Override
+        public SqlGenerator remove(int index) {
+            SqlGenerator removed = delegate.remove(index);
+            clearGeneratorCache();
+            return removed;
+        }
+
+        private Iterable<SqlGenerator> snapshot() {
+            return delegate;
+        }
+    }
 }
@@ -15,6 +15,12 @@ import java.util.Date;
 
 public class InsertGenerator extends AbstractSqlGenerator<InsertStatement> {
 
+    /**
+     * The escaped "INSERT INTO table (columns) VALUES " part only depends on the table and columns, so it is built
+     * once per statement shape instead of for every row.
+     */
+    private static final SqlTemplateCache HEADERS = new SqlTemplateCache();
+
 	private boolean previousInsertHasHeader;
     @Override
     public ValidationErrors validate(InsertStatement insertStatement, Database database, SqlGeneratorChain sqlGeneratorChain) {
@@ -51,10 +57,21 @@ public class InsertGenerator extends AbstractSqlGenerator<InsertStatement> {
     }
     
     public void generateHeader(StringBuilder sql,InsertStatement statement, Database database) {
+        String[] columns = statement.getColumnValues().keySet().toArray(new String[0]);
+        String header = (String) HEADERS.get(database, statement.getCatalogName(), statement.getSchemaName(), statement.getTableName(), columns);
+        if (header == null) {
+            header = createHeader(statement, columns, database);
+            HEADERS.put(header, database, statement.getCatalogName(), statement.getSchemaName(), statement.getTableName(), columns);
+        }
+        sql.append(header);
+    }
+
+    private String createHeader(InsertStatement statement, String[] columns, Database database) {
+        StringBuilder sql = new StringBuilder();
         sql.append("INSERT INTO ")
             .append(database.escapeTableName(statement.getCatalogName(), statement.getSchemaName(), statement.getTableName()))
             .append(" (");
-        for (String column : statement.getColumnValues().keySet()) {
+        for (String column : columns) {
             sql.append(database.escapeColumnName(statement.getCatalogName(), statement.getSchemaName(), statement.getTableName(), column)).append(", ");
         }
         sql.deleteCharAt(sql.lastIndexOf(" "));
@@ -64,6 +81,7 @@ public class InsertGenerator extends AbstractSqlGenerator<InsertStatement> {
         }
 
         sql.append(") VALUES ");
+        return sql.toString();
     }
 
     public void generateValues(StringBuilder sql,InsertStatement statement, Database database) {
@@ -35,11 +35,12 @@ public class InsertSetGenerator extends AbstractSqlGenerator<InsertSetStatement>
 		StringBuilder sql = new StringBuilder();
 		generateHeader(sql, statement, database);
 
+		InsertGenerator insertGenerator = getInsertGenerator(database);
 		ArrayList<Sql> result = new ArrayList<>();
 		int index = 0;
 		for (InsertStatement sttmnt : statement.getStatements()) {
 			index++;
-			getInsertGenerator(database).generateValues(sql, sttmnt, database);
+			insertGenerator.generateValues(sql, sttmnt, database);
 			sql.append(",");
 			if (index > statement.getBatchThreshold()) {
 				result.add(completeStatement(statement, sql));
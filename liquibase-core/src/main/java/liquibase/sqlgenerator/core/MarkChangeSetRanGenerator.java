@@ -39,6 +39,18 @@ public class MarkChangeSetRanGenerator extends AbstractSqlGenerator<MarkChangeSe
 
     @Override
     public Sql[] generateSql(MarkChangeSetRanStatement statement, Database database, SqlGeneratorChain sqlGeneratorChain) {
+        SqlStatement runStatement = createRunStatement(statement, database);
+        if (runStatement == null) {
+            return new Sql[0]; //don't mark
+        }
+        return SqlGeneratorFactory.getInstance().generateSql(runStatement, database);
+    }
+
+    /**
+     * Returns the {@link InsertStatement} or {@link UpdateStatement} that records the changeSet of the given
+     * statement in the DATABASECHANGELOG table, or null if the changeSet should not be marked.
+     */
+    public SqlStatement createRunStatement(MarkChangeSetRanStatement statement, Database database) {
         String dateValue = database.getCurrentDateTimeFunction();
 
         ChangeSet changeSet = statement.getChangeSet();
@@ -46,7 +58,7 @@ public class MarkChangeSetRanGenerator extends AbstractSqlGenerator<MarkChangeSe
         SqlStatement runStatement;
         try {
             if (statement.getExecType().equals(ChangeSet.ExecType.FAILED) || statement.getExecType().equals(ChangeSet.ExecType.SKIPPED)) {
-                return new Sql[0]; //don't mark
+                return null;
             }
 
             String tag = null;
@@ -98,7 +110,7 @@ public class MarkChangeSetRanGenerator extends AbstractSqlGenerator<MarkChangeSe
             throw new UnexpectedLiquibaseException(e);
         }
 
-        return SqlGeneratorFactory.getInstance().generateSql(runStatement, database);
+        return runStatement;
     }
 
     private String buildFullContext(ChangeSet changeSet) {
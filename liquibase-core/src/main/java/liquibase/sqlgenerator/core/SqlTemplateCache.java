@@ -0,0 +1,100 @@
+package liquibase.sqlgenerator.core;
+
+import liquibase.database.AbstractJdbcDatabase;
+import liquibase.database.Database;
+import liquibase.database.ObjectQuotingStrategy;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * Caches the parts of generated SQL that only depend on the shape of a statement, like the escaped
+ * <code>INSERT INTO table (col1, col2) VALUES </code> header, so that generating SQL for many statements which only
+ * differ in their values does not escape the same table and column names again for every row.
+ * <p>
+ * Templates are cached per {@link Database} instance together with the settings that affect escaping: the quoting
+ * strategy, the default catalog and schema and, for {@link AbstractJdbcDatabase}s, the
+ * {@link AbstractJdbcDatabase#getEscapeSettingsVersion() version} of the reserved words and quoting settings. The
+ * database is only weakly referenced and the number of cached templates is bounded, so the cache does not keep
+ * databases alive.
+ */
+final class SqlTemplateCache {
+
+    private static final int MAX_TEMPLATES = 1000;
+
+    private final Map<TemplateKey, Object> templates = Collections.synchronizedMap(new LinkedHashMap<TemplateKey, Object>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TemplateKey, Object> eldest) {
+            return size() > MAX_TEMPLATES;
+        }
+    });
+
+    /**
+     * Returns the template cached for the given statement shape, or null if there is none.
+     *
+     * @param shape the parts of the statement the template depends on, like the table and column names
+     */
+    Object get(Database database, Object... shape) {
+        return templates.get(new TemplateKey(database, shape));
+    }
+
+    void put(Object template, Database database, Object... shape) {
+        templates.put(new TemplateKey(database, shape), template);
+    }
+
+    int size() {
+        return templates.size();
+    }
+
+    private static final class TemplateKey {
+        private final WeakReference<Database> database;
+        private final int databaseHash;
+        private final ObjectQuotingStrategy quotingStrategy;
+        private final int escapeSettingsVersion;
+        private final String defaultCatalogName;
+        private final String defaultSchemaName;
+        private final boolean outputDefaultCatalog;
+        private final boolean outputDefaultSchema;
+        private final Object[] shape;
+        private final int hashCode;
+
+        TemplateKey(Database database, Object[] shape) {
+            this.database = new WeakReference<>(database);
+            this.databaseHash = System.identityHashCode(database);
+            this.quotingStrategy = database.getObjectQuotingStrategy();
+            this.escapeSettingsVersion = (database instanceof AbstractJdbcDatabase) ? ((AbstractJdbcDatabase) database).getEscapeSettingsVersion() : 0;
+            this.defaultCatalogName = database.getDefaultCatalogName();
+            this.defaultSchemaName = database.getDefaultSchemaName();
+            this.outputDefaultCatalog = database.getOutputDefaultCatalog();
+            this.outputDefaultSchema = database.getOutputDefaultSchema();
+            this.shape = shape;
+            this.hashCode = (31 * databaseHash) + Arrays.deepHashCode(shape);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TemplateKey)) {
+                return false;
+            }
+            TemplateKey that = (TemplateKey) o;
+            Database thisDatabase = this.database.get();
+            return (thisDatabase != null) && (thisDatabase == that.database.get())
+                    && (hashCode == that.hashCode)
+                    && (quotingStrategy == that.quotingStrategy)
+                    && (escapeSettingsVersion == that.escapeSettingsVersion)
+                    && Objects.equals(defaultCatalogName, that.defaultCatalogName)
+                    && Objects.equals(defaultSchemaName, that.defaultSchemaName)
+                    && (outputDefaultCatalog == that.outputDefaultCatalog)
+                    && (outputDefaultSchema == that.outputDefaultSchema)
+                    && Arrays.deepEquals(shape, that.shape);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
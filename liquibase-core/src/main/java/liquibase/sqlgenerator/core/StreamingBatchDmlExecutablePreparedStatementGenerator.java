@@ -0,0 +1,22 @@
+package liquibase.sqlgenerator.core;
+
+import liquibase.database.Database;
+import liquibase.exception.ValidationErrors;
+import liquibase.sql.Sql;
+import liquibase.sqlgenerator.SqlGeneratorChain;
+import liquibase.statement.StreamingBatchDmlExecutablePreparedStatement;
+
+/**
+ * Dummy SQL generator for ${@link liquibase.statement.StreamingBatchDmlExecutablePreparedStatement}
+ */
+public class StreamingBatchDmlExecutablePreparedStatementGenerator extends AbstractSqlGenerator<StreamingBatchDmlExecutablePreparedStatement>  {
+    @Override
+    public ValidationErrors validate(StreamingBatchDmlExecutablePreparedStatement statement, Database database, SqlGeneratorChain sqlGeneratorChain) {
+        return new ValidationErrors();
+    }
+
+    @Override
+    public Sql[] generateSql(StreamingBatchDmlExecutablePreparedStatement statement, Database database, SqlGeneratorChain sqlGeneratorChain) {
+        return new Sql[0];
+    }
+}
@@ -17,6 +17,8 @@ import static liquibase.util.SqlUtil.replacePredicatePlaceholders;
 
 public class UpdateGenerator extends AbstractSqlGenerator<UpdateStatement> {
 
+    private static final SqlTemplateCache TEMPLATES = new SqlTemplateCache();
+
     @Override
     public ValidationErrors validate(UpdateStatement updateStatement, Database database, SqlGeneratorChain sqlGeneratorChain) {
         ValidationErrors validationErrors = new ValidationErrors();
@@ -31,14 +33,12 @@ public class UpdateGenerator extends AbstractSqlGenerator<UpdateStatement> {
 
     @Override
     public Sql[] generateSql(UpdateStatement statement, Database database, SqlGeneratorChain sqlGeneratorChain) {
-        StringBuilder sql = new StringBuilder("UPDATE ")
-            .append(database.escapeTableName(statement.getCatalogName(), statement.getSchemaName(), statement.getTableName()))
-            .append(" SET");
-        for (String column : statement.getNewColumnValues().keySet()) {
-            sql.append(" ")
-                .append(database.escapeColumnName(statement.getCatalogName(), statement.getSchemaName(), statement.getTableName(), column))
-                .append(" = ")
-                .append(convertToString(statement.getNewColumnValues().get(column), database))
+        String[] columns = statement.getNewColumnValues().keySet().toArray(new String[0]);
+        String[] template = getTemplate(statement, columns, database);
+        StringBuilder sql = new StringBuilder(template[0]);
+        for (int i = 0; i < columns.length; i++) {
+            sql.append(template[i + 1])
+                .append(convertToString(statement.getNewColumnValues().get(columns[i]), database))
                 .append(",");
         }
 
@@ -55,6 +55,23 @@ public class UpdateGenerator extends AbstractSqlGenerator<UpdateStatement> {
         };
     }
 
+    /**
+     * Returns the "UPDATE table SET" prefix followed by the " column = " part of every column, escaped for the given
+     * database.
+     */
+    private String[] getTemplate(UpdateStatement statement, String[] columns, Database database) {
+        String[] template = (String[]) TEMPLATES.get(database, statement.getCatalogName(), statement.getSchemaName(), statement.getTableName(), columns);
+        if (template == null) {
+            template = new String[columns.length + 1];
+            template[0] = "UPDATE " + database.escapeTableName(statement.getCatalogName(), statement.getSchemaName(), statement.getTableName()) + " SET";
+            for (int i = 0; i < columns.length; i++) {
+                template[i + 1] = " " + database.escapeColumnName(statement.getCatalogName(), statement.getSchemaName(), statement.getTableName(), columns[i]) + " = ";
+            }
+            TEMPLATES.put(template, database, statement.getCatalogName(), statement.getSchemaName(), statement.getTableName(), columns);
+        }
+        return template;
+    }
+
     protected Relation getAffectedTable(UpdateStatement statement) {
         return new Table().setName(statement.getTableName()).setSchema(statement.getCatalogName(), statement.getSchemaName());
     }
@@ -12,7 +12,6 @@ import liquibase.logging.LogType;
 import liquibase.logging.Logger;
 import liquibase.resource.InputStreamList;
 import liquibase.resource.ResourceAccessor;
-import liquibase.util.JdbcUtils;
 import liquibase.util.StreamUtil;
 import liquibase.util.file.FilenameUtils;
 
@@ -81,14 +80,22 @@ public abstract class ExecutablePreparedStatementBase implements ExecutablePrepa
         } catch (SQLException e) {
             throw new DatabaseException(e);
         } finally {
-            for (Closeable closeable : closeables) {
-                try {
-                    closeable.close();
-                } catch (IOException ignore) {
-                }
+            closeResources();
+            factory.release(sql, stmt);
+        }
+    }
+
+    /**
+     * Closes all streams that were opened while binding LOB parameters since the last call.
+     */
+    protected void closeResources() {
+        for (Closeable closeable : closeables) {
+            try {
+                closeable.close();
+            } catch (IOException ignore) {
             }
-            JdbcUtils.closeStatement(stmt);
         }
+        closeables.clear();
     }
 
     protected void executePreparedStatement(PreparedStatement stmt) throws SQLException {
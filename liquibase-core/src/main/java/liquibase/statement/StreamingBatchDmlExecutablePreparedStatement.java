@@ -0,0 +1,210 @@
+package liquibase.statement;
+
+import liquibase.Scope;
+import liquibase.change.ColumnConfig;
+import liquibase.change.core.LoadDataColumnConfig;
+import liquibase.changelog.ChangeSet;
+import liquibase.database.Database;
+import liquibase.database.PreparedStatementFactory;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.UnexpectedLiquibaseException;
+import liquibase.logging.LogType;
+import liquibase.logging.Logger;
+import liquibase.resource.ResourceAccessor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming variant of {@link BatchDmlExecutablePreparedStatement}. Instead of holding every row in memory, the rows
+ * are pulled lazily from a {@link RowSource} while the statement executes. All rows are bound into one reused
+ * {@link PreparedStatement} which is flushed with {@link java.sql.Statement#executeBatch()} every
+ * <code>batchSize</code> rows and, optionally, committed every <code>batchesPerCommit</code> batches. Memory use
+ * therefore stays flat regardless of the number of rows.
+ * <p>
+ * Note that committing in between batches means a failure part way through leaves the already committed rows in
+ * the database.
+ */
+public class StreamingBatchDmlExecutablePreparedStatement extends ExecutablePreparedStatementBase {
+
+    /**
+     * Minimum time between two progress messages
+     */
+    private static final long PROGRESS_INTERVAL_MILLIS = 10_000;
+
+    private final Logger LOG = Scope.getCurrentScope().getLog(getClass());
+
+    private final RowSource rowSource;
+    private final int batchSize;
+    private final int batchesPerCommit;
+
+    private long rowsExecuted;
+
+    /**
+     * @param batchSize        number of rows sent to the database with each {@link java.sql.Statement#executeBatch()}
+     * @param batchesPerCommit number of batches after which the transaction is committed. 0 or less to never commit
+     *                         in between batches.
+     */
+    public StreamingBatchDmlExecutablePreparedStatement(
+            Database database, String catalogName, String schemaName, String tableName,
+            List<LoadDataColumnConfig> columns, ChangeSet changeSet, ResourceAccessor resourceAccessor,
+            RowSource rowSource, int batchSize, int batchesPerCommit) {
+        super(database, catalogName, schemaName, tableName, new ArrayList<ColumnConfig>(columns), changeSet,
+            resourceAccessor);
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be greater than 0");
+        }
+        this.rowSource = rowSource;
+        this.batchSize = batchSize;
+        this.batchesPerCommit = batchesPerCommit;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getBatchesPerCommit() {
+        return batchesPerCommit;
+    }
+
+    /**
+     * Returns the number of rows sent to the database by the last call to {@link #execute(PreparedStatementFactory)}.
+     */
+    public long getRowsExecuted() {
+        return rowsExecuted;
+    }
+
+    @Override
+    public void execute(PreparedStatementFactory factory) throws DatabaseException {
+        rowsExecuted = 0;
+        long startTime = System.currentTimeMillis();
+        long lastProgressTime = startTime;
+        int rowsInBatch = 0;
+        int batchesSinceCommit = 0;
+
+        Rows rows = rowSource.open();
+        PreparedStatement stmt = null;
+        String sql = null;
+        try {
+            ExecutablePreparedStatementBase row;
+            while ((row = rows.next()) != null) {
+                if (stmt == null) {
+                    // By convention, all of the rows are the same statement except the bind values. So the first
+                    // row is used to generate the SQL for all of them.
+                    sql = row.generateSql(new ArrayList<ColumnConfig>());
+                    LOG.info(LogType.WRITE_SQL, sql);
+                    stmt = factory.create(sql);
+                }
+
+                attachParams(row.getColumns(), stmt);
+                stmt.addBatch();
+                rowsInBatch++;
+
+                if (rowsInBatch >= batchSize) {
+                    executeBatch(stmt, rowsInBatch);
+                    rowsInBatch = 0;
+                    batchesSinceCommit++;
+
+                    if ((batchesPerCommit > 0) && (batchesSinceCommit >= batchesPerCommit)) {
+                        database.commit();
+                        batchesSinceCommit = 0;
+                        LOG.fine(LogType.LOG, "Committed after " + rowsExecuted + " rows");
+                    }
+
+                    long now = System.currentTimeMillis();
+                    if ((now - lastProgressTime) >= PROGRESS_INTERVAL_MILLIS) {
+                        LOG.info(LogType.LOG, String.format("Loaded %d rows into %s so far (%d rows/sec)",
+                                rowsExecuted, getTableName(), rowsPerSecond(rowsExecuted, now - startTime)));
+                        lastProgressTime = now;
+                    }
+                }
+            }
+
+            if (rowsInBatch > 0) {
+                executeBatch(stmt, rowsInBatch);
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        } finally {
+            closeResources();
+            factory.release(sql, stmt);
+            try {
+                rows.close();
+            } catch (IOException ignore) {
+                // Do nothing
+            }
+        }
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        LOG.info(LogType.LOG, String.format("Loaded %d rows into %s in %d ms (%d rows/sec)",
+                rowsExecuted, getTableName(), elapsed, rowsPerSecond(rowsExecuted, elapsed)));
+    }
+
+    private void executeBatch(PreparedStatement stmt, int rowsInBatch) throws SQLException {
+        stmt.executeBatch();
+        stmt.clearBatch();
+        closeResources();
+        rowsExecuted += rowsInBatch;
+    }
+
+    private static long rowsPerSecond(long rows, long elapsedMillis) {
+        if (elapsedMillis <= 0) {
+            return rows;
+        }
+        return (rows * 1000) / elapsedMillis;
+    }
+
+    /**
+     * Returns the SQL shared by all of the rows, which by convention is the SQL of the first row. Returns null if
+     * the row source is empty.
+     */
+    @Override
+    protected String generateSql(List<ColumnConfig> cols) {
+        Rows rows = null;
+        try {
+            rows = rowSource.open();
+            ExecutablePreparedStatementBase row = rows.next();
+            if (row == null) {
+                return null;
+            }
+            return row.generateSql(cols);
+        } catch (DatabaseException e) {
+            throw new UnexpectedLiquibaseException(e);
+        } finally {
+            if (rows != null) {
+                try {
+                    rows.close();
+                } catch (IOException ignore) {
+                    // Do nothing
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean continueOnError() {
+        return false;
+    }
+
+    /**
+     * Supplies the rows for a {@link StreamingBatchDmlExecutablePreparedStatement}. {@link #open()} is called each
+     * time the statement executes, so the rows are only read when they are actually needed.
+     */
+    public interface RowSource {
+        Rows open() throws DatabaseException;
+    }
+
+    /**
+     * Cursor over the rows of a {@link RowSource}.
+     */
+    public interface Rows extends Closeable {
+        /**
+         * Returns the statement for the next row, or null if there are no more rows.
+         */
+        ExecutablePreparedStatementBase next() throws DatabaseException;
+    }
+}
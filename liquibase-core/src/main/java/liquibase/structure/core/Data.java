@@ -20,6 +20,33 @@ public class Data extends AbstractDatabaseObject {
         return this;
     }
 
+    /**
+     * Number of rows in the table. Only snapshotted if {@link liquibase.configuration.GlobalConfiguration#DIFF_DATA_ROWS} is set.
+     */
+    public Long getRowCount() {
+        return getAttribute("rowCount", Long.class);
+    }
+
+    public Data setRowCount(Long rowCount) {
+        setAttribute("rowCount", rowCount);
+
+        return this;
+    }
+
+    /**
+     * Hash of all values in the table that does not depend on the order of the rows, so tables with the same content
+     * in two databases have the same hash. Only snapshotted if {@link liquibase.configuration.GlobalConfiguration#DIFF_DATA_ROWS} is set.
+     */
+    public String getContentHash() {
+        return getAttribute("contentHash", String.class);
+    }
+
+    public Data setContentHash(String contentHash) {
+        setAttribute("contentHash", contentHash);
+
+        return this;
+    }
+
 
     @Override
     public DatabaseObject[] getContainingObjects() {
@@ -562,6 +562,25 @@ public class StringUtil {
         return clean1.equalsIgnoreCase(clean2);
     }
 
+    /**
+     * Returns a version of the string where all characters that {@link String#equalsIgnoreCase(String)} considers
+     * equal are mapped to the same character. Useful as key for case-insensitive lookups in hash based collections:
+     * <code>foldCase(s1).equals(foldCase(s2))</code> gives the same result as <code>s1.equalsIgnoreCase(s2)</code>.
+     *
+     * @param string the String to fold (or null)
+     * @return the folded String, or null if null was passed
+     */
+    public static String foldCase(String string) {
+        if (string == null) {
+            return null;
+        }
+        char[] chars = string.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
     /**
      * Trims {@link Character#isWhitespace(char) whitespace} characters from the
      * end of specified <code>string</code>
@@ -0,0 +1,216 @@
+package liquibase.util.beans;
+
+import liquibase.util.StringUtil;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Reads and writes one bean property without going through {@link java.lang.reflect.Method#invoke} on every call.
+ * The accessors of a class are built once from the {@link PropertyUtils} descriptors and cached. Where the class is
+ * visible to Liquibase's class loader, the read and write methods are bound to {@link Function} and {@link BiConsumer}
+ * lambdas through {@link LambdaMetafactory}; otherwise they are called through a {@link MethodHandle}.
+ */
+public final class PropertyAccessor {
+
+    private static final Map<Class<?>, Map<String, PropertyAccessor>> ACCESSORS = new ConcurrentHashMap<>();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final String name;
+    private final Class<?> writeType;
+    private final Function<Object, Object> reader;
+    private final BiConsumer<Object, Object> writer;
+
+    private PropertyAccessor(String name, Class<?> writeType, Function<Object, Object> reader, BiConsumer<Object, Object> writer) {
+        this.name = name;
+        this.writeType = writeType;
+        this.reader = reader;
+        this.writer = writer;
+    }
+
+    /**
+     * Returns the accessors for the properties of the given class, keyed by the display name of their descriptor.
+     */
+    public static Map<String, PropertyAccessor> getAccessors(Class<?> targetClass) throws IntrospectionException {
+        Map<String, PropertyAccessor> accessors = ACCESSORS.get(targetClass);
+        if (accessors == null) {
+            accessors = createAccessors(targetClass);
+            ACCESSORS.put(targetClass, accessors);
+        }
+        return accessors;
+    }
+
+    /**
+     * Returns the accessor for the given property, or null if the class has no such property.
+     */
+    public static PropertyAccessor getAccessor(Class<?> targetClass, String name) throws IntrospectionException {
+        return getAccessors(targetClass).get(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the parameter type of the write method, or null if the property is read-only.
+     */
+    public Class<?> getWriteType() {
+        return writeType;
+    }
+
+    public boolean isReadable() {
+        return reader != null;
+    }
+
+    public boolean isWritable() {
+        return writer != null;
+    }
+
+    public Object getValue(Object bean) {
+        if (reader == null) {
+            throw new IllegalStateException("Property " + name + " is not readable");
+        }
+        return reader.apply(bean);
+    }
+
+    public void setValue(Object bean, Object value) {
+        if (writer == null) {
+            throw new IllegalStateException("Property " + name + " is not writable");
+        }
+        writer.accept(bean, value);
+    }
+
+    private static Map<String, PropertyAccessor> createAccessors(Class<?> targetClass) throws IntrospectionException {
+        Map<String, PropertyAccessor> accessors = new HashMap<>();
+        for (PropertyDescriptor descriptor : PropertyUtils.getInstance().getDescriptors(targetClass)) {
+            Method readMethod = descriptor.getReadMethod();
+            if (readMethod == null) {
+                try {
+                    readMethod = targetClass.getMethod("is" + StringUtil.upperCaseFirst(descriptor.getName()));
+                } catch (NoSuchMethodException e) {
+                    readMethod = null;
+                }
+            }
+            Method writeMethod = descriptor.getWriteMethod();
+            accessors.put(descriptor.getDisplayName(), new PropertyAccessor(descriptor.getDisplayName(),
+                    (writeMethod == null) ? null : writeMethod.getParameterTypes()[0],
+                    (readMethod == null) ? null : createReader(targetClass, readMethod),
+                    (writeMethod == null) ? null : createWriter(targetClass, writeMethod)));
+        }
+        return Collections.unmodifiableMap(accessors);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createReader(Class<?> targetClass, Method method) {
+        MethodHandle handle = unreflect(method);
+        if (handle == null) {
+            return bean -> invoke(method, bean);
+        }
+        if (canBindLambda(targetClass, method)) {
+            try {
+                CallSite callSite = LambdaMetafactory.metafactory(MethodHandles.lookup(), "apply",
+                        MethodType.methodType(Function.class), GETTER_TYPE, handle, handle.type().wrap());
+                return (Function<Object, Object>) callSite.getTarget().invokeExact();
+            } catch (Throwable e) {
+                //fall back to the method handle
+            }
+        }
+        MethodHandle getter = handle.asType(GETTER_TYPE);
+        return bean -> {
+            try {
+                return getter.invokeExact(bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> createWriter(Class<?> targetClass, Method method) {
+        MethodHandle handle = unreflect(method);
+        if (handle == null) {
+            return (bean, value) -> invoke(method, bean, value);
+        }
+        if (canBindLambda(targetClass, method)) {
+            try {
+                CallSite callSite = LambdaMetafactory.metafactory(MethodHandles.lookup(), "accept",
+                        MethodType.methodType(BiConsumer.class), SETTER_TYPE, handle,
+                        handle.type().wrap().changeReturnType(void.class));
+                return (BiConsumer<Object, Object>) callSite.getTarget().invokeExact();
+            } catch (Throwable e) {
+                //fall back to the method handle
+            }
+        }
+        MethodHandle setter = handle.asType(handle.type().changeReturnType(void.class)).asType(SETTER_TYPE);
+        return (bean, value) -> {
+            try {
+                setter.invokeExact(bean, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * Returns a handle for the method, or null if it can only be called through reflection. Public methods of
+     * non-public classes are made accessible, as the bean is usually not in this package.
+     */
+    private static MethodHandle unreflect(Method method) {
+        try {
+            return MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            try {
+                method.setAccessible(true);
+            } catch (RuntimeException ignore) {
+                //call it as it is
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Lambdas are defined next to this class, so the bean class and the method must be public and resolvable from
+     * this class's class loader.
+     */
+    private static boolean canBindLambda(Class<?> targetClass, Method method) {
+        if (!Modifier.isPublic(targetClass.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            return false;
+        }
+        try {
+            ClassLoader classLoader = PropertyAccessor.class.getClassLoader();
+            return (Class.forName(targetClass.getName(), false, classLoader) == targetClass)
+                    && (Class.forName(method.getDeclaringClass().getName(), false, classLoader) == method.getDeclaringClass());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static Object invoke(Method method, Object bean, Object... args) {
+        try {
+            return method.invoke(bean, args);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
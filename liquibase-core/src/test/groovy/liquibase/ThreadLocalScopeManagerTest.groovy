@@ -0,0 +1,106 @@
+package liquibase
+
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CyclicBarrier
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class ThreadLocalScopeManagerTest extends Specification {
+
+    def setup() {
+        Scope.setScopeManager(new ThreadLocalScopeManager())
+    }
+
+    def cleanup() {
+        Scope.setScopeManager(new SingletonScopeManager())
+    }
+
+    def "nesting scopes works"() {
+        expect:
+        Scope.currentScope.get("test1", String) == null
+
+        Scope.child([test1: "Level 1"], {
+            assert Scope.currentScope.get("test1", String) == "Level 1"
+
+            Scope.child([test1: "Level 2"], {
+                assert Scope.currentScope.get("test1", String) == "Level 2"
+            })
+
+            assert Scope.currentScope.get("test1", String) == "Level 1"
+        })
+
+        Scope.currentScope.get("test1", String) == null
+        Scope.currentScope.getParent() == null
+    }
+
+    def "threads do not see each other's scopes"() {
+        when:
+        def threads = 4
+        def barrier = new CyclicBarrier(threads)
+        def executor = Executors.newFixedThreadPool(threads)
+        def results = (1..threads).collect { index ->
+            executor.submit({
+                Scope.child([test: "thread " + index], {
+                    barrier.await(10, TimeUnit.SECONDS)
+                    assert Scope.currentScope.get("test", String) == "thread " + index
+                    barrier.await(10, TimeUnit.SECONDS)
+                })
+                return Scope.currentScope.get("test", String)
+            })
+        }
+        def afterChild = results*.get(10, TimeUnit.SECONDS)
+        executor.shutdown()
+
+        then:
+        afterChild == [null] * threads
+        Scope.currentScope.get("test", String) == null
+    }
+
+    def "threads created in a child scope start in the root scope"() {
+        when:
+        def executor = null
+        def seenInChild = null
+        Scope.child([test: "parent"], {
+            executor = Executors.newSingleThreadExecutor()
+            seenInChild = executor.submit({ Scope.currentScope.get("test", String) } as Callable).get(10, TimeUnit.SECONDS)
+        })
+        def seenAfterChild = executor.submit({ Scope.currentScope } as Callable).get(10, TimeUnit.SECONDS)
+        executor.shutdown()
+
+        then:
+        seenInChild == null
+        seenAfterChild.is(Scope.currentScope)
+        seenAfterChild.getParent() == null
+    }
+
+    def "concurrent threads get the same singleton"() {
+        when:
+        def threads = 8
+        def barrier = new CyclicBarrier(threads)
+        def executor = Executors.newFixedThreadPool(threads)
+        def results = (1..threads).collect {
+            executor.submit({
+                barrier.await(10, TimeUnit.SECONDS)
+                return Scope.currentScope.getSingleton(TestSingleton)
+            } as Callable)
+        }
+        def singletons = results*.get(10, TimeUnit.SECONDS)
+        executor.shutdown()
+
+        then:
+        singletons.unique(false) { System.identityHashCode(it) }.size() == 1
+        TestSingleton.created.get() == 1
+    }
+
+    static class TestSingleton implements SingletonObject {
+        static final AtomicInteger created = new AtomicInteger()
+
+        private TestSingleton() {
+            created.incrementAndGet()
+            Thread.sleep(50)
+        }
+    }
+}
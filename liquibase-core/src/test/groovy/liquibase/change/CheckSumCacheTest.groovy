@@ -0,0 +1,158 @@
+package liquibase.change
+
+import liquibase.configuration.GlobalConfiguration
+import liquibase.configuration.LiquibaseConfiguration
+import liquibase.resource.FileSystemResourceAccessor
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class CheckSumCacheTest extends Specification {
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    int generated
+
+    def setup() {
+        LiquibaseConfiguration.getInstance().reset()
+        CheckSumCache.getInstance().clear()
+        generated = 0
+    }
+
+    def cleanup() {
+        LiquibaseConfiguration.getInstance().reset()
+        CheckSumCache.getInstance().clear()
+    }
+
+    private CheckSumCache.Generator countingGenerator() {
+        return new CheckSumCache.Generator() {
+            @Override
+            CheckSum generate(InputStream stream) throws IOException {
+                generated++
+                return CheckSum.compute(stream, false)
+            }
+        }
+    }
+
+    private File createFile(String name, String content, long ageMillis) {
+        def file = temporaryFolder.newFile(name)
+        file.text = content
+        file.setLastModified(System.currentTimeMillis() - ageMillis)
+        return file
+    }
+
+    def "unchanged file is only hashed once"() {
+        when:
+        createFile("data.csv", "a,b\n1,2\n", 60000)
+        def accessor = new FileSystemResourceAccessor(temporaryFolder.getRoot())
+        def first = CheckSumCache.getInstance().getCheckSum(accessor, null, "data.csv", "test", countingGenerator())
+        def second = CheckSumCache.getInstance().getCheckSum(accessor, null, "data.csv", "test", countingGenerator())
+
+        then:
+        first == second
+        generated == 1
+    }
+
+    def "discriminator is part of the key"() {
+        when:
+        createFile("data.csv", "a,b\n1,2\n", 60000)
+        def accessor = new FileSystemResourceAccessor(temporaryFolder.getRoot())
+        CheckSumCache.getInstance().getCheckSum(accessor, null, "data.csv", "first", countingGenerator())
+        CheckSumCache.getInstance().getCheckSum(accessor, null, "data.csv", "second", countingGenerator())
+
+        then:
+        generated == 2
+    }
+
+    def "modified file is hashed again"() {
+        when:
+        def file = createFile("data.csv", "a,b\n1,2\n", 60000)
+        def accessor = new FileSystemResourceAccessor(temporaryFolder.getRoot())
+        def first = CheckSumCache.getInstance().getCheckSum(accessor, null, "data.csv", "test", countingGenerator())
+        file.text = "a,b\n1,2\n3,4\n"
+        file.setLastModified(System.currentTimeMillis() - 30000)
+        def second = CheckSumCache.getInstance().getCheckSum(accessor, null, "data.csv", "test", countingGenerator())
+
+        then:
+        first != second
+        generated == 2
+    }
+
+    def "recently modified file is not cached"() {
+        when:
+        createFile("data.csv", "a,b\n1,2\n", 0)
+        def accessor = new FileSystemResourceAccessor(temporaryFolder.getRoot())
+        CheckSumCache.getInstance().getCheckSum(accessor, null, "data.csv", "test", countingGenerator())
+        CheckSumCache.getInstance().getCheckSum(accessor, null, "data.csv", "test", countingGenerator())
+
+        then:
+        generated == 2
+    }
+
+    def "missing file returns null"() {
+        expect:
+        CheckSumCache.getInstance().getCheckSum(new FileSystemResourceAccessor(temporaryFolder.getRoot()), null, "missing.csv", "test", countingGenerator()) == null
+        generated == 0
+    }
+
+    def "checksums are kept in the cache file between runs"() {
+        when:
+        def cacheFile = new File(temporaryFolder.getRoot(), "checksums.cache")
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setCheckSumCacheFile(cacheFile.getAbsolutePath())
+        createFile("data.csv", "a,b\n1,2\n", 60000)
+        def accessor = new FileSystemResourceAccessor(temporaryFolder.getRoot())
+        def first = CheckSumCache.getInstance().getCheckSum(accessor, null, "data.csv", "test", countingGenerator())
+        CheckSumCache.getInstance().clear()
+        def second = CheckSumCache.getInstance().getCheckSum(accessor, null, "data.csv", "test", countingGenerator())
+
+        then:
+        cacheFile.exists()
+        first == second
+        generated == 1
+    }
+
+    def "cache file is rewritten from the entries that are kept"() {
+        when:
+        def cacheFile = new File(temporaryFolder.getRoot(), "checksums.cache")
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setCheckSumCacheFile(cacheFile.getAbsolutePath())
+        ["a.csv", "b.csv", "c.csv"].each { createFile(it, it, 60000) }
+        def accessor = new FileSystemResourceAccessor(temporaryFolder.getRoot())
+        def cache = new CheckSumCache(2)
+        ["a.csv", "b.csv", "c.csv"].each { cache.getCheckSum(accessor, null, it, "test", countingGenerator()) }
+
+        then:
+        cacheFile.readLines().size() == 3
+
+        when:
+        def nextRun = new CheckSumCache(2)
+        nextRun.getCheckSum(accessor, null, "c.csv", "test", countingGenerator())
+
+        then:
+        cacheFile.readLines().size() == 2
+        generated == 3
+
+        when:
+        nextRun.getCheckSum(accessor, null, "a.csv", "test", countingGenerator())
+
+        then:
+        generated == 4
+    }
+
+    def "cache file does not grow beyond twice the maximum number of entries"() {
+        when:
+        def cacheFile = new File(temporaryFolder.getRoot(), "checksums.cache")
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setCheckSumCacheFile(cacheFile.getAbsolutePath())
+        def files = (1..10).collect { createFile("data" + it + ".csv", "content" + it, 60000).name }
+        def accessor = new FileSystemResourceAccessor(temporaryFolder.getRoot())
+        def cache = new CheckSumCache(2)
+        def sizes = files.collect {
+            cache.getCheckSum(accessor, null, it, "test", countingGenerator())
+            cacheFile.readLines().size()
+        }
+
+        then:
+        sizes.every { it <= 4 }
+        generated == 10
+    }
+}
@@ -1,10 +1,15 @@
 package liquibase.change.core
 
 import liquibase.change.ChangeStatus
+import liquibase.change.ColumnConfig
 import liquibase.change.StandardChangeTest
 import liquibase.changelog.ChangeSet
 import liquibase.database.DatabaseFactory
+import liquibase.database.PreparedStatementFactory
+import liquibase.database.core.H2Database
 import liquibase.database.core.MSSQLDatabase
+import liquibase.database.jvm.JdbcConnection
+import liquibase.exception.UnexpectedLiquibaseException
 import liquibase.parser.core.ParsedNodeException
 import liquibase.resource.ClassLoaderResourceAccessor
 import liquibase.resource.ResourceAccessor
@@ -12,12 +17,15 @@ import liquibase.database.core.MockDatabase
 import liquibase.snapshot.MockSnapshotGeneratorFactory
 import liquibase.snapshot.SnapshotGeneratorFactory
 import liquibase.statement.SqlStatement
+import liquibase.statement.StreamingBatchDmlExecutablePreparedStatement
 import liquibase.statement.core.InsertSetStatement
 import liquibase.statement.core.InsertStatement
 import liquibase.test.JUnitResourceAccessor
 import liquibase.test.TestContext
 import spock.lang.Unroll
 
+import java.sql.DriverManager
+
 public class LoadDataChangeTest extends StandardChangeTest {
 
     MSSQLDatabase mssqlDb;
@@ -383,6 +391,132 @@ public class LoadDataChangeTest extends StandardChangeTest {
         assert relativeStatements.size() == nonRelativeStatements.size()
     }
 
+    def "batchSize streams rows into the database in batches"() throws Exception {
+        when:
+        def connection = new JdbcConnection(DriverManager.getConnection("jdbc:h2:mem:loadDataStreaming", "sa", ""))
+        connection.setAutoCommit(false)
+        def database = new H2Database()
+        database.setConnection(connection)
+        connection.getUnderlyingConnection().createStatement().execute("CREATE TABLE TABLE_NAME (name VARCHAR(50), username VARCHAR(50))")
+
+        LoadDataChange change = new LoadDataChange()
+        change.setTableName("TABLE_NAME")
+        change.setFile("liquibase/change/core/sample.data1.csv")
+        change.setBatchSize(1)
+        change.setBatchesPerCommit(1)
+        change.setResourceAccessor(new JUnitResourceAccessor())
+        for (String columnName : ["name", "username"]) {
+            def column = new LoadDataColumnConfig()
+            column.setName(columnName)
+            column.setType("STRING")
+            change.addColumn(column)
+        }
+
+        SqlStatement[] statements = change.generateStatements(database)
+
+        then:
+        statements.length == 1
+        statements[0] instanceof StreamingBatchDmlExecutablePreparedStatement
+
+        when:
+        statements[0].execute(new PreparedStatementFactory(connection))
+        def resultSet = connection.getUnderlyingConnection().createStatement().executeQuery("SELECT COUNT(*) FROM TABLE_NAME")
+        resultSet.next()
+
+        then:
+        ((StreamingBatchDmlExecutablePreparedStatement) statements[0]).getRowsExecuted() == 2
+        resultSet.getInt(1) == 2
+
+        cleanup:
+        connection?.close()
+    }
+
+    def "batchSize reports the SQL shared by the streamed rows"() throws Exception {
+        when:
+        def connection = new JdbcConnection(DriverManager.getConnection("jdbc:h2:mem:loadDataStreamingSql", "sa", ""))
+        def database = new H2Database()
+        database.setConnection(connection)
+
+        LoadDataChange change = new LoadDataChange()
+        change.setTableName("TABLE_NAME")
+        change.setFile("liquibase/change/core/sample.data1.csv")
+        change.setBatchSize(10)
+        change.setResourceAccessor(new JUnitResourceAccessor())
+        for (String columnName : ["name", "username"]) {
+            def column = new LoadDataColumnConfig()
+            column.setName(columnName)
+            column.setType("STRING")
+            change.addColumn(column)
+        }
+
+        def statement = (StreamingBatchDmlExecutablePreparedStatement) change.generateStatements(database)[0]
+
+        then:
+        statement.generateSql(new ArrayList<ColumnConfig>()) == "INSERT INTO PUBLIC.TABLE_NAME(name, username) VALUES(?, ?)"
+
+        cleanup:
+        connection?.close()
+    }
+
+    def "batchSize checks the rows up front so failOnError still applies"() throws Exception {
+        when:
+        def connection = new JdbcConnection(DriverManager.getConnection("jdbc:h2:mem:loadDataStreamingMalformed", "sa", ""))
+        def database = new H2Database()
+        database.setConnection(connection)
+
+        ChangeSet changeSet = new ChangeSet(null, null, true, false,
+                "liquibase/empty.changelog.xml",
+                null, null, false, null, null)
+        changeSet.setFailOnError(failOnError)
+
+        LoadDataChange change = new LoadDataChange()
+        change.setTableName("TABLE_NAME")
+        change.setFile("liquibase/change/core/sample.malformed.csv")
+        change.setBatchSize(10)
+        change.setChangeSet(changeSet)
+        change.setResourceAccessor(new JUnitResourceAccessor())
+        for (String columnName : ["name", "username"]) {
+            def column = new LoadDataColumnConfig()
+            column.setName(columnName)
+            column.setType("STRING")
+            change.addColumn(column)
+        }
+
+        SqlStatement[] statements = null
+        Exception exception = null
+        try {
+            statements = change.generateStatements(database)
+        } catch (UnexpectedLiquibaseException e) {
+            exception = e
+        }
+
+        then:
+        (statements == null) == failOnError
+        (exception != null) == failOnError
+        !failOnError || exception.message.contains("Line 3")
+
+        cleanup:
+        connection?.close()
+
+        where:
+        failOnError << [true, false]
+    }
+
+    def "batchSize falls back to generated statements when batching is not available"() throws Exception {
+        when:
+        LoadDataChange change = new LoadDataChange()
+        change.setTableName("TABLE_NAME")
+        change.setFile("liquibase/change/core/sample.data1.csv")
+        change.setBatchSize(100)
+        change.setResourceAccessor(new JUnitResourceAccessor())
+
+        SqlStatement[] statements = change.generateStatements(mockDb)
+
+        then:
+        statements.length == 2
+        statements[0] instanceof InsertStatement
+    }
+
     def "checksum does not change when no comments in CSV and comment property changes"() {
         when:
         LoadDataChange refactoring = new LoadDataChange();
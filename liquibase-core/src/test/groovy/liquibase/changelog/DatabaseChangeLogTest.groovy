@@ -88,6 +88,31 @@ create view sql_view as select * from sql_table;'''
         changeLog.getChangeSet(path, "auth", "with-dbms-and-context") == null
     }
 
+    def "getChangeSet ignores case and finds changeSets added after a lookup"() {
+        def path = "com/example/path.xml"
+        when:
+        def changeLog = new DatabaseChangeLog(path)
+        changeLog.addChangeSet(new ChangeSet("1", "auth", false, false, path, null, null, changeLog))
+
+        then:
+        changeLog.getChangeSet("COM/example/PATH.xml", "AUTH", "1").id == "1"
+        changeLog.getChangeSet(path, "auth", "2") == null
+
+        when:
+        changeLog.addChangeSet(new ChangeSet("2", "auth", false, false, "classpath:" + path, null, null, changeLog))
+        changeLog.setIgnoreClasspathPrefix(true)
+
+        then:
+        changeLog.getChangeSet(path, "auth", "2").id == "2"
+
+        when:
+        changeLog.setIgnoreClasspathPrefix(false)
+
+        then:
+        changeLog.getChangeSet(path, "auth", "2") == null
+        changeLog.getChangeSet("classpath:" + path, "auth", "2").id == "2"
+    }
+
     def "load handles both changes and preconditions"() {
         when:
         def children = [
@@ -0,0 +1,176 @@
+package liquibase.changelog
+
+import liquibase.configuration.GlobalConfiguration
+import liquibase.configuration.LiquibaseConfiguration
+import liquibase.database.Database
+import liquibase.database.core.*
+import liquibase.database.jvm.JdbcConnection
+import liquibase.executor.ExecutorService
+import liquibase.sqlgenerator.SqlGeneratorFactory
+import liquibase.statement.core.MarkChangeSetRanStatement
+import liquibase.statement.core.RawSqlStatement
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.sql.DriverManager
+
+class StandardChangeLogHistoryServiceTest extends Specification {
+
+    H2Database database
+    StandardChangeLogHistoryService service
+
+    def setup() {
+        def connection = new JdbcConnection(DriverManager.getConnection("jdbc:h2:mem:historyService", "sa", ""))
+        database = new H2Database()
+        database.setConnection(connection)
+        service = new StandardChangeLogHistoryService()
+        service.setDatabase(database)
+        service.init()
+        service.generateDeploymentId()
+    }
+
+    def cleanup() {
+        LiquibaseConfiguration.getInstance().reset()
+        database.getConnection().getUnderlyingConnection().createStatement().execute("drop all objects")
+        ExecutorService.getInstance().clearExecutor(database)
+        database.close()
+    }
+
+    private int countRows() {
+        def resultSet = database.getConnection().getUnderlyingConnection().createStatement().executeQuery("select count(*) from " + database.getDatabaseChangeLogTableName())
+        resultSet.next()
+        return resultSet.getInt(1)
+    }
+
+    private static ChangeSet changeSet(String id) {
+        return new ChangeSet(id, "auth", false, false, "com/example/changelog.xml", null, null, null)
+    }
+
+    def "rows are written immediately by default"() {
+        when:
+        service.setExecType(changeSet("1"), ChangeSet.ExecType.EXECUTED)
+
+        then:
+        countRows() == 1
+    }
+
+    def "rows are written in batches when historyBatchSize is set"() {
+        when:
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setHistoryBatchSize(3)
+        service.setExecType(changeSet("1"), ChangeSet.ExecType.EXECUTED)
+        service.setExecType(changeSet("2"), ChangeSet.ExecType.EXECUTED)
+
+        then:
+        countRows() == 0
+
+        when:
+        service.setExecType(changeSet("3"), ChangeSet.ExecType.EXECUTED)
+        service.setExecType(changeSet("4"), ChangeSet.ExecType.EXECUTED)
+
+        then:
+        countRows() == 3
+
+        when:
+        service.flush()
+
+        then:
+        countRows() == 4
+        service.getRanChangeSets()*.id == ["1", "2", "3", "4"]
+    }
+
+    def "pending rows are written before history is read or changed"() {
+        when:
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setHistoryBatchSize(10)
+        service.setExecType(changeSet("1"), ChangeSet.ExecType.EXECUTED)
+        service.setExecType(changeSet("2"), ChangeSet.ExecType.EXECUTED)
+        service.removeFromHistory(changeSet("1"))
+
+        then:
+        countRows() == 1
+
+        when:
+        service.setExecType(changeSet("3"), ChangeSet.ExecType.EXECUTED)
+        service.reset()
+
+        then:
+        countRows() == 2
+        service.getRanChangeSets()*.id == ["2", "3"]
+    }
+
+    def "changeSets are marked in bulk"() {
+        when:
+        def changeSets = (1..250).collect { changeSet(it.toString()) }
+        changeSets[10].setComments("with comments")
+        service.getRanChangeSets()
+        service.setExecType(changeSets, ChangeSet.ExecType.EXECUTED)
+
+        then:
+        countRows() == 250
+        service.getRanChangeSet(changeSets[249]) != null
+
+        when:
+        service.reset()
+        def ranChangeSets = service.getRanChangeSets()
+
+        then:
+        ranChangeSets*.id == (1..250)*.toString()
+        ranChangeSets*.orderExecuted == (1..250).toList()
+        ranChangeSets[10].comments == "with comments"
+    }
+
+    @Unroll
+    def "bulk statements for #targetDatabase.shortName are multi-row INSERTs without a terminator"() {
+        when:
+        def bulkService = new StandardChangeLogHistoryService()
+        bulkService.setDatabase(targetDatabase)
+        def statements = bulkService.createBulkStatements((1..3).collect { new MarkChangeSetRanStatement(changeSet(it.toString()), ChangeSet.ExecType.EXECUTED) })
+        def sql = SqlGeneratorFactory.getInstance().generateSql(statements[0], targetDatabase)*.toSql()
+
+        then:
+        statements.size() == 1
+        statements[0] instanceof RawSqlStatement
+        sql.size() == 1
+        sql[0].startsWith("INSERT INTO ")
+        !sql[0].contains(";")
+        sql[0].findAll(/\('[123]', 'auth'/).size() == 3
+
+        where:
+        targetDatabase << [new H2Database(), new HsqlDatabase(), new MySQLDatabase(), new PostgresDatabase(), new MSSQLDatabase()]
+    }
+
+    @Unroll
+    def "bulk statements for #targetDatabase.shortName are one INSERT per row"() {
+        when:
+        def bulkService = new StandardChangeLogHistoryService()
+        bulkService.setDatabase(targetDatabase)
+        def statements = bulkService.createBulkStatements((1..3).collect { new MarkChangeSetRanStatement(changeSet(it.toString()), ChangeSet.ExecType.EXECUTED) })
+
+        then:
+        statements.size() == 3
+        statements.every { it instanceof MarkChangeSetRanStatement }
+
+        where:
+        targetDatabase << [new DerbyDatabase(), new DB2Database(), new SQLiteDatabase(), new OracleDatabase()]
+    }
+
+    def "changeSets are marked in bulk on HSQLDB"() {
+        when:
+        Database hsqlDatabase = new HsqlDatabase()
+        hsqlDatabase.setConnection(new JdbcConnection(DriverManager.getConnection("jdbc:hsqldb:mem:historyService", "SA", "")))
+        def hsqlService = new StandardChangeLogHistoryService()
+        hsqlService.setDatabase(hsqlDatabase)
+        hsqlService.init()
+        hsqlService.generateDeploymentId()
+        hsqlService.getRanChangeSets()
+        hsqlService.setExecType((1..150).collect { changeSet(it.toString()) }, ChangeSet.ExecType.EXECUTED)
+        hsqlService.reset()
+
+        then:
+        hsqlService.getRanChangeSets()*.id == (1..150)*.toString()
+
+        cleanup:
+        hsqlDatabase?.getConnection()?.getUnderlyingConnection()?.createStatement()?.execute("DROP SCHEMA PUBLIC CASCADE")
+        ExecutorService.getInstance().clearExecutor(hsqlDatabase)
+        hsqlDatabase?.close()
+    }
+}
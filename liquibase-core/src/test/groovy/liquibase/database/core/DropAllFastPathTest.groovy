@@ -0,0 +1,89 @@
+package liquibase.database.core
+
+import liquibase.CatalogAndSchema
+import liquibase.changelog.ChangeLogHistoryServiceFactory
+import liquibase.configuration.GlobalConfiguration
+import liquibase.configuration.LiquibaseConfiguration
+import liquibase.database.jvm.JdbcConnection
+import liquibase.exception.DatabaseException
+import liquibase.executor.ExecutorService
+import liquibase.lockservice.LockServiceFactory
+import spock.lang.Specification
+
+import java.sql.DriverManager
+
+class DropAllFastPathTest extends Specification {
+
+    H2Database database
+
+    def cleanup() {
+        LiquibaseConfiguration.getInstance().reset()
+        LockServiceFactory.getInstance().resetAll()
+        ChangeLogHistoryServiceFactory.getInstance().resetAll()
+        execute("drop all objects")
+        ExecutorService.getInstance().clearExecutor(database)
+        database.close()
+    }
+
+    private void connect(H2Database database) {
+        this.database = database
+        database.setConnection(new JdbcConnection(DriverManager.getConnection("jdbc:h2:mem:dropAll", "sa", "")))
+        execute("create table person (id int primary key, name varchar(50))")
+        execute("create table address (id int primary key, person_id int references person(id))")
+        execute("create view person_view as select * from person")
+        execute("create sequence person_seq")
+        execute("create schema other")
+        execute("create table other.kept (id int)")
+    }
+
+    private void execute(String sql) {
+        database.getConnection().getUnderlyingConnection().createStatement().execute(sql)
+    }
+
+    private List<String> objects(String schema) {
+        def resultSet = database.getConnection().getUnderlyingConnection().createStatement().executeQuery(
+                "select table_name from information_schema.tables where table_schema = '" + schema + "' " +
+                        "union all select sequence_name from information_schema.sequences where sequence_schema = '" + schema + "'")
+        def names = []
+        while (resultSet.next()) {
+            names.add(resultSet.getString(1))
+        }
+        return names
+    }
+
+    def "dropDatabaseObjects with fastDropAll drops the tables, views and sequences of the schema"() {
+        when:
+        def droppedFast = []
+        connect(new H2Database() {
+            @Override
+            protected boolean dropDatabaseObjectsFast(CatalogAndSchema schemaToDrop) throws DatabaseException {
+                droppedFast.add(super.dropDatabaseObjectsFast(schemaToDrop))
+                return droppedFast[0]
+            }
+        })
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setFastDropAll(true)
+        database.dropDatabaseObjects(new CatalogAndSchema(null, "PUBLIC"))
+
+        then:
+        droppedFast == [true]
+        objects("PUBLIC") == []
+        objects("OTHER") == ["KEPT"]
+    }
+
+    def "dropDatabaseObjects falls back to the snapshot when the fast drop fails"() {
+        when:
+        connect(new H2Database() {
+            @Override
+            protected boolean dropDatabaseObjectsFast(CatalogAndSchema schemaToDrop) throws DatabaseException {
+                execute("drop table address")
+                throw new DatabaseException("cannot drop")
+            }
+        })
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setFastDropAll(true)
+        database.dropDatabaseObjects(new CatalogAndSchema(null, "PUBLIC"))
+
+        then:
+        objects("PUBLIC") == []
+        objects("OTHER") == ["KEPT"]
+    }
+}
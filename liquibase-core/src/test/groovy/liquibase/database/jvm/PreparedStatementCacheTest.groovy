@@ -0,0 +1,137 @@
+package liquibase.database.jvm
+
+import liquibase.configuration.GlobalConfiguration
+import liquibase.configuration.LiquibaseConfiguration
+import liquibase.database.core.H2Database
+import liquibase.exception.DatabaseException
+import liquibase.executor.ExecutorService
+import liquibase.statement.core.RawSqlStatement
+import spock.lang.Specification
+
+import java.sql.DriverManager
+
+class PreparedStatementCacheTest extends Specification {
+
+    JdbcConnection connection
+
+    def setup() {
+        connection = new JdbcConnection(DriverManager.getConnection("jdbc:h2:mem:preparedStatementCache", "sa", ""))
+    }
+
+    def cleanup() {
+        LiquibaseConfiguration.getInstance().reset()
+        connection.close()
+    }
+
+    def "statements are reused and counted"() {
+        when:
+        def cache = new PreparedStatementCache(connection, 2)
+        def first = cache.checkOut("select 1")
+        cache.checkIn("select 1", first)
+        def second = cache.checkOut("select 1")
+        def concurrent = cache.checkOut("select 1")
+
+        then:
+        second.is(first)
+        !concurrent.is(first)
+        cache.hits == 1
+        cache.misses == 2
+        cache.size() == 0
+    }
+
+    def "least recently used statement is closed when the cache is full"() {
+        when:
+        def cache = new PreparedStatementCache(connection, 2)
+        def one = cache.checkOut("select 1")
+        def two = cache.checkOut("select 2")
+        def three = cache.checkOut("select 3")
+        cache.checkIn("select 1", one)
+        cache.checkIn("select 2", two)
+        cache.checkIn("select 1", cache.checkOut("select 1"))
+        cache.checkIn("select 3", three)
+
+        then:
+        cache.size() == 2
+        two.isClosed()
+        !one.isClosed()
+        !three.isClosed()
+
+        when:
+        cache.clear()
+
+        then:
+        cache.size() == 0
+        one.isClosed()
+        three.isClosed()
+    }
+
+    def "cache is only created when configured"() {
+        expect:
+        connection.getPreparedStatementCache() == null
+
+        when:
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setPreparedStatementCacheSize(10)
+
+        then:
+        connection.getPreparedStatementCache().maxSize == 10
+    }
+
+    def "JdbcExecutor reuses statements for repeated queries"() {
+        given:
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setPreparedStatementCacheSize(10)
+        def database = new H2Database()
+        database.setConnection(connection)
+        def executor = ExecutorService.getInstance().getExecutor(database)
+
+        when:
+        def results = (1..3).collect { executor.queryForInt(new RawSqlStatement("select 42")) }
+        def withParameterMarker = executor.queryForObject(new RawSqlStatement("select '?'"), String)
+
+        then:
+        results == [42, 42, 42]
+        withParameterMarker == "?"
+        connection.getPreparedStatementCache().hits == 2
+        connection.getPreparedStatementCache().misses == 1
+
+        cleanup:
+        ExecutorService.getInstance().clearExecutor(database)
+    }
+
+    def "JdbcExecutor only caches queries"() {
+        given:
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setPreparedStatementCacheSize(10)
+        def database = new H2Database()
+        database.setConnection(connection)
+        def executor = ExecutorService.getInstance().getExecutor(database)
+        executor.execute(new RawSqlStatement("create table cache_test (id int)"))
+
+        when:
+        (1..3).each { executor.update(new RawSqlStatement("insert into cache_test values (" + it + ")")) }
+
+        then:
+        executor.queryForInt(new RawSqlStatement("select count(*) from cache_test")) == 3
+        connection.getPreparedStatementCache().hits == 0
+        connection.getPreparedStatementCache().misses == 1
+
+        cleanup:
+        ExecutorService.getInstance().clearExecutor(database)
+    }
+
+    def "JdbcExecutor reports cached query errors like uncached ones"() {
+        given:
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setPreparedStatementCacheSize(10)
+        def database = new H2Database()
+        database.setConnection(connection)
+        def executor = ExecutorService.getInstance().getExecutor(database)
+
+        when:
+        executor.queryForInt(new RawSqlStatement("select count(*) from missing_table"))
+
+        then:
+        def e = thrown(DatabaseException)
+        e.message.startsWith("Error executing SQL select count(*) from missing_table: ")
+
+        cleanup:
+        ExecutorService.getInstance().clearExecutor(database)
+    }
+}
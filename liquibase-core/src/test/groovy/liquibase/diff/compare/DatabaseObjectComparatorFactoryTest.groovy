@@ -0,0 +1,46 @@
+package liquibase.diff.compare
+
+import liquibase.database.core.H2Database
+import liquibase.structure.core.*
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CyclicBarrier
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class DatabaseObjectComparatorFactoryTest extends Specification {
+
+    def cleanup() {
+        DatabaseObjectComparatorFactory.reset()
+    }
+
+    def "comparators are cached consistently when looked up from several threads"() {
+        when:
+        DatabaseObjectComparatorFactory.reset()
+        def factory = DatabaseObjectComparatorFactory.getInstance()
+        def database = new H2Database()
+        def types = [Table, Column, Index, PrimaryKey, ForeignKey, UniqueConstraint, View, Sequence, Schema, Catalog]
+        def threads = 8
+        def barrier = new CyclicBarrier(threads)
+        def executor = Executors.newFixedThreadPool(threads)
+        def results = (1..threads).collect {
+            executor.submit({
+                barrier.await(10, TimeUnit.SECONDS)
+                def found = []
+                for (int i = 0; i < 50; i++) {
+                    types.each { type ->
+                        found.add(factory.getComparators(type, database))
+                        factory.isSameObject(new Table(null, "S", "T" + i), new Table(null, "S", "T" + i), null, database)
+                    }
+                }
+                return found.take(types.size())
+            } as Callable)
+        }*.get(30, TimeUnit.SECONDS)
+        executor.shutdown()
+
+        then:
+        results.every { found -> [found, results[0]].transpose().every { it[0].is(it[1]) } }
+        types.every { factory.getComparators(it, database).is(results[0][types.indexOf(it)]) }
+    }
+}
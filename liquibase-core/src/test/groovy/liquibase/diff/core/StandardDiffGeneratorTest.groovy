@@ -0,0 +1,98 @@
+package liquibase.diff.core
+
+import liquibase.configuration.GlobalConfiguration
+import liquibase.configuration.LiquibaseConfiguration
+import liquibase.database.core.H2Database
+import liquibase.database.jvm.JdbcConnection
+import liquibase.diff.DiffGeneratorFactory
+import liquibase.diff.compare.CompareControl
+import liquibase.executor.ExecutorService
+import liquibase.snapshot.SnapshotControl
+import liquibase.snapshot.SnapshotGeneratorFactory
+import liquibase.structure.core.Column
+import liquibase.structure.core.Index
+import liquibase.structure.core.Table
+import liquibase.structure.core.View
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.sql.DriverManager
+
+class StandardDiffGeneratorTest extends Specification {
+
+    H2Database reference
+    H2Database comparison
+
+    def setup() {
+        reference = createDatabase("diffReference")
+        comparison = createDatabase("diffComparison")
+
+        execute(reference, "create table shared (id int primary key, name varchar(50), changed int)")
+        execute(reference, "create table only_reference (id int)")
+        execute(reference, "create index idx_shared_name on shared(name)")
+        execute(reference, "create view shared_view as select id from shared")
+
+        execute(comparison, "create table shared (id int primary key, name varchar(50), changed varchar(10), extra int)")
+        execute(comparison, "create table only_comparison (id int)")
+    }
+
+    def cleanup() {
+        LiquibaseConfiguration.getInstance().reset()
+        [reference, comparison].each {
+            execute(it, "drop all objects")
+            ExecutorService.getInstance().clearExecutor(it)
+            it.close()
+        }
+    }
+
+    private static H2Database createDatabase(String name) {
+        def database = new H2Database()
+        database.setConnection(new JdbcConnection(DriverManager.getConnection("jdbc:h2:mem:" + name, "sa", "")))
+        return database
+    }
+
+    private static void execute(H2Database database, String sql) {
+        database.getConnection().getUnderlyingConnection().createStatement().execute(sql)
+    }
+
+    @Unroll
+    def "finds missing, unexpected and changed objects with #threads threads"() {
+        when:
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setDiffThreads(threads)
+        def diffResult = DiffGeneratorFactory.getInstance().compare(reference, comparison, new CompareControl())
+
+        then:
+        diffResult.getMissingObjects(Table)*.name as Set == ["ONLY_REFERENCE"] as Set
+        diffResult.getUnexpectedObjects(Table)*.name as Set == ["ONLY_COMPARISON"] as Set
+        diffResult.getMissingObjects(Index)*.name as Set == ["IDX_SHARED_NAME"] as Set
+        diffResult.getMissingObjects(View)*.name as Set == ["SHARED_VIEW"] as Set
+        diffResult.getMissingObjects(Column)*.name as Set == ["ID"] as Set
+        diffResult.getUnexpectedObjects(Column)*.name as Set == ["ID", "EXTRA"] as Set
+        diffResult.getChangedObjects(Column).keySet()*.name as Set == ["CHANGED"] as Set
+
+        where:
+        threads << [1, 4]
+    }
+
+    def "parallel diff matches the sequential diff"() {
+        when:
+        def sequential = DiffGeneratorFactory.getInstance().compare(reference, comparison, new CompareControl())
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setDiffThreads(4)
+        def parallel = DiffGeneratorFactory.getInstance().compare(reference, comparison, new CompareControl())
+
+        then:
+        parallel.getMissingObjects()*.toString() as Set == sequential.getMissingObjects()*.toString() as Set
+        parallel.getUnexpectedObjects()*.toString() as Set == sequential.getUnexpectedObjects()*.toString() as Set
+        parallel.getChangedObjects().keySet()*.toString() as Set == sequential.getChangedObjects().keySet()*.toString() as Set
+    }
+
+    def "index finds the same objects as the snapshot"() {
+        when:
+        def snapshot = SnapshotGeneratorFactory.getInstance().createSnapshot(reference.getDefaultSchema(), reference, new SnapshotControl(reference))
+        def index = new DatabaseObjectIndex<Column>(Column, snapshot)
+
+        then:
+        snapshot.get(Column).every { index.get(it).is(snapshot.get(it)) }
+        index.get(new Column(Table, null, null, "SHARED", "NO_SUCH_COLUMN")) == null
+    }
+}
@@ -0,0 +1,158 @@
+package liquibase.diff.core
+
+import liquibase.CatalogAndSchema
+import liquibase.change.core.DeleteDataChange
+import liquibase.change.core.InsertDataChange
+import liquibase.change.core.UpdateDataChange
+import liquibase.configuration.GlobalConfiguration
+import liquibase.configuration.LiquibaseConfiguration
+import liquibase.database.core.H2Database
+import liquibase.database.jvm.JdbcConnection
+import liquibase.diff.DiffGeneratorFactory
+import liquibase.diff.DiffResult
+import liquibase.diff.compare.CompareControl
+import liquibase.diff.output.DiffOutputControl
+import liquibase.diff.output.changelog.DiffToChangeLog
+import liquibase.exception.DatabaseException
+import liquibase.executor.ExecutorService
+import liquibase.snapshot.SnapshotControl
+import liquibase.structure.core.*
+import spock.lang.Specification
+
+import java.sql.DriverManager
+import java.sql.Timestamp
+
+class TableDataDiffTest extends Specification {
+
+    H2Database reference
+    H2Database comparison
+
+    def setup() {
+        reference = createDatabase("dataDiffReference")
+        comparison = createDatabase("dataDiffComparison")
+
+        [reference, comparison].each {
+            execute(it, "create table person (id int primary key, name varchar(50), score decimal(10,2))")
+            execute(it, "create table same_data (id int primary key, name varchar(50))")
+            execute(it, "insert into same_data values (1, 'a'), (2, 'b')")
+        }
+        execute(reference, "insert into person values (1, 'one', 1.5), (2, 'two', 2), (3, 'three', 3), (5, 'five', null)")
+        execute(comparison, "insert into person values (1, 'one', 1.50), (2, 'TWO', 2), (4, 'four', 4), (5, 'five', 5)")
+    }
+
+    def cleanup() {
+        LiquibaseConfiguration.getInstance().reset()
+        [reference, comparison].each {
+            execute(it, "drop all objects")
+            ExecutorService.getInstance().clearExecutor(it)
+            it.close()
+        }
+    }
+
+    private static H2Database createDatabase(String name) {
+        def database = new H2Database()
+        database.setConnection(new JdbcConnection(DriverManager.getConnection("jdbc:h2:mem:" + name, "sa", "")))
+        return database
+    }
+
+    private static void execute(H2Database database, String sql) {
+        database.getConnection().getUnderlyingConnection().createStatement().execute(sql)
+    }
+
+    private TableDataDiff createDataDiff(String tableName, List<String> keyColumns) {
+        def table = new Table(null, reference.getDefaultSchemaName(), tableName)
+        return new TableDataDiff(table, keyColumns, reference, CatalogAndSchema.DEFAULT, comparison)
+    }
+
+    private DiffResult compareWithData() {
+        Class[] types = [Table, Column, PrimaryKey, ForeignKey, Index, Data]
+        return DiffGeneratorFactory.getInstance().compare(reference, comparison, new SnapshotControl(reference, types), new SnapshotControl(comparison, types), new CompareControl(types as Set))
+    }
+
+    def "compare reports missing, unexpected and changed rows"() {
+        when:
+        def missing = []
+        def unexpected = []
+        def changed = [:]
+        def dataDiff = createDataDiff("PERSON", ["ID"])
+        dataDiff.compare(new TableDataDiff.RowListener() {
+            @Override
+            void missingRow(Map<String, Object> row) {
+                missing.add(row.ID)
+            }
+
+            @Override
+            void unexpectedRow(Map<String, Object> key) {
+                unexpected.add(key)
+            }
+
+            @Override
+            void changedRow(Map<String, Object> key, Map<String, Object> changedValues) {
+                changed[key.ID] = changedValues
+            }
+        })
+
+        then:
+        missing == [3]
+        unexpected == [[ID: 4]]
+        changed == [2: [NAME: "two"], 5: [SCORE: null]]
+        dataDiff.getReferenceRowCount() == 4
+        dataDiff.getComparisonRowCount() == 4
+        dataDiff.getMissingRowCount() == 1
+        dataDiff.getUnexpectedRowCount() == 1
+        dataDiff.getChangedRowCount() == 2
+    }
+
+    def "compare fails if the database sorts the key differently"() {
+        when:
+        [reference, comparison].each {
+            execute(it, "create table coded (code varchar_ignorecase(10) primary key)")
+            execute(it, "insert into coded values ('a'), ('B')")
+        }
+        createDataDiff("CODED", ["CODE"]).compare(Mock(TableDataDiff.RowListener))
+
+        then:
+        def e = thrown(DatabaseException)
+        e.message.contains("collation")
+    }
+
+    def "normalize treats equal values of different types as equal"() {
+        expect:
+        TableDataDiff.normalize(new BigDecimal("1.50")) == TableDataDiff.normalize(1.5d)
+        TableDataDiff.normalize(10) == TableDataDiff.normalize(10L)
+        TableDataDiff.normalize(new Date(1000)) == TableDataDiff.normalize(new Timestamp(1000))
+        TableDataDiff.normalize(new Timestamp(1000).with { nanos = 1 ; it }) != TableDataDiff.normalize(new Date(1000))
+        TableDataDiff.normalize([1, 2] as byte[]) == TableDataDiff.normalize([1, 2] as byte[])
+        TableDataDiff.normalize(null) == null
+    }
+
+    def "hashRow does not depend on the order or case of the columns"() {
+        expect:
+        TableDataDiff.hashRow(["ID", "NAME"] as String[], [1, "a"] as Object[]) == TableDataDiff.hashRow(["name", "id"] as String[], ["a", 1] as Object[])
+        TableDataDiff.hashRow(["ID", "NAME"] as String[], [1, "a"] as Object[]) != TableDataDiff.hashRow(["ID", "NAME"] as String[], [1, "b"] as Object[])
+        TableDataDiff.hashRow(["ID", "NAME"] as String[], [1, null] as Object[]) != TableDataDiff.hashRow(["ID", "NAME"] as String[], [1, ""] as Object[])
+    }
+
+    def "diff generates data changes only for tables whose data differs"() {
+        when:
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setDiffDataRows(true)
+        def diffResult = compareWithData()
+        def changes = new DiffToChangeLog(diffResult, new DiffOutputControl(false, false, false, null)).generateChangeSets()*.changes.flatten()
+
+        then:
+        diffResult.getChangedObjects(Data).keySet()*.name == ["PERSON"]
+        changes.findAll { it instanceof InsertDataChange }*.tableName == ["PERSON"]
+        changes.findAll { it instanceof InsertDataChange }[0].columns.find { it.name == "ID" }.valueNumeric == 3
+        changes.findAll { it instanceof UpdateDataChange }*.where == ["ID = 2", "ID = 5"]
+        changes.findAll { it instanceof UpdateDataChange }*.columns*.name == [["NAME"], ["SCORE"]]
+        changes.findAll { it instanceof DeleteDataChange }*.where == ["ID = 4"]
+    }
+
+    def "diff does not compare rows unless enabled"() {
+        when:
+        def diffResult = compareWithData()
+
+        then:
+        diffResult.getChangedObjects(Data).isEmpty()
+    }
+}
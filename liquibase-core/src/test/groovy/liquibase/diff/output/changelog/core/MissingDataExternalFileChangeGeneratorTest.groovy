@@ -0,0 +1,126 @@
+package liquibase.diff.output.changelog.core
+
+import liquibase.change.core.LoadDataChange
+import liquibase.configuration.GlobalConfiguration
+import liquibase.configuration.LiquibaseConfiguration
+import liquibase.database.core.H2Database
+import liquibase.database.jvm.JdbcConnection
+import liquibase.diff.DiffGeneratorFactory
+import liquibase.diff.compare.CompareControl
+import liquibase.diff.output.DiffOutputControl
+import liquibase.diff.output.changelog.ChangeGeneratorFactory
+import liquibase.diff.output.changelog.DiffToChangeLog
+import liquibase.executor.ExecutorService
+import liquibase.snapshot.SnapshotControl
+import liquibase.snapshot.SnapshotGeneratorFactory
+import liquibase.structure.core.*
+import org.h2.jdbcx.JdbcDataSource
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.sql.DriverManager
+import java.util.zip.GZIPInputStream
+
+class MissingDataExternalFileChangeGeneratorTest extends Specification {
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    H2Database database
+    JdbcDataSource dataSource
+
+    def setup() {
+        database = new H2Database()
+        database.setConnection(new JdbcConnection(DriverManager.getConnection("jdbc:h2:mem:dataExport", "sa", "")))
+        dataSource = new JdbcDataSource()
+        dataSource.setURL("jdbc:h2:mem:dataExport")
+        dataSource.setUser("sa")
+
+        execute("create table big_table (id int primary key, name varchar(20))")
+        execute("insert into big_table select x, 'name' || x from system_range(1, 1000)")
+        execute("create table small_table (id int primary key, created timestamp)")
+        execute("insert into small_table values (1, '2020-01-02 03:04:05'), (2, null)")
+        execute("create table no_key (name varchar(20))")
+        execute("insert into no_key values ('a')")
+        database.commit()
+    }
+
+    def cleanup() {
+        LiquibaseConfiguration.getInstance().reset()
+        ChangeGeneratorFactory.reset()
+        execute("drop all objects")
+        ExecutorService.getInstance().clearExecutor(database)
+        database.close()
+    }
+
+    private void execute(String sql) {
+        database.getConnection().getUnderlyingConnection().createStatement().execute(sql)
+    }
+
+    private List<LoadDataChange> generateLoadData(String dataDir, DiffOutputControl diffOutputControl) {
+        Class[] types = [Table, Column, PrimaryKey, ForeignKey, Index, Data]
+        def snapshot = SnapshotGeneratorFactory.getInstance().createSnapshot(database.getDefaultSchema(), database, new SnapshotControl(database, types))
+        def diffResult = DiffGeneratorFactory.getInstance().compare(snapshot, null, new CompareControl(types as Set))
+        diffOutputControl.setDataDir(dataDir)
+        return new DiffToChangeLog(diffResult, diffOutputControl).generateChangeSets()*.changes.flatten().findAll { it instanceof LoadDataChange }
+    }
+
+    private static List<String> readLines(String fileName) {
+        InputStream stream = new FileInputStream(fileName)
+        if (fileName.endsWith(".gz")) {
+            stream = new GZIPInputStream(stream)
+        }
+        return stream.withReader("UTF-8") { it.readLines() }
+    }
+
+    @Unroll
+    def "exports the same files one table at a time and in parallel with #threads threads"() {
+        when:
+        def sequentialDir = temporaryFolder.newFolder("sequential").absolutePath
+        def parallelDir = temporaryFolder.newFolder("parallel").absolutePath
+        def sequential = generateLoadData(sequentialDir, new DiffOutputControl(false, false, false, null))
+        ChangeGeneratorFactory.reset()
+        def parallel = generateLoadData(parallelDir, new DiffOutputControl(false, false, false, null).setDataExportDataSource(dataSource, threads))
+
+        then:
+        sequential*.tableName == ["BIG_TABLE", "NO_KEY", "SMALL_TABLE"]
+        parallel*.tableName == sequential*.tableName
+        parallel*.file*.replace(parallelDir, "") == sequential*.file*.replace(sequentialDir, "")
+        parallel*.columns*.type == sequential*.columns*.type
+        [parallel*.file, sequential*.file].transpose().every { readLines(it[0]) == readLines(it[1]) }
+        readLines(sequentialDir + "/big_table.csv").size() == 1001
+        readLines(sequentialDir + "/small_table.csv")[2] == '"2","NULL"'
+
+        where:
+        threads << [1, 4]
+    }
+
+    def "splits large tables by key range and compresses the files"() {
+        when:
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class)
+                .setDataExportSplitRows(300)
+                .setDataExportGzip(true)
+                .setDataExportFetchSize(50)
+        def dataDir = temporaryFolder.newFolder("split").absolutePath
+        def changes = generateLoadData(dataDir, new DiffOutputControl(false, false, false, null).setDataExportDataSource(dataSource, 3))
+        def bigTableFiles = changes.findAll { it.tableName == "BIG_TABLE" }*.file
+
+        then:
+        bigTableFiles*.replace(dataDir + "/", "") == ["big_table.1.csv.gz", "big_table.2.csv.gz", "big_table.3.csv.gz", "big_table.4.csv.gz"]
+        bigTableFiles.collect { readLines(it).size() - 1 } == [250, 250, 250, 250]
+        bigTableFiles.collectMany { readLines(it).drop(1) }.collect { it.split(",")[0].replace('"', "") as int } == (1..1000).toList()
+        changes.findAll { it.tableName == "NO_KEY" }*.file*.replace(dataDir + "/", "") == ["no_key.csv.gz"]
+    }
+
+    def "getPartitions does not split tables with few rows"() {
+        when:
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setDataExportSplitRows(5000)
+        def table = new Table(null, database.getDefaultSchemaName(), "BIG_TABLE")
+        table.setPrimaryKey(new PrimaryKey("PK", null, null, "BIG_TABLE", new Column("ID")))
+
+        then:
+        new MissingDataExternalFileChangeGenerator(null).getPartitions(database.getConnection().getUnderlyingConnection(), table, database) == [null]
+    }
+}
@@ -0,0 +1,156 @@
+package liquibase.integration.spring
+
+import liquibase.Scope
+import liquibase.ScopeManager
+import liquibase.ThreadLocalScopeManager
+import liquibase.exception.LiquibaseException
+import liquibase.parser.ParsedChangeLogCache
+import liquibase.parser.core.yaml.YamlChangeLogParser
+import org.h2.jdbcx.JdbcDataSource
+import org.springframework.core.io.DefaultResourceLoader
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.file.Paths
+
+class MultiTenantSpringLiquibaseTest extends Specification {
+
+    JdbcDataSource dataSource
+    def keepAlive
+    ScopeManager originalScopeManager
+
+    def setup() {
+        originalScopeManager = Scope.getScopeManager()
+        Scope.setScopeManager(new ThreadLocalScopeManager())
+        TestSpringLiquibase.usedCaches.clear()
+        dataSource = new JdbcDataSource()
+        dataSource.setURL("jdbc:h2:mem:multiTenant")
+        dataSource.setUser("sa")
+        keepAlive = dataSource.getConnection()
+        for (schema in ["T1", "T2", "T3", "T4", "T5"]) {
+            keepAlive.createStatement().execute("create schema " + schema)
+        }
+    }
+
+    def cleanup() {
+        keepAlive.createStatement().execute("drop all objects")
+        keepAlive.close()
+        Scope.setScopeManager(originalScopeManager)
+    }
+
+    private MultiTenantSpringLiquibase createLiquibase(List<String> schemas, int threads, boolean failFast) {
+        def liquibase = new MultiTenantSpringLiquibase() {
+            @Override
+            protected SpringLiquibase createSpringLiquibase() {
+                return new TestSpringLiquibase()
+            }
+        }
+        liquibase.setDataSource(dataSource)
+        liquibase.setSchemas(schemas)
+        liquibase.setChangeLog("liquibase/integration/spring/multiTenant.changelog.yaml")
+        liquibase.setResourceLoader(new DefaultResourceLoader())
+        liquibase.setParallelThreads(threads)
+        liquibase.setFailFast(failFast)
+        return liquibase
+    }
+
+    private int countPeople(String schema) {
+        def resultSet = keepAlive.createStatement().executeQuery("select count(*) from " + schema + ".person")
+        resultSet.next()
+        return resultSet.getInt(1)
+    }
+
+    @Unroll
+    def "all schemas are updated with #threads threads"() {
+        when:
+        def scopeManager = Scope.getScopeManager()
+        def scope = Scope.getCurrentScope()
+        def liquibase = createLiquibase(["T1", "T2", "T3", "T4", "T5"], threads, true)
+        liquibase.afterPropertiesSet()
+
+        then:
+        Scope.getScopeManager().is(scopeManager)
+        Scope.getCurrentScope().is(scope)
+        Scope.getCurrentScope().getParent() == null
+        Scope.getCurrentScope().get(Scope.Attr.changeSet.name(), Object) == null
+        Scope.getCurrentScope().get(Scope.Attr.databaseChangeLog.name(), Object) == null
+        ["T1", "T2", "T3", "T4", "T5"].every { countPeople(it) == 1 }
+        liquibase.tenantResults.size() == 5
+        liquibase.tenantResults.every { it.successful }
+        liquibase.tenantResults*.tenant.sort() == ["schema T1", "schema T2", "schema T3", "schema T4", "schema T5"]
+
+        where:
+        threads << [1, 3]
+    }
+
+    @Unroll
+    def "failures are collected when failFast is false with #threads threads"() {
+        when:
+        def liquibase = createLiquibase(["T1", "MISSING", "T2", "T3"], threads, false)
+        liquibase.afterPropertiesSet()
+
+        then:
+        def e = thrown(LiquibaseException)
+        liquibase.tenantResults.size() == 4
+        liquibase.tenantResults.findAll { !it.successful }*.tenant == ["schema MISSING"]
+        ["T1", "T2", "T3"].every { countPeople(it) == 1 }
+
+        where:
+        threads << [1, 3]
+    }
+
+    @Unroll
+    def "the changelog is parsed once for all tenants with #threads threads"() {
+        when:
+        def liquibase = createLiquibase(["T1", "T2", "T3"], threads, true)
+        liquibase.afterPropertiesSet()
+        def content = MultiTenantSpringLiquibaseTest.getResource("/liquibase/integration/spring/multiTenant.changelog.yaml").bytes
+
+        then:
+        TestSpringLiquibase.usedCaches.size() == 3
+        TestSpringLiquibase.usedCaches.unique(false) { System.identityHashCode(it) }.size() == 1
+        !TestSpringLiquibase.usedCaches[0].is(ParsedChangeLogCache.getInstance())
+        TestSpringLiquibase.usedCaches[0].get(YamlChangeLogParser, "liquibase/integration/spring/multiTenant.changelog.yaml", content) != null
+        ParsedChangeLogCache.getCurrent().is(ParsedChangeLogCache.getInstance())
+
+        where:
+        threads << [1, 3]
+    }
+
+    def "parallel tenants require the thread local scope manager"() {
+        when:
+        Scope.setScopeManager(originalScopeManager)
+        def liquibase = createLiquibase(["T1", "T2"], 2, true)
+        liquibase.afterPropertiesSet()
+
+        then:
+        def e = thrown(LiquibaseException)
+        e.message.contains("liquibase.scopeManager")
+        liquibase.tenantResults.isEmpty()
+    }
+
+    def "remaining tenants are skipped after a failure when failFast is true"() {
+        when:
+        def liquibase = createLiquibase(["T1", "MISSING", "T2"], 1, true)
+        liquibase.afterPropertiesSet()
+
+        then:
+        thrown(LiquibaseException)
+        liquibase.tenantResults*.tenant == ["schema T1", "schema MISSING"]
+    }
+
+    /**
+     * Finds the changelog in the test classes directory.
+     */
+    static class TestSpringLiquibase extends SpringLiquibase {
+        static List<ParsedChangeLogCache> usedCaches = Collections.synchronizedList(new ArrayList<ParsedChangeLogCache>())
+
+        @Override
+        protected SpringLiquibase.SpringResourceAccessor createResourceOpener() {
+            usedCaches.add(ParsedChangeLogCache.getCurrent())
+            def accessor = new SpringLiquibase.SpringResourceAccessor(this)
+            accessor.addRootPath(Paths.get(MultiTenantSpringLiquibaseTest.getResource("/liquibase/integration/spring/multiTenant.changelog.yaml").toURI()).parent.parent.parent.parent)
+            return accessor
+        }
+    }
+}
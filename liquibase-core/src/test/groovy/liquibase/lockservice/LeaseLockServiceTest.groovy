@@ -0,0 +1,259 @@
+package liquibase.lockservice
+
+import liquibase.Contexts
+import liquibase.LabelExpression
+import liquibase.Liquibase
+import liquibase.configuration.GlobalConfiguration
+import liquibase.configuration.LiquibaseConfiguration
+import liquibase.database.core.H2Database
+import liquibase.database.jvm.JdbcConnection
+import liquibase.exception.LockException
+import liquibase.executor.ExecutorService
+import liquibase.resource.FileSystemResourceAccessor
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.sql.DriverManager
+import java.sql.Timestamp
+
+class LeaseLockServiceTest extends Specification {
+
+    H2Database database
+
+    def setup() {
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setDatabaseChangeLogLockLeaseDuration(60L)
+        def connection = new JdbcConnection(DriverManager.getConnection("jdbc:h2:mem:leaseLock", "sa", ""))
+        database = new H2Database()
+        database.setConnection(connection)
+    }
+
+    def cleanup() {
+        LiquibaseConfiguration.getInstance().reset()
+        LockServiceFactory.getInstance().resetAll()
+        database.getConnection().getUnderlyingConnection().createStatement().execute("drop all objects")
+        ExecutorService.getInstance().clearExecutor(database)
+        database.close()
+    }
+
+    private LeaseLockService createLockService() {
+        def lockService = new LeaseLockService()
+        lockService.setDatabase(database)
+        return lockService
+    }
+
+    private void ageLease(int seconds) {
+        database.getConnection().getUnderlyingConnection().createStatement().execute(
+                "update DATABASECHANGELOGLOCK set LOCKGRANTED = DATEADD('SECOND', -" + seconds + ", LOCKGRANTED)")
+        database.commit()
+    }
+
+    private Timestamp lockGranted() {
+        def resultSet = database.getConnection().getUnderlyingConnection().createStatement().executeQuery("select LOCKGRANTED from DATABASECHANGELOGLOCK")
+        resultSet.next()
+        return resultSet.getTimestamp(1)
+    }
+
+    def "used only when a lease duration is set"() {
+        expect:
+        LockServiceFactory.getInstance().getLockService(database) instanceof LeaseLockService
+        new LeaseLockService().supports(new H2Database())
+
+        when:
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setDatabaseChangeLogLockLeaseDuration(0L)
+
+        then:
+        !new LeaseLockService().supports(new H2Database())
+    }
+
+    def "lock is acquired and released"() {
+        when:
+        def lockService = createLockService()
+
+        then:
+        lockService.acquireLock()
+        lockService.hasChangeLogLock()
+        lockService.listLocks()*.lockedBy == [lockService.getLockedBy()]
+
+        when:
+        lockService.releaseLock()
+
+        then:
+        !lockService.hasChangeLogLock()
+        lockService.listLocks().length == 0
+        lockService.getLastHoldTime() >= 0
+    }
+
+    def "a held lease is not taken over"() {
+        when:
+        def holder = createLockService()
+        def waiter = createLockService()
+        holder.acquireLock()
+
+        then:
+        !waiter.acquireLock()
+        waiter.getTakeOvers() == 0
+    }
+
+    def "an expired lease is taken over and the old holder cannot renew or release it"() {
+        when:
+        def crashed = createLockService()
+        def waiter = createLockService()
+        crashed.acquireLock()
+        ageLease(120)
+
+        then:
+        waiter.acquireLock()
+        waiter.getTakeOvers() == 1
+        waiter.listLocks()*.lockedBy == [waiter.getLockedBy()]
+
+        when:
+        crashed.renewLease()
+
+        then:
+        thrown(LockException)
+        !crashed.hasChangeLogLock()
+
+        when:
+        crashed.releaseLock()
+
+        then:
+        waiter.listLocks()*.lockedBy == [waiter.getLockedBy()]
+    }
+
+    def "renewal moves the lease forward"() {
+        when:
+        def lockService = createLockService()
+        lockService.acquireLock()
+        ageLease(30)
+        def before = lockGranted()
+        lockService.renewLeaseIfDue()
+
+        then: "not due yet"
+        lockGranted() == before
+
+        when:
+        lockService.renewLease()
+
+        then:
+        lockGranted().after(before)
+    }
+
+    def "waiting gives up after the wait time"() {
+        when:
+        def holder = createLockService()
+        def waiter = createLockService()
+        holder.acquireLock()
+        waiter.setChangeLogLockWaitTime(0)
+        waiter.waitForLock()
+
+        then:
+        def e = thrown(LockException)
+        e.message.contains(holder.getLockedBy())
+        waiter.getAcquireAttempts() == 1
+    }
+
+    def "fails after a changeSet that ran longer than the lease"() {
+        when:
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setDatabaseChangeLogLockLeaseDuration(1L)
+        def lockService = createLockService()
+        lockService.acquireLock()
+        Thread.sleep(1100)
+        lockService.renewLeaseIfDue()
+
+        then:
+        def e = thrown(LockException)
+        e.message.contains("longest changeSet")
+    }
+
+    def "the lease is written and checked with the time of the database"() {
+        when: "the clock of the database is two hours behind the one of the client"
+        def laggingDatabase = new H2Database() {
+            @Override
+            String getCurrentDateTimeFunction() {
+                return "DATEADD('HOUR', -2, CURRENT_TIMESTAMP)"
+            }
+        }
+        laggingDatabase.setConnection(database.getConnection())
+        def holder = new LeaseLockService()
+        holder.setDatabase(laggingDatabase)
+        def waiter = new LeaseLockService()
+        waiter.setDatabase(laggingDatabase)
+        holder.acquireLock()
+
+        then:
+        lockGranted().time < System.currentTimeMillis() - 3600 * 1000
+        !waiter.acquireLock()
+        waiter.getTakeOvers() == 0
+
+        when:
+        holder.renewLease()
+
+        then:
+        holder.hasChangeLogLock()
+        lockGranted().time < System.currentTimeMillis() - 3600 * 1000
+
+        cleanup:
+        ExecutorService.getInstance().clearExecutor(laggingDatabase)
+    }
+
+    def "an expired lease is not renewed"() {
+        when:
+        def lockService = createLockService()
+        lockService.acquireLock()
+        ageLease(120)
+        lockService.renewLease()
+
+        then:
+        def e = thrown(LockException)
+        e.message.contains("longest changeSet")
+        lockService.hasChangeLogLock()
+    }
+
+    def "the lease is renewed after the checksums are validated, after changelogSync chunks and before tagging"() {
+        when:
+        def lockService = new RecordingLeaseLockService()
+        lockService.setDatabase(database)
+        LockServiceFactory.getInstance().@openLockServices.put(database, lockService)
+        def liquibase = new Liquibase("liquibase/integration/spring/multiTenant.changelog.yaml", new FileSystemResourceAccessor(new File(LeaseLockServiceTest.getResource("/liquibase/integration/spring/multiTenant.changelog.yaml").toURI()).parentFile.parentFile.parentFile.parentFile), database)
+        liquibase.changeLogSync(new Contexts(), new LabelExpression())
+
+        then:
+        lockService.renewalChecks == 2
+
+        when:
+        lockService.renewalChecks = 0
+        LockServiceFactory.getInstance().@openLockServices.put(database, lockService)
+        liquibase.tag("v1")
+
+        then:
+        lockService.renewalChecks == 1
+    }
+
+    @Timeout(60)
+    def "updateSQL writes the standard lock statements and does not lock the database"() {
+        when:
+        def output = new StringWriter()
+        def liquibase = new Liquibase("liquibase/integration/spring/multiTenant.changelog.yaml", new FileSystemResourceAccessor(new File(LeaseLockServiceTest.getResource("/liquibase/integration/spring/multiTenant.changelog.yaml").toURI()).parentFile.parentFile.parentFile.parentFile), database)
+        def lockService = LockServiceFactory.getInstance().getLockService(database)
+        liquibase.update(new Contexts(), new LabelExpression(), output)
+
+        then:
+        lockService instanceof LeaseLockService
+        output.toString().contains("-- Lock Database")
+        output.toString().contains("UPDATE PUBLIC.DATABASECHANGELOGLOCK SET LOCKED = TRUE")
+        output.toString().contains("-- Release Database Lock")
+        output.toString().contains("CREATE TABLE PUBLIC.person")
+        !output.toString().contains(((LeaseLockService) lockService).getLockedBy())
+        !lockService.hasChangeLogLock()
+    }
+
+    private static class RecordingLeaseLockService extends LeaseLockService {
+        int renewalChecks
+
+        @Override
+        void renewLeaseIfDue() throws LockException {
+            renewalChecks++
+            super.renewLeaseIfDue()
+        }
+    }
+}
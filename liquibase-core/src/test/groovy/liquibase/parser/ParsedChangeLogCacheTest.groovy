@@ -0,0 +1,172 @@
+package liquibase.parser
+
+import liquibase.Scope
+import liquibase.change.core.CreateTableChange
+import liquibase.changelog.ChangeLogParameters
+import liquibase.changelog.DatabaseChangeLog
+import liquibase.configuration.GlobalConfiguration
+import liquibase.configuration.LiquibaseConfiguration
+import liquibase.parser.core.ParsedNode
+import liquibase.resource.ClassLoaderResourceAccessor
+import liquibase.resource.FileSystemResourceAccessor
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class ParsedChangeLogCacheTest extends Specification {
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    File changeLogDirectory
+    File cacheDirectory
+
+    def setup() {
+        changeLogDirectory = temporaryFolder.newFolder("changelogs")
+        cacheDirectory = temporaryFolder.newFolder("cache")
+        ParsedChangeLogCache.getInstance().clear()
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setParsedChangeLogCacheDirectory(cacheDirectory.getAbsolutePath())
+
+        new File(changeLogDirectory, "root.xml").text = """<?xml version="1.0" encoding="UTF-8"?>
+<databaseChangeLog xmlns="http://www.liquibase.org/xml/ns/dbchangelog"
+        xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance"
+        xsi:schemaLocation="http://www.liquibase.org/xml/ns/dbchangelog http://www.liquibase.org/xml/ns/dbchangelog/dbchangelog-3.6.xsd">
+    <changeSet id="1" author="test">
+        <createTable tableName="\${table}">
+            <column name="id" type="int"/>
+            <column name="name" type="varchar(50)" remarks="A name"/>
+        </createTable>
+    </changeSet>
+    <changeSet id="2" author="test" context="test">
+        <sql>select 1</sql>
+        <rollback>select 2</rollback>
+    </changeSet>
+    <include file="child.yaml" relativeToChangelogFile="true"/>
+</databaseChangeLog>
+"""
+        new File(changeLogDirectory, "child.yaml").text = """databaseChangeLog:
+  - changeSet:
+      id: 3
+      author: test
+      changes:
+        - addColumn:
+            tableName: \${table}
+            columns:
+              - column:
+                  name: created
+                  type: datetime
+                  defaultValueNumeric: 1.5
+                  constraints:
+                    nullable: false
+"""
+    }
+
+    def cleanup() {
+        LiquibaseConfiguration.getInstance().reset()
+        ParsedChangeLogCache.getInstance().clear()
+    }
+
+    private DatabaseChangeLog parse(String table) {
+        def resourceAccessor = new FileSystemResourceAccessor(changeLogDirectory)
+        def parameters = new ChangeLogParameters()
+        parameters.set("table", table)
+        DatabaseChangeLog changeLog = null
+        Scope.child(Scope.Attr.resourceAccessor.name(), new ClassLoaderResourceAccessor(getClass().getClassLoader()), {
+            changeLog = ChangeLogParserFactory.getInstance().getParser("root.xml", resourceAccessor).parse("root.xml", parameters, resourceAccessor)
+        } as Scope.ScopedRunner)
+        return changeLog
+    }
+
+    private static List<String> describe(DatabaseChangeLog changeLog) {
+        return changeLog.getChangeSets().collect { it.toString(false) + ":" + it.generateCheckSum() + ":" + it.getContexts() }
+    }
+
+    def "warm parse gives the same changelog as a cold parse"() {
+        when:
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setParsedChangeLogCacheDirectory(null)
+        def uncached = describe(parse("person"))
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setParsedChangeLogCacheDirectory(cacheDirectory.getAbsolutePath())
+        def cold = describe(parse("person"))
+        def warm = describe(parse("person"))
+        ParsedChangeLogCache.getInstance().clear()
+        def fromDisk = describe(parse("person"))
+
+        then:
+        uncached.size() == 3
+        cold == uncached
+        warm == uncached
+        fromDisk == uncached
+        cacheDirectory.listFiles().findAll { it.name.endsWith(".bin") }.size() == 2
+    }
+
+    def "parameters are expanded on every load"() {
+        when:
+        parse("person")
+        def changeLog = parse("address")
+
+        then:
+        ((CreateTableChange) changeLog.getChangeSets()[0].getChanges()[0]).getTableName() == "address"
+        changeLog.getChangeSets()[2].getChanges()[0].getTableName() == "address"
+    }
+
+    def "changed file is parsed again"() {
+        when:
+        parse("person")
+        def root = new File(changeLogDirectory, "root.xml")
+        root.text = root.text.replace('<column name="id" type="int"/>', '<column name="id" type="bigint"/>')
+        def changeLog = parse("person")
+
+        then:
+        ((CreateTableChange) changeLog.getChangeSets()[0].getChanges()[0]).getColumns()[0].getType() == "bigint"
+    }
+
+    def "every lookup returns a new copy"() {
+        when:
+        def content = "content".getBytes("UTF-8")
+        def node = new ParsedNode(null, "databaseChangeLog").addChild(null, "changeSet", [id: "1", author: "test"])
+        ParsedChangeLogCache.getInstance().put(ChangeLogParser, "test.xml", content, node)
+        def first = ParsedChangeLogCache.getInstance().get(ChangeLogParser, "test.xml", content)
+        first.getChild(null, "changeSet").getChild(null, "id").setValue("changed")
+        def second = ParsedChangeLogCache.getInstance().get(ChangeLogParser, "test.xml", content)
+
+        then:
+        !first.is(second)
+        second.getChild(null, "changeSet").getChildValue(null, "id") == "1"
+        ParsedChangeLogCache.getInstance().get(ChangeLogParser, "test.xml", "other".getBytes("UTF-8")) == null
+        ParsedChangeLogCache.getInstance().get(ChangeLogParser, "other.xml", content) == null
+    }
+
+    @Unroll
+    def "values of type #value.class.simpleName survive the round trip"() {
+        when:
+        def content = "content".getBytes("UTF-8")
+        ParsedChangeLogCache.getInstance().put(ChangeLogParser, "values.yaml", content, [value: value])
+
+        then:
+        ParsedChangeLogCache.getInstance().get(ChangeLogParser, "values.yaml", content) == [value: value]
+
+        where:
+        value << ["text", "x" * 70000, true, 12, 12L, new BigInteger("123456789012345678901234567890"), new BigDecimal("1.50"), 1.5d, new Date(1000), [1, "a", null], [a: [b: "c"]]]
+    }
+
+    def "sets are read back as sets in their original order"() {
+        when:
+        def content = "content".getBytes("UTF-8")
+        ParsedChangeLogCache.getInstance().put(ChangeLogParser, "set.yaml", content, [value: new LinkedHashSet(["b", "a", "c"])])
+        def value = ParsedChangeLogCache.getInstance().get(ChangeLogParser, "set.yaml", content).value
+
+        then:
+        value instanceof Set
+        value as List == ["b", "a", "c"]
+    }
+
+    def "trees with unsupported values are not cached"() {
+        when:
+        def content = "content".getBytes("UTF-8")
+        ParsedChangeLogCache.getInstance().put(ChangeLogParser, "unsupported.yaml", content, [value: new Object()])
+
+        then:
+        ParsedChangeLogCache.getInstance().get(ChangeLogParser, "unsupported.yaml", content) == null
+    }
+}
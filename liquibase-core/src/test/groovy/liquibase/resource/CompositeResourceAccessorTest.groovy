@@ -73,4 +73,15 @@ class CompositeResourceAccessorTest extends Specification {
         validResources    | validResources     | validResources
     }
 
-}
\ No newline at end of file
+    def "close closes the closeable accessors"() {
+        given:
+        def closeable = Mock(FileSystemResourceAccessor)
+        def composite = new CompositeResourceAccessor(first, closeable)
+
+        when:
+        composite.close()
+
+        then:
+        1 * closeable.close()
+    }
+}
@@ -1,10 +1,18 @@
 package liquibase.resource
 
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
 class FileSystemResourceAccessorTest extends Specification {
 
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
     FileSystemResourceAccessor simpleTestAccessor
     File classpathRoot
 
@@ -160,4 +168,110 @@ class FileSystemResourceAccessorTest extends Specification {
         null                    | "com/example" | false     | false        | false              | []
     }
 
+    def "archive entries can be read repeatedly after closing their streams"() {
+        when:
+        def zip = createZip("changelogs.zip", ["db/changelog.xml": "root", "db/sub/included.xml": "included"])
+        def accessor = new FileSystemResourceAccessor(zip)
+        def contents = (1..3).collect {
+            def stream = accessor.openStream(null, "db/changelog.xml")
+            try {
+                return stream.text
+            } finally {
+                stream.close()
+            }
+        }
+
+        then:
+        contents == ["root", "root", "root"]
+        accessor.openStream("db/changelog.xml", "sub/included.xml").text == "included"
+        accessor.openStream("db/sub", "../changelog.xml").text == "root"
+        accessor.openStreams(null, "db/sub").size() == 0
+        accessor.openStreams(null, "db/sub/included.xml").getURIs()[0].toString().endsWith("changelogs.zip!db/sub/included.xml")
+    }
+
+    def "list finds directories that have no entries of their own in the archive"() {
+        when:
+        def zip = createZip("changelogs.zip", ["db/changelog.xml": "root", "db/sub/included.xml": "included", "db/sub/deeper/data.csv": "id"])
+        def accessor = new FileSystemResourceAccessor(zip)
+
+        then:
+        accessor.list(null, "db", false, true, true) == ["db/changelog.xml", "db/sub"] as SortedSet
+        accessor.list(null, "db", true, false, true) == ["db/sub", "db/sub/deeper"] as SortedSet
+        accessor.list("db/changelog.xml", "sub", true, true, false) == ["db/sub/deeper/data.csv", "db/sub/included.xml"] as SortedSet
+        accessor.list(null, "missing", true, true, true).isEmpty()
+        accessor.list("missing", "db", true, true, true).isEmpty()
+    }
+
+    def "archives added after the first lookup are found"() {
+        when:
+        def first = createZip("first.zip", ["first.txt": "first"])
+        def second = createZip("second.zip", ["second.txt": "second"])
+        def accessor = new FileSystemResourceAccessor(first)
+        def firstStream = accessor.openStream(null, "first.txt")
+        accessor.addRootPath(second.toPath())
+
+        then:
+        firstStream.text == "first"
+        accessor.openStream(null, "second.txt").text == "second"
+        accessor.list(null, "", true, true, false) == ["first.txt", "second.txt"] as SortedSet
+    }
+
+    def "close closes the archives and they are opened again on next use"() {
+        when:
+        def zip = createZip("changelogs.zip", ["db/changelog.xml": "root"])
+        def accessor = new FileSystemResourceAccessor(zip)
+        def stream = accessor.openStream(null, "db/changelog.xml")
+        accessor.close()
+        stream.read()
+
+        then:
+        thrown(IOException)
+
+        expect:
+        accessor.openStream(null, "db/changelog.xml").text == "root"
+
+        cleanup:
+        accessor?.close()
+    }
+
+    def "archives can be added while other threads read the index"() {
+        when:
+        def zips = (1..20).collect { createZip("archive" + it + ".zip", [("file" + it + ".txt"): "content" + it]) }
+        def accessor = new FileSystemResourceAccessor(zips[0])
+        accessor.openStream(null, "file1.txt").close()
+        def failures = Collections.synchronizedList(new ArrayList<Throwable>())
+        def readers = (1..4).collect {
+            Thread.start {
+                try {
+                    200.times {
+                        accessor.openStream(null, "file1.txt").close()
+                        accessor.list(null, "", true, true, false)
+                    }
+                } catch (Throwable e) {
+                    failures.add(e)
+                }
+            }
+        }
+        zips.drop(1).each { accessor.addRootPath(it.toPath()) }
+        readers*.join()
+
+        then:
+        failures.isEmpty()
+        accessor.list(null, "", true, true, false).size() == 20
+
+        cleanup:
+        accessor?.close()
+    }
+
+    private File createZip(String name, Map<String, String> files) {
+        def zip = temporaryFolder.newFile(name)
+        new ZipOutputStream(new FileOutputStream(zip)).withCloseable { out ->
+            files.each { path, content ->
+                out.putNextEntry(new ZipEntry(path))
+                out.write(content.getBytes("UTF-8"))
+                out.closeEntry()
+            }
+        }
+        return zip
+    }
 }
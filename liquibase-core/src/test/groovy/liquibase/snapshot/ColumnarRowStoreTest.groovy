@@ -0,0 +1,79 @@
+package liquibase.snapshot
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class ColumnarRowStoreTest extends Specification {
+
+    private static List<CachedRow> store(String[] columns, List<List> rows) {
+        def store = new ColumnarRowStore(columns)
+        for (row in rows) {
+            store.addRow(row as Object[])
+        }
+        store.trimToSize()
+        return store.getRows()
+    }
+
+    @Unroll
+    def "values are returned with their original type: #values"() {
+        when:
+        def rows = store(["VALUE"] as String[], values.collect { [it] })
+
+        then:
+        rows*.get("VALUE") == values
+        rows.collect { it.get("VALUE")?.getClass() } == values.collect { it?.getClass() }
+
+        where:
+        values << [
+                [1, null, 3],
+                [(short) 1, (short) 2],
+                [true, false, null],
+                [new BigDecimal(10), null, new BigDecimal(-5)],
+                ["a", "b", null],
+                [1, "mixed", 2L],
+                [null, null],
+                [new BigDecimal("1.5"), new BigDecimal(2)],
+                [new BigDecimal("10000000000"), new BigDecimal(1)],
+        ]
+    }
+
+    def "many rows are stored"() {
+        when:
+        def rows = store(["ID", "NAME", "NULLABLE"] as String[], (0..<1000).collect { [it, "name" + (it % 10), it % 2 == 0] })
+
+        then:
+        rows.size() == 1000
+        rows[999].getInt("ID") == 999
+        rows[999].getString("NAME") == "name9"
+        rows[999].getBoolean("NULLABLE") == false
+        rows[998].getBoolean("NULLABLE") == true
+        rows[3].getString("NAME").is(rows[13].getString("NAME"))
+    }
+
+    def "set replaces values and adds columns only to that row"() {
+        when:
+        def rows = store(["COLUMN_SIZE", "TYPE_NAME"] as String[], [[new BigDecimal(10), "VARCHAR"], [new BigDecimal(20), "NUMBER"]])
+        rows[0].set("COLUMN_SIZE", 5)
+        rows[1].set("TYPE_NAME", null)
+        rows[1].set("DECIMAL_DIGITS", 2)
+
+        then:
+        rows[0].get("COLUMN_SIZE") == 5
+        rows[1].get("COLUMN_SIZE") == new BigDecimal(20)
+        rows[0].getString("TYPE_NAME") == "VARCHAR"
+        rows[1].getString("TYPE_NAME") == null
+        rows[1].containsColumn("TYPE_NAME")
+        rows[1].getInt("DECIMAL_DIGITS") == 2
+        rows[1].containsColumn("DECIMAL_DIGITS")
+        !rows[0].containsColumn("DECIMAL_DIGITS")
+        rows[0].get("DECIMAL_DIGITS") == null
+    }
+
+    def "last column wins when a name is used twice"() {
+        when:
+        def rows = store(["A", "A"] as String[], [[1, 2]])
+
+        then:
+        rows[0].get("A") == 2
+    }
+}
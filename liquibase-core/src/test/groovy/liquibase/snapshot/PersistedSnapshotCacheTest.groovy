@@ -0,0 +1,176 @@
+package liquibase.snapshot
+
+import liquibase.CatalogAndSchema
+import liquibase.configuration.GlobalConfiguration
+import liquibase.configuration.LiquibaseConfiguration
+import liquibase.database.core.H2Database
+import liquibase.database.jvm.JdbcConnection
+import liquibase.executor.ExecutorService
+import liquibase.structure.core.Column
+import liquibase.structure.core.Schema
+import liquibase.structure.core.Table
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import java.sql.DriverManager
+
+class PersistedSnapshotCacheTest extends Specification {
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    H2Database database
+
+    def setup() {
+        database = new H2Database()
+        database.setConnection(new JdbcConnection(DriverManager.getConnection("jdbc:h2:mem:persistedSnapshot", "sa", "")))
+        execute("create table person (id int primary key, name varchar(50))")
+        execute("create index idx_person_name on person(name)")
+    }
+
+    def cleanup() {
+        LiquibaseConfiguration.getInstance().reset()
+        execute("drop all objects")
+        ExecutorService.getInstance().clearExecutor(database)
+        database.close()
+    }
+
+    private void execute(String sql) {
+        database.getConnection().getUnderlyingConnection().createStatement().execute(sql)
+        database.commit()
+    }
+
+    private CountingCache createCache() {
+        return new CountingCache(temporaryFolder.getRoot())
+    }
+
+    private DatabaseSnapshot snapshot(PersistedSnapshotCache cache) {
+        return cache.createSnapshot([new Schema(database.getDefaultCatalogName(), database.getDefaultSchemaName())] as Schema[], database, new SnapshotControl(database))
+    }
+
+    def "H2 fingerprint changes with the DDL but not with the data"() {
+        when:
+        def schema = new CatalogAndSchema(database.getDefaultCatalogName(), database.getDefaultSchemaName())
+        def original = database.getSchemaFingerprint(schema)
+        execute("insert into person (id, name) values (1, 'a')")
+        def afterInsert = database.getSchemaFingerprint(schema)
+        execute("alter table person add column age int")
+
+        then:
+        original != null
+        afterInsert == original
+        database.getSchemaFingerprint(schema) != original
+    }
+
+    def "unchanged schema is read from the stored snapshot"() {
+        when:
+        def cache = createCache()
+        def first = snapshot(cache)
+
+        then:
+        cache.snapshots == 1
+        temporaryFolder.getRoot().listFiles().length == 1
+        first.get(new Table(database.getDefaultCatalogName(), database.getDefaultSchemaName(), "PERSON")) != null
+
+        when:
+        def second = snapshot(cache)
+        def person = second.get(new Table(database.getDefaultCatalogName(), database.getDefaultSchemaName(), "PERSON"))
+
+        then:
+        cache.snapshots == 1
+        second.getDatabase() == database
+        person != null
+        person.getColumns()*.name as Set == ["ID", "NAME"] as Set
+        person.getIndexes()*.name.contains("IDX_PERSON_NAME")
+    }
+
+    def "changed schema is snapshotted again and stored"() {
+        when:
+        def cache = createCache()
+        snapshot(cache)
+        execute("alter table person add column age int")
+        def refreshed = snapshot(cache)
+
+        then:
+        cache.snapshots == 2
+        refreshed.get(new Column(Table, database.getDefaultCatalogName(), database.getDefaultSchemaName(), "PERSON", "AGE")) != null
+
+        when:
+        snapshot(cache)
+
+        then:
+        cache.snapshots == 2
+    }
+
+    def "snapshot with different types is not reused"() {
+        when:
+        def cache = createCache()
+        snapshot(cache)
+        cache.createSnapshot([new Schema(database.getDefaultCatalogName(), database.getDefaultSchemaName())] as Schema[], database, new SnapshotControl(database, Table))
+
+        then:
+        cache.snapshots == 2
+    }
+
+    def "snapshots with different types are stored side by side"() {
+        when:
+        def cache = createCache()
+        snapshot(cache)
+        cache.createSnapshot([new Schema(database.getDefaultCatalogName(), database.getDefaultSchemaName())] as Schema[], database, new SnapshotControl(database, Table))
+        snapshot(cache)
+        cache.createSnapshot([new Schema(database.getDefaultCatalogName(), database.getDefaultSchemaName())] as Schema[], database, new SnapshotControl(database, Table))
+
+        then:
+        cache.snapshots == 2
+        temporaryFolder.getRoot().listFiles().length == 2
+    }
+
+    def "unreadable stored snapshot is replaced"() {
+        when:
+        def cache = createCache()
+        snapshot(cache)
+        temporaryFolder.getRoot().listFiles()[0].text = "not a snapshot"
+        snapshot(cache)
+        snapshot(cache)
+
+        then:
+        cache.snapshots == 2
+    }
+
+    def "snapshot factory uses the cache if a directory is configured and the snapshot control allows it"() {
+        when:
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setSnapshotCacheDirectory(temporaryFolder.getRoot().getAbsolutePath())
+        def snapshot = SnapshotGeneratorFactory.getInstance().createSnapshot(database.getDefaultSchema(), database, new SnapshotControl(database).setUsePersistedSnapshots(true))
+
+        then:
+        temporaryFolder.getRoot().listFiles().length == 1
+        snapshot.get(new Table(database.getDefaultCatalogName(), database.getDefaultSchemaName(), "PERSON")) != null
+    }
+
+    def "snapshot factory does not use the cache for other snapshots"() {
+        when:
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setSnapshotCacheDirectory(temporaryFolder.getRoot().getAbsolutePath())
+        def snapshot = SnapshotGeneratorFactory.getInstance().createSnapshot(database.getDefaultSchema(), database, new SnapshotControl(database))
+        def exists = SnapshotGeneratorFactory.getInstance().has(new Table(database.getDefaultCatalogName(), database.getDefaultSchemaName(), "PERSON"), database)
+
+        then:
+        temporaryFolder.getRoot().listFiles().length == 0
+        snapshot.get(new Table(database.getDefaultCatalogName(), database.getDefaultSchemaName(), "PERSON")) != null
+        exists
+    }
+
+    private static class CountingCache extends PersistedSnapshotCache {
+        int snapshots
+
+        CountingCache(File directory) {
+            super(directory)
+        }
+
+        @Override
+        protected DatabaseSnapshot snapshotSchema(Schema schema, liquibase.database.Database database, SnapshotControl snapshotControl) {
+            snapshots++
+            return super.snapshotSchema(schema, database, snapshotControl)
+        }
+    }
+}
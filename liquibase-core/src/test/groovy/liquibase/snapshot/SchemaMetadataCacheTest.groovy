@@ -0,0 +1,107 @@
+package liquibase.snapshot
+
+import liquibase.change.core.DropTableChange
+import liquibase.change.core.RawSQLChange
+import liquibase.configuration.GlobalConfiguration
+import liquibase.configuration.LiquibaseConfiguration
+import liquibase.database.core.H2Database
+import liquibase.database.jvm.JdbcConnection
+import liquibase.executor.ExecutorService
+import liquibase.structure.core.Column
+import liquibase.structure.core.Index
+import liquibase.structure.core.Schema
+import liquibase.structure.core.Table
+import spock.lang.Specification
+
+import java.sql.DriverManager
+
+class SchemaMetadataCacheTest extends Specification {
+
+    H2Database database
+
+    def setup() {
+        def connection = new JdbcConnection(DriverManager.getConnection("jdbc:h2:mem:schemaMetadataCache", "sa", ""))
+        database = new H2Database()
+        database.setConnection(connection)
+        execute("create table person (id int primary key, name varchar(50))")
+        execute("create index idx_person_name on person(name)")
+        execute("create table address (id int primary key, person_id int)")
+    }
+
+    def cleanup() {
+        SchemaMetadataCache.getInstance().clearAll()
+        LiquibaseConfiguration.getInstance().reset()
+        execute("drop all objects")
+        ExecutorService.getInstance().clearExecutor(database)
+        database.close()
+    }
+
+    private void execute(String sql) {
+        database.getConnection().getUnderlyingConnection().createStatement().execute(sql)
+    }
+
+    private boolean has(String table, String column = null) {
+        def example = new Table().setName(table.toUpperCase()).setSchema(new Schema(null, null))
+        if (column != null) {
+            example = new Column(Table, null, null, table.toUpperCase(), column.toUpperCase())
+        }
+        return SchemaMetadataCache.getInstance().has(example, database)
+    }
+
+    private static void enable() {
+        LiquibaseConfiguration.getInstance().getConfiguration(GlobalConfiguration.class).setCachePreconditionMetadata(true)
+    }
+
+    def "checks go to the database when the cache is disabled"() {
+        expect:
+        has("person")
+
+        when:
+        execute("drop table address")
+
+        then:
+        !has("address")
+    }
+
+    def "existence is answered from the cached snapshot"() {
+        when:
+        enable()
+
+        then:
+        has("person")
+        has("person", "name")
+        !has("person", "email")
+        !has("missing")
+        SchemaMetadataCache.getInstance().has(new Index().setName("IDX_PERSON_NAME"), database)
+
+        when: "a table is dropped outside of a change"
+        execute("drop table address")
+
+        then: "the cached snapshot still has it"
+        has("address")
+    }
+
+    def "tables affected by an executed change are checked against the database"() {
+        when:
+        enable()
+        has("person")
+        execute("drop table address")
+        execute("alter table person add column email varchar(50)")
+        SchemaMetadataCache.getInstance().changeExecuted(new DropTableChange(tableName: "ADDRESS"), database)
+
+        then:
+        !has("address")
+        !has("person", "email")
+    }
+
+    def "changes without known tables drop the cached snapshots"() {
+        when:
+        enable()
+        has("person")
+        execute("alter table person add column email varchar(50)")
+        SchemaMetadataCache.getInstance().changeExecuted(new RawSQLChange("alter table person add column email varchar(50)"), database)
+
+        then:
+        has("person", "email")
+    }
+}
@@ -0,0 +1,120 @@
+package liquibase.snapshot
+
+import liquibase.CatalogAndSchema
+import liquibase.database.Database
+import liquibase.database.core.H2Database
+import liquibase.database.jvm.JdbcConnection
+import liquibase.executor.ExecutorService
+import liquibase.structure.core.Catalog
+import liquibase.structure.core.Schema
+import liquibase.structure.core.Table
+import org.h2.jdbcx.JdbcDataSource
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import java.sql.Connection
+
+class SnapshotGeneratorFactoryTest extends Specification {
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    JdbcDataSource dataSource
+    Connection keepAlive
+    Database database
+
+    def setup() {
+        dataSource = new JdbcDataSource()
+        dataSource.setURL("jdbc:h2:mem:parallelSnapshot;DB_CLOSE_DELAY=-1")
+        dataSource.setUser("sa")
+        dataSource.setPassword("")
+
+        keepAlive = dataSource.getConnection()
+        def statement = keepAlive.createStatement()
+        for (schema in ["S1", "S2", "S3"]) {
+            statement.execute("create schema " + schema)
+            statement.execute("create table " + schema + ".parent (id int primary key)")
+            statement.execute("create table " + schema + ".child_" + schema + " (id int primary key, parent_id int, constraint fk_" + schema + " foreign key (parent_id) references " + schema + ".parent(id))")
+        }
+        statement.close()
+
+        database = new H2Database()
+        database.setConnection(new JdbcConnection(dataSource.getConnection()))
+    }
+
+    def cleanup() {
+        database.close()
+        keepAlive.createStatement().execute("drop all objects")
+        keepAlive.close()
+    }
+
+    private static Set<String> tableNames(DatabaseSnapshot snapshot) {
+        return snapshot.get(Table).collect { it.schema.name + "." + it.name } as Set
+    }
+
+    def "parallel snapshot finds the same objects as a serial snapshot"() {
+        when:
+        def schemas = [new CatalogAndSchema(null, "S1"), new CatalogAndSchema(null, "S2"), new CatalogAndSchema(null, "S3")] as CatalogAndSchema[]
+        def serial = SnapshotGeneratorFactory.getInstance().createSnapshot(schemas, database, new SnapshotControl(database))
+
+        schemas = [new CatalogAndSchema(null, "S1"), new CatalogAndSchema(null, "S2"), new CatalogAndSchema(null, "S3")] as CatalogAndSchema[]
+        def parallelControl = new SnapshotControl(database).setParallelDataSource(dataSource, 2)
+        def parallel = SnapshotGeneratorFactory.getInstance().createSnapshot(schemas, database, parallelControl)
+
+        then:
+        parallel instanceof RestoredDatabaseSnapshot
+        tableNames(parallel) == tableNames(serial)
+        tableNames(parallel).size() == 6
+        parallel.get(Schema).collect { it.name } as Set == ["S1", "S2", "S3"] as Set
+        parallel.get(Catalog).size() == serial.get(Catalog).size()
+        parallel.get(liquibase.structure.core.ForeignKey).size() == 3
+        parallel.get(new Table(null, "S2", "CHILD_S2")) != null
+    }
+
+    def "parallel snapshot leaves the caller's SnapshotControl and the executors of its connections behind"() {
+        when:
+        def executorDatabases = new HashSet(ExecutorService.getInstance().@executors.keySet())
+        def control = new SnapshotControl(database, Table).setParallelDataSource(dataSource, 2)
+        def types = new HashSet(control.getTypesToInclude())
+        def schemas = [new CatalogAndSchema(null, "S1"), new CatalogAndSchema(null, "S2")] as CatalogAndSchema[]
+        def snapshot = SnapshotGeneratorFactory.getInstance().createSnapshot(schemas, database, control)
+
+        then:
+        tableNames(snapshot).size() == 4
+        control.getTypesToInclude() == types
+        (ExecutorService.getInstance().@executors.keySet() - executorDatabases).every { it.is(database) }
+    }
+
+    def "parallel snapshot is not used for a single schema"() {
+        when:
+        def control = new SnapshotControl(database).setParallelDataSource(dataSource, 4)
+        def snapshot = SnapshotGeneratorFactory.getInstance().createSnapshot([new CatalogAndSchema(null, "S1")] as CatalogAndSchema[], database, control)
+
+        then:
+        snapshot instanceof JdbcDatabaseSnapshot
+        tableNames(snapshot) == ["S1.PARENT", "S1.CHILD_S1"] as Set
+    }
+
+    def "schemas missing from the persisted snapshots are snapshot in parallel"() {
+        when:
+        def serialSnapshots = 0
+        def cache = new PersistedSnapshotCache(temporaryFolder.getRoot()) {
+            @Override
+            protected DatabaseSnapshot snapshotSchema(Schema schema, Database database, SnapshotControl snapshotControl) {
+                serialSnapshots++
+                return super.snapshotSchema(schema, database, snapshotControl)
+            }
+        }
+        def schemas = [new Schema(null, "S1"), new Schema(null, "S2"), new Schema(null, "S3")] as Schema[]
+        def control = new SnapshotControl(database).setParallelDataSource(dataSource, 2).setUsePersistedSnapshots(true)
+        def first = cache.createSnapshot(schemas, database, control)
+        def second = cache.createSnapshot(schemas, database, control)
+
+        then:
+        serialSnapshots == 0
+        temporaryFolder.getRoot().listFiles().length == 3
+        tableNames(first).size() == 6
+        tableNames(second) == tableNames(first)
+    }
+}
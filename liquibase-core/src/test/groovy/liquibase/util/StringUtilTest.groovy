@@ -218,4 +218,25 @@ class StringUtilTest extends Specification {
         "123" | "_x" | "123_x"
         "123" | "_X" | "123_X"
     }
+
+    @Unroll
+    def "foldCase"() {
+        expect:
+        StringUtil.foldCase(first).equals(StringUtil.foldCase(second)) == first.equalsIgnoreCase(second)
+
+        where:
+        first         | second
+        "abc"         | "ABC"
+        "AbC"         | "aBc"
+        "abc"         | "abd"
+        "path/a.xml"  | "PATH/A.XML"
+        "\u0131"     | "I"
+        "\u0130"     | "i"
+        "stra\u00dfe" | "STRASSE"
+    }
+
+    def "foldCase null"() {
+        expect:
+        StringUtil.foldCase(null) == null
+    }
 }
@@ -21,6 +21,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.Closeable;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -111,6 +112,22 @@ public class LiquibaseTest {
             database, liquibase.getDatabase());
     }
 
+    @Test
+    public void closeClosesTheResourceAccessor() throws Exception {
+        final boolean[] closed = {false};
+        class CloseableResourceAccessor extends MockResourceAccessor implements Closeable {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        }
+
+        Liquibase liquibase = new Liquibase("com/example/test.xml", new CloseableResourceAccessor(), new MockDatabase());
+        liquibase.close();
+
+        assertTrue("resource accessor is closed", closed[0]);
+    }
+
     @Test
     public void testConstructorChangelogPathsStandardize() throws Exception {
         Liquibase liquibase = new Liquibase("path\\with\\windows\\separators.xml", mockResourceAccessor, new MockDatabase());
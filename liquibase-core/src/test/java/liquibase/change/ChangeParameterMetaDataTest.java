@@ -132,6 +132,31 @@ public class ChangeParameterMetaDataTest {
 
     }
 
+    @Test
+    public void setValue() {
+        DropTableChange change = new DropTableChange();
+        ChangeParameterMetaData tableNameMetaData = new ChangeParameterMetaData(new ExampleAbstractChange(), "tableName", "Table Name", null, null, null, String.class, null, null, null, LiquibaseSerializable.SerializationType.NAMED_FIELD);
+        ChangeParameterMetaData cascadeMetaData = new ChangeParameterMetaData(new ExampleAbstractChange(), "cascadeConstraints", "Cascade Constraints", null, null, null, Boolean.class, null, null, null, LiquibaseSerializable.SerializationType.NAMED_FIELD);
+
+        tableNameMetaData.setValue(change, "person");
+        cascadeMetaData.setValue(change, Boolean.TRUE);
+        assertEquals("person", change.getTableName());
+        assertEquals(Boolean.TRUE, change.isCascadeConstraints());
+        assertEquals(Boolean.TRUE, cascadeMetaData.getCurrentValue(change));
+
+        tableNameMetaData.setValue(change, 42);
+        assertEquals("42", tableNameMetaData.getCurrentValue(change));
+
+        tableNameMetaData.setValue(change, null);
+        assertNull(tableNameMetaData.getCurrentValue(change));
+    }
+
+    @Test(expected = UnexpectedLiquibaseException.class)
+    public void setValue_wrongType() {
+        ChangeParameterMetaData cascadeMetaData = new ChangeParameterMetaData(new ExampleAbstractChange(), "cascadeConstraints", "Cascade Constraints", null, null, null, Boolean.class, null, null, null, LiquibaseSerializable.SerializationType.NAMED_FIELD);
+        cascadeMetaData.setValue(new DropTableChange(), 42);
+    }
+
     @Test
     public void computedDatabasesCorrect(){
         ChangeParameterMetaData catalogName = Scope.getCurrentScope().getSingleton(ChangeFactory.class).getChangeMetaData(new AddNotNullConstraintChange()).getParameters().get("catalogName");
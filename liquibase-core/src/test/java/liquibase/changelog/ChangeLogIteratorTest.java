@@ -6,6 +6,7 @@ import liquibase.changelog.filter.ChangeSetFilterResult;
 import liquibase.changelog.filter.ContextChangeSetFilter;
 import liquibase.changelog.filter.DbmsChangeSetFilter;
 import liquibase.changelog.visitor.ChangeSetVisitor;
+import liquibase.changelog.visitor.SkippedChangeSetVisitor;
 import liquibase.database.Database;
 import liquibase.database.core.MySQLDatabase;
 import liquibase.exception.LiquibaseException;
@@ -75,6 +76,34 @@ public class ChangeLogIteratorTest {
         assertEquals("1", testChangeLogVisitor.visitedChangeSets.get(2).getId());
     }
 
+    @Test
+    public void runChangeSet_filterResultsPassedToVisitor() throws Exception {
+        SkippingChangeSetVisitor testChangeLogVisitor = new SkippingChangeSetVisitor();
+
+        ChangeLogIterator iterator = new ChangeLogIterator(changeLog, new ContextChangeSetFilter(new Contexts("test1")), new DbmsChangeSetFilter(new MySQLDatabase()));
+        iterator.run(testChangeLogVisitor, new RuntimeEnvironment(null, null, null));
+        assertEquals(3, testChangeLogVisitor.visitedChangeSets.size());
+        assertEquals(2, testChangeLogVisitor.acceptedReasons.get(0).size());
+        assertEquals(3, testChangeLogVisitor.skippedChangeSets.size());
+        assertEquals("2", testChangeLogVisitor.skippedChangeSets.get(0).getId());
+        assertEquals(1, testChangeLogVisitor.deniedReasons.get(0).size());
+        assertEquals(DbmsChangeSetFilter.class, testChangeLogVisitor.deniedReasons.get(0).iterator().next().getFilter());
+        assertEquals(ContextChangeSetFilter.class, testChangeLogVisitor.deniedReasons.get(1).iterator().next().getFilter());
+    }
+
+    @Test
+    public void runChangeSet_duplicateChangeSetSkipped() throws Exception {
+        changeLog.addChangeSet(new ChangeSet("4", "nvoxland", false, false, "/path/to/changelog",  null, null, null));
+        SkippingChangeSetVisitor testChangeLogVisitor = new SkippingChangeSetVisitor();
+
+        ChangeLogIterator iterator = new ChangeLogIterator(changeLog);
+        iterator.run(testChangeLogVisitor, new RuntimeEnvironment(null, null, null));
+        assertEquals(6, testChangeLogVisitor.visitedChangeSets.size());
+        assertEquals(1, testChangeLogVisitor.skippedChangeSets.size());
+        assertEquals(0, testChangeLogVisitor.deniedReasons.get(0).size());
+        assertEquals(0, testChangeLogVisitor.acceptedReasons.get(0).size());
+    }
+
     private static class TestChangeSetVisitor implements ChangeSetVisitor {
 
         public List<ChangeSet> visitedChangeSets = new ArrayList<ChangeSet>();
@@ -91,6 +120,25 @@ public class ChangeLogIteratorTest {
         }
     }
 
+    private static class SkippingChangeSetVisitor extends TestChangeSetVisitor implements SkippedChangeSetVisitor {
+
+        public List<Set<ChangeSetFilterResult>> acceptedReasons = new ArrayList<>();
+        public List<ChangeSet> skippedChangeSets = new ArrayList<>();
+        public List<Set<ChangeSetFilterResult>> deniedReasons = new ArrayList<>();
+
+        @Override
+        public void visit(ChangeSet changeSet, DatabaseChangeLog databaseChangeLog, Database database, Set<ChangeSetFilterResult> filterResults) throws LiquibaseException {
+            super.visit(changeSet, databaseChangeLog, database, filterResults);
+            acceptedReasons.add(filterResults);
+        }
+
+        @Override
+        public void skipped(ChangeSet changeSet, DatabaseChangeLog databaseChangeLog, Database database, Set<ChangeSetFilterResult> filterResults) throws LiquibaseException {
+            skippedChangeSets.add(changeSet);
+            deniedReasons.add(filterResults);
+        }
+    }
+
     private static class ReverseChangeSetVisitor extends TestChangeSetVisitor {
 
         @Override
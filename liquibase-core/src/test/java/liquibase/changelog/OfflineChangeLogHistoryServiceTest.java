@@ -10,12 +10,22 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -77,6 +87,154 @@ public class OfflineChangeLogHistoryServiceTest {
         assertFalse(new File(temporaryFolder.getRoot(), CHANGE_LOG_CSV + ".new").exists());
     }
 
+    /**
+     * Test that changes are kept in the journal until the service is reset and then written to the changelogCsv
+     */
+    @Test
+    public void testJournalCompactedOnReset() throws Exception {
+        // Given
+        OfflineChangeLogHistoryService service = createService(new StringWriter(), "false");
+        File changeLogCsvFile = new File(temporaryFolder.getRoot(), CHANGE_LOG_CSV);
+        File journalFile = new File(temporaryFolder.getRoot(), CHANGE_LOG_CSV + ".journal");
+
+        // When
+        service.init();
+        service.setExecType(createChangeSet("1"), ChangeSet.ExecType.EXECUTED);
+        service.setExecType(createChangeSet("2"), ChangeSet.ExecType.EXECUTED);
+        service.setExecType(createChangeSet("3"), ChangeSet.ExecType.EXECUTED);
+        service.removeFromHistory(createChangeSet("2"));
+        service.tag("v1");
+
+        // Assert
+        assertTrue(journalFile.exists());
+        assertEquals(1, readLines(changeLogCsvFile).size());
+        assertEquals(Arrays.asList("1", "3"), getIds(service.getRanChangeSets()));
+        assertEquals(4, service.getNextSequenceValue());
+
+        service.reset();
+
+        assertFalse(journalFile.exists());
+        assertFalse(new File(temporaryFolder.getRoot(), CHANGE_LOG_CSV + ".new").exists());
+        assertEquals(3, readLines(changeLogCsvFile).size());
+        assertEquals(Arrays.asList("1", "3"), getIds(service.getRanChangeSets()));
+        assertEquals("v1", service.getRanChangeSets().get(1).getTag());
+        assertTrue(service.tagExists("v1"));
+    }
+
+    /**
+     * Test that reran, tagged and removed changeSets are updated in the loaded history without reading it again
+     */
+    @Test
+    public void testLoadedHistoryUpdatedInPlace() throws Exception {
+        // Given
+        OfflineChangeLogHistoryService service = createService(new StringWriter(), "false");
+        service.init();
+        service.setExecType(createChangeSet("1"), ChangeSet.ExecType.EXECUTED);
+        service.setExecType(createChangeSet("2"), ChangeSet.ExecType.EXECUTED);
+        service.setExecType(createChangeSet("3"), ChangeSet.ExecType.EXECUTED);
+        List<RanChangeSet> loaded = new ArrayList<>(service.getRanChangeSets());
+
+        // When
+        service.setExecType(createChangeSet("2"), ChangeSet.ExecType.RERAN);
+        service.tag("v1");
+        service.removeFromHistory(createChangeSet("1"));
+
+        // Assert
+        List<RanChangeSet> ranChangeSets = service.getRanChangeSets();
+        assertEquals(Arrays.asList("2", "3"), getIds(ranChangeSets));
+        assertEquals(ChangeSet.ExecType.RERAN, ranChangeSets.get(0).getExecType());
+        assertEquals(ChangeSet.ExecType.RERAN, service.getRanChangeSet(createChangeSet("2")).getExecType());
+        assertEquals("v1", service.getRanChangeSet(createChangeSet("3")).getTag());
+        assertNull(service.getRanChangeSet(createChangeSet("1")));
+        assertNotSame(loaded.get(1), ranChangeSets.get(0));
+        assertSame(ranChangeSets.get(1), service.getRanChangeSet(createChangeSet("3")));
+
+        service.reset();
+        assertEquals(getIds(ranChangeSets), getIds(service.getRanChangeSets()));
+        assertEquals("v1", service.getRanChangeSets().get(1).getTag());
+    }
+
+    /**
+     * Test that a journal left behind by a service that was not reset is applied when the changelogCsv is read again
+     */
+    @Test
+    public void testJournalAppliedWhenNotCompacted() throws Exception {
+        // Given
+        OfflineChangeLogHistoryService service = createService(new StringWriter(), "false");
+        service.init();
+        service.setExecType(createChangeSet("1"), ChangeSet.ExecType.EXECUTED);
+        service.setExecType(createChangeSet("2"), ChangeSet.ExecType.EXECUTED);
+        service.clearAllCheckSums();
+
+        // When
+        OfflineChangeLogHistoryService newService = createService(new StringWriter(), "false");
+        List<RanChangeSet> ranChangeSets = newService.getRanChangeSets();
+
+        // Assert
+        assertEquals(Arrays.asList("1", "2"), getIds(ranChangeSets));
+        assertEquals("", ranChangeSets.get(0).getLastCheckSum().toString().replaceFirst("^1:", ""));
+        assertEquals(3, newService.getNextSequenceValue());
+    }
+
+    /**
+     * Test that a journal is not applied to a changelogCsv that already contains its changes
+     */
+    @Test
+    public void testJournalIgnoredForRewrittenFile() throws Exception {
+        // Given
+        OfflineChangeLogHistoryService service = createService(new StringWriter(), "false");
+        File journalFile = new File(temporaryFolder.getRoot(), CHANGE_LOG_CSV + ".journal");
+        service.init();
+        service.setExecType(createChangeSet("1"), ChangeSet.ExecType.EXECUTED);
+        service.setExecType(createChangeSet("2"), ChangeSet.ExecType.EXECUTED);
+        service.reset();
+        service.removeFromHistory(createChangeSet("1"));
+        service.setExecType(createChangeSet("3"), ChangeSet.ExecType.EXECUTED);
+        byte[] journal = Files.readAllBytes(journalFile.toPath());
+        service.reset();
+
+        // When
+        // Same number of rows as the file the journal was written for, but different content
+        Files.write(journalFile.toPath(), journal);
+        OfflineChangeLogHistoryService newService = createService(new StringWriter(), "false");
+
+        // Assert
+        assertEquals(Arrays.asList("2", "3"), getIds(newService.getRanChangeSets()));
+        assertFalse(journalFile.exists());
+    }
+
+    /**
+     * Test that a rewrite of the changelogCsv that stopped after the journal was retired is finished on the next read
+     */
+    @Test
+    public void testInterruptedCompactionFinished() throws Exception {
+        // Given
+        OfflineChangeLogHistoryService service = createService(new StringWriter(), "false");
+        File changeLogCsvFile = new File(temporaryFolder.getRoot(), CHANGE_LOG_CSV);
+        File journalFile = new File(temporaryFolder.getRoot(), CHANGE_LOG_CSV + ".journal");
+        File retiredJournalFile = new File(temporaryFolder.getRoot(), CHANGE_LOG_CSV + ".journal.done");
+        File newFile = new File(temporaryFolder.getRoot(), CHANGE_LOG_CSV + ".new");
+        service.init();
+        service.setExecType(createChangeSet("1"), ChangeSet.ExecType.EXECUTED);
+        service.setExecType(createChangeSet("2"), ChangeSet.ExecType.EXECUTED);
+        byte[] oldCsv = Files.readAllBytes(changeLogCsvFile.toPath());
+        byte[] journal = Files.readAllBytes(journalFile.toPath());
+        service.reset();
+
+        // When
+        Files.copy(changeLogCsvFile.toPath(), newFile.toPath());
+        Files.write(changeLogCsvFile.toPath(), oldCsv);
+        Files.write(retiredJournalFile.toPath(), journal);
+        OfflineChangeLogHistoryService newService = createService(new StringWriter(), "false");
+
+        // Assert
+        assertEquals(Arrays.asList("1", "2"), getIds(newService.getRanChangeSets()));
+        assertEquals(3, readLines(changeLogCsvFile).size());
+        assertFalse(retiredJournalFile.exists());
+        assertFalse(newFile.exists());
+        assertFalse(journalFile.exists());
+    }
+
     /**
      * Test ChangeLog table update SQL generation with outputLiquibaseSql=true and outputLiquibaseSql=data_only
      */
@@ -113,9 +271,25 @@ public class OfflineChangeLogHistoryServiceTest {
      * Create ChangeLog and ChangeSet
      */
     private ChangeSet createChangeSet() {
+        return createChangeSet("id");
+    }
+
+    private ChangeSet createChangeSet(String id) {
         DatabaseChangeLog databaseChangeLog = new DatabaseChangeLog("/patch/changeLog.xml");
-        ChangeSet changeSet = new ChangeSet("id", "author", false, false, "/path/changeSet.xml", "", "", databaseChangeLog);
+        ChangeSet changeSet = new ChangeSet(id, "author", false, false, "/path/changeSet.xml", "", "", databaseChangeLog);
         databaseChangeLog.addChangeSet(changeSet);
         return changeSet;
     }
+
+    private List<String> getIds(List<RanChangeSet> ranChangeSets) {
+        List<String> ids = new ArrayList<>();
+        for (RanChangeSet ranChangeSet : ranChangeSets) {
+            ids.add(ranChangeSet.getId());
+        }
+        return ids;
+    }
+
+    private List<String> readLines(File file) throws IOException {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    }
 }
@@ -1,15 +1,22 @@
 package liquibase.diff.output.changelog;
 
+import liquibase.changelog.ChangeSet;
 import liquibase.database.core.MySQLDatabase;
+import liquibase.database.core.PostgresDatabase;
 import liquibase.diff.DiffResult;
 import liquibase.diff.compare.CompareControl;
+import liquibase.diff.output.DiffOutputControl;
 import liquibase.snapshot.EmptyDatabaseSnapshot;
 import liquibase.structure.DatabaseObject;
+import liquibase.structure.core.Sequence;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
 public class DiffToChangeLogTest {
@@ -26,4 +33,37 @@ public class DiffToChangeLogTest {
             }
         }
     }
+
+    @Test
+    public void generateChangeSetIterator_sameChangeSetsAsList() throws Exception {
+        PostgresDatabase database = new PostgresDatabase();
+        List<String> listIds = new ArrayList<>();
+        for (ChangeSet changeSet : createDiffToChangeLog(database).generateChangeSets()) {
+            listIds.add(changeSet.getId() + ":" + changeSet.getChanges().get(0).getDescription());
+        }
+
+        List<String> iteratorIds = new ArrayList<>();
+        Iterator<ChangeSet> iterator = createDiffToChangeLog(database).generateChangeSetIterator();
+        while (iterator.hasNext()) {
+            ChangeSet changeSet = iterator.next();
+            iteratorIds.add(changeSet.getId() + ":" + changeSet.getChanges().get(0).getDescription());
+        }
+
+        assertEquals(4, listIds.size());
+        assertEquals(listIds, iteratorIds);
+        assertEquals("test-1:createSequence sequenceName=seq_a", listIds.get(0));
+        assertEquals("test-4:dropSequence sequenceName=seq_old", listIds.get(3));
+    }
+
+    private DiffToChangeLog createDiffToChangeLog(PostgresDatabase database) throws Exception {
+        DiffResult diffResult = new DiffResult(new EmptyDatabaseSnapshot(database), new EmptyDatabaseSnapshot(database), new CompareControl());
+        diffResult.addMissingObject(new Sequence(null, "public", "seq_a"));
+        diffResult.addMissingObject(new Sequence(null, "public", "seq_b"));
+        diffResult.addMissingObject(new Sequence(null, "public", "seq_c"));
+        diffResult.addUnexpectedObject(new Sequence(null, "public", "seq_old"));
+
+        DiffToChangeLog diffToChangeLog = new DiffToChangeLog(diffResult, new DiffOutputControl());
+        diffToChangeLog.setIdRoot("test");
+        return diffToChangeLog;
+    }
 }
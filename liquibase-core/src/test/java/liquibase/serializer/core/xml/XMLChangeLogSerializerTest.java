@@ -4,7 +4,9 @@ import liquibase.change.AddColumnConfig;
 import liquibase.change.ColumnConfig;
 import liquibase.change.ConstraintsConfig;
 import liquibase.change.core.*;
+import liquibase.changelog.ChangeSet;
 import liquibase.resource.ClassLoaderResourceAccessor;
+import liquibase.serializer.LiquibaseSerializable;
 import liquibase.statement.SequenceNextValueFunction;
 import org.junit.Test;
 import org.w3c.dom.Element;
@@ -13,7 +15,11 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 import static org.junit.Assert.*;
 
@@ -854,4 +860,49 @@ public class XMLChangeLogSerializerTest {
                 "        schemaName=\"b\"\n" +
                 "        tableName=\"c\"/>", out);
     }
+
+    @Test
+    public void write_streamsChangeSetsAndKeepsSpecialCharacters() throws Exception {
+        ChangeSet first = new ChangeSet("1", "test", false, false, "changelog.xml", null, null, null);
+        CreateTableChange createTable = new CreateTableChange();
+        createTable.setTableName("person");
+        createTable.setRemarks("line one\nline \"two\" & <three>");
+        createTable.addColumn(new ColumnConfig().setName("id").setType("int"));
+        first.addChange(createTable);
+
+        ChangeSet second = new ChangeSet("2", "test", false, false, "changelog.xml", null, null, null);
+        RawSQLChange sql = new RawSQLChange("select 1\nfrom dual where a < b && c > d");
+        second.addChange(sql);
+
+        ByteArrayOutputStream listOut = new ByteArrayOutputStream();
+        new XMLChangeLogSerializer().write(Arrays.asList(first, second), listOut);
+        ByteArrayOutputStream iteratorOut = new ByteArrayOutputStream();
+        new XMLChangeLogSerializer().write(Arrays.asList(first, second).iterator(), iteratorOut);
+        assertEquals(listOut.toString("UTF-8"), iteratorOut.toString("UTF-8"));
+
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Element changeLog = factory.newDocumentBuilder().parse(new ByteArrayInputStream(listOut.toByteArray())).getDocumentElement();
+        assertEquals("databaseChangeLog", changeLog.getLocalName());
+
+        NodeList changeSets = changeLog.getElementsByTagNameNS(LiquibaseSerializable.STANDARD_CHANGELOG_NAMESPACE, "changeSet");
+        assertEquals(2, changeSets.getLength());
+
+        Element createTableElement = (Element) changeLog.getElementsByTagNameNS(LiquibaseSerializable.STANDARD_CHANGELOG_NAMESPACE, "createTable").item(0);
+        assertEquals("line one\nline \"two\" & <three>", createTableElement.getAttribute("remarks"));
+        assertEquals("id", ((Element) createTableElement.getElementsByTagNameNS(LiquibaseSerializable.STANDARD_CHANGELOG_NAMESPACE, "column").item(0)).getAttribute("name"));
+
+        Node sqlElement = changeLog.getElementsByTagNameNS(LiquibaseSerializable.STANDARD_CHANGELOG_NAMESPACE, "sql").item(0);
+        assertEquals("select 1\nfrom dual where a < b && c > d", sqlElement.getTextContent());
+    }
+
+    @Test
+    public void write_emptyChangeLogCanBeAppendedTo() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XMLChangeLogSerializer().write(new ArrayList<ChangeSet>(), out);
+
+        String written = out.toString("UTF-8");
+        assertTrue(written.startsWith("<?xml version=\"1.1\" encoding=\"UTF-8\" standalone=\"no\"?>"));
+        assertTrue(written.trim().endsWith("</databaseChangeLog>"));
+    }
 }
@@ -5,6 +5,13 @@ import liquibase.change.core.CreateTableChange;
 import liquibase.changelog.ChangeSet;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
 public class YamlChangeLogSerializerTest {
 
     @Test
@@ -21,6 +28,28 @@ public class YamlChangeLogSerializerTest {
         System.out.println(out);
     }
 
+    @Test
+    public void write_sameAsDumpingWholeChangeLog() throws Exception {
+        YamlChangeLogSerializer serializer = new YamlChangeLogSerializer();
+        List<ChangeSet> changeSets = new ArrayList<>();
+        List<Object> maps = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            ChangeSet changeSet = new ChangeSet("test" + i, "nvoxland", false, true, "/test/me.txt", null, null, null);
+            CreateTableChange change = new CreateTableChange();
+            change.setTableName("testTable" + i);
+            change.setRemarks("line one\nline two");
+            change.addColumn(new ColumnConfig().setName("id").setType("int"));
+            changeSet.addChange(change);
+            changeSets.add(changeSet);
+            maps.add(serializer.toMap(changeSet));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.write(changeSets, out);
+
+        assertEquals(serializer.yaml.dumpAsMap(Collections.singletonMap("databaseChangeLog", maps)) + "\n", out.toString("UTF-8"));
+    }
+
 //    @Test
 //    public void serialize_changelog() {
 //        ChangeSet changeSet = new ChangeSet("test1", "nvoxland", false, true, "/test/me.txt", null, null);
@@ -10,8 +10,14 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.SortedSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
 
@@ -184,6 +190,55 @@ public class SqlGeneratorFactoryTest {
         assertEquals(1, allGenerators.size());        
     }
 
+    @Test
+    public void getGeneratorsIsCached() {
+        SortedSet<SqlGenerator> first = factory.getGenerators(statement, database);
+        SortedSet<SqlGenerator> second = factory.getGenerators(new AddAutoIncrementStatement(null, null, "other", "id", "int", null, null), database);
+
+        assertSame(first, second);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getGeneratorsIsUnmodifiable() {
+        factory.getGenerators(statement, database).clear();
+    }
+
+    @Test
+    public void getGeneratorsSeesDirectChangesToGeneratorList() {
+        assertEquals(1, factory.getGenerators(statement, database).size());
+
+        factory.getGenerators().clear();
+
+        assertEquals(0, factory.getGenerators(statement, database).size());
+    }
+
+    @Test
+    public void getGeneratorsFromMultipleThreads() throws Exception {
+        final SortedSet<SqlGenerator> expected = factory.getGenerators(statement, database);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int j = 0; j < 1000; j++) {
+                            if (!expected.equals(factory.getGenerators(statement, database))) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private class CustomAddAutoIncrementGeneratorHsqlH2 extends AddAutoIncrementGeneratorHsqlH2 {
 
         @Override
@@ -1,12 +1,15 @@
 package liquibase.sqlgenerator.core;
 
 import liquibase.database.Database;
+import liquibase.database.ObjectQuotingStrategy;
 import liquibase.database.core.MSSQLDatabase;
 import liquibase.sql.Sql;
 import liquibase.statement.core.UpdateStatement;
 import liquibase.structure.core.Column;
 import org.junit.Test;
 
+import java.util.Collections;
+
 import static org.junit.Assert.assertEquals;
 
 public class UpdateGeneratorTest {
@@ -68,6 +71,48 @@ public class UpdateGeneratorTest {
                 sqls[0].toSql());
     }
 
+    @Test
+    public void testGenerateSqlReusesTemplateOnlyForSameShape() {
+        // given
+        Database database = new MSSQLDatabase();
+        UpdateGenerator generator = new UpdateGenerator();
+
+        // when
+        Sql[] first = generator.generateSql(new UpdateStatement(null, null, "person")
+                .addNewColumnValue("name", "a"), database, null);
+        Sql[] second = generator.generateSql(new UpdateStatement(null, null, "person")
+                .addNewColumnValue("name", "b"), database, null);
+        Sql[] otherColumns = generator.generateSql(new UpdateStatement(null, null, "person")
+                .addNewColumnValue("age", 3), database, null);
+        database.setObjectQuotingStrategy(ObjectQuotingStrategy.QUOTE_ALL_OBJECTS);
+        Sql[] quoted = generator.generateSql(new UpdateStatement(null, null, "person")
+                .addNewColumnValue("name", "d"), database, null);
+
+        // then
+        assertEquals("UPDATE person SET name = 'a'", first[0].toSql());
+        assertEquals("UPDATE person SET name = 'b'", second[0].toSql());
+        assertEquals("UPDATE person SET age = 3", otherColumns[0].toSql());
+        assertEquals("UPDATE [person] SET [name] = 'd'", quoted[0].toSql());
+    }
+
+    @Test
+    public void testGenerateSqlDoesNotReuseTemplateAfterReservedWordsChange() {
+        // given
+        MSSQLDatabase database = new MSSQLDatabase();
+        UpdateGenerator generator = new UpdateGenerator();
+
+        // when
+        Sql[] before = generator.generateSql(new UpdateStatement(null, null, "person")
+                .addNewColumnValue("nickname", "a"), database, null);
+        database.addReservedWords(Collections.singletonList("NICKNAME"));
+        Sql[] after = generator.generateSql(new UpdateStatement(null, null, "person")
+                .addNewColumnValue("nickname", "b"), database, null);
+
+        // then
+        assertEquals("UPDATE person SET nickname = 'a'", before[0].toSql());
+        assertEquals("UPDATE person SET [nickname] = 'b'", after[0].toSql());
+    }
+
 ////    @Test
 ////    public void addNewColumnValue_nullValue() throws Exception {
 ////        new DatabaseTestTemplate().testOnAllDatabases(new DatabaseTest() {